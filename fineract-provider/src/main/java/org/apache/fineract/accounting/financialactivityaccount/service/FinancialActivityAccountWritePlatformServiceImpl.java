@@ -31,6 +31,7 @@ import org.apache.fineract.accounting.financialactivityaccount.exception.Financi
 import org.apache.fineract.accounting.financialactivityaccount.serialization.FinancialActivityAccountDataValidator;
 import org.apache.fineract.accounting.glaccount.domain.GLAccount;
 import org.apache.fineract.accounting.glaccount.domain.GLAccountRepositoryWrapper;
+import org.apache.fineract.accounting.producttoaccountmapping.service.GLAccountMappingResolver;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
@@ -49,16 +50,18 @@ public class FinancialActivityAccountWritePlatformServiceImpl implements Financi
     private final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository;
     private final FinancialActivityAccountDataValidator fromApiJsonDeserializer;
     private final GLAccountRepositoryWrapper glAccountRepositoryWrapper;
+    private final GLAccountMappingResolver glAccountMappingResolver;
     private static final Logger LOG = LoggerFactory.getLogger(FinancialActivityAccountWritePlatformServiceImpl.class);
 
     @Autowired
     public FinancialActivityAccountWritePlatformServiceImpl(
             final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository,
             final FinancialActivityAccountDataValidator fromApiJsonDeserializer,
-            final GLAccountRepositoryWrapper glAccountRepositoryWrapper) {
+            final GLAccountRepositoryWrapper glAccountRepositoryWrapper, final GLAccountMappingResolver glAccountMappingResolver) {
         this.financialActivityAccountRepository = financialActivityAccountRepository;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
         this.glAccountRepositoryWrapper = glAccountRepositoryWrapper;
+        this.glAccountMappingResolver = glAccountMappingResolver;
     }
 
     @Override
@@ -75,6 +78,7 @@ public class FinancialActivityAccountWritePlatformServiceImpl implements Financi
 
             validateFinancialActivityAndAccountMapping(financialActivityAccount);
             this.financialActivityAccountRepository.save(financialActivityAccount);
+            this.glAccountMappingResolver.invalidate();
             return new CommandProcessingResultBuilder() //
                     .withCommandId(command.commandId()) //
                     .withEntityId(financialActivityAccount.getId()) //
@@ -123,6 +127,7 @@ public class FinancialActivityAccountWritePlatformServiceImpl implements Financi
             if (!changes.isEmpty()) {
                 validateFinancialActivityAndAccountMapping(financialActivityAccount);
                 this.financialActivityAccountRepository.save(financialActivityAccount);
+                this.glAccountMappingResolver.invalidate();
             }
             return new CommandProcessingResultBuilder() //
                     .withCommandId(command.commandId()) //
@@ -144,6 +149,7 @@ public class FinancialActivityAccountWritePlatformServiceImpl implements Financi
         final FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
                 .findOneWithNotFoundDetection(financialActivityAccountId);
         this.financialActivityAccountRepository.delete(financialActivityAccount);
+        this.glAccountMappingResolver.invalidate();
         return new CommandProcessingResultBuilder() //
                 .withCommandId(command.commandId()) //
                 .withEntityId(financialActivityAccountId) //
@@ -35,8 +35,6 @@ import org.apache.fineract.accounting.common.AccountingConstants.CashAccountsFor
 import org.apache.fineract.accounting.common.AccountingConstants.CashAccountsForSavings;
 import org.apache.fineract.accounting.common.AccountingConstants.CashAccountsForShares;
 import org.apache.fineract.accounting.common.AccountingConstants.FinancialActivity;
-import org.apache.fineract.accounting.financialactivityaccount.domain.FinancialActivityAccount;
-import org.apache.fineract.accounting.financialactivityaccount.domain.FinancialActivityAccountRepositoryWrapper;
 import org.apache.fineract.accounting.glaccount.domain.GLAccount;
 import org.apache.fineract.accounting.glaccount.domain.GLAccountRepositoryWrapper;
 import org.apache.fineract.accounting.journalentry.data.ChargePaymentDTO;
@@ -50,14 +48,12 @@ import org.apache.fineract.accounting.journalentry.data.SharesDTO;
 import org.apache.fineract.accounting.journalentry.data.SharesTransactionDTO;
 import org.apache.fineract.accounting.journalentry.data.TaxPaymentDTO;
 import org.apache.fineract.accounting.journalentry.domain.JournalEntry;
-import org.apache.fineract.accounting.journalentry.domain.JournalEntryRepository;
 import org.apache.fineract.accounting.journalentry.domain.JournalEntryType;
 import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException;
 import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException.GlJournalEntryInvalidReason;
 import org.apache.fineract.accounting.producttoaccountmapping.domain.PortfolioProductType;
-import org.apache.fineract.accounting.producttoaccountmapping.domain.ProductToGLAccountMapping;
-import org.apache.fineract.accounting.producttoaccountmapping.domain.ProductToGLAccountMappingRepository;
 import org.apache.fineract.accounting.producttoaccountmapping.exception.ProductToGLAccountMappingNotFoundException;
+import org.apache.fineract.accounting.producttoaccountmapping.service.GLAccountMappingResolver;
 import org.apache.fineract.infrastructure.core.data.EnumOptionData;
 import org.apache.fineract.infrastructure.core.exception.PlatformDataIntegrityException;
 import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
@@ -92,9 +88,8 @@ public class AccountingProcessorHelper {
     public static final String CLIENT_TRANSACTION_IDENTIFIER = "C";
     public static final String PROVISIONING_TRANSACTION_IDENTIFIER = "P";
     public static final String SHARE_TRANSACTION_IDENTIFIER = "SH";
-    private final JournalEntryRepository glJournalEntryRepository;
-    private final ProductToGLAccountMappingRepository accountMappingRepository;
-    private final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository;
+    private final JournalEntryAccumulator journalEntryAccumulator;
+    private final GLAccountMappingResolver glAccountMappingResolver;
     private final GLClosureRepository closureRepository;
     private final GLAccountRepositoryWrapper accountRepositoryWrapper;
     private final OfficeRepositoryWrapper officeRepositoryWrapper;
@@ -108,23 +103,21 @@ public class AccountingProcessorHelper {
     private static final Logger LOG = LoggerFactory.getLogger(AccountingProcessorHelper.class);
 
     @Autowired
-    public AccountingProcessorHelper(final JournalEntryRepository glJournalEntryRepository,
-            final ProductToGLAccountMappingRepository accountMappingRepository, final GLClosureRepository closureRepository,
+    public AccountingProcessorHelper(final JournalEntryAccumulator journalEntryAccumulator,
+            final GLAccountMappingResolver glAccountMappingResolver, final GLClosureRepository closureRepository,
             final OfficeRepositoryWrapper officeRepositoryWrapper, final LoanTransactionRepository loanTransactionRepository,
             final SavingsAccountTransactionRepository savingsAccountTransactionRepository,
-            final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository,
             final AccountTransfersReadPlatformService accountTransfersReadPlatformService,
             final GLAccountRepositoryWrapper accountRepositoryWrapper,
             final ClientTransactionRepositoryWrapper clientTransactionRepositoryWrapper,
             final ChargeRepositoryWrapper chargeRepositoryWrapper, final RoutingDataSource dataSource) {
-        this.glJournalEntryRepository = glJournalEntryRepository;
+        this.journalEntryAccumulator = journalEntryAccumulator;
         this.dataSource = dataSource;
-        this.accountMappingRepository = accountMappingRepository;
+        this.glAccountMappingResolver = glAccountMappingResolver;
         this.closureRepository = closureRepository;
         this.officeRepositoryWrapper = officeRepositoryWrapper;
         this.loanTransactionRepository = loanTransactionRepository;
         this.savingsAccountTransactionRepository = savingsAccountTransactionRepository;
-        this.financialActivityAccountRepository = financialActivityAccountRepository;
         this.accountTransfersReadPlatformService = accountTransfersReadPlatformService;
         this.accountRepositoryWrapper = accountRepositoryWrapper;
         this.clientTransactionRepository = clientTransactionRepositoryWrapper;
@@ -849,7 +842,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.CLIENT.getValue(), clientId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     private void createCreditJournalEntryForSavings(final Office office, final String currencyCode, final GLAccount account,
@@ -871,7 +864,7 @@ public class AccountingProcessorHelper {
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.SAVING.getValue(), savingsId,
                 null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
 
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     private void createCreditJournalEntryForLoan(final Office office, final String currencyCode, final GLAccount account, final Long loanId,
@@ -891,7 +884,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.LOAN.getValue(), loanId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     public void createProvisioningDebitJournalEntry(Date transactionDate, Long provisioningentryId, Office office, String currencyCode,
@@ -906,7 +899,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.PROVISIONING.getValue(),
                 provisioningentryId, null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     public void createProvisioningCreditJournalEntry(Date transactionDate, Long provisioningentryId, Office office, String currencyCode,
@@ -921,7 +914,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.PROVISIONING.getValue(),
                 provisioningentryId, null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     private void createDebitJournalEntryForLoan(final Office office, final String currencyCode, final GLAccount account, final Long loanId,
@@ -941,7 +934,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.LOAN.getValue(), loanId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     private void createDebitJournalEntryForSavings(final Office office, final String currencyCode, final GLAccount account,
@@ -962,7 +955,7 @@ public class AccountingProcessorHelper {
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.SAVING.getValue(), savingsId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
 
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     private void createDebitJournalEntryForClientPayments(final Office office, final String currencyCode, final GLAccount account,
@@ -981,7 +974,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.CLIENT.getValue(), clientId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     public void createJournalEntriesForShares(final Office office, final String currencyCode, final int accountTypeToDebitId,
@@ -1098,7 +1091,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.SHARES.getValue(), shareAccountId,
                 null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.save(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     private void createCreditJournalEntryForShares(final Office office, final String currencyCode, final GLAccount account,
@@ -1117,44 +1110,33 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.SHARES.getValue(), shareAccountId,
                 null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.save(journalEntry);
+        this.journalEntryAccumulator.add(journalEntry);
     }
 
     public GLAccount getLinkedGLAccountForLoanProduct(final Long loanProductId, final int accountMappingTypeId, final Long paymentTypeId) {
-        GLAccount glAccount = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
-            FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
-                    .findByFinancialActivityTypeWithNotFoundDetection(accountMappingTypeId);
-            glAccount = financialActivityAccount.getGlAccount();
-        } else {
-            ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(loanProductId,
-                    PortfolioProductType.LOAN.getValue(), accountMappingTypeId);
-
-            /****
-             * Get more specific mapping for FUND source accounts (based on payment channels). Note that fund source
-             * placeholder ID would be same for both cash and accrual accounts
-             ***/
-            if (accountMappingTypeId == CashAccountsForLoan.FUND_SOURCE.getValue()) {
-                final ProductToGLAccountMapping paymentChannelSpecificAccountMapping = this.accountMappingRepository
-                        .findByProductIdAndProductTypeAndFinancialAccountTypeAndPaymentTypeId(loanProductId,
-                                PortfolioProductType.LOAN.getValue(), accountMappingTypeId, paymentTypeId);
-                if (paymentChannelSpecificAccountMapping != null) {
-                    accountMapping = paymentChannelSpecificAccountMapping;
-                }
-            }
-
-            if (accountMapping == null) {
-                throw new ProductToGLAccountMappingNotFoundException(PortfolioProductType.LOAN, loanProductId,
-                        AccrualAccountsForLoan.OVERPAYMENT.toString());
-            }
-            glAccount = accountMapping.getGlAccount();
+            return this.glAccountMappingResolver.findFinancialActivityAccount(accountMappingTypeId);
+        }
+        GLAccount glAccount = null;
+        /****
+         * Get more specific mapping for FUND source accounts (based on payment channels). Note that fund source
+         * placeholder ID would be same for both cash and accrual accounts
+         ***/
+        if (accountMappingTypeId == CashAccountsForLoan.FUND_SOURCE.getValue()) {
+            glAccount = this.glAccountMappingResolver.findPaymentTypeAccount(PortfolioProductType.LOAN, loanProductId, accountMappingTypeId,
+                    paymentTypeId);
+        }
+        if (glAccount == null) {
+            glAccount = this.glAccountMappingResolver.findProductAccount(PortfolioProductType.LOAN, loanProductId, accountMappingTypeId);
+        }
+        if (glAccount == null) {
+            throw new ProductToGLAccountMappingNotFoundException(PortfolioProductType.LOAN, loanProductId,
+                    AccrualAccountsForLoan.OVERPAYMENT.toString());
         }
         return glAccount;
     }
 
     private GLAccount getLinkedGLAccountForLoanCharges(final Long loanProductId, final int accountMappingTypeId, final Long chargeId) {
-        ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(loanProductId,
-                PortfolioProductType.LOAN.getValue(), accountMappingTypeId);
         /*****
          * Get more specific mappings for Charges and penalties (based on the actual charge /penalty coupled with the
          * loan product). Note the income from fees and income from penalties placeholder ID would be the same for both
@@ -1164,21 +1146,17 @@ public class AccountingProcessorHelper {
         // Vishwas TODO: remove this condition as it should always be true
         if (accountMappingTypeId == CashAccountsForLoan.INCOME_FROM_FEES.getValue()
                 || accountMappingTypeId == CashAccountsForLoan.INCOME_FROM_PENALTIES.getValue()) {
-            final ProductToGLAccountMapping chargeSpecificIncomeAccountMapping = this.accountMappingRepository
-                    .findProductIdAndProductTypeAndFinancialAccountTypeAndChargeId(loanProductId, PortfolioProductType.LOAN.getValue(),
-                            accountMappingTypeId, chargeId);
-            if (chargeSpecificIncomeAccountMapping != null) {
-                accountMapping = chargeSpecificIncomeAccountMapping;
+            final GLAccount chargeSpecificIncomeAccount = this.glAccountMappingResolver.findChargeAccount(PortfolioProductType.LOAN,
+                    loanProductId, accountMappingTypeId, chargeId);
+            if (chargeSpecificIncomeAccount != null) {
+                return chargeSpecificIncomeAccount;
             }
         }
-        return accountMapping.getGlAccount();
+        return this.glAccountMappingResolver.findProductAccount(PortfolioProductType.LOAN, loanProductId, accountMappingTypeId);
     }
 
     private GLAccount getLinkedGLAccountForSavingsCharges(final Long savingsProductId, final int accountMappingTypeId,
             final Long chargeId) {
-
-        ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(savingsProductId,
-                PortfolioProductType.SAVING.getValue(), accountMappingTypeId);
         /*****
          * Get more specific mappings for Charges and penalties (based on the actual charge /penalty coupled with the
          * loan product). Note the income from fees and income from penalties placeholder ID would be the same for both
@@ -1193,85 +1171,63 @@ public class AccountingProcessorHelper {
             if (glAccount != null) {
                 return glAccount;
             }
-            final ProductToGLAccountMapping chargeSpecificIncomeAccountMapping = this.accountMappingRepository
-                    .findProductIdAndProductTypeAndFinancialAccountTypeAndChargeId(savingsProductId, PortfolioProductType.SAVING.getValue(),
-                            accountMappingTypeId, chargeId);
-            if (chargeSpecificIncomeAccountMapping != null) {
-
-                accountMapping = chargeSpecificIncomeAccountMapping;
+            final GLAccount chargeSpecificIncomeAccount = this.glAccountMappingResolver.findChargeAccount(PortfolioProductType.SAVING,
+                    savingsProductId, accountMappingTypeId, chargeId);
+            if (chargeSpecificIncomeAccount != null) {
+                return chargeSpecificIncomeAccount;
             }
         }
 
-        return accountMapping.getGlAccount();
+        return this.glAccountMappingResolver.findProductAccount(PortfolioProductType.SAVING, savingsProductId, accountMappingTypeId);
     }
 
     private GLAccount getLinkedGLAccountForSavingsProduct(final Long savingsProductId, final int accountMappingTypeId,
             final Long paymentTypeId) {
-        GLAccount glAccount = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
-            FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
-                    .findByFinancialActivityTypeWithNotFoundDetection(accountMappingTypeId);
-            glAccount = financialActivityAccount.getGlAccount();
-        } else {
-            ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(savingsProductId,
-                    PortfolioProductType.SAVING.getValue(), accountMappingTypeId);
-            /****
-             * Get more specific mapping for FUND source accounts (based on payment channels). Note that fund source
-             * placeholder ID would be same for both cash and accrual accounts
-             ***/
-            if (accountMappingTypeId == CashAccountsForSavings.SAVINGS_REFERENCE.getValue()) {
-                final ProductToGLAccountMapping paymentChannelSpecificAccountMapping = this.accountMappingRepository
-                        .findByProductIdAndProductTypeAndFinancialAccountTypeAndPaymentTypeId(savingsProductId,
-                                PortfolioProductType.SAVING.getValue(), accountMappingTypeId, paymentTypeId);
-                if (paymentChannelSpecificAccountMapping != null) {
-                    accountMapping = paymentChannelSpecificAccountMapping;
-                }
+            return this.glAccountMappingResolver.findFinancialActivityAccount(accountMappingTypeId);
+        }
+        /****
+         * Get more specific mapping for FUND source accounts (based on payment channels). Note that fund source
+         * placeholder ID would be same for both cash and accrual accounts
+         ***/
+        if (accountMappingTypeId == CashAccountsForSavings.SAVINGS_REFERENCE.getValue()) {
+            final GLAccount paymentChannelSpecificAccount = this.glAccountMappingResolver
+                    .findPaymentTypeAccount(PortfolioProductType.SAVING, savingsProductId, accountMappingTypeId, paymentTypeId);
+            if (paymentChannelSpecificAccount != null) {
+                return paymentChannelSpecificAccount;
             }
-            glAccount = accountMapping.getGlAccount();
         }
-        return glAccount;
+        return this.glAccountMappingResolver.findProductAccount(PortfolioProductType.SAVING, savingsProductId, accountMappingTypeId);
     }
 
     private GLAccount getLinkedGLAccountForShareProduct(final Long shareProductId, final int accountMappingTypeId,
             final Long paymentTypeId) {
-        GLAccount glAccount = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
-            FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
-                    .findByFinancialActivityTypeWithNotFoundDetection(accountMappingTypeId);
-            glAccount = financialActivityAccount.getGlAccount();
-        } else {
-            ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(shareProductId,
-                    PortfolioProductType.SHARES.getValue(), accountMappingTypeId);
-
-            if (accountMappingTypeId == CashAccountsForShares.SHARES_REFERENCE.getValue()) {
-                final ProductToGLAccountMapping paymentChannelSpecificAccountMapping = this.accountMappingRepository
-                        .findByProductIdAndProductTypeAndFinancialAccountTypeAndPaymentTypeId(shareProductId,
-                                PortfolioProductType.SHARES.getValue(), accountMappingTypeId, paymentTypeId);
-                if (paymentChannelSpecificAccountMapping != null) {
-                    accountMapping = paymentChannelSpecificAccountMapping;
-                }
+            return this.glAccountMappingResolver.findFinancialActivityAccount(accountMappingTypeId);
+        }
+        if (accountMappingTypeId == CashAccountsForShares.SHARES_REFERENCE.getValue()) {
+            final GLAccount paymentChannelSpecificAccount = this.glAccountMappingResolver
+                    .findPaymentTypeAccount(PortfolioProductType.SHARES, shareProductId, accountMappingTypeId, paymentTypeId);
+            if (paymentChannelSpecificAccount != null) {
+                return paymentChannelSpecificAccount;
             }
-            glAccount = accountMapping.getGlAccount();
         }
-        return glAccount;
+        return this.glAccountMappingResolver.findProductAccount(PortfolioProductType.SHARES, shareProductId, accountMappingTypeId);
     }
 
     private GLAccount getLinkedGLAccountForShareCharges(final Long shareProductId, final int accountMappingTypeId, final Long chargeId) {
-        ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(shareProductId,
-                PortfolioProductType.SHARES.getValue(), accountMappingTypeId);
         /*****
          * Get more specific mappings for Charges and penalties (based on the actual charge /penalty coupled with the
          * loan product). Note the income from fees and income from penalties placeholder ID would be the same for both
          * cash and accrual based accounts
          *****/
 
-        final ProductToGLAccountMapping chargeSpecificIncomeAccountMapping = this.accountMappingRepository
-                .findProductIdAndProductTypeAndFinancialAccountTypeAndChargeId(shareProductId, PortfolioProductType.SHARES.getValue(),
-                        accountMappingTypeId, chargeId);
-        if (chargeSpecificIncomeAccountMapping != null) {
-            accountMapping = chargeSpecificIncomeAccountMapping;
+        final GLAccount chargeSpecificIncomeAccount = this.glAccountMappingResolver.findChargeAccount(PortfolioProductType.SHARES,
+                shareProductId, accountMappingTypeId, chargeId);
+        if (chargeSpecificIncomeAccount != null) {
+            return chargeSpecificIncomeAccount;
         }
-        return accountMapping.getGlAccount();
+        return this.glAccountMappingResolver.findProductAccount(PortfolioProductType.SHARES, shareProductId, accountMappingTypeId);
     }
 
     private boolean isOrganizationAccount(final int accountMappingTypeId) {
@@ -1320,8 +1276,8 @@ public class AccountingProcessorHelper {
 
     public void createDebitJournalEntryOrReversalForClientChargePayments(final Office office, final String currencyCode,
             final Long clientId, final Long transactionId, final Date transactionDate, final BigDecimal amount, final Boolean isReversal) {
-        final GLAccount account = financialActivityAccountRepository
-                .findByFinancialActivityTypeWithNotFoundDetection(FinancialActivity.ASSET_FUND_SOURCE.getValue()).getGlAccount();
+        final GLAccount account = this.glAccountMappingResolver
+                .findFinancialActivityAccount(FinancialActivity.ASSET_FUND_SOURCE.getValue());
         if (isReversal) {
             createCreditJournalEntryForClientPayments(office, currencyCode, account, clientId, transactionId, transactionDate, amount);
         } else {
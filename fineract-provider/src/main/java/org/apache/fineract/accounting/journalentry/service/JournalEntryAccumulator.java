@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.journalentry.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntry;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntryRepository;
+import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException;
+import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException.GlJournalEntryInvalidReason;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Collects the journal entry legs written during the current transaction. Legs are persisted without flushing, so
+ * OpenJPA writes them together at commit (or before the next JPQL query that needs them), and just before commit every
+ * journal transaction touched is checked for debits equal to credits; an imbalance rolls the transaction back with
+ * {@link GlJournalEntryInvalidReason#DEBIT_CREDIT_SUM_MISMATCH}. Setting
+ * {@code fineract.accounting.enforce-balanced-journal-entries} to false only logs it.
+ *
+ * The legs are written as one JDBC batch only with {@code fineract.jpa.pooled-ids.enabled}: with auto-increment keys
+ * OpenJPA has to read back the generated key of every insert and so sends them one by one, still in a single flush
+ * instead of one per leg. They are not inserted through plain JDBC instead, because reversals reference the new legs
+ * and need them managed. Plain JDBC reads of {@code acc_gl_journal_entry} do not see unflushed legs; none of them runs
+ * in a transaction that adds legs, and one that does must flush the entity manager first.
+ *
+ * Outside of a transaction each leg is flushed straight away, as before.
+ */
+@Component
+public class JournalEntryAccumulator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JournalEntryAccumulator.class);
+
+    private final JournalEntryRepository glJournalEntryRepository;
+    private final boolean enforceBalance;
+
+    @Autowired
+    public JournalEntryAccumulator(final JournalEntryRepository glJournalEntryRepository,
+            @Value("${fineract.accounting.enforce-balanced-journal-entries:true}") final boolean enforceBalance) {
+        this.glJournalEntryRepository = glJournalEntryRepository;
+        this.enforceBalance = enforceBalance;
+    }
+
+    public void add(final JournalEntry journalEntry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.glJournalEntryRepository.saveAndFlush(journalEntry);
+            return;
+        }
+        this.glJournalEntryRepository.save(journalEntry);
+        currentLegs().add(journalEntry);
+    }
+
+    /**
+     * Persists a change to an already written entry (e.g. marking it reversed) without forcing a flush.
+     */
+    public void update(final JournalEntry journalEntry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.glJournalEntryRepository.saveAndFlush(journalEntry);
+            return;
+        }
+        this.glJournalEntryRepository.save(journalEntry);
+    }
+
+    // the legs live on the synchronization rather than a bound resource so that a REQUIRES_NEW transaction, which
+    // suspends the outer synchronizations, gets its own list and is balanced on its own commit
+    private List<JournalEntry> currentLegs() {
+        for (final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof BalanceCheck) {
+                return ((BalanceCheck) synchronization).legs;
+            }
+        }
+        final BalanceCheck balanceCheck = new BalanceCheck(this.enforceBalance);
+        TransactionSynchronizationManager.registerSynchronization(balanceCheck);
+        return balanceCheck.legs;
+    }
+
+    private static final class BalanceCheck implements TransactionSynchronization {
+
+        private final List<JournalEntry> legs = new ArrayList<>();
+        private final boolean enforceBalance;
+
+        BalanceCheck(final boolean enforceBalance) {
+            this.enforceBalance = enforceBalance;
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            final Map<String, BigDecimal> balances = new HashMap<>();
+            for (final JournalEntry leg : this.legs) {
+                final BigDecimal signedAmount = leg.isDebitEntry() ? leg.getAmount() : leg.getAmount().negate();
+                balances.merge(leg.getTransactionId() + ":" + leg.getCurrencyCode(), signedAmount, BigDecimal::add);
+            }
+            for (final Map.Entry<String, BigDecimal> balance : balances.entrySet()) {
+                if (balance.getValue().compareTo(BigDecimal.ZERO) != 0) {
+                    if (this.enforceBalance) {
+                        throw new JournalEntryInvalidException(GlJournalEntryInvalidReason.DEBIT_CREDIT_SUM_MISMATCH, null, null, null);
+                    }
+                    LOG.warn("Journal entries of transaction {} do not balance, debits minus credits is {}", balance.getKey(),
+                            balance.getValue());
+                }
+            }
+        }
+    }
+}
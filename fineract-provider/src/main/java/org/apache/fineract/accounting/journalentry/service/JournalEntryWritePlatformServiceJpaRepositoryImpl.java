@@ -109,6 +109,7 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
     private final PaymentDetailWritePlatformService paymentDetailWritePlatformService;
     private final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepositoryWrapper;
     private final CashBasedAccountingProcessorForClientTransactions accountingProcessorForClientTransactions;
+    private final JournalEntryAccumulator journalEntryAccumulator;
 
     @Autowired
     public JournalEntryWritePlatformServiceJpaRepositoryImpl(final GLClosureRepository glClosureRepository,
@@ -122,7 +123,8 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
             final OrganisationCurrencyRepositoryWrapper organisationCurrencyRepository, final PlatformSecurityContext context,
             final PaymentDetailWritePlatformService paymentDetailWritePlatformService,
             final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepositoryWrapper,
-            final CashBasedAccountingProcessorForClientTransactions accountingProcessorForClientTransactions) {
+            final CashBasedAccountingProcessorForClientTransactions accountingProcessorForClientTransactions,
+            final JournalEntryAccumulator journalEntryAccumulator) {
         this.glClosureRepository = glClosureRepository;
         this.officeRepositoryWrapper = officeRepositoryWrapper;
         this.glJournalEntryRepository = glJournalEntryRepository;
@@ -139,6 +141,7 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
         this.paymentDetailWritePlatformService = paymentDetailWritePlatformService;
         this.financialActivityAccountRepositoryWrapper = financialActivityAccountRepositoryWrapper;
         this.accountingProcessorForClientTransactions = accountingProcessorForClientTransactions;
+        this.journalEntryAccumulator = journalEntryAccumulator;
     }
 
     @Transactional
@@ -379,11 +382,11 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
                         journalEntry.getClientTransaction(), journalEntry.getShareTransactionId());
             }
             // save the reversal entry
-            this.glJournalEntryRepository.saveAndFlush(reversalJournalEntry);
+            this.journalEntryAccumulator.add(reversalJournalEntry);
             journalEntry.setReversed(true);
             journalEntry.setReversalJournalEntry(reversalJournalEntry);
             // save the updated journal entry
-            this.glJournalEntryRepository.saveAndFlush(journalEntry);
+            this.journalEntryAccumulator.update(journalEntry);
         }
         return reversalTransactionId;
     }
@@ -412,11 +415,11 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
                         journalEntry.getShareTransactionId());
             }
             // save the reversal entry
-            this.glJournalEntryRepository.save(reversalJournalEntry);
+            this.journalEntryAccumulator.add(reversalJournalEntry);
             journalEntry.setReversalJournalEntry(reversalJournalEntry);
             journalEntry.setReversed(true);
             // save the updated journal entry
-            this.glJournalEntryRepository.save(journalEntry);
+            this.journalEntryAccumulator.update(journalEntry);
         }
         return reversalTransactionId;
 
@@ -580,11 +583,11 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
                             journalEntry.getShareTransactionId());
                 }
                 // save the reversal entry
-                this.glJournalEntryRepository.save(reversalJournalEntry);
+                this.journalEntryAccumulator.add(reversalJournalEntry);
                 journalEntry.setReversalJournalEntry(reversalJournalEntry);
                 journalEntry.setReversed(true);
                 // save the updated journal entry
-                this.glJournalEntryRepository.save(journalEntry);
+                this.journalEntryAccumulator.update(journalEntry);
             }
         }
     }
@@ -644,7 +647,7 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
             final JournalEntry glJournalEntry = JournalEntry.createNew(office, paymentDetail, glAccount, currencyCode, transactionId,
                     manualEntry, transactionDate, type, singleDebitOrCreditEntryCommand.getAmount(), comments, null, null, referenceNumber,
                     null, null, clientTransaction, shareTransactionId);
-            this.glJournalEntryRepository.saveAndFlush(glJournalEntry);
+            this.journalEntryAccumulator.add(glJournalEntry);
         }
     }
 
@@ -755,12 +758,12 @@ public class JournalEntryWritePlatformServiceJpaRepositoryImpl implements Journa
             final JournalEntry glJournalEntry = JournalEntry.createNew(office, null, glAccount, currencyCode, transactionId, manualEntry,
                     transactionDate, type, singleDebitOrCreditEntryCommand.getAmount(), comments, null, null, null, null, null,
                     clientTransaction, shareTransactionId);
-            this.glJournalEntryRepository.saveAndFlush(glJournalEntry);
+            this.journalEntryAccumulator.add(glJournalEntry);
 
             final JournalEntry contraEntry = JournalEntry.createNew(office, null, contraAccount, currencyCode, transactionId, manualEntry,
                     transactionDate, contraType, singleDebitOrCreditEntryCommand.getAmount(), comments, null, null, null, null, null,
                     clientTransaction, shareTransactionId);
-            this.glJournalEntryRepository.saveAndFlush(contraEntry);
+            this.journalEntryAccumulator.add(contraEntry);
         }
     }
 
@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.producttoaccountmapping.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.fineract.accounting.financialactivityaccount.exception.FinancialActivityAccountNotFoundException;
+import org.apache.fineract.accounting.glaccount.domain.GLAccount;
+import org.apache.fineract.accounting.glaccount.domain.GLAccountRepository;
+import org.apache.fineract.accounting.producttoaccountmapping.domain.PortfolioProductType;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Resolves the GL accounts used by the accounting processors from an immutable per-tenant snapshot of
+ * {@code acc_product_mapping} and {@code acc_gl_financial_activity_account}, so posting a journal entry leg no longer
+ * queries the mapping tables. Accounts are handed out as references of the current persistence context.
+ *
+ * The snapshot is dropped by {@link #invalidate()} whenever product or financial activity mappings change, and is
+ * reloaded once it is older than {@code fineract.accounting.mapping-cache-ttl-seconds} so that changes made on another
+ * node, or directly in the database, are picked up as well.
+ */
+@Component
+public class GLAccountMappingResolver {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GLAccountRepository glAccountRepository;
+    private final ConcurrentMap<String, Mappings> mappingsByTenant = new ConcurrentHashMap<>();
+    private final long timeToLiveMillis;
+
+    @Autowired
+    public GLAccountMappingResolver(final RoutingDataSource dataSource, final GLAccountRepository glAccountRepository,
+            @Value("${fineract.accounting.mapping-cache-ttl-seconds:300}") final long timeToLiveSeconds) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.glAccountRepository = glAccountRepository;
+        this.timeToLiveMillis = TimeUnit.SECONDS.toMillis(timeToLiveSeconds);
+    }
+
+    /**
+     * Account mapped to the product for the given financial account type, ignoring payment type and charge specific
+     * mappings; {@code null} when there is none.
+     */
+    public GLAccount findProductAccount(final PortfolioProductType productType, final Long productId, final int financialAccountType) {
+        return findMappedAccount(productType, productId, financialAccountType, null, null);
+    }
+
+    public GLAccount findPaymentTypeAccount(final PortfolioProductType productType, final Long productId, final int financialAccountType,
+            final Long paymentTypeId) {
+        return findMappedAccount(productType, productId, financialAccountType, paymentTypeId, null);
+    }
+
+    public GLAccount findChargeAccount(final PortfolioProductType productType, final Long productId, final int financialAccountType,
+            final Long chargeId) {
+        return findMappedAccount(productType, productId, financialAccountType, null, chargeId);
+    }
+
+    public GLAccount findFinancialActivityAccount(final int financialActivityType) {
+        final Long accountId = mappings().financialActivityAccounts.get(financialActivityType);
+        if (accountId == null) {
+            throw new FinancialActivityAccountNotFoundException(financialActivityType);
+        }
+        return toAccount(accountId);
+    }
+
+    /**
+     * Drops the current tenant's snapshot, and again once the surrounding transaction completes so that a reload
+     * racing with the change cannot keep the old mappings.
+     */
+    public void invalidate() {
+        final String tenantKey = tenantKey();
+        this.mappingsByTenant.remove(tenantKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    GLAccountMappingResolver.this.mappingsByTenant.remove(tenantKey);
+                }
+            });
+        }
+    }
+
+    private GLAccount findMappedAccount(final PortfolioProductType productType, final Long productId, final int financialAccountType,
+            final Long paymentTypeId, final Long chargeId) {
+        final MappingKey key = new MappingKey(productType.getValue(), productId, financialAccountType, paymentTypeId, chargeId);
+        return toAccount(mappings().productAccounts.get(key));
+    }
+
+    private GLAccount toAccount(final Long accountId) {
+        return accountId == null ? null : this.glAccountRepository.getById(accountId);
+    }
+
+    private Mappings mappings() {
+        final long now = System.currentTimeMillis();
+        return this.mappingsByTenant.compute(tenantKey(),
+                (tenant, mappings) -> mappings == null || mappings.expiresAt <= now ? loadMappings(now + this.timeToLiveMillis) : mappings);
+    }
+
+    private Mappings loadMappings(final long expiresAt) {
+        final Map<MappingKey, Long> productAccounts = new HashMap<>();
+        final List<Map<String, Object>> productMappings = this.jdbcTemplate
+                .queryForList("select product_type, product_id, financial_account_type, payment_type, charge_id, gl_account_id"
+                        + " from acc_product_mapping where gl_account_id is not null");
+        for (final Map<String, Object> row : productMappings) {
+            productAccounts.put(new MappingKey(toInteger(row.get("product_type")), toLong(row.get("product_id")),
+                    toInteger(row.get("financial_account_type")), toLong(row.get("payment_type")), toLong(row.get("charge_id"))),
+                    toLong(row.get("gl_account_id")));
+        }
+
+        final Map<Integer, Long> financialActivityAccounts = new HashMap<>();
+        final List<Map<String, Object>> activityMappings = this.jdbcTemplate
+                .queryForList("select financial_activity_type, gl_account_id from acc_gl_financial_activity_account");
+        for (final Map<String, Object> row : activityMappings) {
+            financialActivityAccounts.put(toInteger(row.get("financial_activity_type")), toLong(row.get("gl_account_id")));
+        }
+        return new Mappings(productAccounts, financialActivityAccounts, expiresAt);
+    }
+
+    private static String tenantKey() {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        return tenant == null ? "" : tenant.getTenantIdentifier();
+    }
+
+    private static Long toLong(final Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    private static Integer toInteger(final Object value) {
+        return value == null ? null : ((Number) value).intValue();
+    }
+
+    private static final class Mappings {
+
+        private final Map<MappingKey, Long> productAccounts;
+        private final Map<Integer, Long> financialActivityAccounts;
+        private final long expiresAt;
+
+        Mappings(final Map<MappingKey, Long> productAccounts, final Map<Integer, Long> financialActivityAccounts, final long expiresAt) {
+            this.productAccounts = Map.copyOf(productAccounts);
+            this.financialActivityAccounts = Map.copyOf(financialActivityAccounts);
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class MappingKey {
+
+        private final Integer productType;
+        private final Long productId;
+        private final Integer financialAccountType;
+        private final Long paymentTypeId;
+        private final Long chargeId;
+
+        MappingKey(final Integer productType, final Long productId, final Integer financialAccountType, final Long paymentTypeId,
+                final Long chargeId) {
+            this.productType = productType;
+            this.productId = productId;
+            this.financialAccountType = financialAccountType;
+            this.paymentTypeId = paymentTypeId;
+            this.chargeId = chargeId;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof MappingKey)) {
+                return false;
+            }
+            final MappingKey other = (MappingKey) obj;
+            return Objects.equals(this.productType, other.productType) && Objects.equals(this.productId, other.productId)
+                    && Objects.equals(this.financialAccountType, other.financialAccountType)
+                    && Objects.equals(this.paymentTypeId, other.paymentTypeId) && Objects.equals(this.chargeId, other.chargeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.productType, this.productId, this.financialAccountType, this.paymentTypeId, this.chargeId);
+        }
+    }
+}
@@ -49,23 +49,27 @@ public class ProductToGLAccountMappingWritePlatformServiceImpl implements Produc
     private final LoanProductToGLAccountMappingHelper loanProductToGLAccountMappingHelper;
     private final SavingsProductToGLAccountMappingHelper savingsProductToGLAccountMappingHelper;
     private final ShareProductToGLAccountMappingHelper shareProductToGLAccountMappingHelper;
+    private final GLAccountMappingResolver glAccountMappingResolver;
 
     @Autowired
     public ProductToGLAccountMappingWritePlatformServiceImpl(final FromJsonHelper fromApiJsonHelper,
             final ProductToGLAccountMappingFromApiJsonDeserializer deserializer,
             final LoanProductToGLAccountMappingHelper loanProductToGLAccountMappingHelper,
             final SavingsProductToGLAccountMappingHelper savingsProductToGLAccountMappingHelper,
-            final ShareProductToGLAccountMappingHelper shareProductToGLAccountMappingHelper) {
+            final ShareProductToGLAccountMappingHelper shareProductToGLAccountMappingHelper,
+            final GLAccountMappingResolver glAccountMappingResolver) {
         this.fromApiJsonHelper = fromApiJsonHelper;
         this.deserializer = deserializer;
         this.loanProductToGLAccountMappingHelper = loanProductToGLAccountMappingHelper;
         this.savingsProductToGLAccountMappingHelper = savingsProductToGLAccountMappingHelper;
         this.shareProductToGLAccountMappingHelper = shareProductToGLAccountMappingHelper;
+        this.glAccountMappingResolver = glAccountMappingResolver;
     }
 
     @Override
     @Transactional
     public void createLoanProductToGLAccountMapping(final Long loanProductId, final JsonCommand command) {
+        this.glAccountMappingResolver.invalidate();
         final JsonElement element = this.fromApiJsonHelper.parse(command.json());
         final Integer accountingRuleTypeId = this.fromApiJsonHelper.extractIntegerNamed("accountingRule", element, Locale.getDefault());
         final AccountingRuleType accountingRuleType = AccountingRuleType.fromInt(accountingRuleTypeId);
@@ -167,6 +171,7 @@ public class ProductToGLAccountMappingWritePlatformServiceImpl implements Produc
     @Transactional
     public void createSavingProductToGLAccountMapping(final Long savingProductId, final JsonCommand command,
             DepositAccountType accountType) {
+        this.glAccountMappingResolver.invalidate();
         final JsonElement element = this.fromApiJsonHelper.parse(command.json());
         final Integer accountingRuleTypeId = this.fromApiJsonHelper.extractIntegerNamed(accountingRuleParamName, element,
                 Locale.getDefault());
@@ -242,6 +247,7 @@ public class ProductToGLAccountMappingWritePlatformServiceImpl implements Produc
     @Override
     @Transactional
     public void createShareProductToGLAccountMapping(final Long shareProductId, final JsonCommand command) {
+        this.glAccountMappingResolver.invalidate();
 
         this.deserializer.validateForShareProductCreate(command.json());
         final JsonElement element = this.fromApiJsonHelper.parse(command.json());
@@ -287,6 +293,7 @@ public class ProductToGLAccountMappingWritePlatformServiceImpl implements Produc
     @Transactional
     public Map<String, Object> updateLoanProductToGLAccountMapping(final Long loanProductId, final JsonCommand command,
             final boolean accountingRuleChanged, final int accountingRuleTypeId) {
+        this.glAccountMappingResolver.invalidate();
         /***
          * Variable tracks all accounting mapping properties that have been updated
          ***/
@@ -317,6 +324,7 @@ public class ProductToGLAccountMappingWritePlatformServiceImpl implements Produc
     @Override
     public Map<String, Object> updateSavingsProductToGLAccountMapping(final Long savingsProductId, final JsonCommand command,
             final boolean accountingRuleChanged, final int accountingRuleTypeId, final DepositAccountType accountType) {
+        this.glAccountMappingResolver.invalidate();
         /***
          * Variable tracks all accounting mapping properties that have been updated
          ***/
@@ -348,6 +356,7 @@ public class ProductToGLAccountMappingWritePlatformServiceImpl implements Produc
     @Override
     public Map<String, Object> updateShareProductToGLAccountMapping(final Long shareProductId, final JsonCommand command,
             final boolean accountingRuleChanged, final int accountingRuleTypeId) {
+        this.glAccountMappingResolver.invalidate();
         /***
          * Variable tracks all accounting mapping properties that have been updated
          ***/
@@ -28,7 +28,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
@@ -40,15 +43,19 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.UriInfo;
+import org.apache.fineract.accounting.journalentry.api.DateParam;
 import org.apache.fineract.accounting.provisioning.constant.ProvisioningEntriesApiConstants;
 import org.apache.fineract.accounting.provisioning.data.LoanProductProvisioningEntryData;
 import org.apache.fineract.accounting.provisioning.data.ProvisioningEntryData;
 import org.apache.fineract.accounting.provisioning.service.ProvisioningEntriesReadPlatformService;
+import org.apache.fineract.accounting.provisioning.service.ProvisioningEntriesWritePlatformService;
 import org.apache.fineract.commands.domain.CommandWrapper;
 import org.apache.fineract.commands.service.CommandWrapperBuilder;
 import org.apache.fineract.commands.service.PortfolioCommandSourceWritePlatformService;
 import org.apache.fineract.infrastructure.core.api.ApiRequestParameterHelper;
+import org.apache.fineract.infrastructure.core.data.ApiParameterError;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
+import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidationException;
 import org.apache.fineract.infrastructure.core.exception.UnrecognizedQueryParamException;
 import org.apache.fineract.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import org.apache.fineract.infrastructure.core.serialization.DefaultToApiJsonSerializer;
@@ -72,6 +79,7 @@ public class ProvisioningEntriesApiResource {
     private final DefaultToApiJsonSerializer<ProvisioningEntryData> toApiJsonSerializer;
     private final DefaultToApiJsonSerializer<Object> entriesApiJsonSerializer;
     private final ProvisioningEntriesReadPlatformService provisioningEntriesReadPlatformService;
+    private final ProvisioningEntriesWritePlatformService provisioningEntriesWritePlatformService;
     private final ApiRequestParameterHelper apiRequestParameterHelper;
     private static final Set<String> PROVISIONING_ENTRY_PARAMETERS = new HashSet<>(
             Arrays.asList(ProvisioningEntriesApiConstants.PROVISIONINGENTRY_PARAM, ProvisioningEntriesApiConstants.ENTRIES_PARAM));
@@ -83,13 +91,15 @@ public class ProvisioningEntriesApiResource {
             final PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService,
             final DefaultToApiJsonSerializer<ProvisioningEntryData> toApiJsonSerializer,
             final ProvisioningEntriesReadPlatformService provisioningEntriesReadPlatformService,
-            final ApiRequestParameterHelper apiRequestParameterHelper, final DefaultToApiJsonSerializer<Object> entriesApiJsonSerializer) {
+            final ApiRequestParameterHelper apiRequestParameterHelper, final DefaultToApiJsonSerializer<Object> entriesApiJsonSerializer,
+            final ProvisioningEntriesWritePlatformService provisioningEntriesWritePlatformService) {
         this.platformSecurityContext = platformSecurityContext;
         this.commandsSourceWritePlatformService = commandsSourceWritePlatformService;
         this.toApiJsonSerializer = toApiJsonSerializer;
         this.provisioningEntriesReadPlatformService = provisioningEntriesReadPlatformService;
         this.apiRequestParameterHelper = apiRequestParameterHelper;
         this.entriesApiJsonSerializer = entriesApiJsonSerializer;
+        this.provisioningEntriesWritePlatformService = provisioningEntriesWritePlatformService;
     }
 
     @POST
@@ -150,6 +160,28 @@ public class ProvisioningEntriesApiResource {
         return this.toApiJsonSerializer.serialize(settings, data, PROVISIONING_ENTRY_PARAMETERS);
     }
 
+    @GET
+    @Path("preview")
+    @Consumes({ MediaType.APPLICATION_JSON })
+    @Produces({ MediaType.APPLICATION_JSON })
+    @Operation(summary = "Preview Provisioning Entries", description = "Computes the provisioning entries for the given date without creating them or their journal entries.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "OK", content = @Content(array = @ArraySchema(schema = @Schema(implementation = LoanProductProvisioningEntryData.class)))) })
+    public String previewProvisioningEntries(@QueryParam("date") @Parameter(description = "date") final DateParam dateParam,
+            @QueryParam("dateFormat") @Parameter(description = "dateFormat") final String dateFormat,
+            @QueryParam("locale") @Parameter(description = "locale") final String locale, @Context final UriInfo uriInfo) {
+        this.platformSecurityContext.authenticatedUser().validateHasPermissionTo("CREATE_PROVISIONENTRIES");
+        if (dateParam == null) {
+            throw new PlatformApiDataValidationException(List.of(ApiParameterError.parameterError("validation.msg.parameter.is.mandatory",
+                    "The parameter `date` is mandatory.", ProvisioningEntriesApiConstants.JSON_DATE_PARAM)));
+        }
+        final Date date = dateParam.getDate(ProvisioningEntriesApiConstants.JSON_DATE_PARAM, dateFormat, locale);
+        final Collection<LoanProductProvisioningEntryData> entries = this.provisioningEntriesWritePlatformService
+                .previewProvisioningEntries(date);
+        final ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper.process(uriInfo.getQueryParameters());
+        return this.entriesApiJsonSerializer.serialize(settings, entries, PROVISIONING_ENTRY_PARAMETERS);
+    }
+
     @GET
     @Path("entries")
     @Consumes({ MediaType.APPLICATION_JSON })
@@ -26,6 +26,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import org.apache.fineract.accounting.glaccount.domain.GLAccount;
+import org.apache.fineract.accounting.provisioning.data.LoanProductProvisioningEntryData;
 import org.apache.fineract.infrastructure.core.domain.AbstractPersistableCustom;
 import org.apache.fineract.organisation.office.domain.Office;
 import org.apache.fineract.organisation.provisioning.domain.ProvisioningCategory;
@@ -115,6 +116,15 @@ public class LoanProductProvisioningEntry extends AbstractPersistableCustom {
         return this.expenseAccount;
     }
 
+    public LoanProductProvisioningEntryData toData() {
+        final Long historyId = this.entry == null ? null : this.entry.getId();
+        return new LoanProductProvisioningEntryData(historyId, this.office.getId(), this.office.getName(), this.currencyCode,
+                this.loanProduct.getId(), this.loanProduct.productName(), this.provisioningCategory.getId(),
+                this.provisioningCategory.getCategoryName(), this.overdueInDays, this.reservedAmount, this.liabilityAccount.getId(),
+                this.liabilityAccount.getGlCode(), this.liabilityAccount.getName(), this.expenseAccount.getId(),
+                this.expenseAccount.getGlCode(), this.expenseAccount.getName(), this.criteriaId);
+    }
+
     // TODO Note that this domain class does equals() & hashCode() on getId()
     // for @JoinColumn attributes, which not all other classes do...
 
@@ -23,19 +23,30 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.fineract.accounting.provisioning.data.LoanProductProvisioningEntryData;
 import org.apache.fineract.accounting.provisioning.data.ProvisioningEntryData;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.apache.fineract.infrastructure.core.service.PaginationHelper;
 import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -50,22 +61,112 @@ public class ProvisioningEntriesReadPlatformServiceImpl implements ProvisioningE
     private final PaginationHelper loanProductProvisioningEntryDataPaginationHelper;
     private final PaginationHelper provisioningEntryDataPaginationHelper;
     private final DatabaseSpecificSQLGenerator sqlGenerator;
+    private final int threads;
 
     @Autowired
     public ProvisioningEntriesReadPlatformServiceImpl(final RoutingDataSource dataSource, DatabaseSpecificSQLGenerator sqlGenerator,
-            PaginationHelper paginationHelper) {
+            PaginationHelper paginationHelper, @Value("${fineract.provisioning.threads:4}") final int threads) {
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.loanProductProvisioningEntryDataPaginationHelper = paginationHelper;
         this.provisioningEntryDataPaginationHelper = paginationHelper;
         this.sqlGenerator = sqlGenerator;
+        this.threads = Math.max(1, threads);
     }
 
     @Override
     public Collection<LoanProductProvisioningEntryData> retrieveLoanProductsProvisioningData(Date date) {
-        String formattedDate = new SimpleDateFormat("yyyy-MM-dd").format(date);
-        LoanProductProvisioningEntryMapper mapper = new LoanProductProvisioningEntryMapper(sqlGenerator);
+        final Map<String, Object> loanIds = this.jdbcTemplate
+                .queryForMap("select MIN(id) as minid, MAX(id) as maxid from m_loan where loan_status_id = 300");
+        if (loanIds.get("minid") == null) {
+            return new ArrayList<>();
+        }
+        final long minLoanId = ((Number) loanIds.get("minid")).longValue();
+        final long maxLoanId = ((Number) loanIds.get("maxid")).longValue();
+
+        // each worker aggregates the loans of one id range on the database, the partial sums are merged below
+        final String formattedDate = new SimpleDateFormat("yyyy-MM-dd").format(date);
+        final LoanProductProvisioningEntryMapper mapper = new LoanProductProvisioningEntryMapper(sqlGenerator);
         final String sql = mapper.schema();
-        return this.jdbcTemplate.query(sql, mapper, new Object[] { formattedDate, formattedDate, formattedDate });
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final List<long[]> ranges = splitIdRange(minLoanId, maxLoanId, workerCount(this.threads, tenant));
+        if (ranges.size() == 1) {
+            // on the connection of the caller, which already holds one of the tenant pool
+            return this.jdbcTemplate.query(sql, mapper, formattedDate, minLoanId, maxLoanId, formattedDate, formattedDate, minLoanId,
+                    maxLoanId);
+        }
+
+        final List<Callable<List<LoanProductProvisioningEntryData>>> aggregations = new ArrayList<>(ranges.size());
+        for (final long[] range : ranges) {
+            aggregations.add(() -> {
+                if (tenant != null) {
+                    ThreadLocalContextUtil.setTenant(tenant);
+                }
+                try {
+                    return this.jdbcTemplate.query(sql, mapper, formattedDate, range[0], range[1], formattedDate, formattedDate, range[0],
+                            range[1]);
+                } finally {
+                    ThreadLocalContextUtil.clearTenant();
+                }
+            });
+        }
+
+        final List<List<LoanProductProvisioningEntryData>> partials = new ArrayList<>(ranges.size());
+        final ExecutorService executor = Executors.newFixedThreadPool(aggregations.size());
+        try {
+            for (final Future<List<LoanProductProvisioningEntryData>> aggregation : executor.invokeAll(aggregations)) {
+                partials.add(aggregation.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return merge(partials);
+    }
+
+    /**
+     * Number of connections the aggregation may take from the tenant pool: at most the configured threads and half of the
+     * pool left next to the connection the caller usually holds, so that a provisioning run does not starve the other
+     * requests of the tenant.
+     */
+    static int workerCount(final int threads, final FineractPlatformTenant tenant) {
+        if (tenant == null || tenant.getConnection() == null) {
+            return threads;
+        }
+        return Math.max(1, Math.min(threads, (tenant.getConnection().getMaxActive() - 1) / 2));
+    }
+
+    /**
+     * Splits the ids from {@code minId} to {@code maxId} into at most {@code count} consecutive, non overlapping ranges of
+     * about the same size, each as {from, to} with both ends included.
+     */
+    static List<long[]> splitIdRange(final long minId, final long maxId, final int count) {
+        final int rangeCount = (int) Math.min(count, maxId - minId + 1);
+        final long rangeSize = (maxId - minId) / rangeCount + 1;
+        final List<long[]> ranges = new ArrayList<>(rangeCount);
+        for (long from = minId; from <= maxId; from += rangeSize) {
+            ranges.add(new long[] { from, Math.min(from + rangeSize - 1, maxId) });
+        }
+        return ranges;
+    }
+
+    /**
+     * Sums up the outstanding balances of the partial aggregations that have the same office, criteria, product, currency,
+     * days overdue, category, percentage and GL accounts.
+     */
+    static Collection<LoanProductProvisioningEntryData> merge(final List<List<LoanProductProvisioningEntryData>> partials) {
+        final Map<List<Object>, LoanProductProvisioningEntryData> entries = new LinkedHashMap<>();
+        for (final List<LoanProductProvisioningEntryData> partial : partials) {
+            for (final LoanProductProvisioningEntryData data : partial) {
+                entries.merge(Arrays.asList(data.getOfficeId(), data.getCriteriaId(), data.getProductId(), data.getCurrencyCode(),
+                        data.getOverdueInDays(), data.getCategoryId(), data.getPercentage(), data.getLiablityAccount(),
+                        data.getExpenseAccount()), data, LoanProductProvisioningEntryMapper::sum);
+            }
+        }
+        return entries.values();
     }
 
     private static final class LoanProductProvisioningEntryMapper implements RowMapper<LoanProductProvisioningEntryData> {
@@ -73,20 +174,36 @@ public class ProvisioningEntriesReadPlatformServiceImpl implements ProvisioningE
         private final StringBuilder sqlQuery;
 
         private LoanProductProvisioningEntryMapper(DatabaseSpecificSQLGenerator sqlGenerator) {
-            sqlQuery = new StringBuilder().append(
-                    "select (CASE WHEN loan.loan_type_enum=1 THEN mclient.office_id ELSE mgroup.office_id END) as office_id, loan.loan_type_enum, pcd.criteria_id as criteriaid, loan.product_id,loan.currency_code,")
-                    .append("GREATEST(" + sqlGenerator.dateDiff("?", "sch.duedate")
-                            + ", 0) as numberofdaysoverdue,sch.duedate, pcd.category_id, pcd.provision_percentage,")
-                    .append("loan.total_outstanding_derived as outstandingbalance, pcd.liability_account, pcd.expense_account from m_loan_repayment_schedule sch")
-                    .append(" LEFT JOIN m_loan loan on sch.loan_id = loan.id")
+            final String overdueDays = "GREATEST(" + sqlGenerator.dateDiff("?", "sch.duedate") + ", 0)";
+            sqlQuery = new StringBuilder()
+                    .append("select x.office_id, x.criteriaid, x.product_id, x.currency_code, x.numberofdaysoverdue, ")
+                    .append("x.category_id, x.provision_percentage, SUM(x.outstandingbalance) as outstandingbalance, ")
+                    .append("x.liability_account, x.expense_account from (")
+                    .append("select (CASE WHEN loan.loan_type_enum=1 THEN mclient.office_id ELSE mgroup.office_id END) as office_id, ")
+                    .append("pcd.criteria_id as criteriaid, loan.product_id, loan.currency_code, ").append(overdueDays)
+                    .append(" as numberofdaysoverdue, pcd.category_id, pcd.provision_percentage, ")
+                    .append("loan.total_outstanding_derived as outstandingbalance, pcd.liability_account, pcd.expense_account")
+                    .append(" from m_loan loan")
+                    .append(" JOIN (select sch1.loan_id, MIN(sch1.duedate) as duedate from m_loan_repayment_schedule sch1")
+                    .append(" where sch1.completed_derived=false and sch1.loan_id between ? and ? group by sch1.loan_id) sch")
+                    .append(" on sch.loan_id = loan.id")
                     .append(" JOIN m_loanproduct_provisioning_mapping lpm on lpm.product_id = loan.product_id")
                     .append(" JOIN m_provisioning_criteria_definition pcd on pcd.criteria_id = lpm.criteria_id and ")
-                    .append("(pcd.min_age <= GREATEST(" + sqlGenerator.dateDiff("?", "sch.duedate") + ",0) and GREATEST("
-                            + sqlGenerator.dateDiff("?", "sch.duedate") + ",0) <= pcd.max_age) and pcd.criteria_id is not null ")
+                    .append("(pcd.min_age <= ").append(overdueDays).append(" and ").append(overdueDays)
+                    .append(" <= pcd.max_age) and pcd.criteria_id is not null ")
                     .append("LEFT JOIN m_client mclient ON mclient.id = loan.client_id ")
                     .append("LEFT JOIN m_group mgroup ON mgroup.id = loan.group_id ")
-                    .append("where loan.loan_status_id=300 and sch.duedate = ")
-                    .append("(select MIN(sch1.duedate) from m_loan_repayment_schedule sch1 where sch1.loan_id=loan.id and sch1.completed_derived=false)");
+                    .append("where loan.loan_status_id=300 and loan.id between ? and ?) x ")
+                    .append("group by x.office_id, x.criteriaid, x.product_id, x.currency_code, x.numberofdaysoverdue, ")
+                    .append("x.category_id, x.provision_percentage, x.liability_account, x.expense_account");
+        }
+
+        private static LoanProductProvisioningEntryData sum(final LoanProductProvisioningEntryData first,
+                final LoanProductProvisioningEntryData second) {
+            return new LoanProductProvisioningEntryData(first.getHistoryId(), first.getOfficeId(), first.getCurrencyCode(),
+                    first.getProductId(), first.getCategoryId(), first.getOverdueInDays(), first.getPercentage(),
+                    first.getOutstandingBalance().add(second.getOutstandingBalance()), first.getLiablityAccount(),
+                    first.getExpenseAccount(), first.getCriteriaId());
         }
 
         @Override
@@ -18,6 +18,9 @@
  */
 package org.apache.fineract.accounting.provisioning.service;
 
+import java.util.Collection;
+import java.util.Date;
+import org.apache.fineract.accounting.provisioning.data.LoanProductProvisioningEntryData;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 
@@ -30,4 +33,10 @@ public interface ProvisioningEntriesWritePlatformService {
     CommandProcessingResult createProvisioningJournalEntries(Long provisioningEntryId, JsonCommand command);
 
     void generateLoanLossProvisioningAmount();
+
+    /**
+     * Computes the provisioning entries that would be created for {@code date} without persisting them or posting journal
+     * entries.
+     */
+    Collection<LoanProductProvisioningEntryData> previewProvisioningEntries(Date date);
 }
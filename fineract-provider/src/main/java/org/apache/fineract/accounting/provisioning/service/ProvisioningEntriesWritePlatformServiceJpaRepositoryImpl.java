@@ -21,6 +21,7 @@ package org.apache.fineract.accounting.provisioning.service;
 import com.google.gson.JsonObject;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
@@ -227,16 +228,34 @@ public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl implements
         return new CommandProcessingResultBuilder().withCommandId(command.commandId()).withEntityId(requestedEntry.getId()).build();
     }
 
+    @Override
+    public Collection<LoanProductProvisioningEntryData> previewProvisioningEntries(Date date) {
+        final ProvisioningEntry preview = new ProvisioningEntry(null, date, null, null, null);
+        final Collection<LoanProductProvisioningEntryData> entries = new ArrayList<>();
+        for (LoanProductProvisioningEntry entry : generateLoanProvisioningEntry(preview, date)) {
+            entries.add(entry.toData());
+        }
+        return entries;
+    }
+
     private Collection<LoanProductProvisioningEntry> generateLoanProvisioningEntry(ProvisioningEntry parent, Date date) {
         Collection<LoanProductProvisioningEntryData> entries = this.provisioningEntriesReadPlatformService
                 .retrieveLoanProductsProvisioningData(date);
+        // entries arrive aggregated per office, product, category and currency, so the referenced entities repeat a lot
+        Map<Long, LoanProduct> loanProducts = new HashMap<>();
+        Map<Long, Office> offices = new HashMap<>();
+        Map<Long, ProvisioningCategory> provisioningCategories = new HashMap<>();
+        Map<Long, GLAccount> glAccounts = new HashMap<>();
         Map<Integer, LoanProductProvisioningEntry> provisioningEntries = new HashMap<>();
         for (LoanProductProvisioningEntryData data : entries) {
-            LoanProduct loanProduct = this.loanProductRepository.findById(data.getProductId()).get();
-            Office office = this.officeRepositoryWrapper.findOneWithNotFoundDetection(data.getOfficeId());
-            ProvisioningCategory provisioningCategory = provisioningCategoryRepository.findById(data.getCategoryId()).get();
-            GLAccount liabilityAccount = glAccountRepository.findById(data.getLiablityAccount()).get();
-            GLAccount expenseAccount = glAccountRepository.findById(data.getExpenseAccount()).get();
+            LoanProduct loanProduct = loanProducts.computeIfAbsent(data.getProductId(),
+                    id -> this.loanProductRepository.findById(id).get());
+            Office office = offices.computeIfAbsent(data.getOfficeId(), this.officeRepositoryWrapper::findOneWithNotFoundDetection);
+            ProvisioningCategory provisioningCategory = provisioningCategories.computeIfAbsent(data.getCategoryId(),
+                    id -> provisioningCategoryRepository.findById(id).get());
+            GLAccount liabilityAccount = glAccounts.computeIfAbsent(data.getLiablityAccount(),
+                    id -> glAccountRepository.findById(id).get());
+            GLAccount expenseAccount = glAccounts.computeIfAbsent(data.getExpenseAccount(), id -> glAccountRepository.findById(id).get());
             MonetaryCurrency currency = loanProduct.getPrincipalAmount().getCurrency();
             Money money = Money.of(currency, data.getOutstandingBalance());
             Money amountToReserve = money.percentageOf(data.getPercentage(), MoneyHelper.getRoundingMode());
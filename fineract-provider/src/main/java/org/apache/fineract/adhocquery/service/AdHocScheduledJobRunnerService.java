@@ -18,7 +18,9 @@
  */
 package org.apache.fineract.adhocquery.service;
 
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+
 public interface AdHocScheduledJobRunnerService {
 
-    void generateClientSchedule();
+    void generateClientSchedule() throws JobExecutionException;
 }
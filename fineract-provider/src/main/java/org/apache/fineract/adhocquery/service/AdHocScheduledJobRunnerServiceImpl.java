@@ -21,41 +21,42 @@ package org.apache.fineract.adhocquery.service;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import org.apache.fineract.adhocquery.data.AdHocData;
 import org.apache.fineract.adhocquery.domain.ReportRunFrequency;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
-import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
 import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JdbcBulkWriter;
 import org.apache.fineract.infrastructure.jobs.service.JobName;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 @Service(value = "adHocScheduledJobRunnerService")
 public class AdHocScheduledJobRunnerServiceImpl implements AdHocScheduledJobRunnerService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AdHocScheduledJobRunnerServiceImpl.class);
     private final AdHocReadPlatformService adHocReadPlatformService;
-    private final JdbcTemplate jdbcTemplate;
+    private final JdbcBulkWriter jdbcBulkWriter;
 
     @Autowired
-    public AdHocScheduledJobRunnerServiceImpl(final RoutingDataSource dataSource, final AdHocReadPlatformService adHocReadPlatformService) {
-        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    public AdHocScheduledJobRunnerServiceImpl(final AdHocReadPlatformService adHocReadPlatformService,
+            final JdbcBulkWriter jdbcBulkWriter) {
         this.adHocReadPlatformService = adHocReadPlatformService;
-
+        this.jdbcBulkWriter = jdbcBulkWriter;
     }
 
-    @Transactional
     @Override
     @CronTarget(jobName = JobName.GENERATE_ADHOCCLIENT_SCEHDULE)
     @SuppressWarnings("UnnecessaryDefaultInEnumSwitch")
-    public void generateClientSchedule() {
+    public void generateClientSchedule() throws JobExecutionException {
+        final List<Throwable> exceptions = new ArrayList<>();
         final Collection<AdHocData> adhocs = this.adHocReadPlatformService.retrieveAllActiveAdHocQuery();
         if (adhocs.size() > 0) {
             adhocs.forEach(adhoc -> {
@@ -98,12 +99,20 @@ public class AdHocScheduledJobRunnerServiceImpl implements AdHocScheduledJobRunn
                     final StringBuilder insertSqlBuilder = new StringBuilder(900);
                     insertSqlBuilder.append("INSERT INTO ").append(adhoc.getTableName() + "(").append(adhoc.getTableFields() + ") ")
                             .append(adhoc.getQuery());
-                    if (insertSqlBuilder.length() > 0) {
-                        final int result = this.jdbcTemplate.update(insertSqlBuilder.toString());
+                    try {
+                        // the query already inserts set-based on the database; it commits together with last_run so a
+                        // rerun after a failure neither skips nor repeats it
+                        final int result = this.jdbcBulkWriter.writeInChunk(jdbcTemplate -> {
+                            final int inserted = jdbcTemplate.update(insertSqlBuilder.toString());
+                            jdbcTemplate.update("UPDATE m_adhoc SET last_run=? WHERE id=?", new Date(), adhoc.getId());
+                            return inserted;
+                        });
                         LOG.info("{}: Records affected by generateClientSchedule: {}", ThreadLocalContextUtil.getTenant().getName(),
                                 result);
-
-                        this.jdbcTemplate.update("UPDATE m_adhoc SET last_run=? WHERE id=?", new Date(), adhoc.getId());
+                    } catch (final RuntimeException e) {
+                        LOG.error("{}: generateClientSchedule failed for {}", ThreadLocalContextUtil.getTenant().getName(),
+                                adhoc.getName(), e);
+                        exceptions.add(e);
                     }
                 } else {
                     LOG.info("{}: Skipping execution of {}, scheduled for execution on {}",
@@ -114,6 +123,9 @@ public class AdHocScheduledJobRunnerServiceImpl implements AdHocScheduledJobRunn
             LOG.info("{}: Nothing to update by generateClientSchedule", ThreadLocalContextUtil.getTenant().getName());
         }
 
+        if (!exceptions.isEmpty()) {
+            throw new JobExecutionException(exceptions);
+        }
     }
 
 }
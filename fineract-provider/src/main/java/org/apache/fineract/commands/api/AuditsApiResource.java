@@ -38,6 +38,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.apache.fineract.commands.data.AuditData;
 import org.apache.fineract.commands.data.AuditSearchData;
@@ -95,7 +96,7 @@ public class AuditsApiResource {
             + "audits?officeId=1&includeJson=true")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "OK", content = @Content(array = @ArraySchema(schema = @Schema(implementation = MakercheckersApiResourceSwagger.GetMakerCheckerResponse.class)))) })
-    public String retrieveAuditEntries(@Context final UriInfo uriInfo,
+    public StreamingOutput retrieveAuditEntries(@Context final UriInfo uriInfo,
             @QueryParam("actionName") @Parameter(description = "actionName") final String actionName,
             @QueryParam("entityName") @Parameter(description = "entityName") final String entityName,
             @QueryParam("resourceId") @Parameter(description = "resourceId") final Long resourceId,
@@ -127,13 +128,13 @@ public class AuditsApiResource {
         if (parameters.isPaged()) {
             final Page<AuditData> auditEntries = this.auditReadPlatformService.retrievePaginatedAuditEntries(extraCriteria,
                     settings.isIncludeJson(), parameters);
-            return this.toApiJsonSerializer.serialize(settings, auditEntries, RESPONSE_DATA_PARAMETERS);
+            return this.toApiJsonSerializer.serializeStreaming(settings, auditEntries, RESPONSE_DATA_PARAMETERS);
         }
 
         final Collection<AuditData> auditEntries = this.auditReadPlatformService.retrieveAuditEntries(extraCriteria,
                 settings.isIncludeJson());
 
-        return this.toApiJsonSerializer.serialize(settings, auditEntries, RESPONSE_DATA_PARAMETERS);
+        return this.toApiJsonSerializer.serializeStreaming(settings, auditEntries, RESPONSE_DATA_PARAMETERS);
     }
 
     @GET
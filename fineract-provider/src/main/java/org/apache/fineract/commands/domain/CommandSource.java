@@ -29,13 +29,13 @@ import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
-import org.apache.fineract.infrastructure.core.domain.AbstractPersistableCustom;
+import org.apache.fineract.infrastructure.core.domain.AbstractPooledIdPersistableCustom;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.useradministration.domain.AppUser;
 
 @Entity
 @Table(name = "m_portfolio_command_source")
-public class CommandSource extends AbstractPersistableCustom {
+public class CommandSource extends AbstractPooledIdPersistableCustom {
 
     @Column(name = "action_name", nullable = true, length = 100)
     private String actionName;
@@ -101,9 +101,13 @@ public class CommandSource extends AbstractPersistableCustom {
     @Column(name = "organisation_creditbureau_id")
     private Long organisationCreditBureauId;
 
+    /**
+     * Creates the audit entry without its JSON; the caller sets either the changes or the request JSON through
+     * {@link #updateJsonTo(String)}, so the request is not serialized when the changes are stored instead.
+     */
     public static CommandSource fullEntryFrom(final CommandWrapper wrapper, final JsonCommand command, final AppUser maker) {
         return new CommandSource(wrapper.actionName(), wrapper.entityName(), wrapper.getHref(), command.entityId(), command.subentityId(),
-                command.json(), maker, ZonedDateTime.now(DateUtils.getDateTimeZoneOfTenant()));
+                null, maker, ZonedDateTime.now(DateUtils.getDateTimeZoneOfTenant()));
     }
 
     protected CommandSource() {
@@ -67,9 +67,6 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
     }
 
     @Override
-    @SuppressWarnings("AvoidHidingCauseException")
-    @SuppressFBWarnings(value = {
-            "DMI_RANDOM_USED_ONLY_ONCE" }, justification = "False positive for random object created and used only once")
     public CommandProcessingResult logCommandSource(final CommandWrapper wrapper) {
 
         boolean isApprovedByChecker = false;
@@ -88,16 +85,28 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
         validateIsUpdateAllowed();
 
         final String json = wrapper.getJson();
+        final JsonElement parsedCommand = this.fromApiJsonHelper.parse(json);
+        final JsonCommand command = JsonCommand.from(json, parsedCommand, this.fromApiJsonHelper, wrapper.getEntityName(),
+                wrapper.getEntityId(), wrapper.getSubentityId(), wrapper.getGroupId(), wrapper.getClientId(), wrapper.getLoanId(),
+                wrapper.getSavingsId(), wrapper.getTransactionId(), wrapper.getHref(), wrapper.getProductId(), wrapper.getCreditBureauId(),
+                wrapper.getOrganisationCreditBureauId());
+        this.fromApiJsonHelper.bindParsedCommand(json, parsedCommand);
+        try {
+            return processAndLogCommandWithRetries(wrapper, command, isApprovedByChecker);
+        } finally {
+            this.fromApiJsonHelper.unbindParsedCommand();
+        }
+    }
+
+    @SuppressWarnings("AvoidHidingCauseException")
+    @SuppressFBWarnings(value = {
+            "DMI_RANDOM_USED_ONLY_ONCE" }, justification = "False positive for random object created and used only once")
+    private CommandProcessingResult processAndLogCommandWithRetries(final CommandWrapper wrapper, final JsonCommand command,
+            final boolean isApprovedByChecker) {
         CommandProcessingResult result = null;
-        JsonCommand command = null;
         Integer numberOfRetries = 0;
         Integer maxNumberOfRetries = ThreadLocalContextUtil.getTenant().getConnection().getMaxRetriesOnDeadlock();
         Integer maxIntervalBetweenRetries = ThreadLocalContextUtil.getTenant().getConnection().getMaxIntervalBetweenRetries();
-        final JsonElement parsedCommand = this.fromApiJsonHelper.parse(json);
-        command = JsonCommand.from(json, parsedCommand, this.fromApiJsonHelper, wrapper.getEntityName(), wrapper.getEntityId(),
-                wrapper.getSubentityId(), wrapper.getGroupId(), wrapper.getClientId(), wrapper.getLoanId(), wrapper.getSavingsId(),
-                wrapper.getTransactionId(), wrapper.getHref(), wrapper.getProductId(), wrapper.getCreditBureauId(),
-                wrapper.getOrganisationCreditBureauId());
         while (numberOfRetries <= maxNumberOfRetries) {
             try {
                 result = this.processAndLogCommandService.processAndLogCommand(wrapper, command, isApprovedByChecker);
@@ -152,7 +161,12 @@ public class PortfolioCommandSourceWritePlatformServiceImpl implements Portfolio
                 commandSourceInput.getOrganisationCreditBureauId());
 
         final boolean makerCheckerApproval = true;
-        return this.processAndLogCommandService.processAndLogCommand(wrapper, command, makerCheckerApproval);
+        this.fromApiJsonHelper.bindParsedCommand(commandSourceInput.json(), parsedCommand);
+        try {
+            return this.processAndLogCommandService.processAndLogCommand(wrapper, command, makerCheckerApproval);
+        } finally {
+            this.fromApiJsonHelper.unbindParsedCommand();
+        }
     }
 
     @Transactional
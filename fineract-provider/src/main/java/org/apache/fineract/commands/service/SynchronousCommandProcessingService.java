@@ -112,15 +112,15 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
         commandSourceResult.updateForAudit(result.getOfficeId(), result.getGroupId(), result.getClientId(), result.getLoanId(),
                 result.getSavingsId(), result.getProductId(), result.getTransactionId());
 
-        String changesOnlyJson = null;
+        // only the JSON that is audited gets serialized: the changes, or else the request of a new entry
         boolean rollBack = (rollbackTransaction || result.isRollbackTransaction()) && !isApprovedByChecker;
         if (result.hasChanges() && !rollBack) {
-            changesOnlyJson = this.toApiJsonSerializer.serializeResult(result.getChanges());
+            final String changesOnlyJson = this.toApiJsonSerializer.serializeResult(result.getChanges());
             commandSourceResult.updateJsonTo(changesOnlyJson);
-        }
-
-        if (!result.hasChanges() && wrapper.isUpdateOperation() && !wrapper.isUpdateDatatable()) {
+        } else if (!result.hasChanges() && wrapper.isUpdateOperation() && !wrapper.isUpdateDatatable()) {
             commandSourceResult.updateJsonTo(null);
+        } else if (command.commandId() == null) {
+            commandSourceResult.updateJsonTo(command.json());
         }
 
         if (commandSourceResult.hasJson()) {
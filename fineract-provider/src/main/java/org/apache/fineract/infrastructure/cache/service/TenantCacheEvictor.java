@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.cache.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts the entries of the current tenant from caches whose keys start with {@link #keyPrefix(String)}, leaving the
+ * entries of other tenants in place. <code>@CacheEvict(allEntries = true)</code> would drop every tenant's entries on
+ * each change.
+ *
+ * The prefix carries a generation per tenant and cache, and evicting moves it on instead of walking the cache: the
+ * entries cached under the previous generation are no longer looked up and age out of the cache on their own, so a
+ * change replaces the tenant's cached definitions as a whole rather than patching them.
+ */
+@Component
+public class TenantCacheEvictor {
+
+    public static final String KEY_SEPARATOR = "|";
+
+    private final ConcurrentMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * The prefix of the current tenant's keys in the given cache, for the key expressions of its
+     * <code>@Cacheable</code> methods, e.g. <code>key = "@tenantCacheEvictor.keyPrefix('loanProducts').concat(...)"</code>.
+     */
+    public String keyPrefix(final String cacheName) {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        return tenantIdentifier + KEY_SEPARATOR + generation(tenantIdentifier, cacheName).get() + KEY_SEPARATOR;
+    }
+
+    /**
+     * Evicts now and once more after the surrounding transaction completes, so an entry read from the still
+     * uncommitted state by a concurrent request is not kept.
+     */
+    public void evictTenant(final String... cacheNames) {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        evict(tenantIdentifier, cacheNames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    evict(tenantIdentifier, cacheNames);
+                }
+            });
+        }
+    }
+
+    private void evict(final String tenantIdentifier, final String... cacheNames) {
+        for (final String cacheName : cacheNames) {
+            generation(tenantIdentifier, cacheName).incrementAndGet();
+        }
+    }
+
+    private AtomicLong generation(final String tenantIdentifier, final String cacheName) {
+        return this.generations.computeIfAbsent(tenantIdentifier + KEY_SEPARATOR + cacheName, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.campaigns.email.service;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.fineract.infrastructure.campaigns.email.domain.EmailMessageStatusType;
+import org.apache.fineract.infrastructure.campaigns.helper.CampaignOutboxWriter;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Pending {@code scheduled_email_messages_outbound} rows of a campaign, the set based counterpart of
+ * {@link org.apache.fineract.infrastructure.campaigns.email.domain.EmailMessage#pendingEmail} for the clients of the
+ * campaign report.
+ */
+final class EmailCampaignOutboxWriter implements CampaignOutboxWriter {
+
+    private static final String INSERT_SQL = "insert into scheduled_email_messages_outbound (client_id, email_campaign_id, status_enum, "
+            + "email_address, email_subject, message, campaign_name, submittedon_date) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final Long campaignId;
+    private final String campaignName;
+    private final String emailSubject;
+    private final Date submittedOnDate = Date.valueOf(DateUtils.getLocalDateOfTenant());
+    private final Map<Long, String> emailAddresses = new HashMap<>();
+
+    EmailCampaignOutboxWriter(final Long campaignId, final String campaignName, final String emailSubject) {
+        this.campaignId = campaignId;
+        this.campaignName = campaignName;
+        this.emailSubject = emailSubject;
+    }
+
+    @Override
+    public String getOutboxTable() {
+        return "scheduled_email_messages_outbound";
+    }
+
+    @Override
+    public String getInsertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    public void prefetch(final NamedParameterJdbcTemplate jdbcTemplate, final Collection<Long> recipientIds) {
+        this.emailAddresses.clear();
+        jdbcTemplate.query("select id, email_address from m_client where id in (:clientIds)",
+                new MapSqlParameterSource("clientIds", recipientIds),
+                rs -> {
+                    this.emailAddresses.put(rs.getLong("id"), rs.getString("email_address"));
+                });
+    }
+
+    @Override
+    public boolean bind(final PreparedStatement statement, final Long recipientId, final Map<String, Object> row, final String message)
+            throws SQLException {
+        final String emailAddress = this.emailAddresses.get(recipientId);
+        if (emailAddress == null || !EmailCampaignWritePlatformCommandHandlerImpl.isValidEmail(emailAddress)) {
+            return false;
+        }
+        statement.setLong(1, recipientId);
+        statement.setLong(2, this.campaignId);
+        statement.setInt(3, EmailMessageStatusType.PENDING.getValue());
+        statement.setString(4, emailAddress);
+        statement.setString(5, this.emailSubject);
+        statement.setString(6, message);
+        statement.setString(7, this.campaignName);
+        statement.setDate(8, this.submittedOnDate);
+        return true;
+    }
+}
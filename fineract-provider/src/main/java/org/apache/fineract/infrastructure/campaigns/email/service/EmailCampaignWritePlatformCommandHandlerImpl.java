@@ -61,6 +61,7 @@ import org.apache.fineract.infrastructure.campaigns.email.domain.ScheduledEmailA
 import org.apache.fineract.infrastructure.campaigns.email.exception.EmailCampaignMustBeClosedToBeDeletedException;
 import org.apache.fineract.infrastructure.campaigns.email.exception.EmailCampaignMustBeClosedToEditException;
 import org.apache.fineract.infrastructure.campaigns.email.exception.EmailCampaignNotFound;
+import org.apache.fineract.infrastructure.campaigns.helper.CampaignOutboxGenerator;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.api.JsonQuery;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
@@ -119,6 +120,7 @@ public class EmailCampaignWritePlatformCommandHandlerImpl implements EmailCampai
     private final LoanRepository loanRepository;
     private final SavingsAccountRepository savingsAccountRepository;
     private final EmailMessageJobEmailService emailMessageJobEmailService;
+    private final CampaignOutboxGenerator campaignOutboxGenerator;
 
     @Autowired
     public EmailCampaignWritePlatformCommandHandlerImpl(final PlatformSecurityContext context,
@@ -127,7 +129,8 @@ public class EmailCampaignWritePlatformCommandHandlerImpl implements EmailCampai
             final EmailMessageRepository emailMessageRepository, final ClientRepositoryWrapper clientRepositoryWrapper,
             final ReadReportingService readReportingService, final GenericDataService genericDataService,
             final FromJsonHelper fromJsonHelper, final LoanRepository loanRepository,
-            final SavingsAccountRepository savingsAccountRepository, final EmailMessageJobEmailService emailMessageJobEmailService) {
+            final SavingsAccountRepository savingsAccountRepository, final EmailMessageJobEmailService emailMessageJobEmailService,
+            final CampaignOutboxGenerator campaignOutboxGenerator) {
         this.context = context;
         this.emailCampaignRepository = emailCampaignRepository;
         this.emailCampaignValidator = emailCampaignValidator;
@@ -141,6 +144,7 @@ public class EmailCampaignWritePlatformCommandHandlerImpl implements EmailCampai
         this.loanRepository = loanRepository;
         this.savingsAccountRepository = savingsAccountRepository;
         this.emailMessageJobEmailService = emailMessageJobEmailService;
+        this.campaignOutboxGenerator = campaignOutboxGenerator;
     }
 
     @Transactional
@@ -272,7 +276,7 @@ public class EmailCampaignWritePlatformCommandHandlerImpl implements EmailCampai
     }
 
     private void insertDirectCampaignIntoEmailOutboundTable(final String emailParams, final String emailSubject,
-            final String messageTemplate, final String campaignName, final Long campaignId) {
+            final String messageTemplate, final String campaignName, final Long campaignId, final String runId) {
         try {
             HashMap<String, String> campaignParams = new ObjectMapper().readValue(emailParams,
                     new TypeReference<HashMap<String, String>>() {});
@@ -280,24 +284,12 @@ public class EmailCampaignWritePlatformCommandHandlerImpl implements EmailCampai
             HashMap<String, String> queryParamForRunReport = new ObjectMapper().readValue(emailParams,
                     new TypeReference<HashMap<String, String>>() {});
 
-            List<HashMap<String, Object>> runReportObject = this.getRunReportByServiceImpl(campaignParams.get("reportName"),
+            final String audienceSql = this.readReportingService.sqlToRunForSmsEmailCampaign(campaignParams.get("reportName"), "report",
                     queryParamForRunReport);
+            final Mustache template = new DefaultMustacheFactory().compile(new StringReader(messageTemplate), campaignName);
 
-            if (runReportObject != null) {
-                for (HashMap<String, Object> entry : runReportObject) {
-                    String message = this.compileEmailTemplate(messageTemplate, campaignName, entry);
-                    Integer clientId = (Integer) entry.get("id");
-                    EmailCampaign emailCampaign = this.emailCampaignRepository.findById(campaignId).orElse(null);
-                    Client client = this.clientRepositoryWrapper.findOneWithNotFoundDetection(clientId.longValue());
-                    String emailAddress = client.emailAddress();
-
-                    if (emailAddress != null && isValidEmail(emailAddress)) {
-                        EmailMessage emailMessage = EmailMessage.pendingEmail(null, client, null, emailCampaign, emailSubject, message,
-                                emailAddress, campaignName);
-                        this.emailMessageRepository.save(emailMessage);
-                    }
-                }
-            }
+            this.campaignOutboxGenerator.generateAfterCommit(campaignId, runId, audienceSql, template,
+                    new EmailCampaignOutboxWriter(campaignId, campaignName, emailSubject));
         } catch (final IOException e) {
             // TODO throw something here
         }
@@ -333,7 +325,8 @@ public class EmailCampaignWritePlatformCommandHandlerImpl implements EmailCampai
                 LOG.info("tenant time {} trigger time {}", tenantDateNow, nextTriggerDate);
                 if (nextTriggerDate.isBefore(tenantDateNow)) {
                     insertDirectCampaignIntoEmailOutboundTable(emailCampaignData.getParamValue(), emailCampaignData.getEmailSubject(),
-                            emailCampaignData.getMessage(), emailCampaignData.getCampaignName(), emailCampaignData.getId());
+                            emailCampaignData.getMessage(), emailCampaignData.getCampaignName(), emailCampaignData.getId(),
+                            "schedule-" + nextTriggerDate);
                     this.updateTriggerDates(emailCampaignData.getId());
                 }
             }
@@ -394,7 +387,8 @@ public class EmailCampaignWritePlatformCommandHandlerImpl implements EmailCampai
 
         if (emailCampaign.isDirect()) {
             insertDirectCampaignIntoEmailOutboundTable(emailCampaign.getParamValue(), emailCampaign.getEmailSubject(),
-                    emailCampaign.getEmailMessage(), emailCampaign.getCampaignName(), emailCampaign.getId());
+                    emailCampaign.getEmailMessage(), emailCampaign.getCampaignName(), emailCampaign.getId(),
+                    "activation-" + activationDate);
         } else {
             if (emailCampaign.isSchedule()) {
 
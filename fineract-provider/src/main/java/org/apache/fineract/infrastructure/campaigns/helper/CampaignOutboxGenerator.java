@@ -0,0 +1,329 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.campaigns.helper;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.mustachejava.Mustache;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.dataqueries.data.GenericResultsetData;
+import org.apache.fineract.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
+import org.apache.fineract.infrastructure.dataqueries.data.ResultsetRowData;
+import org.apache.fineract.infrastructure.dataqueries.service.GenericDataService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Generates the outbound messages of a campaign from its audience report.
+ *
+ * The report runs once, ordered by its {@code id} column, and its rows are streamed through one forward only cursor and
+ * processed in batches: the messages of a batch are rendered in parallel from the template compiled once for the run,
+ * inserted with one JDBC batch and committed together with a checkpoint holding the run id and the last recipient id. A
+ * run that fails part way resumes after that recipient when the same run is retried; the checkpoint of any other run of
+ * the campaign is discarded, and the checkpoint is removed once the run completes. The cursor is held on a connection
+ * of its own, since the batches are committed while it is still open, so a run takes two pooled connections.
+ */
+@Component
+public class CampaignOutboxGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CampaignOutboxGenerator.class);
+
+    private static final String FIND_CHECKPOINT_SQL = "select run_id, last_recipient_id, message_count from m_campaign_outbox_checkpoint "
+            + "where outbox_table = ? and campaign_id = ?";
+    private static final String UPDATE_CHECKPOINT_SQL = "update m_campaign_outbox_checkpoint "
+            + "set run_id = ?, last_recipient_id = ?, message_count = ? where outbox_table = ? and campaign_id = ?";
+    private static final String INSERT_CHECKPOINT_SQL = "insert into m_campaign_outbox_checkpoint "
+            + "(run_id, last_recipient_id, message_count, outbox_table, campaign_id) values (?, ?, ?, ?, ?)";
+    private static final String DELETE_CHECKPOINT_SQL = "delete from m_campaign_outbox_checkpoint "
+            + "where outbox_table = ? and campaign_id = ?";
+
+    private final RoutingDataSource dataSource;
+    private final GenericDataService genericDataService;
+    private final int batchSize;
+
+    @Autowired
+    public CampaignOutboxGenerator(final RoutingDataSource dataSource, final GenericDataService genericDataService,
+            @Value("${fineract.campaign.outbox-batch-size:1000}") final int batchSize) {
+        this.dataSource = dataSource;
+        this.genericDataService = genericDataService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Generates the messages once the current transaction has committed, so that a rollback of e.g. the activation of the
+     * campaign leaves no messages behind; the batches are committed on their own connection and could not be undone with
+     * it. Without a transaction the messages are generated straight away. A run that fails after the commit is logged,
+     * the campaign change it followed stands.
+     *
+     * @see #generate(Long, String, String, Mustache, CampaignOutboxWriter)
+     */
+    public void generateAfterCommit(final Long campaignId, final String runId, final String audienceSql, final Mustache template,
+            final CampaignOutboxWriter writer) throws IOException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generate(campaignId, runId, audienceSql, template, writer);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+                try {
+                    generate(campaignId, runId, audienceSql, template, writer);
+                } catch (IOException | RuntimeException e) {
+                    LOG.error("Campaign {} run {} failed to write its messages into {}", campaignId, runId, writer.getOutboxTable(), e);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param runId
+     *            identifies the run of the campaign (e.g. its trigger date), a retry of the same run resumes from its
+     *            checkpoint
+     * @param audienceSql
+     *            the campaign report sql, with its parameters replaced
+     * @return the number of messages written by the run, including those of the interrupted attempt it resumed
+     */
+    public long generate(final Long campaignId, final String runId, final String audienceSql, final Mustache template,
+            final CampaignOutboxWriter writer) throws IOException {
+        final long startTime = System.currentTimeMillis();
+        try (Connection connection = this.dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                final long messageCount = generate(connection, campaignId, runId, audienceSql, template, writer);
+                LOG.info("Campaign {} run {} wrote {} messages into {} in {} ms", campaignId, runId, messageCount,
+                        writer.getOutboxTable(), System.currentTimeMillis() - startTime);
+                return messageCount;
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Generating messages of campaign " + campaignId, audienceSql, e);
+        }
+    }
+
+    private long generate(final Connection connection, final Long campaignId, final String runId, final String audienceSql,
+            final Mustache template, final CampaignOutboxWriter writer) throws SQLException, IOException {
+        Long lastRecipientId = null;
+        long messageCount = 0;
+        try (PreparedStatement checkpoint = connection.prepareStatement(FIND_CHECKPOINT_SQL)) {
+            checkpoint.setString(1, writer.getOutboxTable());
+            checkpoint.setLong(2, campaignId);
+            try (ResultSet resultSet = checkpoint.executeQuery()) {
+                if (resultSet.next()) {
+                    final String checkpointRunId = resultSet.getString(1);
+                    if (runId.equals(checkpointRunId)) {
+                        lastRecipientId = resultSet.getLong(2);
+                        messageCount = resultSet.getLong(3);
+                        LOG.info("Campaign {} run {} resumes after recipient {}", campaignId, runId, lastRecipientId);
+                    } else {
+                        // that run can no longer be retried, its checkpoint is overwritten by the first batch of this one
+                        LOG.warn("Campaign {} discards the checkpoint of the interrupted run {}", campaignId, checkpointRunId);
+                    }
+                }
+            }
+        }
+
+        final NamedParameterJdbcTemplate lookupTemplate = new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true));
+        final String sql = "select y.* from (" + audienceSql + ") y" + (lastRecipientId == null ? "" : " where y.id > ?")
+                + " order by y.id";
+        try (PreparedStatement insert = connection.prepareStatement(writer.getInsertSql());
+                Connection readConnection = this.dataSource.getConnection()) {
+            final OutboxBatch batch = new OutboxBatch(connection, insert, lookupTemplate, campaignId, runId, template, writer,
+                    messageCount);
+            final boolean readAutoCommit = readConnection.getAutoCommit();
+            // PostgreSQL only fetches a result set in parts within a transaction
+            readConnection.setAutoCommit(false);
+            try (PreparedStatement query = readConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                query.setFetchSize(this.batchSize);
+                if (lastRecipientId != null) {
+                    query.setLong(1, lastRecipientId);
+                }
+                try (ResultSet resultSet = query.executeQuery()) {
+                    batch.stream(resultSet);
+                }
+            } finally {
+                readConnection.rollback();
+                readConnection.setAutoCommit(readAutoCommit);
+            }
+            messageCount = batch.messageCount;
+        }
+
+        try (PreparedStatement delete = connection.prepareStatement(DELETE_CHECKPOINT_SQL)) {
+            delete.setString(1, writer.getOutboxTable());
+            delete.setLong(2, campaignId);
+            delete.executeUpdate();
+        }
+        connection.commit();
+        return messageCount;
+    }
+
+    /**
+     * The same rows the campaign report gives through {@link GenericDataService#generateJsonFromGenericResultsetData},
+     * with dates as dd-MM-yyyy strings, so templates render as they did from the full report.
+     */
+    @SuppressWarnings("rawtypes")
+    private List<HashMap<String, Object>> toRows(final List<ResultsetColumnHeaderData> columnHeaders, final List<ResultsetRowData> rows)
+            throws IOException {
+        final String json = this.genericDataService.generateJsonFromGenericResultsetData(new GenericResultsetData(columnHeaders, rows));
+        final List<HashMap<String, Object>> result = new ObjectMapper().readValue(json,
+                new TypeReference<List<HashMap<String, Object>>>() {});
+        for (final HashMap<String, Object> entry : result) {
+            for (final Map.Entry<String, Object> column : entry.entrySet()) {
+                final Object ob = column.getValue();
+                if (ob instanceof ArrayList && ((ArrayList) ob).size() == 3) {
+                    column.setValue(((ArrayList) ob).get(2).toString() + "-" + ((ArrayList) ob).get(1).toString() + "-"
+                            + ((ArrayList) ob).get(0).toString());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String render(final Mustache template, final Map<String, Object> row) {
+        final StringWriter stringWriter = new StringWriter();
+        template.execute(stringWriter, row);
+        return stringWriter.toString();
+    }
+
+    private final class OutboxBatch {
+
+        private final Connection connection;
+        private final PreparedStatement insert;
+        private final NamedParameterJdbcTemplate lookupTemplate;
+        private final Long campaignId;
+        private final String runId;
+        private final Mustache template;
+        private final CampaignOutboxWriter writer;
+        private final List<ResultsetColumnHeaderData> columnHeaders = new ArrayList<>();
+        private final List<ResultsetRowData> rows = new ArrayList<>();
+        private long messageCount;
+
+        OutboxBatch(final Connection connection, final PreparedStatement insert, final NamedParameterJdbcTemplate lookupTemplate,
+                final Long campaignId, final String runId, final Mustache template, final CampaignOutboxWriter writer,
+                final long messageCount) {
+            this.connection = connection;
+            this.insert = insert;
+            this.lookupTemplate = lookupTemplate;
+            this.campaignId = campaignId;
+            this.runId = runId;
+            this.template = template;
+            this.writer = writer;
+            this.messageCount = messageCount;
+        }
+
+        /**
+         * Writes the rows of the cursor in batches of at least the batch size. A batch is only closed on a change of
+         * recipient id, so that the checkpoint never falls between the rows of one recipient.
+         */
+        void stream(final ResultSet resultSet) throws SQLException, IOException {
+            final ResultSetMetaData metaData = resultSet.getMetaData();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                this.columnHeaders.add(ResultsetColumnHeaderData.basic(metaData.getColumnName(i), metaData.getColumnTypeName(i)));
+            }
+            final int idColumn = resultSet.findColumn("id");
+            Long lastRecipientId = null;
+            while (resultSet.next()) {
+                final Long recipientId = resultSet.getLong(idColumn);
+                if (this.rows.size() >= CampaignOutboxGenerator.this.batchSize && !recipientId.equals(lastRecipientId)) {
+                    write();
+                }
+                final List<String> columnValues = new ArrayList<>(this.columnHeaders.size());
+                for (int i = 1; i <= this.columnHeaders.size(); i++) {
+                    columnValues.add(resultSet.getString(i));
+                }
+                this.rows.add(ResultsetRowData.create(columnValues));
+                lastRecipientId = recipientId;
+            }
+            if (!this.rows.isEmpty()) {
+                write();
+            }
+        }
+
+        /**
+         * Writes and commits the rows read so far, together with the checkpoint after their last recipient.
+         */
+        private void write() throws SQLException, IOException {
+            final List<HashMap<String, Object>> entries = toRows(this.columnHeaders, this.rows);
+            this.rows.clear();
+            final List<Long> recipientIds = entries.stream().map(entry -> ((Number) entry.get("id")).longValue())
+                    .collect(Collectors.toList());
+            final List<String> messages = entries.parallelStream().map(entry -> render(this.template, entry)).collect(Collectors.toList());
+            this.writer.prefetch(this.lookupTemplate, recipientIds);
+            int written = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                if (this.writer.bind(this.insert, recipientIds.get(i), entries.get(i), messages.get(i))) {
+                    this.insert.addBatch();
+                    written++;
+                }
+            }
+            if (written > 0) {
+                this.insert.executeBatch();
+            }
+            this.messageCount += written;
+            saveCheckpoint(recipientIds.get(recipientIds.size() - 1));
+            this.connection.commit();
+        }
+
+        private void saveCheckpoint(final Long lastRecipientId) throws SQLException {
+            try (PreparedStatement update = this.connection.prepareStatement(UPDATE_CHECKPOINT_SQL)) {
+                bindCheckpoint(update, lastRecipientId);
+                if (update.executeUpdate() > 0) {
+                    return;
+                }
+            }
+            try (PreparedStatement insertCheckpoint = this.connection.prepareStatement(INSERT_CHECKPOINT_SQL)) {
+                bindCheckpoint(insertCheckpoint, lastRecipientId);
+                insertCheckpoint.executeUpdate();
+            }
+        }
+
+        private void bindCheckpoint(final PreparedStatement statement, final Long lastRecipientId) throws SQLException {
+            statement.setString(1, this.runId);
+            statement.setLong(2, lastRecipientId);
+            statement.setLong(3, this.messageCount);
+            statement.setString(4, this.writer.getOutboxTable());
+            statement.setLong(5, this.campaignId);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.campaigns.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Writes the messages of one campaign into its outbound table, see {@link CampaignOutboxGenerator}.
+ */
+public interface CampaignOutboxWriter {
+
+    /**
+     * @return the outbound table, which also identifies the campaign run checkpoint
+     */
+    String getOutboxTable();
+
+    String getInsertSql();
+
+    /**
+     * Loads whatever the recipients of the next batch need for {@link #bind}, in one query per batch.
+     *
+     * @param jdbcTemplate
+     *            runs on the connection of the generator, which must not be closed
+     */
+    default void prefetch(@SuppressWarnings("unused") final NamedParameterJdbcTemplate jdbcTemplate,
+            @SuppressWarnings("unused") final Collection<Long> recipientIds) {}
+
+    /**
+     * Binds the insert parameters of one message.
+     *
+     * @return false when the recipient cannot receive the message and nothing should be inserted
+     */
+    boolean bind(PreparedStatement statement, Long recipientId, Map<String, Object> row, String message) throws SQLException;
+}
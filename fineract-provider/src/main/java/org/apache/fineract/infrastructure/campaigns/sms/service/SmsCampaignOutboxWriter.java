@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.campaigns.sms.service;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.fineract.infrastructure.campaigns.helper.CampaignOutboxWriter;
+import org.apache.fineract.infrastructure.campaigns.sms.domain.SmsCampaign;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.sms.domain.SmsMessageStatusType;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Pending {@code sms_messages_outbound} rows of a campaign, the set based counterpart of
+ * {@link org.apache.fineract.infrastructure.sms.domain.SmsMessage#pendingSms} and
+ * {@link org.apache.fineract.infrastructure.campaigns.sms.serialization.SmsCampaignValidator#isValidNotificationOrSms}.
+ */
+final class SmsCampaignOutboxWriter implements CampaignOutboxWriter {
+
+    private static final String INSERT_SQL = "insert into sms_messages_outbound (client_id, campaign_id, status_enum, mobile_no, message, "
+            + "submittedon_date, is_notification) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final Long campaignId;
+    private final boolean notification;
+    private final Date submittedOnDate = Date.valueOf(DateUtils.getLocalDateOfTenant());
+    private final Set<Long> registeredClientIds = new HashSet<>();
+
+    SmsCampaignOutboxWriter(final SmsCampaign smsCampaign) {
+        // copied, the messages may be written after the transaction that loaded the campaign has ended
+        this.campaignId = smsCampaign.getId();
+        this.notification = smsCampaign.isNotification();
+    }
+
+    @Override
+    public String getOutboxTable() {
+        return "sms_messages_outbound";
+    }
+
+    @Override
+    public String getInsertSql() {
+        return INSERT_SQL;
+    }
+
+    @Override
+    public void prefetch(final NamedParameterJdbcTemplate jdbcTemplate, final Collection<Long> recipientIds) {
+        this.registeredClientIds.clear();
+        if (this.notification) {
+            this.registeredClientIds.addAll(jdbcTemplate.queryForList(
+                    "select client_id from client_device_registration where client_id in (:clientIds)",
+                    new MapSqlParameterSource("clientIds", recipientIds), Long.class));
+        }
+    }
+
+    @Override
+    public boolean bind(final PreparedStatement statement, final Long recipientId, final Map<String, Object> row, final String message)
+            throws SQLException {
+        final Object mobileNo = row.get("mobileNo");
+        if (this.notification ? !this.registeredClientIds.contains(recipientId) : mobileNo == null) {
+            return false;
+        }
+        statement.setLong(1, recipientId);
+        statement.setLong(2, this.campaignId);
+        statement.setInt(3, SmsMessageStatusType.PENDING.getValue());
+        if (mobileNo != null) {
+            statement.setString(4, mobileNo.toString());
+        } else {
+            statement.setNull(4, Types.VARCHAR);
+        }
+        statement.setString(5, message);
+        statement.setDate(6, this.submittedOnDate);
+        statement.setBoolean(7, this.notification);
+        return true;
+    }
+}
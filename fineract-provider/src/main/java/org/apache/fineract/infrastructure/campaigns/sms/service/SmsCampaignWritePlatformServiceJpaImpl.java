@@ -43,6 +43,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import org.apache.fineract.infrastructure.campaigns.helper.CampaignOutboxGenerator;
 import org.apache.fineract.infrastructure.campaigns.sms.constants.SmsCampaignStatus;
 import org.apache.fineract.infrastructure.campaigns.sms.constants.SmsCampaignTriggerType;
 import org.apache.fineract.infrastructure.campaigns.sms.data.CampaignPreviewData;
@@ -113,6 +114,7 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
     private final DeviceRegistrationRepositoryWrapper deviceRegistrationRepository;
 
     private final SmsMessageScheduledJobService smsMessageScheduledJobService;
+    private final CampaignOutboxGenerator campaignOutboxGenerator;
 
     @Autowired
     public SmsCampaignWritePlatformServiceJpaImpl(final PlatformSecurityContext context, final SmsCampaignRepository smsCampaignRepository,
@@ -121,7 +123,7 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
             final ReadReportingService readReportingService, final GenericDataService genericDataService,
             final FromJsonHelper fromJsonHelper, final GroupRepository groupRepository,
             final SmsMessageScheduledJobService smsMessageScheduledJobService,
-            final DeviceRegistrationRepositoryWrapper deviceRegistrationRepository) {
+            final DeviceRegistrationRepositoryWrapper deviceRegistrationRepository, final CampaignOutboxGenerator campaignOutboxGenerator) {
         this.context = context;
         this.smsCampaignRepository = smsCampaignRepository;
         this.smsCampaignValidator = smsCampaignValidator;
@@ -134,6 +136,7 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
         this.groupRepository = groupRepository;
         this.smsMessageScheduledJobService = smsMessageScheduledJobService;
         this.deviceRegistrationRepository = deviceRegistrationRepository;
+        this.campaignOutboxGenerator = campaignOutboxGenerator;
     }
 
     @Transactional
@@ -218,7 +221,7 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
 
     }
 
-    private void insertDirectCampaignIntoSmsOutboundTable(SmsCampaign smsCampaign) {
+    private void insertDirectCampaignIntoSmsOutboundTable(SmsCampaign smsCampaign, final String runId) {
         try {
             HashMap<String, String> campaignParams = new ObjectMapper().readValue(smsCampaign.getParamValue(),
                     new TypeReference<HashMap<String, String>>() {});
@@ -226,29 +229,13 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
             HashMap<String, String> queryParamForRunReport = new ObjectMapper().readValue(smsCampaign.getParamValue(),
                     new TypeReference<HashMap<String, String>>() {});
 
-            List<HashMap<String, Object>> runReportObject = this.getRunReportByServiceImpl(campaignParams.get("reportName"),
+            final String audienceSql = this.readReportingService.sqlToRunForSmsEmailCampaign(campaignParams.get("reportName"), "report",
                     queryParamForRunReport);
+            final Mustache template = new DefaultMustacheFactory().compile(new StringReader(smsCampaign.getMessage()),
+                    smsCampaign.getCampaignName());
 
-            if (runReportObject != null) {
-                for (HashMap<String, Object> entry : runReportObject) {
-                    String textMessage = this.compileSmsTemplate(smsCampaign.getMessage(), smsCampaign.getCampaignName(), entry);
-                    Integer clientId = (Integer) entry.get("id");
-                    Object mobileNo = entry.get("mobileNo");
-
-                    Client client = this.clientRepositoryWrapper.findOneWithNotFoundDetection(clientId.longValue());
-                    if (this.smsCampaignValidator.isValidNotificationOrSms(client, smsCampaign, mobileNo)) {
-                        // String countryCode =
-                        // this.smsReadPlatformService.retrieveCountryCode(client.getOffice().getId()).getCountryCode();
-                        String mobileNumber = null;
-                        if (mobileNo != null) {
-                            mobileNumber = mobileNo.toString();
-                        }
-                        SmsMessage smsMessage = SmsMessage.pendingSms(null, null, client, null, textMessage, mobileNumber, smsCampaign,
-                                smsCampaign.isNotification());
-                        this.smsMessageRepository.save(smsMessage);
-                    }
-                }
-            }
+            this.campaignOutboxGenerator.generateAfterCommit(smsCampaign.getId(), runId, audienceSql, template,
+                    new SmsCampaignOutboxWriter(smsCampaign));
         } catch (final IOException e) {
             LOG.error("Error occured.", e);
         }
@@ -459,7 +446,7 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
         this.smsCampaignRepository.saveAndFlush(smsCampaign);
 
         if (smsCampaign.isDirect()) {
-            insertDirectCampaignIntoSmsOutboundTable(smsCampaign);
+            insertDirectCampaignIntoSmsOutboundTable(smsCampaign, "activation-" + activationDate);
         } else if (smsCampaign.isSchedule()) {
 
             /**
@@ -622,7 +609,7 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
         final LocalDate reactivationDate = command.localDateValueOfParameterNamed("activationDate");
         smsCampaign.reactivate(currentUser, fmt, reactivationDate);
         if (smsCampaign.isDirect()) {
-            insertDirectCampaignIntoSmsOutboundTable(smsCampaign);
+            insertDirectCampaignIntoSmsOutboundTable(smsCampaign, "reactivation-" + reactivationDate);
         } else if (smsCampaign.isSchedule()) {
 
             /**
@@ -668,7 +655,7 @@ public class SmsCampaignWritePlatformServiceJpaImpl implements SmsCampaignWriteP
                 LOG.info("tenant time {} trigger time {} {}",
                         new Object[] { tenantDateNow, nextTriggerDate, JobName.UPDATE_SMS_OUTBOUND_WITH_CAMPAIGN_MESSAGE.name() });
                 if (nextTriggerDate.isBefore(tenantDateNow)) {
-                    insertDirectCampaignIntoSmsOutboundTable(smsCampaign);
+                    insertDirectCampaignIntoSmsOutboundTable(smsCampaign, "schedule-" + nextTriggerDate);
                     this.updateTriggerDates(smsCampaign.getId());
                 }
             }
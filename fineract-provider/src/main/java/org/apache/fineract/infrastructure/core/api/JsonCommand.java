@@ -20,6 +20,7 @@ package org.apache.fineract.infrastructure.core.api;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
@@ -49,7 +50,8 @@ import org.apache.fineract.infrastructure.security.service.PlatformPasswordEncod
  */
 public final class JsonCommand {
 
-    private final String jsonCommand;
+    private String jsonCommand;
+    private final boolean serializeOnDemand;
     private final JsonElement parsedCommand;
     private final FromJsonHelper fromApiJsonHelper;
     private final Long commandId;
@@ -65,6 +67,10 @@ public final class JsonCommand {
     private final Long productId;
     private final Long creditBureauId;
     private final Long organisationCreditBureauId;
+    // resolved once per command instead of on every locale or date format dependent lookup
+    private Locale commandLocale;
+    private String commandDateFormat;
+    private boolean formattingExtracted;
 
     public static JsonCommand from(final String jsonCommand, final JsonElement parsedCommand, final FromJsonHelper fromApiJsonHelper,
             final String entityName, final Long resourceId, final Long subresourceId, final Long groupId, final Long clientId,
@@ -91,16 +97,18 @@ public final class JsonCommand {
 
     }
 
+    /**
+     * Child commands built from an element of an existing command only serialize that element back to JSON when
+     * {@link #json()} is actually called, as most of them are consumed through {@link #parsedJson()}.
+     */
     public static JsonCommand fromExistingCommand(JsonCommand command, final JsonElement parsedCommand) {
-        final String jsonCommand = command.fromApiJsonHelper.toJson(parsedCommand);
-        return new JsonCommand(command.commandId, jsonCommand, parsedCommand, command.fromApiJsonHelper, command.entityName,
+        return new JsonCommand(command.commandId, null, true, parsedCommand, command.fromApiJsonHelper, command.entityName,
                 command.resourceId, command.subresourceId, command.groupId, command.clientId, command.loanId, command.savingsId,
                 command.transactionId, command.url, command.productId, command.creditBureauId, command.organisationCreditBureauId);
     }
 
     public static JsonCommand fromExistingCommand(JsonCommand command, final JsonElement parsedCommand, final Long clientId) {
-        final String jsonCommand = command.fromApiJsonHelper.toJson(parsedCommand);
-        return new JsonCommand(command.commandId, jsonCommand, parsedCommand, command.fromApiJsonHelper, command.entityName,
+        return new JsonCommand(command.commandId, null, true, parsedCommand, command.fromApiJsonHelper, command.entityName,
                 command.resourceId, command.subresourceId, command.groupId, clientId, command.loanId, command.savingsId,
                 command.transactionId, command.url, command.productId, command.creditBureauId, command.organisationCreditBureauId);
     }
@@ -109,9 +117,18 @@ public final class JsonCommand {
             final FromJsonHelper fromApiJsonHelper, final String entityName, final Long resourceId, final Long subresourceId,
             final Long groupId, final Long clientId, final Long loanId, final Long savingsId, final String transactionId, final String url,
             final Long productId, final Long creditBureauId, final Long organisationCreditBureauId) {
+        this(commandId, jsonCommand, false, parsedCommand, fromApiJsonHelper, entityName, resourceId, subresourceId, groupId, clientId,
+                loanId, savingsId, transactionId, url, productId, creditBureauId, organisationCreditBureauId);
+    }
+
+    private JsonCommand(final Long commandId, final String jsonCommand, final boolean serializeOnDemand, final JsonElement parsedCommand,
+            final FromJsonHelper fromApiJsonHelper, final String entityName, final Long resourceId, final Long subresourceId,
+            final Long groupId, final Long clientId, final Long loanId, final Long savingsId, final String transactionId, final String url,
+            final Long productId, final Long creditBureauId, final Long organisationCreditBureauId) {
 
         this.commandId = commandId;
         this.jsonCommand = jsonCommand;
+        this.serializeOnDemand = serializeOnDemand;
         this.parsedCommand = parsedCommand;
         this.fromApiJsonHelper = fromApiJsonHelper;
         this.entityName = entityName;
@@ -142,6 +159,7 @@ public final class JsonCommand {
         this.resourceId = resourceId;
         this.commandId = null;
         this.jsonCommand = null;
+        this.serializeOnDemand = false;
         this.fromApiJsonHelper = null;
         this.entityName = null;
         this.subresourceId = null;
@@ -161,6 +179,7 @@ public final class JsonCommand {
         this.resourceId = resourceId;
         this.commandId = null;
         this.jsonCommand = null;
+        this.serializeOnDemand = false;
         this.fromApiJsonHelper = fromApiJsonHelper;
         this.entityName = null;
         this.subresourceId = null;
@@ -183,7 +202,19 @@ public final class JsonCommand {
         return this.creditBureauId;
     }
 
+    private void extractFormatting() {
+        if (!this.formattingExtracted) {
+            final JsonObject object = this.parsedCommand.getAsJsonObject();
+            this.commandLocale = this.fromApiJsonHelper.extractLocaleParameter(object);
+            this.commandDateFormat = this.fromApiJsonHelper.extractDateFormatParameter(object);
+            this.formattingExtracted = true;
+        }
+    }
+
     public String json() {
+        if (this.serializeOnDemand && this.jsonCommand == null) {
+            this.jsonCommand = this.fromApiJsonHelper.toJson(this.parsedCommand);
+        }
         return this.jsonCommand;
     }
 
@@ -402,7 +433,11 @@ public final class JsonCommand {
     }
 
     public LocalDate localDateValueOfParameterNamed(final String parameterName) {
-        return this.fromApiJsonHelper.extractLocalDateNamed(parameterName, this.parsedCommand);
+        if (!this.parsedCommand.isJsonObject()) {
+            return null;
+        }
+        extractFormatting();
+        return this.fromApiJsonHelper.extractLocalDateNamed(parameterName, this.parsedCommand, this.commandDateFormat, this.commandLocale);
     }
 
     public LocalDateTime localTimeValueOfParameterNamed(final String parameterName) {
@@ -414,7 +449,7 @@ public final class JsonCommand {
     }
 
     public Date dateValueOfParameterNamed(final String parameterName) {
-        final LocalDate localDate = this.fromApiJsonHelper.extractLocalDateNamed(parameterName, this.parsedCommand);
+        final LocalDate localDate = localDateValueOfParameterNamed(parameterName);
         if (localDate == null) {
             return null;
         }
@@ -508,7 +543,11 @@ public final class JsonCommand {
     }
 
     public BigDecimal bigDecimalValueOfParameterNamed(final String parameterName) {
-        return this.fromApiJsonHelper.extractBigDecimalWithLocaleNamed(parameterName, this.parsedCommand);
+        if (!this.parsedCommand.isJsonObject()) {
+            return null;
+        }
+        extractFormatting();
+        return this.fromApiJsonHelper.extractBigDecimalNamed(parameterName, this.parsedCommand, this.commandLocale);
     }
 
     public BigDecimal bigDecimalValueOfParameterNamed(final String parameterName, final Locale locale) {
@@ -560,7 +599,8 @@ public final class JsonCommand {
     }
 
     public Integer integerValueOfParameterNamed(final String parameterName) {
-        return this.fromApiJsonHelper.extractIntegerWithLocaleNamed(parameterName, this.parsedCommand);
+        extractFormatting();
+        return this.fromApiJsonHelper.extractIntegerNamed(parameterName, this.parsedCommand, this.commandLocale);
     }
 
     public Integer integerValueOfParameterNamed(final String parameterName, final Locale locale) {
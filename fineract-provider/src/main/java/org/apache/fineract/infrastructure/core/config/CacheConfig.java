@@ -68,6 +68,31 @@ public class CacheConfig {
 
         cacheManager.createCache("userTFAccessToken", accessTokenTemplate);
 
+        // product read data only, evicted per tenant on the node that changes them; the time to live bounds staleness on
+        // the other nodes. The schedule code works on the product entities, which only the OpenJPA data cache keeps
+        // (fineract.jpa.data-cache.enabled)
+        javax.cache.configuration.Configuration<Object, Object> productTemplate = Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(10000))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(30))).build());
+
+        cacheManager.createCache("loanProducts", productTemplate);
+        cacheManager.createCache("savingsProducts", productTemplate);
+        cacheManager.createCache("shareProducts", productTemplate);
+        cacheManager.createCache("floatingRates", productTemplate);
+
+        javax.cache.configuration.Configuration<Object, Object> credentialTemplate = Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(10000))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(5))).build());
+
+        cacheManager.createCache("basicAuthCredentials", credentialTemplate);
+
+        // evicted after commit on the node that deletes them; the time to live bounds how long other nodes resolve them
+        javax.cache.configuration.Configuration<Object, Object> identifierTemplate = Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(10000))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(5))).build());
+
+        cacheManager.createCache("interopIdentifiers", identifierTemplate);
+
         return cacheManager;
     }
 }
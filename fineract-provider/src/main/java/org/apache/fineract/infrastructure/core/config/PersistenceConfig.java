@@ -19,13 +19,20 @@
 
 package org.apache.fineract.infrastructure.core.config;
 
+import java.util.HashMap;
+import java.util.Map;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 import org.apache.fineract.infrastructure.core.domain.AuditorAwareImpl;
+import org.apache.fineract.infrastructure.core.service.PooledIdAllocator;
 import org.apache.fineract.infrastructure.openjpa.OpenJpaTransactionManager;
 import org.apache.fineract.infrastructure.openjpa.OpenJpaVendorAdapter;
+import org.apache.fineract.infrastructure.openjpa.PooledIdSeq;
+import org.apache.fineract.infrastructure.openjpa.SelectCountingJdbcListener;
+import org.apache.fineract.infrastructure.openjpa.TenantAwareDataCache;
 import org.apache.fineract.useradministration.domain.AppUser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
@@ -44,6 +51,21 @@ public class PersistenceConfig {
     @Autowired
     DataSource routingDataSource;
 
+    @Value("${fineract.jpa.data-cache.enabled:false}")
+    boolean dataCacheEnabled;
+
+    @Value("${fineract.jpa.data-cache.size:10000}")
+    int dataCacheSize;
+
+    @Value("${fineract.jpa.data-cache.remote-commit-provider:sjvm}")
+    String remoteCommitProvider;
+
+    @Value("${fineract.jpa.select-count-header.enabled:false}")
+    boolean selectCountHeaderEnabled;
+
+    @Autowired
+    PooledIdAllocator pooledIdAllocator;
+
     @Bean
     @DependsOn("tenantDatabaseUpgradeService")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
@@ -54,10 +76,35 @@ public class PersistenceConfig {
         em.setPersistenceXmlLocation("classpath:META-INF/persistence.xml");
         em.setJpaVendorAdapter(new OpenJpaVendorAdapter());
         em.setPersistenceUnitName("jpa-pu");
+        final Map<String, Object> properties = dataCacheProperties();
+        if (pooledIdAllocator.isEnabled()) {
+            // switches the AbstractPooledIdPersistableCustom ids from IDENTITY to the pooled sequence
+            em.setPersistenceUnitPostProcessors(unit -> unit.addMappingFileName("META-INF/pooled-id-orm.xml"));
+            properties.put("openjpa.Sequence", new PooledIdSeq(pooledIdAllocator));
+        }
+        if (selectCountHeaderEnabled) {
+            properties.put("openjpa.jdbc.JDBCListeners", SelectCountingJdbcListener.class.getName());
+        }
+        em.setJpaPropertyMap(properties);
         em.afterPropertiesSet();
         return em;
     }
 
+    /**
+     * Second level cache for the {@code @Cacheable} reference entities; the remote commit provider ({@code sjvm} for a
+     * single node, e.g. {@code tcp(Addresses=host1;host2)} for a cluster) carries evictions to the other nodes.
+     */
+    private Map<String, Object> dataCacheProperties() {
+        final Map<String, Object> properties = new HashMap<>();
+        if (dataCacheEnabled) {
+            properties.put("openjpa.DataCache", TenantAwareDataCache.class.getName() + "(CacheSize=" + dataCacheSize + ")");
+            properties.put("openjpa.RemoteCommitProvider", remoteCommitProvider);
+        } else {
+            properties.put("openjpa.DataCache", "false");
+        }
+        return properties;
+    }
+
     @Bean
     public OpenJpaTransactionManager transactionManager(EntityManagerFactory emf) {
         OpenJpaTransactionManager jtm = new OpenJpaTransactionManager();
@@ -18,89 +18,30 @@
  */
 package org.apache.fineract.infrastructure.core.domain;
 
-import java.time.Instant;
-import java.util.Date;
-import java.util.Optional;
-import javax.persistence.Column;
-import javax.persistence.FetchType;
-import javax.persistence.JoinColumn;
-import javax.persistence.ManyToOne;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
-import javax.persistence.Temporal;
-import javax.persistence.TemporalType;
-import org.apache.fineract.useradministration.domain.AppUser;
-import org.springframework.data.domain.Auditable;
-import org.springframework.data.jpa.domain.AbstractAuditable;
 
 /**
- * A custom copy of {@link AbstractAuditable} to override the column names used on database. It also uses Instant
- * instead of LocalDateTime for created and modified.
- *
- * Abstract base class for auditable entities. Stores the audit values in persistent fields.
- *
- * @param <U>
- *            the auditing type. Typically some kind of user.
- * @param <PK>
- *            the type of the auditing type's identifier
+ * Abstract base class for auditable entities, with an id of strategy {@link GenerationType#IDENTITY} as in
+ * {@link AbstractPersistableCustom}.
  */
 @MappedSuperclass
-public abstract class AbstractAuditableCustom extends AbstractPersistableCustom implements Auditable<AppUser, Long, Instant> {
+public abstract class AbstractAuditableCustom extends AbstractAuditableFieldsCustom {
 
     private static final long serialVersionUID = 141481953116476081L;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "createdby_id")
-    private AppUser createdBy;
-
-    @Column(name = "created_date")
-    @Temporal(TemporalType.TIMESTAMP)
-    private Date createdDate;
-
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "lastmodifiedby_id")
-    private AppUser lastModifiedBy;
-
-    @Column(name = "lastmodified_date")
-    @Temporal(TemporalType.TIMESTAMP)
-    private Date lastModifiedDate;
-
-    @Override
-    public Optional<AppUser> getCreatedBy() {
-        return Optional.ofNullable(this.createdBy);
-    }
-
-    @Override
-    public void setCreatedBy(final AppUser createdBy) {
-        this.createdBy = createdBy;
-    }
-
-    @Override
-    public Optional<Instant> getCreatedDate() {
-        return null == this.createdDate ? Optional.empty() : Optional.of(this.createdDate.toInstant());
-    }
-
-    @Override
-    public void setCreatedDate(final Instant createdDate) {
-        this.createdDate = null == createdDate ? null : Date.from(createdDate);
-    }
-
-    @Override
-    public Optional<AppUser> getLastModifiedBy() {
-        return Optional.ofNullable(this.lastModifiedBy);
-    }
-
-    @Override
-    public void setLastModifiedBy(final AppUser lastModifiedBy) {
-        this.lastModifiedBy = lastModifiedBy;
-    }
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
 
     @Override
-    public Optional<Instant> getLastModifiedDate() {
-        return null == this.lastModifiedDate ? Optional.empty() : Optional.of(this.lastModifiedDate.toInstant());
+    public Long getId() {
+        return id;
     }
 
-    @Override
-    public void setLastModifiedDate(final Instant lastModifiedDate) {
-        this.lastModifiedDate = null == lastModifiedDate ? null : Date.from(lastModifiedDate);
+    protected void setId(final Long id) {
+        this.id = id;
     }
 }
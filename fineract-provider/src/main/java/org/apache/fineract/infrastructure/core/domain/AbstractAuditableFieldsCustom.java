@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import javax.persistence.Column;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Transient;
+import org.apache.fineract.useradministration.domain.AppUser;
+import org.springframework.data.domain.Auditable;
+import org.springframework.data.jpa.domain.AbstractAuditable;
+
+/**
+ * A custom copy of {@link AbstractAuditable} to override the column names used on database. It also uses Instant
+ * instead of LocalDateTime for created and modified.
+ *
+ * Stores the audit values in persistent fields but leaves the id, and with it how the id is generated, to the
+ * subclass: {@link AbstractAuditableCustom} for auto-increment keys, {@link AbstractPooledIdAuditableCustom} for
+ * pooled ones.
+ */
+@MappedSuperclass
+public abstract class AbstractAuditableFieldsCustom implements Auditable<AppUser, Long, Instant>, Serializable {
+
+    private static final long serialVersionUID = 5315219405396146538L;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "createdby_id")
+    private AppUser createdBy;
+
+    @Column(name = "created_date")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createdDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lastmodifiedby_id")
+    private AppUser lastModifiedBy;
+
+    @Column(name = "lastmodified_date")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastModifiedDate;
+
+    @Override
+    @Transient // DATAJPA-622
+    public boolean isNew() {
+        return null == getId();
+    }
+
+    @Override
+    public Optional<AppUser> getCreatedBy() {
+        return Optional.ofNullable(this.createdBy);
+    }
+
+    @Override
+    public void setCreatedBy(final AppUser createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    @Override
+    public Optional<Instant> getCreatedDate() {
+        return null == this.createdDate ? Optional.empty() : Optional.of(this.createdDate.toInstant());
+    }
+
+    @Override
+    public void setCreatedDate(final Instant createdDate) {
+        this.createdDate = null == createdDate ? null : Date.from(createdDate);
+    }
+
+    @Override
+    public Optional<AppUser> getLastModifiedBy() {
+        return Optional.ofNullable(this.lastModifiedBy);
+    }
+
+    @Override
+    public void setLastModifiedBy(final AppUser lastModifiedBy) {
+        this.lastModifiedBy = lastModifiedBy;
+    }
+
+    @Override
+    public Optional<Instant> getLastModifiedDate() {
+        return null == this.lastModifiedDate ? Optional.empty() : Optional.of(this.lastModifiedDate.toInstant());
+    }
+
+    @Override
+    public void setLastModifiedDate(final Instant lastModifiedDate) {
+        this.lastModifiedDate = null == lastModifiedDate ? null : Date.from(lastModifiedDate);
+    }
+}
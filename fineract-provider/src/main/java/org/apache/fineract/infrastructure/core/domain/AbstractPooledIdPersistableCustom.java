@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.domain;
+
+import java.io.Serializable;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.Transient;
+import org.apache.fineract.infrastructure.core.service.PooledIdAllocator;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Variant of {@link AbstractPersistableCustom} for high-volume entities whose ids can come from
+ * {@link PooledIdAllocator} instead of {@link javax.persistence.GenerationType#IDENTITY}. The id is then known before
+ * the row is written, which lets OpenJPA batch the inserts.
+ *
+ * The entities stay on IDENTITY unless {@code fineract.jpa.pooled-ids.enabled} is set, which maps the id onto
+ * {@link org.apache.fineract.infrastructure.openjpa.PooledIdSeq} through {@code META-INF/pooled-id-orm.xml}. An entity
+ * may only extend this class once its table is registered in {@code m_id_pool} and every plain JDBC insert into that
+ * table asks {@link PooledIdAllocator#isEnabled()} whether to take its id from there as well.
+ */
+@MappedSuperclass
+public abstract class AbstractPooledIdPersistableCustom implements Persistable<Long>, Serializable {
+
+    private static final long serialVersionUID = -4632862314502812384L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    protected void setId(final Long id) {
+        this.id = id;
+    }
+
+    @Override
+    @Transient // DATAJPA-622
+    public boolean isNew() {
+        return null == this.id;
+    }
+}
@@ -49,6 +49,13 @@ public class FineractPlatformTenantConnection {
     private final int maxRetriesOnDeadlock;
     private final int maxIntervalBetweenRetries;
     private final boolean testOnBorrow;
+    private final String readOnlySchemaServer;
+    private final String readOnlySchemaServerPort;
+    private final String readOnlySchemaName;
+    private final String readOnlySchemaUsername;
+    private final String readOnlySchemaPassword;
+    private final String readOnlySchemaConnectionParameters;
+    private final int readOnlyMaxReplicationLag;
 
     public FineractPlatformTenantConnection(final Long connectionId, final String schemaName, String schemaServer,
             final String schemaServerPort, final String schemaConnectionParameters, final String schemaUsername,
@@ -56,7 +63,9 @@ public class FineractPlatformTenantConnection {
             final boolean removeAbandoned, final int removeAbandonedTimeout, final boolean logAbandoned,
             final int abandonWhenPercentageFull, final int maxActive, final int minIdle, final int maxIdle, final int suspectTimeout,
             final int timeBetweenEvictionRunsMillis, final int minEvictableIdleTimeMillis, final int maxRetriesOnDeadlock,
-            final int maxIntervalBetweenRetries, final boolean tesOnBorrow) {
+            final int maxIntervalBetweenRetries, final boolean tesOnBorrow, final String readOnlySchemaServer,
+            final String readOnlySchemaServerPort, final String readOnlySchemaName, final String readOnlySchemaUsername,
+            final String readOnlySchemaPassword, final String readOnlySchemaConnectionParameters, final int readOnlyMaxReplicationLag) {
 
         this.connectionId = connectionId;
         this.schemaName = schemaName;
@@ -81,6 +90,13 @@ public class FineractPlatformTenantConnection {
         this.maxRetriesOnDeadlock = maxRetriesOnDeadlock;
         this.maxIntervalBetweenRetries = maxIntervalBetweenRetries;
         this.testOnBorrow = tesOnBorrow;
+        this.readOnlySchemaServer = readOnlySchemaServer;
+        this.readOnlySchemaServerPort = readOnlySchemaServerPort;
+        this.readOnlySchemaName = readOnlySchemaName;
+        this.readOnlySchemaUsername = readOnlySchemaUsername;
+        this.readOnlySchemaPassword = readOnlySchemaPassword;
+        this.readOnlySchemaConnectionParameters = readOnlySchemaConnectionParameters;
+        this.readOnlyMaxReplicationLag = readOnlyMaxReplicationLag;
     }
 
     public String getSchemaServer() {
@@ -167,6 +183,47 @@ public class FineractPlatformTenantConnection {
         return testOnBorrow;
     }
 
+    /**
+     * A read replica is configured when at least its server is set; every other read-only setting falls back to the
+     * primary connection's value.
+     */
+    public boolean hasReadOnlyConnection() {
+        return StringUtils.isNotBlank(this.readOnlySchemaServer);
+    }
+
+    public String getReadOnlySchemaServer() {
+        return this.readOnlySchemaServer;
+    }
+
+    public String getReadOnlySchemaServerPort() {
+        return StringUtils.defaultIfBlank(this.readOnlySchemaServerPort, this.schemaServerPort);
+    }
+
+    public String getReadOnlySchemaName() {
+        return StringUtils.defaultIfBlank(this.readOnlySchemaName, this.schemaName);
+    }
+
+    public String getReadOnlySchemaUsername() {
+        return StringUtils.defaultIfBlank(this.readOnlySchemaUsername, this.schemaUsername);
+    }
+
+    public String getReadOnlySchemaPassword() {
+        return this.readOnlySchemaPassword == null ? this.schemaPassword : this.readOnlySchemaPassword;
+    }
+
+    public String getReadOnlySchemaConnectionParameters() {
+        return this.readOnlySchemaConnectionParameters == null ? this.schemaConnectionParameters
+                : this.readOnlySchemaConnectionParameters;
+    }
+
+    /**
+     * Maximum replication lag, in seconds, tolerated before read-only work falls back to the primary; zero disables
+     * the check.
+     */
+    public int getReadOnlyMaxReplicationLag() {
+        return this.readOnlyMaxReplicationLag;
+    }
+
     public Long getConnectionId() {
         return connectionId;
     }
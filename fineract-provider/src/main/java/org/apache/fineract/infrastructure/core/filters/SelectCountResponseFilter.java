@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.filters;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+import org.apache.fineract.infrastructure.openjpa.SelectCountingJdbcListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the selects OpenJPA ran for a request in the {@value #HEADER} response header, e.g.
+ * {@code m_loan=1,m_loan_transaction=1}, so that tests can hold a command to its fetch plan. Only registered when
+ * {@code fineract.jpa.select-count-header.enabled} is set, as the integration test server does.
+ */
+@Provider
+@Component
+@ConditionalOnProperty("fineract.jpa.select-count-header.enabled")
+public class SelectCountResponseFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    public static final String HEADER = "Fineract-Jpa-Selects";
+
+    @Override
+    public void filter(final ContainerRequestContext request) {
+        SelectCountingJdbcListener.start();
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request, final ContainerResponseContext response) {
+        final Map<String, Integer> selects = SelectCountingJdbcListener.stop();
+        response.getHeaders().add(HEADER,
+                selects.entrySet().stream().map(entry -> entry.getKey() + "=" + entry.getValue()).collect(Collectors.joining(",")));
+    }
+}
@@ -19,8 +19,22 @@
 package org.apache.fineract.infrastructure.core.serialization;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -32,6 +46,8 @@ import org.springframework.stereotype.Component;
 @Component
 public final class DefaultToApiJsonSerializer<T> implements ToApiJsonSerializer<T> {
 
+    private static final String PAGE_ITEMS = "pageItems";
+
     private final ExcludeNothingWithPrettyPrintingOffJsonSerializerGoogleGson excludeNothingWithPrettyPrintingOff;
     private final ExcludeNothingWithPrettyPrintingOnJsonSerializerGoogleGson excludeNothingWithPrettyPrintingOn;
     private final CommandProcessingResultJsonSerializer commandProcessingResultSerializer;
@@ -108,6 +124,114 @@ public final class DefaultToApiJsonSerializer<T> implements ToApiJsonSerializer<
         return serializeWithSettings(delegatedSerializer, settings, singleObject);
     }
 
+    @Override
+    public StreamingOutput serializeStreaming(final ApiRequestJsonSerializationSettings settings, final Collection<T> collection,
+            final Set<String> supportedResponseParameters) {
+        final Gson delegatedSerializer = findAppropriateSerializer(settings, supportedResponseParameters);
+        return streamWithSettings(delegatedSerializer, settings, collection);
+    }
+
+    @Override
+    public StreamingOutput serializeStreaming(final ApiRequestJsonSerializationSettings settings, final T singleObject,
+            final Set<String> supportedResponseParameters) {
+        final Gson delegatedSerializer = findAppropriateSerializer(settings, supportedResponseParameters);
+        return streamWithSettings(delegatedSerializer, settings, singleObject);
+    }
+
+    @Override
+    public StreamingOutput serializeStreaming(final ApiRequestJsonSerializationSettings settings, final Page<T> singleObject,
+            final Set<String> supportedResponseParameters) {
+        final Gson delegatedSerializer = findAppropriateSerializer(settings, supportedResponseParameters);
+        return streamWithSettings(delegatedSerializer, settings, singleObject);
+    }
+
+    /**
+     * Writes the JSON to the response as Gson produces it, element by element for collections and pages, so that no
+     * copy of the payload is held beyond the writer's buffer. The first element is serialized here, before the
+     * response starts, so that a data object Gson cannot handle still ends up as an error status; a failure further
+     * down can only abort the response. The output is the same as that of the {@code serialize} variants.
+     */
+    private StreamingOutput streamWithSettings(final Gson gson, final ApiRequestJsonSerializationSettings settings,
+            final Object dataObject) {
+        final Gson serializer;
+        if (gson != null) {
+            serializer = gson;
+        } else if (settings.isPrettyPrint()) {
+            serializer = this.excludeNothingWithPrettyPrintingOn.getGson();
+        } else {
+            serializer = this.excludeNothingWithPrettyPrintingOff.getGson();
+        }
+
+        if (dataObject instanceof Collection) {
+            final Collection<?> elements = (Collection<?>) dataObject;
+            final JsonElement first = firstElement(serializer, elements);
+            return output -> {
+                final JsonWriter writer = newJsonWriter(serializer, output);
+                writeArray(serializer, elements, first, writer);
+                writer.flush();
+            };
+        }
+        if (dataObject instanceof Page) {
+            final Page<?> page = (Page<?>) dataObject;
+            // the page as Gson writes it, i.e. with the same fields excluded and in the same order, less its items
+            final JsonObject pageFields = serializer.toJsonTree(new Page<>(Collections.emptyList(), page.getTotalFilteredRecords()))
+                    .getAsJsonObject();
+            final List<?> pageItems = page.getPageItems();
+            final JsonElement first = pageItems == null ? null : firstElement(serializer, pageItems);
+            return output -> {
+                final JsonWriter writer = newJsonWriter(serializer, output);
+                writer.beginObject();
+                for (final Map.Entry<String, JsonElement> field : pageFields.entrySet()) {
+                    if (!PAGE_ITEMS.equals(field.getKey())) {
+                        writer.name(field.getKey());
+                        serializer.toJson(field.getValue(), writer);
+                    } else if (pageItems != null) {
+                        writer.name(PAGE_ITEMS);
+                        writeArray(serializer, pageItems, first, writer);
+                    }
+                }
+                writer.endObject();
+                writer.flush();
+            };
+        }
+        return output -> {
+            final JsonWriter writer = newJsonWriter(serializer, output);
+            writeElement(serializer, dataObject, writer);
+            writer.flush();
+        };
+    }
+
+    private static JsonElement firstElement(final Gson serializer, final Collection<?> elements) {
+        final Iterator<?> iterator = elements.iterator();
+        return iterator.hasNext() ? serializer.toJsonTree(iterator.next()) : null;
+    }
+
+    private static JsonWriter newJsonWriter(final Gson serializer, final OutputStream output) throws IOException {
+        return serializer.newJsonWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+    }
+
+    private static void writeArray(final Gson serializer, final Collection<?> elements, final JsonElement first,
+            final JsonWriter writer) throws IOException {
+        writer.beginArray();
+        final Iterator<?> iterator = elements.iterator();
+        if (iterator.hasNext()) {
+            iterator.next();
+            serializer.toJson(first, writer);
+        }
+        while (iterator.hasNext()) {
+            writeElement(serializer, iterator.next(), writer);
+        }
+        writer.endArray();
+    }
+
+    private static void writeElement(final Gson serializer, final Object element, final JsonWriter writer) {
+        if (element == null) {
+            serializer.toJson(JsonNull.INSTANCE, writer);
+        } else {
+            serializer.toJson(element, element.getClass(), writer);
+        }
+    }
+
     private String serializeWithSettings(final Gson gson, final ApiRequestJsonSerializationSettings settings, final Object[] dataObject) {
         String json = null;
         if (gson != null) {
@@ -43,4 +43,8 @@ public final class ExcludeNothingWithPrettyPrintingOnJsonSerializerGoogleGson {
     public String serialize(final Object result) {
         return this.gson.toJson(result);
     }
+
+    Gson getGson() {
+        return this.gson;
+    }
 }
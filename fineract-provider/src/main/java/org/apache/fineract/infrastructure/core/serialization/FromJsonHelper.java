@@ -29,8 +29,10 @@ import java.security.InvalidParameterException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.MonthDay;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
@@ -46,6 +48,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class FromJsonHelper {
 
+    /**
+     * The command currently being processed on this thread, so that validators and deserializers handed the raw JSON of
+     * that command reuse its parsed tree instead of parsing the same payload again.
+     */
+    private static final ThreadLocal<Deque<ParsedJson>> PARSED_COMMANDS = ThreadLocal.withInitial(ArrayDeque::new);
+
     private final Gson gsonConverter;
     private final JsonParserHelper helperDelegator;
 
@@ -83,10 +91,17 @@ public class FromJsonHelper {
             throw new InvalidJsonException();
         }
 
-        final Map<String, Object> requestMap = this.gsonConverter.fromJson(json, typeOfMap);
+        final JsonElement parsedJson = parse(json);
+        final Set<String> providedParameters;
+        if (parsedJson.isJsonObject()) {
+            providedParameters = parsedJson.getAsJsonObject().keySet();
+        } else {
+            final Map<String, Object> requestMap = this.gsonConverter.fromJson(json, typeOfMap);
+            providedParameters = requestMap.keySet();
+        }
 
         final List<String> unsupportedParameterList = new ArrayList<>();
-        for (final String providedParameter : requestMap.keySet()) {
+        for (final String providedParameter : providedParameters) {
             if (!supportedParams.contains(providedParameter)) {
                 unsupportedParameterList.add(providedParameter);
             }
@@ -143,6 +158,11 @@ public class FromJsonHelper {
 
     public JsonElement parse(final String json) {
 
+        final ParsedJson parsedCommand = PARSED_COMMANDS.get().peek();
+        if (parsedCommand != null && parsedCommand.json.equals(json)) {
+            return parsedCommand.element;
+        }
+
         JsonElement parsedElement = null;
         if (StringUtils.isNotBlank(json)) {
             parsedElement = JsonParser.parseString(json);
@@ -150,6 +170,23 @@ public class FromJsonHelper {
         return parsedElement;
     }
 
+    /**
+     * Registers the parsed form of the command processed by the current thread. Until {@link #unbindParsedCommand()} is
+     * called, {@link #parse(String)} returns the given element instead of parsing the same <code>json</code> again.
+     * Bindings nest, so a command that triggers another command gets its own binding back once the inner one is done.
+     */
+    public void bindParsedCommand(final String json, final JsonElement parsedCommand) {
+        PARSED_COMMANDS.get().push(new ParsedJson(StringUtils.defaultString(json), parsedCommand));
+    }
+
+    public void unbindParsedCommand() {
+        final Deque<ParsedJson> parsedCommands = PARSED_COMMANDS.get();
+        parsedCommands.poll();
+        if (parsedCommands.isEmpty()) {
+            PARSED_COMMANDS.remove();
+        }
+    }
+
     public boolean parameterExists(final String parameterName, final JsonElement element) {
         return this.helperDelegator.parameterExists(parameterName, element);
     }
@@ -290,4 +327,14 @@ public class FromJsonHelper {
         return this.gsonConverter;
     }
 
+    private static final class ParsedJson {
+
+        private final String json;
+        private final JsonElement element;
+
+        ParsedJson(final String json, final JsonElement element) {
+            this.json = json;
+            this.element = element;
+        }
+    }
 }
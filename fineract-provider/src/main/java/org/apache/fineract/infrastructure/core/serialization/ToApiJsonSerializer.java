@@ -20,6 +20,7 @@ package org.apache.fineract.infrastructure.core.serialization;
 
 import java.util.Collection;
 import java.util.Set;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.fineract.infrastructure.core.service.Page;
 
 public interface ToApiJsonSerializer<T> {
@@ -46,4 +47,14 @@ public interface ToApiJsonSerializer<T> {
     String serialize(ApiRequestJsonSerializationSettings settings, T single, Set<String> supportedResponseParameters);
 
     String serialize(ApiRequestJsonSerializationSettings settings, Page<T> singleObject, Set<String> supportedResponseParameters);
+
+    // Streaming variants of the above for large read responses: the JSON is written straight to the response output
+    // stream while Jersey sends it, instead of being built up as a String in memory first.
+    StreamingOutput serializeStreaming(ApiRequestJsonSerializationSettings settings, Collection<T> collection,
+            Set<String> supportedResponseParameters);
+
+    StreamingOutput serializeStreaming(ApiRequestJsonSerializationSettings settings, T single, Set<String> supportedResponseParameters);
+
+    StreamingOutput serializeStreaming(ApiRequestJsonSerializationSettings settings, Page<T> singleObject,
+            Set<String> supportedResponseParameters);
 }
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.sql.DataSource;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out primary keys for tables registered in {@code m_id_pool} when {@code fineract.jpa.pooled-ids.enabled} is
+ * set. Keys are reserved from the database in blocks of {@link #ALLOCATION_SIZE} and served from memory, so inserted
+ * rows carry their id up front and JDBC/OpenJPA can batch the inserts instead of reading back one generated key per
+ * row.
+ *
+ * While enabled, every writer of a pooled table, JPA or plain JDBC, must take its ids from here, on every node; mixing
+ * in auto-increment inserts would hand out the same key twice. Each reservation moves the pool past the current
+ * {@code MAX(id)} of the table, so enabling it after a period on auto-increment is safe. Going back is not on
+ * PostgreSQL, whose sequences do not move past the explicitly inserted ids until they are reset.
+ */
+@Component
+public class PooledIdAllocator {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    private static final String RESERVE_SQL = "UPDATE m_id_pool SET next_value = GREATEST(next_value, "
+            + "(SELECT COALESCE(MAX(id), 0) + 1 FROM %s)) + ? WHERE entity_table = ?";
+    private static final String RESERVED_SQL = "SELECT next_value FROM m_id_pool WHERE entity_table = ?";
+
+    private final ConcurrentMap<String, IdBlock> blocks = new ConcurrentHashMap<>();
+    private final TomcatJdbcDataSourcePerTenantService dataSourceService;
+    private final boolean enabled;
+
+    @Autowired
+    public PooledIdAllocator(final TomcatJdbcDataSourcePerTenantService dataSourceService,
+            @Value("${fineract.jpa.pooled-ids.enabled:false}") final boolean enabled) {
+        this.dataSourceService = dataSourceService;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public long nextId(final String tableName) {
+        if (!this.enabled) {
+            throw new IllegalStateException("Pooled ids are disabled, " + tableName + " uses auto-increment keys");
+        }
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final String key = (tenant == null ? "" : tenant.getTenantIdentifier()) + ":" + tableName;
+        final IdBlock block = this.blocks.computeIfAbsent(key, k -> new IdBlock());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                block.limit = reserve(this.dataSourceService.retrieveIdAllocationDataSource(), tableName);
+                block.next = block.limit - ALLOCATION_SIZE;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Reserves the next block and commits it straight away, so a rollback of the caller's transaction can never give
+     * the block back to another node while this one still serves it. The reservation runs on the tenant's id
+     * allocation pool rather than the tenant pool, which the caller may have exhausted itself.
+     */
+    private static long reserve(final DataSource dataSource, final String tableName) {
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement reserve = connection.prepareStatement(String.format(RESERVE_SQL, tableName));
+                    PreparedStatement reserved = connection.prepareStatement(RESERVED_SQL)) {
+                reserve.setLong(1, ALLOCATION_SIZE);
+                reserve.setString(2, tableName);
+                if (reserve.executeUpdate() != 1) {
+                    throw new DataRetrievalFailureException("No id pool is registered for table " + tableName);
+                }
+                reserved.setString(1, tableName);
+                final long limit;
+                try (ResultSet resultSet = reserved.executeQuery()) {
+                    resultSet.next();
+                    limit = resultSet.getLong(1);
+                }
+                connection.commit();
+                return limit;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new DataRetrievalFailureException("Could not reserve ids for table " + tableName, e);
+        }
+    }
+
+    private static final class IdBlock {
+
+        private long next;
+        private long limit;
+    }
+}
@@ -23,33 +23,115 @@ import static org.apache.fineract.infrastructure.core.domain.FineractPlatformTen
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import javax.sql.DataSource;
 import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenantConnection;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseTypeResolver;
+import org.apache.fineract.infrastructure.core.service.migration.TenantDatabaseUpgradeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Implementation that returns a new or existing connection pool datasource based on the tenant details stored in a
  * {@link ThreadLocal} variable for this request.
  *
  * {@link ThreadLocalContextUtil} is used to retrieve the {@link FineractPlatformTenant} for the request.
+ *
+ * When the tenant declares a read replica and the current transaction is read only (e.g.
+ * {@code @Transactional(readOnly = true)}), connections are served from a separate replica pool as long as the replica
+ * is reachable and its replication lag stays within the tenant's configured limit; otherwise the primary pool is used.
+ * Replica health is checked in the background, never on the request thread, and the choice is made once per transaction
+ * so that a health change halfway through cannot mix replica and primary connections within it.
+ *
+ * Every pool publishes the Hikari connection meters ({@code hikaricp.connections.*}) tagged with its pool name, so the
+ * primary ({@code <schema>_pool}) and replica ({@code <schema>_readonly_pool}) pools can be told apart, and the
+ * {@code fineract.datasource.readonly.transactions} counter tells how many read-only transactions went to either.
+ *
+ * Pools are created on the first request for a tenant. With {@code fineract.tenant-activation.lazy} enabled the tenant
+ * schema is verified at that point as well, and the pools keep no idle connections: a tenant without traffic for the
+ * configured Hikari idle timeout drops to zero connections and counts as dormant until its next request.
  */
 @Service
 public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(TomcatJdbcDataSourcePerTenantService.class);
+    private static final long REPLICA_CHECK_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final int REPLICA_CHECK_TIMEOUT_SECONDS = 2;
+    // a healthy result is trusted for this long, so a check stuck waiting for a connection fails over to the primary
+    private static final long REPLICA_HEALTHY_VALIDITY_MILLIS = 3 * REPLICA_CHECK_INTERVAL_MILLIS;
+    // MySQL ER_SPECIFIC_ACCESS_DENIED_ERROR and the SQL state for insufficient privileges on PostgreSQL
+    private static final int MYSQL_ACCESS_DENIED_ERROR_CODE = 1227;
+    private static final String INSUFFICIENT_PRIVILEGE_SQL_STATE = "42501";
+    private static final int ID_ALLOCATION_POOL_SIZE = 2;
+
     private final Map<Long, DataSource> tenantToDataSourceMap = new HashMap<>(1);
+    private final Map<Long, ReadReplicaDataSource> tenantToReadReplicaMap = new HashMap<>(1);
+    private final Map<Long, DataSource> tenantToIdAllocationDataSourceMap = new HashMap<>(1);
     private final DataSource tenantDataSource;
+    // one housekeeping thread for all tenant pools instead of one per pool
+    private final ScheduledThreadPoolExecutor poolHousekeeper;
+    // replica health checks run here, never on a request thread
+    private final ScheduledThreadPoolExecutor replicaHealthChecker;
+    private final MeterRegistry meterRegistry;
+    private final Counter replicaRoutedTransactions;
+    private final Counter primaryRoutedTransactions;
 
     @Autowired
     private HikariConfig hikariConfig;
 
     @Autowired
-    public TomcatJdbcDataSourcePerTenantService(final @Qualifier("hikariTenantDataSource") DataSource tenantDataSource) {
+    private DatabaseTypeResolver databaseTypeResolver;
+
+    @Autowired
+    private TenantDatabaseUpgradeService tenantDatabaseUpgradeService;
+
+    @Value("${fineract.tenant-activation.lazy:false}")
+    private boolean lazyActivation;
+
+    @Autowired
+    public TomcatJdbcDataSourcePerTenantService(final @Qualifier("hikariTenantDataSource") DataSource tenantDataSource,
+            final MeterRegistry meterRegistry) {
         this.tenantDataSource = tenantDataSource;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("fineract.tenants.active", this, TomcatJdbcDataSourcePerTenantService::getActiveTenantCount)
+                .description("Tenants whose pool holds at least one connection").register(meterRegistry);
+        Gauge.builder("fineract.tenants.dormant", this, TomcatJdbcDataSourcePerTenantService::getDormantTenantCount)
+                .description("Activated tenants whose pool has shrunk to zero connections").register(meterRegistry);
+        this.replicaRoutedTransactions = Counter.builder("fineract.datasource.readonly.transactions").tag("target", "replica")
+                .description("Read-only transactions of tenants with a read replica, by the pool they were routed to")
+                .register(meterRegistry);
+        this.primaryRoutedTransactions = Counter.builder("fineract.datasource.readonly.transactions").tag("target", "primary")
+                .description("Read-only transactions of tenants with a read replica, by the pool they were routed to")
+                .register(meterRegistry);
+        this.poolHousekeeper = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "tenant-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.poolHousekeeper.setRemoveOnCancelPolicy(true);
+        this.replicaHealthChecker = new ScheduledThreadPoolExecutor(1, runnable -> {
+            final Thread thread = new Thread(runnable, "read-replica-health-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     @Override
@@ -61,15 +143,29 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         if (tenant != null) {
             final FineractPlatformTenantConnection tenantConnection = tenant.getConnection();
 
+            if (tenantConnection.hasReadOnlyConnection() && isReadOnlyTransaction()) {
+                final ReadReplicaDataSource readReplica = retrieveReadReplicaFor(tenantConnection);
+                if (routeToReadReplica(readReplica, readReplica::isAvailable)) {
+                    return readReplica.getDataSource();
+                }
+            }
+
             synchronized (this.tenantToDataSourceMap) {
                 // if tenantConnection information available switch to the
                 // appropriate datasource for that tenant.
-                DataSource possibleDS = this.tenantToDataSourceMap.get(tenantConnection.getConnectionId());
-                if (possibleDS != null) {
-                    tenantDataSource = possibleDS;
-                } else {
-                    tenantDataSource = createNewDataSourceFor(tenantConnection);
-                    this.tenantToDataSourceMap.put(tenantConnection.getConnectionId(), tenantDataSource);
+                tenantDataSource = this.tenantToDataSourceMap.get(tenantConnection.getConnectionId());
+            }
+            if (tenantDataSource == null) {
+                // outside the lock, so a tenant whose schema is being upgraded does not hold up the others
+                this.tenantDatabaseUpgradeService.activateTenant(tenant);
+                synchronized (this.tenantToDataSourceMap) {
+                    tenantDataSource = this.tenantToDataSourceMap.get(tenantConnection.getConnectionId());
+                    if (tenantDataSource == null) {
+                        tenantDataSource = createNewDataSourceFor(tenantConnection);
+                        this.tenantToDataSourceMap.put(tenantConnection.getConnectionId(), tenantDataSource);
+                        LOG.info("Activated tenant {}, {} tenant pools are open", tenant.getTenantIdentifier(),
+                                this.tenantToDataSourceMap.size());
+                    }
                 }
             }
         }
@@ -77,26 +173,160 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         return tenantDataSource;
     }
 
+    /**
+     * Small per tenant pool for the {@link PooledIdAllocator} block reservations. Kept apart from the tenant pool: the
+     * caller usually holds a tenant connection already, so taking a second one there could wait forever once every
+     * connection of the pool belongs to a thread doing the same.
+     */
+    public DataSource retrieveIdAllocationDataSource() {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        if (tenant == null) {
+            return this.tenantDataSource;
+        }
+        final FineractPlatformTenantConnection tenantConnection = tenant.getConnection();
+        synchronized (this.tenantToIdAllocationDataSourceMap) {
+            return this.tenantToIdAllocationDataSourceMap.computeIfAbsent(tenantConnection.getConnectionId(),
+                    connectionId -> createIdAllocationDataSourceFor(tenantConnection));
+        }
+    }
+
+    /**
+     * Number of tenants whose pool currently holds at least one connection.
+     */
+    public int getActiveTenantCount() {
+        int active = 0;
+        synchronized (this.tenantToDataSourceMap) {
+            for (final DataSource dataSource : this.tenantToDataSourceMap.values()) {
+                if (getTotalConnections(dataSource) > 0) {
+                    active++;
+                }
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Number of tenants that have been activated since startup but whose pool has shrunk to zero connections.
+     */
+    public int getDormantTenantCount() {
+        synchronized (this.tenantToDataSourceMap) {
+            return this.tenantToDataSourceMap.size() - getActiveTenantCount();
+        }
+    }
+
+    private static int getTotalConnections(final DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource && ((HikariDataSource) dataSource).getHikariPoolMXBean() != null) {
+            return ((HikariDataSource) dataSource).getHikariPoolMXBean().getTotalConnections();
+        }
+        return 0;
+    }
+
+    private static boolean isReadOnlyTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Whether the current read-only transaction goes to the replica. The answer is taken on its first connection and
+     * bound to the transaction under the replica's key, later connections of the same transaction get the same answer
+     * whatever the health checker found in the meantime.
+     */
+    boolean routeToReadReplica(final Object readReplica, final BooleanSupplier available) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return available.getAsBoolean();
+        }
+        final Boolean routed = (Boolean) TransactionSynchronizationManager.getResource(readReplica);
+        if (routed != null) {
+            return routed;
+        }
+        final boolean toReplica = available.getAsBoolean();
+        TransactionSynchronizationManager.bindResource(readReplica, toReplica);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            @Override
+            public void afterCompletion(final int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(readReplica);
+            }
+        });
+        (toReplica ? this.replicaRoutedTransactions : this.primaryRoutedTransactions).increment();
+        return toReplica;
+    }
+
+    private ReadReplicaDataSource retrieveReadReplicaFor(final FineractPlatformTenantConnection tenantConnection) {
+        synchronized (this.tenantToReadReplicaMap) {
+            return this.tenantToReadReplicaMap.computeIfAbsent(tenantConnection.getConnectionId(), connectionId -> {
+                final ReadReplicaDataSource readReplica = new ReadReplicaDataSource(createReadReplicaDataSourceFor(tenantConnection),
+                        tenantConnection.getReadOnlyMaxReplicationLag());
+                this.replicaHealthChecker.scheduleWithFixedDelay(readReplica::check, 0, REPLICA_CHECK_INTERVAL_MILLIS,
+                        TimeUnit.MILLISECONDS);
+                return readReplica;
+            });
+        }
+    }
+
     // creates the tenant data source for the oltp and report database
     private DataSource createNewDataSourceFor(final FineractPlatformTenantConnection tenantConnectionObj) {
         String protocol = toProtocol(this.tenantDataSource);
         String jdbcUrl = toJdbcUrl(protocol, tenantConnectionObj.getSchemaServer(), tenantConnectionObj.getSchemaServerPort(),
                 tenantConnectionObj.getSchemaName(), tenantConnectionObj.getSchemaConnectionParameters());
 
+        HikariConfig config = createPoolConfig(tenantConnectionObj, tenantConnectionObj.getSchemaName() + "_pool", jdbcUrl,
+                tenantConnectionObj.getSchemaUsername(), tenantConnectionObj.getSchemaPassword());
+        return new HikariDataSource(config);
+    }
+
+    private DataSource createIdAllocationDataSourceFor(final FineractPlatformTenantConnection tenantConnectionObj) {
+        String protocol = toProtocol(this.tenantDataSource);
+        String jdbcUrl = toJdbcUrl(protocol, tenantConnectionObj.getSchemaServer(), tenantConnectionObj.getSchemaServerPort(),
+                tenantConnectionObj.getSchemaName(), tenantConnectionObj.getSchemaConnectionParameters());
+
+        HikariConfig config = createPoolConfig(tenantConnectionObj, tenantConnectionObj.getSchemaName() + "_id_pool", jdbcUrl,
+                tenantConnectionObj.getSchemaUsername(), tenantConnectionObj.getSchemaPassword());
+        config.setMinimumIdle(0);
+        config.setMaximumPoolSize(ID_ALLOCATION_POOL_SIZE);
+        config.setIdleTimeout(hikariConfig.getIdleTimeout());
+        return new HikariDataSource(config);
+    }
+
+    // creates the read replica data source; the pool is built without connecting so an unreachable replica only makes
+    // read-only work fall back to the primary instead of failing the request
+    private HikariDataSource createReadReplicaDataSourceFor(final FineractPlatformTenantConnection tenantConnectionObj) {
+        String protocol = toProtocol(this.tenantDataSource);
+        String jdbcUrl = toJdbcUrl(protocol, tenantConnectionObj.getReadOnlySchemaServer(),
+                tenantConnectionObj.getReadOnlySchemaServerPort(), tenantConnectionObj.getReadOnlySchemaName(),
+                tenantConnectionObj.getReadOnlySchemaConnectionParameters());
+
+        HikariConfig config = createPoolConfig(tenantConnectionObj, tenantConnectionObj.getReadOnlySchemaName() + "_readonly_pool",
+                jdbcUrl, tenantConnectionObj.getReadOnlySchemaUsername(), tenantConnectionObj.getReadOnlySchemaPassword());
+        config.setReadOnly(true);
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    private HikariConfig createPoolConfig(final FineractPlatformTenantConnection tenantConnectionObj, final String poolName,
+            final String jdbcUrl, final String username, final String password) {
         HikariConfig config = new HikariConfig();
         config.setDriverClassName(hikariConfig.getDriverClassName());
-        config.setPoolName(tenantConnectionObj.getSchemaName() + "_pool");
+        config.setPoolName(poolName);
         config.setJdbcUrl(jdbcUrl);
-        config.setUsername(tenantConnectionObj.getSchemaUsername());
-        config.setPassword(tenantConnectionObj.getSchemaPassword());
+        config.setUsername(username);
+        config.setPassword(password);
         config.setMinimumIdle(tenantConnectionObj.getInitialSize());
         config.setMaximumPoolSize(tenantConnectionObj.getMaxActive());
+        if (this.lazyActivation) {
+            // idle connections are retired after the shared idle timeout until the pool is empty
+            config.setMinimumIdle(0);
+            config.setIdleTimeout(hikariConfig.getIdleTimeout());
+        }
+        config.setScheduledExecutor(this.poolHousekeeper);
         config.setConnectionTestQuery(hikariConfig.getConnectionTestQuery());
         config.setValidationTimeout(tenantConnectionObj.getValidationInterval());
         config.setAutoCommit(hikariConfig.isAutoCommit());
 
         // https://github.com/brettwooldridge/HikariCP/wiki/MBean-(JMX)-Monitoring-and-Management
         config.setRegisterMbeans(true);
+        // hikaricp.connections.* meters, tagged with the pool name
+        config.setMetricRegistry(this.meterRegistry);
 
         // https://github.com/brettwooldridge/HikariCP/wiki/MySQL-Configuration
         // These are the properties for each Tenant DB; the same configuration
@@ -104,6 +334,96 @@ public class TomcatJdbcDataSourcePerTenantService implements RoutingDataSourceSe
         // for the all Tenants DB -->
         config.setDataSourceProperties(hikariConfig.getDataSourceProperties());
 
-        return new HikariDataSource(config);
+        return config;
+    }
+
+    private String replicationLagQuery() {
+        if (databaseTypeResolver.isMySQL()) {
+            return "SHOW SLAVE STATUS";
+        } else if (databaseTypeResolver.isPostgreSQL()) {
+            return "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+                    + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END AS lag";
+        } else {
+            throw new IllegalStateException("Database type is not supported for replication lag " + databaseTypeResolver.databaseType());
+        }
+    }
+
+    /**
+     * Read replica pool together with its last known health. The health is checked every
+     * {@link #REPLICA_CHECK_INTERVAL_MILLIS} on the background health checker; request threads only read the result,
+     * which expires after {@link #REPLICA_HEALTHY_VALIDITY_MILLIS} without a successful check. Until the first check
+     * succeeds, read-only work goes to the primary.
+     */
+    private final class ReadReplicaDataSource {
+
+        private final HikariDataSource dataSource;
+        private final int maxReplicationLag;
+        private volatile long healthyUntil;
+        private boolean available;
+        private boolean replicationLagReadable = true;
+
+        ReadReplicaDataSource(final HikariDataSource dataSource, final int maxReplicationLag) {
+            this.dataSource = dataSource;
+            this.maxReplicationLag = maxReplicationLag;
+        }
+
+        DataSource getDataSource() {
+            return this.dataSource;
+        }
+
+        boolean isAvailable() {
+            return System.currentTimeMillis() < this.healthyUntil;
+        }
+
+        // only ever called from the health checker thread
+        void check() {
+            final boolean healthy = checkHealth();
+            this.healthyUntil = healthy ? System.currentTimeMillis() + REPLICA_HEALTHY_VALIDITY_MILLIS : 0;
+            if (healthy != this.available) {
+                if (healthy) {
+                    LOG.info("Routing read-only transactions to {}", this.dataSource.getPoolName());
+                } else {
+                    LOG.warn("Read replica {} is unavailable or lagging, routing read-only transactions to the primary",
+                            this.dataSource.getPoolName());
+                }
+                this.available = healthy;
+            }
+        }
+
+        private boolean checkHealth() {
+            try (Connection connection = this.dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                if (this.maxReplicationLag <= 0 || !this.replicationLagReadable) {
+                    return connection.isValid(REPLICA_CHECK_TIMEOUT_SECONDS);
+                }
+                statement.setQueryTimeout(REPLICA_CHECK_TIMEOUT_SECONDS);
+                try (ResultSet resultSet = statement.executeQuery(replicationLagQuery())) {
+                    if (!resultSet.next()) {
+                        // not configured as a replica (e.g. a clustered node), nothing to lag behind
+                        return true;
+                    }
+                    final long lag = databaseTypeResolver.isMySQL() ? resultSet.getLong("Seconds_Behind_Master") : resultSet.getLong(1);
+                    // a null lag means the replication threads are stopped
+                    return !resultSet.wasNull() && lag <= this.maxReplicationLag;
+                } catch (SQLException e) {
+                    if (!isMissingPrivilege(e)) {
+                        throw e;
+                    }
+                    // e.g. SHOW SLAVE STATUS without REPLICATION CLIENT: fall back to reachability instead of
+                    // keeping the replica unhealthy until the grant is fixed
+                    LOG.warn("Cannot read the replication lag of {}, the user lacks the privilege; only checking that it is reachable",
+                            this.dataSource.getPoolName(), e);
+                    this.replicationLagReadable = false;
+                    return connection.isValid(REPLICA_CHECK_TIMEOUT_SECONDS);
+                }
+            } catch (SQLException e) {
+                LOG.debug("Read replica {} health check failed", this.dataSource.getPoolName(), e);
+                return false;
+            }
+        }
+
+        private boolean isMissingPrivilege(final SQLException e) {
+            return (databaseTypeResolver.isMySQL() && e.getErrorCode() == MYSQL_ACCESS_DENIED_ERROR_CODE)
+                    || INSUFFICIENT_PRIVILEGE_SQL_STATE.equals(e.getSQLState());
+        }
     }
 }
@@ -18,11 +18,25 @@
  */
 package org.apache.fineract.infrastructure.core.service.migration;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import javax.sql.DataSource;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternUtils;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -47,4 +61,37 @@ public class ExtendedSpringLiquibaseFactory {
         return new ExtendedSpringLiquibaseBuilder(liquibaseProperties).withDataSource(dataSource).withResourceLoader(resourceLoader)
                 .withContexts(contexts).withContexts(environment.getActiveProfiles()).withContext(databaseContext).build();
     }
+
+    /**
+     * SHA-256 over every changelog file bundled next to the master changelog plus the contexts a run with the given
+     * contexts would use. Two runs with the same checksum apply exactly the same changesets.
+     */
+    public String changeLogChecksum(String... contexts) {
+        String changeLog = StringUtils.removeStart(liquibaseProperties.getChangeLog(), "classpath:");
+        String changeLogDirectory = StringUtils.substringBeforeLast(changeLog, "/");
+        try {
+            Map<String, Resource> changeLogFiles = new TreeMap<>();
+            for (Resource resource : ResourcePatternUtils.getResourcePatternResolver(resourceLoader)
+                    .getResources("classpath*:" + changeLogDirectory + "/**/*.xml")) {
+                changeLogFiles.put(StringUtils.substringAfter(resource.getURL().toString(), changeLogDirectory), resource);
+            }
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            TreeSet<String> allContexts = new TreeSet<>(Arrays.asList(contexts));
+            allContexts.addAll(Arrays.asList(environment.getActiveProfiles()));
+            allContexts.add(databaseAwareMigrationContextProvider.provide());
+            digest.update(String.join(",", allContexts).getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, Resource> changeLogFile : changeLogFiles.entrySet()) {
+                digest.update(changeLogFile.getKey().getBytes(StandardCharsets.UTF_8));
+                try (InputStream in = changeLogFile.getValue().getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the bundled changelog files", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
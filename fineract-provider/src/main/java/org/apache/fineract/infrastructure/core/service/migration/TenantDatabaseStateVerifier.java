@@ -18,12 +18,14 @@
  */
 package org.apache.fineract.infrastructure.core.service.migration;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import javax.sql.DataSource;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseIndependentQueryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
@@ -59,6 +61,22 @@ public class TenantDatabaseStateVerifier {
         return !liquibaseProperties.isEnabled();
     }
 
+    /**
+     * Changelog checksum recorded in the tenant store after the last successful upgrade of each tenant, keyed by tenant
+     * identifier.
+     */
+    public Map<String, String> findTenantChangeLogChecksums(DataSource tenantStoreDataSource) {
+        Map<String, String> checksums = new HashMap<>();
+        new JdbcTemplate(tenantStoreDataSource).query("SELECT identifier, schema_changelog_checksum FROM tenants",
+                rs -> checksums.put(rs.getString("identifier"), rs.getString("schema_changelog_checksum")));
+        return checksums;
+    }
+
+    public void recordTenantChangeLogChecksum(DataSource tenantStoreDataSource, String tenantIdentifier, String changeLogChecksum) {
+        new JdbcTemplate(tenantStoreDataSource).update("UPDATE tenants SET schema_changelog_checksum = ? WHERE identifier = ?",
+                changeLogChecksum, tenantIdentifier);
+    }
+
     public boolean isTenantStoreOnLatestUpgradableVersion(DataSource dataSource) {
         return isOnLatestFlywayVersion(TENANT_STORE_LATEST_FLYWAY_VERSION, TENANT_STORE_LATEST_FLYWAY_SCRIPT_NAME,
                 TENANT_STORE_LATEST_FLYWAY_SCRIPT_CHECKSUM, dataSource);
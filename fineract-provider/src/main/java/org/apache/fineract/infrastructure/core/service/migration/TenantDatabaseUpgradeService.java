@@ -21,23 +21,46 @@ package org.apache.fineract.infrastructure.core.service.migration;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 
 import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import javax.sql.DataSource;
+import liquibase.Scope;
+import liquibase.ThreadLocalScopeManager;
 import liquibase.exception.LiquibaseException;
 import liquibase.integration.spring.SpringLiquibase;
 import org.apache.fineract.infrastructure.core.config.FineractProperties;
 import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenantConnection;
 import org.apache.fineract.infrastructure.security.service.TenantDetailsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * A service that picks up on tenants that are configured to auto-update their specific schema on application startup.
+ *
+ * Tenants are upgraded concurrently on a bounded pool. The checksum of the bundled tenant changelog is recorded in the
+ * tenant store after a successful upgrade, and tenants whose recorded checksum matches are not handed to Liquibase at
+ * all.
+ *
+ * With {@code fineract.tenant-activation.lazy} enabled only the tenant store is upgraded at startup; each tenant schema
+ * is verified the first time the tenant is used, see {@link #activateTenant(FineractPlatformTenant)}.
  */
 @Service
 public class TenantDatabaseUpgradeService implements InitializingBean {
@@ -53,18 +76,26 @@ public class TenantDatabaseUpgradeService implements InitializingBean {
     private final TenantDatabaseStateVerifier databaseStateVerifier;
     private final ExtendedSpringLiquibaseFactory liquibaseFactory;
     private final TenantDataSourceFactory tenantDataSourceFactory;
+    private final int upgradeThreads;
+    private final boolean lazyActivation;
+    private final ConcurrentMap<String, Object> schemaLocks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Void>> tenantActivations = new ConcurrentHashMap<>();
+    private volatile String tenantChangeLogChecksum;
 
     @Autowired
     public TenantDatabaseUpgradeService(final TenantDetailsService detailsService,
             @Qualifier("hikariTenantDataSource") final HikariDataSource tenantDataSource, final FineractProperties fineractProperties,
             TenantDatabaseStateVerifier databaseStateVerifier, ExtendedSpringLiquibaseFactory liquibaseFactory,
-            TenantDataSourceFactory tenantDataSourceFactory) {
+            TenantDataSourceFactory tenantDataSourceFactory, @Value("${fineract.tenant-upgrade.threads:4}") int upgradeThreads,
+            @Value("${fineract.tenant-activation.lazy:false}") boolean lazyActivation) {
         this.tenantDetailsService = detailsService;
         this.tenantDataSource = tenantDataSource;
         this.fineractProperties = fineractProperties;
         this.databaseStateVerifier = databaseStateVerifier;
         this.liquibaseFactory = liquibaseFactory;
         this.tenantDataSourceFactory = tenantDataSourceFactory;
+        this.upgradeThreads = Math.max(1, upgradeThreads);
+        this.lazyActivation = lazyActivation;
     }
 
     @Override
@@ -73,9 +104,16 @@ public class TenantDatabaseUpgradeService implements InitializingBean {
             LOG.warn("Liquibase is disabled. Not upgrading any database.");
             return;
         }
+        // Liquibase keeps its execution scope in a static by default, which the parallel upgrades and the lazy
+        // activations on request threads would share
+        Scope.setScopeManager(new ThreadLocalScopeManager());
         try {
             upgradeTenantStore();
-            upgradeIndividualTenants();
+            if (lazyActivation) {
+                LOG.warn("Lazy tenant activation is enabled, tenant schemas are verified on first use");
+            } else {
+                upgradeIndividualTenants();
+            }
         } catch (LiquibaseException e) {
             throw new RuntimeException("Error while migrating the schema", e);
         }
@@ -108,24 +146,136 @@ public class TenantDatabaseUpgradeService implements InitializingBean {
         LOG.warn("Upgrading all tenants");
         List<FineractPlatformTenant> tenants = tenantDetailsService.findAllTenants();
         if (isNotEmpty(tenants)) {
+            String changeLogChecksum = getTenantChangeLogChecksum();
+            Map<String, String> recordedChecksums = databaseStateVerifier.findTenantChangeLogChecksums(tenantDataSource);
+            List<Callable<Void>> upgrades = new ArrayList<>();
             for (FineractPlatformTenant tenant : tenants) {
-                upgradeIndividualTenant(tenant);
+                if (changeLogChecksum != null && changeLogChecksum.equals(recordedChecksums.get(tenant.getTenantIdentifier()))) {
+                    LOG.info("Tenant {} is already on the bundled changelog, skipping upgrade", tenant.getTenantIdentifier());
+                    continue;
+                }
+                upgrades.add(() -> {
+                    upgradeIndividualTenant(tenant);
+                    databaseStateVerifier.recordTenantChangeLogChecksum(tenantDataSource, tenant.getTenantIdentifier(), changeLogChecksum);
+                    return null;
+                });
             }
+            LOG.warn("{} of {} tenants need an upgrade", upgrades.size(), tenants.size());
+            runUpgrades(upgrades);
         }
         LOG.warn("Tenant upgrades have finished");
     }
 
+    /**
+     * Makes sure the tenant's schema is on the bundled changelog before it is used. Only does work with lazy activation
+     * enabled, and only once per tenant: concurrent first requests wait for the one running the upgrade, and a failed
+     * upgrade is retried by the next request.
+     */
+    public void activateTenant(FineractPlatformTenant tenant) {
+        if (!lazyActivation) {
+            return;
+        }
+        CompletableFuture<Void> activation = tenantActivations.get(tenant.getTenantIdentifier());
+        if (activation == null) {
+            CompletableFuture<Void> newActivation = new CompletableFuture<>();
+            activation = tenantActivations.putIfAbsent(tenant.getTenantIdentifier(), newActivation);
+            if (activation == null) {
+                activation = newActivation;
+                try {
+                    upgradeChangedTenant(tenant);
+                    newActivation.complete(null);
+                } catch (LiquibaseException | RuntimeException e) {
+                    tenantActivations.remove(tenant.getTenantIdentifier(), newActivation);
+                    newActivation.completeExceptionally(e);
+                }
+            }
+        }
+        try {
+            activation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Error while migrating the schema of tenant " + tenant.getTenantIdentifier(), e.getCause());
+        }
+    }
+
+    private void upgradeChangedTenant(FineractPlatformTenant tenant) throws LiquibaseException {
+        String changeLogChecksum = getTenantChangeLogChecksum();
+        String recordedChecksum = databaseStateVerifier.findTenantChangeLogChecksums(tenantDataSource).get(tenant.getTenantIdentifier());
+        if (changeLogChecksum != null && changeLogChecksum.equals(recordedChecksum)) {
+            LOG.info("Tenant {} is already on the bundled changelog", tenant.getTenantIdentifier());
+            return;
+        }
+        upgradeIndividualTenant(tenant);
+        databaseStateVerifier.recordTenantChangeLogChecksum(tenantDataSource, tenant.getTenantIdentifier(), changeLogChecksum);
+    }
+
+    private String getTenantChangeLogChecksum() {
+        String checksum = tenantChangeLogChecksum;
+        if (checksum == null) {
+            checksum = liquibaseFactory.changeLogChecksum(TENANT_DB_CONTEXT);
+            tenantChangeLogChecksum = checksum;
+        }
+        return checksum;
+    }
+
+    private void runUpgrades(List<Callable<Void>> upgrades) throws LiquibaseException {
+        if (upgrades.isEmpty()) {
+            return;
+        }
+        int threads = Math.min(upgradeThreads, upgrades.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> results = executor.invokeAll(upgrades);
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while upgrading tenants", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LiquibaseException) {
+                throw (LiquibaseException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private void upgradeIndividualTenant(FineractPlatformTenant tenant) throws LiquibaseException {
-        LOG.info("Upgrade for tenant {} has started", tenant.getTenantIdentifier());
-        DataSource tenantDataSource = tenantDataSourceFactory.create(tenant);
-        if (databaseStateVerifier.isFirstLiquibaseMigration(tenantDataSource)) {
-            ExtendedSpringLiquibase liquibase = liquibaseFactory.create(tenantDataSource, TENANT_DB_CONTEXT, INITIAL_SWITCH_CONTEXT);
-            applyInitialLiquibase(tenantDataSource, liquibase, tenant.getTenantIdentifier(),
-                    (ds) -> !databaseStateVerifier.isTenantOnLatestUpgradableVersion(ds));
+        // tenants sharing a schema are upgraded one after the other
+        synchronized (schemaLocks.computeIfAbsent(schemaKey(tenant), key -> new Object())) {
+            LOG.info("Upgrade for tenant {} has started", tenant.getTenantIdentifier());
+            DataSource tenantDataSource = tenantDataSourceFactory.create(tenant);
+            try {
+                if (databaseStateVerifier.isFirstLiquibaseMigration(tenantDataSource)) {
+                    ExtendedSpringLiquibase liquibase = liquibaseFactory.create(tenantDataSource, TENANT_DB_CONTEXT,
+                            INITIAL_SWITCH_CONTEXT);
+                    applyInitialLiquibase(tenantDataSource, liquibase, tenant.getTenantIdentifier(),
+                            (ds) -> !databaseStateVerifier.isTenantOnLatestUpgradableVersion(ds));
+                }
+                SpringLiquibase tenantLiquibase = liquibaseFactory.create(tenantDataSource, TENANT_DB_CONTEXT);
+                tenantLiquibase.afterPropertiesSet();
+            } finally {
+                if (tenantDataSource instanceof HikariDataSource) {
+                    ((HikariDataSource) tenantDataSource).close();
+                }
+            }
+            LOG.info("Upgrade for tenant {} has finished", tenant.getTenantIdentifier());
+        }
+    }
+
+    private static String schemaKey(FineractPlatformTenant tenant) {
+        FineractPlatformTenantConnection connection = tenant.getConnection();
+        if (connection == null) {
+            return Objects.toString(tenant.getTenantIdentifier());
         }
-        SpringLiquibase tenantLiquibase = liquibaseFactory.create(tenantDataSource, TENANT_DB_CONTEXT);
-        tenantLiquibase.afterPropertiesSet();
-        LOG.info("Upgrade for tenant {} has finished", tenant.getTenantIdentifier());
+        return connection.getSchemaServer() + ":" + connection.getSchemaServerPort() + "/" + connection.getSchemaName();
     }
 
     private void applyInitialLiquibase(DataSource dataSource, ExtendedSpringLiquibase liquibase, String id,
@@ -51,6 +51,8 @@ public interface ReadReportingService {
     // needed for smsCampaign and emailCampaign jobs where securityContext is null
     GenericResultsetData retrieveGenericResultSetForSmsEmailCampaign(String name, String type, Map<String, String> extractedQueryParams);
 
+    String sqlToRunForSmsEmailCampaign(String name, String type, Map<String, String> extractedQueryParams);
+
     // TODO kill this when tackling https://issues.apache.org/jira/browse/FINERACT-1264
     ByteArrayOutputStream generatePentahoReportAsOutputStream(String reportName, String outputTypeParam, Map<String, String> queryParams,
             Locale locale, AppUser runReportAsUser, StringBuilder errorLog);
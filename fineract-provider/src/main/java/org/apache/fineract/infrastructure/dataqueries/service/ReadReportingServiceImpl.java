@@ -22,11 +22,13 @@ import com.lowagie.text.Document;
 import com.lowagie.text.PageSize;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.InputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -58,6 +60,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class ReadReportingServiceImpl implements ReadReportingService {
@@ -85,29 +88,18 @@ public class ReadReportingServiceImpl implements ReadReportingService {
             try {
 
                 final GenericResultsetData result = retrieveGenericResultset(name, type, queryParams, isSelfServiceUserReport);
-                final StringBuilder sb = generateCsvFileBuffer(result);
 
-                final InputStream in = new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
-
-                final byte[] outputByte = new byte[4096];
-                Integer readLen = in.read(outputByte, 0, 4096);
-
-                while (readLen != -1) {
-                    out.write(outputByte, 0, readLen);
-                    readLen = in.read(outputByte, 0, 4096);
-                }
-                // in.close();
-                // out.flush();
-                // out.close();
+                // write the rows straight to the output instead of buffering the whole file as a String
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writeCsv(result, writer);
+                writer.flush();
             } catch (final Exception e) {
                 throw new PlatformDataIntegrityException("error.msg.exception.error", e.getMessage(), e);
             }
         };
     }
 
-    private StringBuilder generateCsvFileBuffer(final GenericResultsetData result) {
-        final StringBuilder writer = new StringBuilder();
-
+    private void writeCsv(final GenericResultsetData result, final Writer writer) throws IOException {
         final List<ResultsetColumnHeaderData> columnHeaders = result.getColumnHeaders();
         LOG.info("NO. of Columns: {}", columnHeaders.size());
         final Integer chSize = columnHeaders.size();
@@ -150,11 +142,10 @@ public class ReadReportingServiceImpl implements ReadReportingService {
             }
             writer.append('\n');
         }
-
-        return writer;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public GenericResultsetData retrieveGenericResultset(final String name, final String type, final Map<String, String> queryParams,
             final boolean isSelfServiceUserReport) {
 
@@ -487,7 +478,8 @@ public class ReadReportingServiceImpl implements ReadReportingService {
         return result;
     }
 
-    private String sqlToRunForSmsEmailCampaign(final String name, final String type, final Map<String, String> queryParams) {
+    @Override
+    public String sqlToRunForSmsEmailCampaign(final String name, final String type, final Map<String, String> queryParams) {
         String sql = getSql(name, type);
 
         final Set<String> keys = queryParams.keySet();
@@ -19,10 +19,22 @@
 package org.apache.fineract.infrastructure.documentmanagement.api;
 
 import com.google.common.io.ByteSource;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.fineract.infrastructure.documentmanagement.data.FileData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,24 +50,200 @@ final class ContentResources {
 
     private ContentResources() {}
 
-    static Response fileDataToResponse(FileData fileData, String fileName, String dispositionType) {
-        ResponseBuilder response;
-        try {
-            ByteSource byteSource = fileData.getByteSource();
-            // TODO Where is this InputStream closed?! It needs to be AFTER it's read by JAX-RS.. how to do that?
-            InputStream is = byteSource.openBufferedStream();
-            response = Response.ok(is);
-            response.header("Content-Disposition", dispositionType + "; filename=\"" + fileName + "\"");
-            response.header("Content-Length", byteSource.sizeIfKnown().or(-1L));
-            response.header("Content-Type", fileData.contentType());
-        } catch (IOException e) {
-            LOG.error("resizedImage.getByteSource().openBufferedStream() failed", e);
-            response = Response.serverError();
+    /**
+     * Streams the file to the client. Content stored on the file system is sent through its channel, gets an ETag
+     * (answering a matching If-None-Match with 304 Not Modified) and can be requested partially with a single byte
+     * {@code Range}.
+     */
+    static Response fileDataToResponse(FileData fileData, String fileName, String dispositionType, HttpHeaders requestHeaders) {
+        if (isMissing(fileData)) {
+            return Response.serverError().build();
+        }
+        final String eTag = eTag(fileData, "");
+        if (isNotModified(requestHeaders, eTag)) {
+            return Response.notModified().header(HttpHeaders.ETAG, eTag).build();
+        }
+
+        final long length = fileData.getFile() != null ? fileData.getFile().length() : fileData.getByteSource().sizeIfKnown().or(-1L);
+        ByteRange range = null;
+        if (length >= 0 && isRangeApplicable(requestHeaders, eTag)) {
+            range = ByteRange.parse(requestHeaders.getHeaderString("Range"), length);
+        }
+        if (range == ByteRange.UNSATISFIABLE) {
+            return Response.status(Status.REQUESTED_RANGE_NOT_SATISFIABLE).header("Content-Range", "bytes */" + length).build();
+        }
+
+        final long offset = range == null ? 0 : range.first;
+        final long count = range == null ? length : range.last - range.first + 1;
+        final ResponseBuilder response;
+        if (range == null) {
+            response = Response.ok();
+        } else {
+            response = Response.status(Status.PARTIAL_CONTENT).header("Content-Range",
+                    "bytes " + range.first + "-" + range.last + "/" + length);
+        }
+        response.entity((StreamingOutput) output -> copy(fileData, offset, count, output));
+        response.header(HttpHeaders.CONTENT_DISPOSITION, dispositionType + "; filename=\"" + fileName + "\"");
+        response.header(HttpHeaders.CONTENT_TYPE, fileData.contentType());
+        if (length >= 0) {
+            response.header(HttpHeaders.CONTENT_LENGTH, count);
+            response.header("Accept-Ranges", "bytes");
+        }
+        if (eTag != null) {
+            response.header(HttpHeaders.ETAG, eTag);
+        }
+        return response.build();
+    }
+
+    static Response fileDataToResponse(FileData fileData, String dispositionType, HttpHeaders requestHeaders) {
+        return fileDataToResponse(fileData, fileData.name(), dispositionType, requestHeaders);
+    }
+
+    /**
+     * Streams the file as a Base64 data URI (with the given "data:...;base64," prefix), encoding it on the fly.
+     */
+    static Response fileDataToDataUriResponse(FileData fileData, String dataUriPrefix, HttpHeaders requestHeaders) {
+        if (isMissing(fileData)) {
+            return Response.serverError().build();
+        }
+        final String eTag = eTag(fileData, "-base64");
+        if (isNotModified(requestHeaders, eTag)) {
+            return Response.notModified().header(HttpHeaders.ETAG, eTag).build();
+        }
+
+        final ResponseBuilder response = Response.ok((StreamingOutput) output -> {
+            output.write(dataUriPrefix.getBytes(StandardCharsets.US_ASCII));
+            // closing the encoder writes the final padding, the response stream is closed by the container
+            try (OutputStream encoder = Base64.getMimeEncoder().wrap(CloseShieldOutputStream.wrap(output))) {
+                copy(fileData, 0, -1, encoder);
+            }
+        }, MediaType.TEXT_PLAIN_TYPE);
+        if (eTag != null) {
+            response.header(HttpHeaders.ETAG, eTag);
         }
         return response.build();
     }
 
-    static Response fileDataToResponse(FileData fileData, String dispositionType) {
-        return fileDataToResponse(fileData, fileData.name(), dispositionType);
+    /**
+     * Copies {@code count} bytes (all remaining ones when negative) of the content from {@code offset}.
+     */
+    private static void copy(FileData fileData, long offset, long count, OutputStream output) throws IOException {
+        final File file = fileData.getFile();
+        if (file == null) {
+            final ByteSource content = fileData.getByteSource();
+            content.slice(offset, count < 0 ? Long.MAX_VALUE : count).copyTo(output);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // not closed, that would close the response stream
+            final WritableByteChannel target = Channels.newChannel(output);
+            long position = offset;
+            long remaining = count < 0 ? channel.size() - offset : count;
+            while (remaining > 0) {
+                final long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    // the file was truncated while being served
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    private static boolean isMissing(FileData fileData) {
+        final File file = fileData.getFile();
+        if (file != null && !file.isFile()) {
+            LOG.error("Content file {} of {} does not exist", file, fileData.name());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Validator of file system content, which changes whenever the file is replaced or rewritten; null for other content.
+     */
+    private static String eTag(FileData fileData, String variant) {
+        final File file = fileData.getFile();
+        if (file == null) {
+            return null;
+        }
+        return "\"" + Integer.toHexString(file.getPath().hashCode()) + "-" + Long.toHexString(file.length()) + "-"
+                + Long.toHexString(file.lastModified()) + variant + "\"";
+    }
+
+    private static boolean isNotModified(HttpHeaders requestHeaders, String eTag) {
+        final String ifNoneMatch = requestHeaders == null ? null : requestHeaders.getHeaderString(HttpHeaders.IF_NONE_MATCH);
+        if (eTag == null || ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            // weak comparison, as required for If-None-Match
+            if (candidate.equals("*") || candidate.equals(eTag) || candidate.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRangeApplicable(HttpHeaders requestHeaders, String eTag) {
+        if (requestHeaders == null) {
+            return false;
+        }
+        // a range of another version of the content must not be combined with what the client already has
+        final String ifRange = requestHeaders.getHeaderString("If-Range");
+        return ifRange == null || ifRange.trim().equals(eTag);
+    }
+
+    /**
+     * Single byte range of a {@code Range} header; several ranges are not supported and get the whole content.
+     */
+    static final class ByteRange {
+
+        static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+        final long first;
+        final long last;
+
+        ByteRange(long first, long last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * The range to send, {@link #UNSATISFIABLE} or null when the whole content is to be sent.
+         */
+        static ByteRange parse(String header, long length) {
+            if (header == null || !header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+                return null;
+            }
+            final String spec = header.substring("bytes=".length()).trim();
+            final int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            try {
+                if (dash == 0) {
+                    final long suffixLength = Long.parseLong(spec.substring(1));
+                    if (suffixLength <= 0 || length == 0) {
+                        return UNSATISFIABLE;
+                    }
+                    return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+                }
+                final long first = Long.parseLong(spec.substring(0, dash));
+                final String lastSpec = spec.substring(dash + 1);
+                final long last = lastSpec.isEmpty() ? length - 1 : Long.parseLong(lastSpec);
+                if (last < first) {
+                    return null;
+                }
+                if (first >= length) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(first, Math.min(last, length - 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
     }
 }
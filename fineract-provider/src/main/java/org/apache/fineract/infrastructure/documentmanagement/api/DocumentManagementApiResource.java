@@ -41,6 +41,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
@@ -215,11 +216,12 @@ public class DocumentManagementApiResource {
     @ApiResponses({ @ApiResponse(responseCode = "200", description = "Not Shown: The corresponding Binary file") })
     public Response downloadFile(@PathParam("entityType") @Parameter(description = "entityType") final String entityType,
             @PathParam("entityId") @Parameter(description = "entityId") final Long entityId,
-            @PathParam("documentId") @Parameter(description = "documentId") final Long documentId) {
+            @PathParam("documentId") @Parameter(description = "documentId") final Long documentId,
+            @Context final HttpHeaders requestHeaders) {
 
         this.context.authenticatedUser().validateHasReadPermission(this.systemEntityType);
         final FileData fileData = this.documentReadPlatformService.retrieveFileData(entityType, entityId, documentId);
-        return ContentResources.fileDataToResponse(fileData, "attachment");
+        return ContentResources.fileDataToResponse(fileData, "attachment", requestHeaders);
     }
 
     @DELETE
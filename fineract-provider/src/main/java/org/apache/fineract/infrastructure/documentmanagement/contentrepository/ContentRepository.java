@@ -18,6 +18,7 @@
  */
 package org.apache.fineract.infrastructure.documentmanagement.contentrepository;
 
+import com.google.common.io.ByteSource;
 import java.io.InputStream;
 import org.apache.fineract.infrastructure.core.domain.Base64EncodedImage;
 import org.apache.fineract.infrastructure.documentmanagement.command.DocumentCommand;
@@ -51,6 +52,14 @@ public interface ContentRepository {
 
     FileData fetchImage(ImageData imageData);
 
+    /**
+     * A stored rendition of the image (e.g. a resized copy), or null when there is none yet. Renditions are kept next to
+     * the image and dropped with it by {@link #deleteImage(String)}.
+     */
+    FileData fetchImageRendition(ImageData imageData, String renditionName);
+
+    void saveImageRendition(ImageData imageData, String renditionName, ByteSource content);
+
     StorageType getStorageType();
 
 }
@@ -19,6 +19,7 @@
 package org.apache.fineract.infrastructure.documentmanagement.contentrepository;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.File;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +29,7 @@ import org.apache.fineract.infrastructure.core.domain.Base64EncodedImage;
 import org.apache.fineract.infrastructure.core.exception.ImageDataURLNotValidException;
 import org.apache.fineract.infrastructure.core.exception.ImageUploadException;
 import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidationException;
+import org.apache.fineract.infrastructure.documentmanagement.data.ImageData;
 import org.apache.fineract.infrastructure.documentmanagement.exception.ContentManagementException;
 
 public final class ContentRepositoryUtils {
@@ -124,6 +126,21 @@ public final class ContentRepositoryUtils {
         }
     }
 
+    /**
+     * Folder holding the renditions of the images stored in the folder of the given image.
+     */
+    public static String imageRenditionFolder(final String imageLocation) {
+        return imageLocation.substring(0, imageLocation.lastIndexOf(File.separator) + 1) + "renditions";
+    }
+
+    /**
+     * Location of a rendition of the image, keyed by the image id and the rendition name, next to the image.
+     */
+    public static String imageRenditionLocation(final ImageData imageData, final String renditionName) {
+        return imageRenditionFolder(imageData.location()) + File.separator + imageData.imageId() + "_" + renditionName
+                + imageExtensionFromFileName(imageData.location()).getValue();
+    }
+
     /**
      * Validates that passed in Mime type maps to known image mime types
      *
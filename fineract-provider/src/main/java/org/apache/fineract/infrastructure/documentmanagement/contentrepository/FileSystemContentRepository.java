@@ -18,11 +18,13 @@
  */
 package org.apache.fineract.infrastructure.documentmanagement.contentrepository;
 
+import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.StandardCopyOption;
 import java.util.Base64;
 import org.apache.commons.io.FileUtils;
 import org.apache.fineract.infrastructure.core.domain.Base64EncodedImage;
@@ -80,6 +82,7 @@ public class FileSystemContentRepository implements ContentRepository {
     @Override
     public void deleteImage(final String location) {
         deleteFileInternal(location);
+        deleteImageRenditions(location);
     }
 
     @Override
@@ -99,13 +102,38 @@ public class FileSystemContentRepository implements ContentRepository {
     @Override
     public FileData fetchFile(final DocumentData documentData) {
         final File file = new File(documentData.fileLocation());
-        return new FileData(Files.asByteSource(file), documentData.fileName(), documentData.contentType());
+        return new FileData(file, documentData.fileName(), documentData.contentType());
     }
 
     @Override
     public FileData fetchImage(final ImageData imageData) {
         final File file = new File(imageData.location());
-        return new FileData(Files.asByteSource(file), imageData.getEntityDisplayName(), imageData.contentType().getValue());
+        return new FileData(file, imageData.getEntityDisplayName(), imageData.contentType().getValue());
+    }
+
+    @Override
+    public FileData fetchImageRendition(final ImageData imageData, final String renditionName) {
+        final File file = new File(ContentRepositoryUtils.imageRenditionLocation(imageData, renditionName));
+        return file.isFile() ? new FileData(file, imageData.getEntityDisplayName(), imageData.contentType().getValue()) : null;
+    }
+
+    @Override
+    public void saveImageRendition(final ImageData imageData, final String renditionName, final ByteSource content) {
+        final File file = new File(ContentRepositoryUtils.imageRenditionLocation(imageData, renditionName));
+        try {
+            makeDirectories(file.getPath());
+            // written aside and moved in place, so that concurrent requests never serve a partial rendition
+            final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            try {
+                content.copyTo(Files.asByteSink(tempFile));
+                java.nio.file.Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                java.nio.file.Files.deleteIfExists(tempFile.toPath());
+            }
+        } catch (final IOException ioException) {
+            throw new ContentManagementException(file.getName(), ioException.getMessage(), ioException);
+        }
     }
 
     @Override
@@ -131,6 +159,14 @@ public class FileSystemContentRepository implements ContentRepository {
                 + "clients" + File.separator + resourceId;
     }
 
+    private void deleteImageRenditions(final String location) {
+        try {
+            FileUtils.deleteDirectory(new File(ContentRepositoryUtils.imageRenditionFolder(location)));
+        } catch (final IOException ioException) {
+            LOG.warn("Unable to delete the renditions of image {}", location, ioException);
+        }
+    }
+
     /**
      * Recursively create the directory if it does not exist.
      */
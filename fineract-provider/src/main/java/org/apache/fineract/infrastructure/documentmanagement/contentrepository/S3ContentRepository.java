@@ -26,9 +26,11 @@ import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.DeleteObjectRequest;
 import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.google.common.io.ByteSource;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -101,6 +103,7 @@ public class S3ContentRepository implements ContentRepository {
     @Override
     public void deleteImage(final String location) {
         deleteObject(location);
+        deleteImageRenditions(location);
     }
 
     @Override
@@ -127,6 +130,32 @@ public class S3ContentRepository implements ContentRepository {
         }, imageData.getEntityDisplayName(), imageData.contentType().getValue());
     }
 
+    @Override
+    public FileData fetchImageRendition(final ImageData imageData, final String renditionName) {
+        final String renditionLocation = ContentRepositoryUtils.imageRenditionLocation(imageData, renditionName);
+        if (!objectExists(renditionLocation)) {
+            return null;
+        }
+        return new FileData(new ByteSource() {
+
+            @Override
+            public InputStream openStream() throws IOException {
+                final S3Object s3object = getObject(renditionLocation);
+                return s3object.getObjectContent();
+            }
+        }, imageData.getEntityDisplayName(), imageData.contentType().getValue());
+    }
+
+    @Override
+    public void saveImageRendition(final ImageData imageData, final String renditionName, final ByteSource content) {
+        final String renditionLocation = ContentRepositoryUtils.imageRenditionLocation(imageData, renditionName);
+        try (InputStream inputStream = content.openStream()) {
+            putObject(renditionLocation, inputStream, renditionLocation);
+        } catch (final IOException ioException) {
+            throw new ContentManagementException(renditionLocation, ioException.getMessage(), ioException);
+        }
+    }
+
     @Override
     public StorageType getStorageType() {
         return StorageType.S3;
@@ -141,6 +170,33 @@ public class S3ContentRepository implements ContentRepository {
         return "images" + File.separator + "clients" + File.separator + resourceId;
     }
 
+    private void deleteImageRenditions(final String location) {
+        try {
+            ObjectListing renditions = this.s3Client.listObjects(this.s3BucketName,
+                    ContentRepositoryUtils.imageRenditionFolder(location) + File.separator);
+            while (true) {
+                for (final S3ObjectSummary rendition : renditions.getObjectSummaries()) {
+                    deleteObject(rendition.getKey());
+                }
+                if (!renditions.isTruncated()) {
+                    break;
+                }
+                renditions = this.s3Client.listNextBatchOfObjects(renditions);
+            }
+        } catch (final AmazonClientException | ContentManagementException e) {
+            // renditions are derived, a leftover one is only wasted space
+            LOG.warn("Unable to delete the renditions of image {}", location, e);
+        }
+    }
+
+    private boolean objectExists(final String key) {
+        try {
+            return this.s3Client.doesObjectExist(this.s3BucketName, key);
+        } catch (final AmazonClientException ace) {
+            throw new ContentManagementException(key, ace.getMessage(), ace);
+        }
+    }
+
     private void deleteObject(final String location) {
         try {
             this.s3Client.deleteObject(new DeleteObjectRequest(this.s3BucketName, location));
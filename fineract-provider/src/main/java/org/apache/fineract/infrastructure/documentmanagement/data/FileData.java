@@ -19,17 +19,31 @@
 package org.apache.fineract.infrastructure.documentmanagement.data;
 
 import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import java.io.File;
 
 public class FileData {
 
     private final String fileName;
     private final String contentType;
     private final ByteSource byteSource;
+    private final File file;
 
     public FileData(final ByteSource byteSource, final String fileName, final String contentType) {
         this.fileName = fileName;
         this.contentType = contentType;
         this.byteSource = byteSource;
+        this.file = null;
+    }
+
+    /**
+     * File system content, which can be served directly from the file (ranges, validators, channel transfers).
+     */
+    public FileData(final File file, final String fileName, final String contentType) {
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.byteSource = Files.asByteSource(file);
+        this.file = file;
     }
 
     public String contentType() {
@@ -43,4 +57,11 @@ public class FileData {
     public ByteSource getByteSource() {
         return this.byteSource;
     }
+
+    /**
+     * The file holding the content, or null when it does not come from the file system.
+     */
+    public File getFile() {
+        return this.file;
+    }
 }
@@ -24,12 +24,14 @@ import org.apache.fineract.infrastructure.documentmanagement.domain.StorageType;
 
 public class ImageData {
 
+    private final Long imageId;
     private final String location;
     private final StorageType storageType;
     private final String entityDisplayName;
     private final ContentRepositoryUtils.ImageMIMEtype contentType;
 
-    public ImageData(final String location, final StorageType storageType, final String entityDisplayName) {
+    public ImageData(final Long imageId, final String location, final StorageType storageType, final String entityDisplayName) {
+        this.imageId = imageId;
         this.location = location;
         this.storageType = storageType;
         this.entityDisplayName = entityDisplayName;
@@ -37,6 +39,10 @@ public class ImageData {
                 .fromFileExtension(ContentRepositoryUtils.imageExtensionFromFileName(location));
     }
 
+    public Long imageId() {
+        return this.imageId;
+    }
+
     public ImageMIMEtype contentType() {
         return this.contentType;
     }
@@ -23,7 +23,6 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,17 +44,11 @@ public class ImageResizer {
             return fileData;
         }
         try (InputStream is = fileData.getByteSource().openBufferedStream()) {
-            Optional<InputStream> optResizedIS = resizeImage(ContentRepositoryUtils.imageExtensionFromFileName(fileData.name()), is,
+            Optional<byte[]> optResizedImage = resizeImage(ContentRepositoryUtils.imageExtensionFromFileName(fileData.name()), is,
                     maxWidth != null ? maxWidth : Integer.MAX_VALUE, maxHeight != null ? maxHeight : Integer.MAX_VALUE);
-            if (optResizedIS.isPresent()) {
-                FileData resizedImage = new FileData(new ByteSource() {
-
-                    @Override
-                    public InputStream openStream() throws IOException {
-                        return optResizedIS.get();
-                    }
-                }, fileData.name(), fileData.contentType());
-                return resizedImage;
+            if (optResizedImage.isPresent()) {
+                // can be read more than once, e.g. stored as a rendition and then served
+                return new FileData(ByteSource.wrap(optResizedImage.get()), fileData.name(), fileData.contentType());
             }
             return fileData;
         } catch (IOException e) {
@@ -64,7 +57,7 @@ public class ImageResizer {
         }
     }
 
-    private Optional<InputStream> resizeImage(ImageFileExtension fileExtension, InputStream in, int maxWidth, int maxHeight)
+    private Optional<byte[]> resizeImage(ImageFileExtension fileExtension, InputStream in, int maxWidth, int maxHeight)
             throws IOException {
         BufferedImage src = ImageIO.read(in);
         if (src.getWidth() <= maxWidth && src.getHeight() <= maxHeight) {
@@ -88,6 +81,6 @@ public class ImageResizer {
 
         ByteArrayOutputStream os = new ByteArrayOutputStream();
         ImageIO.write(target, fileExtension != null ? fileExtension.getValueWithoutDot() : "jpeg", os);
-        return Optional.of(new ByteArrayInputStream(os.toByteArray()));
+        return Optional.of(os.toByteArray());
     }
 }
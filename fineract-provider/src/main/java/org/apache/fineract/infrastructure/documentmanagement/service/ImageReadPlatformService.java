@@ -24,4 +24,11 @@ public interface ImageReadPlatformService {
 
     FileData retrieveImage(String entityType, Long entityId);
 
+    /**
+     * The image scaled down to fit the given size, from the rendition stored by an earlier request when there is one.
+     * Sizes are rounded down to one of a fixed set of rendition sizes from 16 to 2048 pixels, so the image can come back
+     * smaller than asked for; a size below 16 gets the smallest rendition.
+     */
+    FileData retrieveImage(String entityType, Long entityId, Integer maxWidth, Integer maxHeight);
+
 }
@@ -27,12 +27,16 @@ import org.apache.fineract.infrastructure.documentmanagement.contentrepository.C
 import org.apache.fineract.infrastructure.documentmanagement.contentrepository.ContentRepositoryFactory;
 import org.apache.fineract.infrastructure.documentmanagement.data.FileData;
 import org.apache.fineract.infrastructure.documentmanagement.data.ImageData;
+import org.apache.fineract.infrastructure.documentmanagement.data.ImageResizer;
 import org.apache.fineract.infrastructure.documentmanagement.domain.StorageType;
+import org.apache.fineract.infrastructure.documentmanagement.exception.ContentManagementException;
 import org.apache.fineract.organisation.staff.domain.Staff;
 import org.apache.fineract.organisation.staff.domain.StaffRepositoryWrapper;
 import org.apache.fineract.portfolio.client.domain.Client;
 import org.apache.fineract.portfolio.client.domain.ClientRepositoryWrapper;
 import org.apache.fineract.portfolio.client.exception.ImageNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -42,15 +46,26 @@ import org.springframework.stereotype.Service;
 @Service
 public class ImageReadPlatformServiceImpl implements ImageReadPlatformService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(ImageReadPlatformServiceImpl.class);
+
+    /**
+     * The sizes renditions are made for; any other requested size is served by the largest of them that still fits, so
+     * that an image has a bounded number of stored renditions whatever sizes the clients ask for.
+     */
+    private static final int[] RENDITION_SIZES = { 16, 32, 64, 128, 256, 512, 1024, 2048 };
+
     private final JdbcTemplate jdbcTemplate;
     private final ContentRepositoryFactory contentRepositoryFactory;
     private final ClientRepositoryWrapper clientRepositoryWrapper;
     private final StaffRepositoryWrapper staffRepositoryWrapper;
+    private final ImageResizer imageResizer;
 
     @Autowired
     public ImageReadPlatformServiceImpl(final RoutingDataSource dataSource, final ContentRepositoryFactory documentStoreFactory,
-            final ClientRepositoryWrapper clientRepositoryWrapper, StaffRepositoryWrapper staffRepositoryWrapper) {
+            final ClientRepositoryWrapper clientRepositoryWrapper, StaffRepositoryWrapper staffRepositoryWrapper,
+            final ImageResizer imageResizer) {
         this.staffRepositoryWrapper = staffRepositoryWrapper;
+        this.imageResizer = imageResizer;
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.contentRepositoryFactory = documentStoreFactory;
         this.clientRepositoryWrapper = clientRepositoryWrapper;
@@ -77,15 +92,61 @@ public class ImageReadPlatformServiceImpl implements ImageReadPlatformService {
 
         @Override
         public ImageData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            final Long imageId = rs.getLong("id");
             final String location = rs.getString("location");
             final Integer storageTypeInt = JdbcSupport.getInteger(rs, "storageType");
             StorageType storageType = storageTypeInt != null ? StorageType.fromInt(storageTypeInt) : null;
-            return new ImageData(location, storageType, this.entityDisplayName);
+            return new ImageData(imageId, location, storageType, this.entityDisplayName);
         }
     }
 
     @Override
     public FileData retrieveImage(String entityType, final Long entityId) {
+        final ImageData imageData = retrieveImageData(entityType, entityId);
+        return this.contentRepositoryFactory.getRepository(imageData.storageType()).fetchImage(imageData);
+    }
+
+    @Override
+    public FileData retrieveImage(String entityType, final Long entityId, final Integer maxWidth, final Integer maxHeight) {
+        final ImageData imageData = retrieveImageData(entityType, entityId);
+        final ContentRepository contentRepository = this.contentRepositoryFactory.getRepository(imageData.storageType());
+        final FileData image = contentRepository.fetchImage(imageData);
+        // same as ImageResizer, a height alone does not resize
+        if (maxWidth == null) {
+            return image;
+        }
+
+        final int width = renditionSize(maxWidth);
+        final Integer height = maxHeight != null ? renditionSize(maxHeight) : null;
+        final String renditionName = width + "x" + (height != null ? height : "");
+        final FileData storedRendition = contentRepository.fetchImageRendition(imageData, renditionName);
+        if (storedRendition != null) {
+            return storedRendition;
+        }
+        // stored even when the image already fits, so that it is not decoded again for the next request
+        final FileData rendition = this.imageResizer.resize(image, width, height);
+        try {
+            contentRepository.saveImageRendition(imageData, renditionName, rendition.getByteSource());
+        } catch (final ContentManagementException e) {
+            LOG.warn("Unable to store the {} rendition of image {}", renditionName, imageData.location(), e);
+            return rendition;
+        }
+        final FileData savedRendition = contentRepository.fetchImageRendition(imageData, renditionName);
+        return savedRendition != null ? savedRendition : rendition;
+    }
+
+    static int renditionSize(final int requestedSize) {
+        int size = RENDITION_SIZES[0];
+        for (final int renditionSize : RENDITION_SIZES) {
+            if (renditionSize > requestedSize) {
+                break;
+            }
+            size = renditionSize;
+        }
+        return size;
+    }
+
+    private ImageData retrieveImageData(String entityType, final Long entityId) {
         try {
             String displayName;
             if (EntityTypeForImages.CLIENTS.toString().equalsIgnoreCase(entityType)) {
@@ -101,9 +162,7 @@ public class ImageReadPlatformServiceImpl implements ImageReadPlatformService {
 
             final String sql = "select " + imageMapper.schema(entityType);
 
-            final ImageData imageData = this.jdbcTemplate.queryForObject(sql, imageMapper, entityId);
-            final ContentRepository contentRepository = this.contentRepositoryFactory.getRepository(imageData.storageType());
-            return contentRepository.fetchImage(imageData);
+            return this.jdbcTemplate.queryForObject(sql, imageMapper, entityId);
         } catch (final EmptyResultDataAccessException e) {
             throw new ImageNotFoundException("clients", entityId, e);
         }
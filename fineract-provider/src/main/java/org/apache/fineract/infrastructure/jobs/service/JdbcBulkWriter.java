@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.jobs.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes rows generated by scheduled jobs through parameterized JDBC batch inserts.
+ *
+ * Rows are committed in chunks of {@code fineract.jobs.bulk-write.chunk-size}, each chunk in a transaction of its own, so
+ * a failure only rolls back the chunk being written. Rows are handed over in groups that are never split across chunks;
+ * a job that derives its rows from what is already stored can therefore be rerun after a partial failure without
+ * writing a group twice.
+ */
+@Component
+public class JdbcBulkWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransactionTemplate;
+    private final int chunkSize;
+    private final int partitionSize;
+
+    @Autowired
+    public JdbcBulkWriter(final RoutingDataSource dataSource, final TransactionTemplate transactionTemplate,
+            @Value("${fineract.jobs.bulk-write.chunk-size:500}") final int chunkSize,
+            @Value("${fineract.jobs.bulk-write.partition-size:1000}") final int partitionSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.partitionSize = Math.max(1, partitionSize);
+    }
+
+    /**
+     * Number of accounts a job should read per id range before handing their rows to {@link #write}.
+     */
+    public int getPartitionSize() {
+        return this.partitionSize;
+    }
+
+    /**
+     * Inserts all rows of the given groups with {@code sql}, binding each row through {@code setter}.
+     *
+     * @return the number of rows written
+     */
+    public <T> int write(final String sql, final Iterable<? extends Collection<T>> groups,
+            final ParameterizedPreparedStatementSetter<T> setter) {
+        final List<T> chunk = new ArrayList<>(this.chunkSize);
+        int written = 0;
+        for (final Collection<T> group : groups) {
+            chunk.addAll(group);
+            if (chunk.size() >= this.chunkSize) {
+                written += writeChunk(sql, chunk, setter);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            written += writeChunk(sql, chunk, setter);
+        }
+        return written;
+    }
+
+    /**
+     * Runs {@code work} as a single chunk, for set-based statements that have to commit together with the bookkeeping
+     * that marks them done.
+     */
+    public <T> T writeInChunk(final Function<JdbcTemplate, T> work) {
+        return this.chunkTransactionTemplate.execute(status -> work.apply(this.jdbcTemplate));
+    }
+
+    private <T> int writeChunk(final String sql, final List<T> rows, final ParameterizedPreparedStatementSetter<T> setter) {
+        this.chunkTransactionTemplate.execute(status -> this.jdbcTemplate.batchUpdate(sql, rows, rows.size(), setter));
+        return rows.size();
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.openjpa;
+
+import javax.persistence.Table;
+import org.apache.fineract.infrastructure.core.service.PooledIdAllocator;
+import org.apache.openjpa.kernel.Seq;
+import org.apache.openjpa.kernel.StoreContext;
+import org.apache.openjpa.meta.ClassMetaData;
+
+/**
+ * OpenJPA {@link Seq} backed by {@link PooledIdAllocator}; one instance serves every entity mapped on it, the pool
+ * being picked by the entity's table. Installed as {@code openjpa.Sequence} by
+ * {@link org.apache.fineract.infrastructure.core.config.PersistenceConfig} when pooled ids are enabled, so it only
+ * serves the ids that {@code META-INF/pooled-id-orm.xml} maps onto the SEQUENCE strategy.
+ */
+public class PooledIdSeq implements Seq {
+
+    private final PooledIdAllocator allocator;
+
+    public PooledIdSeq(final PooledIdAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    @Override
+    public void setType(int type) {
+        // blocks are always reserved outside the current transaction
+    }
+
+    @Override
+    public Object next(StoreContext ctx, ClassMetaData cls) {
+        return this.allocator.nextId(tableName(cls));
+    }
+
+    @Override
+    public Object current(StoreContext ctx, ClassMetaData cls) {
+        return null;
+    }
+
+    @Override
+    public void allocate(int additional, StoreContext ctx, ClassMetaData cls) {
+        // blocks are reserved on demand
+    }
+
+    @Override
+    public void close() {
+        // nothing is held open
+    }
+
+    private static String tableName(ClassMetaData cls) {
+        Class<?> type = cls.getDescribedType();
+        while (type != null) {
+            final Table table = type.getAnnotation(Table.class);
+            if (table != null) {
+                return table.name();
+            }
+            type = type.getSuperclass();
+        }
+        throw new IllegalStateException("No table mapped for " + cls.getDescribedType().getName());
+    }
+}
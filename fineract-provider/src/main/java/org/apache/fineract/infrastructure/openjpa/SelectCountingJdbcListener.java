@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.openjpa;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.openjpa.lib.jdbc.AbstractJDBCListener;
+import org.apache.openjpa.lib.jdbc.JDBCEvent;
+
+/**
+ * Counts the selects OpenJPA runs on the current thread between {@link #start()} and {@link #stop()}, per table they
+ * select from. Installed as {@code openjpa.jdbc.JDBCListeners} by
+ * {@link org.apache.fineract.infrastructure.core.config.PersistenceConfig} when
+ * {@code fineract.jpa.select-count-header.enabled} is set; statements run through plain JDBC are not seen.
+ */
+public class SelectCountingJdbcListener extends AbstractJDBCListener {
+
+    private static final ThreadLocal<Map<String, Integer>> SELECTS = new ThreadLocal<>();
+
+    public static void start() {
+        SELECTS.set(new TreeMap<>());
+    }
+
+    /**
+     * @return the selects per table since {@link #start()}, empty when counting was not started on this thread
+     */
+    public static Map<String, Integer> stop() {
+        final Map<String, Integer> selects = SELECTS.get();
+        SELECTS.remove();
+        return selects == null ? Collections.emptyMap() : selects;
+    }
+
+    @Override
+    public void beforeExecuteStatement(final JDBCEvent event) {
+        final Map<String, Integer> selects = SELECTS.get();
+        if (selects == null) {
+            return;
+        }
+        final String table = selectedTable(event.getSQL());
+        if (table != null) {
+            selects.merge(table, 1, Integer::sum);
+        }
+    }
+
+    static String selectedTable(final String sql) {
+        if (sql == null) {
+            return null;
+        }
+        final String normalized = sql.trim().toLowerCase(Locale.ROOT);
+        if (!normalized.startsWith("select")) {
+            return null;
+        }
+        final int from = normalized.indexOf(" from ");
+        if (from < 0) {
+            return null;
+        }
+        final String tables = normalized.substring(from + " from ".length()).trim();
+        final int end = tables.indexOf(' ');
+        return (end < 0 ? tables : tables.substring(0, end)).replace("`", "").replace("\"", "");
+    }
+}
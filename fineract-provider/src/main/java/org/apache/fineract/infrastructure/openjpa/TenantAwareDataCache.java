@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.openjpa;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.openjpa.datacache.ConcurrentDataCache;
+import org.apache.openjpa.datacache.DataCachePCData;
+import org.apache.openjpa.util.OpenJPAId;
+
+/**
+ * OpenJPA second level cache shared by all tenants of the single persistence unit. Every tenant database reuses the
+ * same primary keys, so entries are keyed by tenant identifier and object id; with no tenant on the thread the cache is
+ * bypassed on reads and writes.
+ *
+ * <p>
+ * Evictions arriving from other nodes through the remote commit provider carry no tenant, so they drop the object id
+ * for every tenant this node has cached it for.
+ *
+ * <p>
+ * Only entities marked {@link javax.persistence.Cacheable} reach this cache (the persistence unit uses
+ * {@code ENABLE_SELECTIVE}); hits and misses are counted per entity type, see {@link #getStatistics()}.
+ */
+public class TenantAwareDataCache extends ConcurrentDataCache {
+
+    private static final ConcurrentMap<String, TypeStatistics> STATISTICS = new ConcurrentHashMap<>();
+
+    private final Set<String> cachedTenants = ConcurrentHashMap.newKeySet();
+
+    @Override
+    protected DataCachePCData getInternal(Object oid) {
+        final String tenant = currentTenant();
+        if (tenant == null) {
+            return null;
+        }
+        final DataCachePCData data = super.getInternal(new TenantKey(tenant, oid));
+        final TypeStatistics statistics = statisticsFor(oid);
+        if (statistics != null) {
+            (data == null ? statistics.misses : statistics.hits).increment();
+        }
+        return data;
+    }
+
+    @Override
+    protected DataCachePCData putInternal(Object oid, DataCachePCData pc) {
+        final String tenant = currentTenant();
+        if (tenant == null) {
+            return null;
+        }
+        this.cachedTenants.add(tenant);
+        final TypeStatistics statistics = statisticsFor(oid);
+        if (statistics != null) {
+            statistics.writes.increment();
+        }
+        return super.putInternal(new TenantKey(tenant, oid), pc);
+    }
+
+    @Override
+    protected DataCachePCData removeInternal(Object oid) {
+        final String tenant = currentTenant();
+        if (tenant != null) {
+            return super.removeInternal(new TenantKey(tenant, oid));
+        }
+        DataCachePCData removed = null;
+        for (final String cachedTenant : this.cachedTenants) {
+            final DataCachePCData data = super.removeInternal(new TenantKey(cachedTenant, oid));
+            if (data != null) {
+                removed = data;
+            }
+        }
+        return removed;
+    }
+
+    // commits go through the bulk variants; keep them on the tenant keyed single entry paths above
+    @Override
+    protected void putAllInternal(Collection<DataCachePCData> pcs) {
+        for (final DataCachePCData pc : pcs) {
+            putInternal(pc.getId(), pc);
+        }
+    }
+
+    @Override
+    protected void removeAllInternal(Collection<Object> oids) {
+        for (final Object oid : oids) {
+            removeInternal(oid);
+        }
+    }
+
+    @Override
+    protected boolean pinInternal(Object oid) {
+        final String tenant = currentTenant();
+        return tenant != null && super.pinInternal(new TenantKey(tenant, oid));
+    }
+
+    @Override
+    protected boolean unpinInternal(Object oid) {
+        final String tenant = currentTenant();
+        return tenant != null && super.unpinInternal(new TenantKey(tenant, oid));
+    }
+
+    /**
+     * Hits, misses and writes per cached entity type since startup, keyed by entity class name.
+     */
+    public static Map<String, Map<String, Long>> getStatistics() {
+        final Map<String, Map<String, Long>> statistics = new TreeMap<>();
+        STATISTICS.forEach((type, counters) -> statistics.put(type, counters.toMap()));
+        return statistics;
+    }
+
+    private static String currentTenant() {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        return tenant == null ? null : tenant.getTenantIdentifier();
+    }
+
+    private static TypeStatistics statisticsFor(Object oid) {
+        if (!(oid instanceof OpenJPAId)) {
+            return null;
+        }
+        return STATISTICS.computeIfAbsent(((OpenJPAId) oid).getType().getName(), type -> new TypeStatistics());
+    }
+
+    private static final class TenantKey {
+
+        private final String tenant;
+        private final Object oid;
+
+        private TenantKey(String tenant, Object oid) {
+            this.tenant = tenant;
+            this.oid = oid;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TenantKey)) {
+                return false;
+            }
+            final TenantKey other = (TenantKey) o;
+            return this.tenant.equals(other.tenant) && this.oid.equals(other.oid);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.tenant, this.oid);
+        }
+
+        @Override
+        public String toString() {
+            return this.tenant + ":" + this.oid;
+        }
+    }
+
+    private static final class TypeStatistics {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder writes = new LongAdder();
+
+        private Map<String, Long> toMap() {
+            final long hitCount = this.hits.sum();
+            final long missCount = this.misses.sum();
+            final Map<String, Long> counters = new TreeMap<>();
+            counters.put("hits", hitCount);
+            counters.put("misses", missCount);
+            counters.put("writes", this.writes.sum());
+            counters.put("hitPercentage", hitCount + missCount == 0 ? 0 : hitCount * 100 / (hitCount + missCount));
+            return counters;
+        }
+    }
+}
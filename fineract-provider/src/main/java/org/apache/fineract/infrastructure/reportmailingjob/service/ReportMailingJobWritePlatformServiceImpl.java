@@ -18,26 +18,49 @@
  */
 package org.apache.fineract.infrastructure.reportmailingjob.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.exception.PlatformDataIntegrityException;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.dataqueries.domain.Report;
 import org.apache.fineract.infrastructure.dataqueries.domain.ReportRepositoryWrapper;
 import org.apache.fineract.infrastructure.dataqueries.service.ReadReportingService;
@@ -66,9 +89,12 @@ import org.glassfish.jersey.internal.util.collection.MultivaluedStringMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.NonTransientDataAccessException;
 import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -85,7 +111,11 @@ public class ReportMailingJobWritePlatformServiceImpl implements ReportMailingJo
     private final ReadReportingService readReportingService;
     private final ReportingProcessServiceProvider reportingProcessServiceProvider;
     private final ReportMailingJobRunHistoryRepository reportMailingJobRunHistoryRepository;
+    private final MeterRegistry meterRegistry;
+    private final int threads;
+    private final boolean compressAttachments;
     private static final String DATETIME_FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final String EXPORT_CSV_PARAM_NAME = "exportCSV";
 
     @Autowired
     public ReportMailingJobWritePlatformServiceImpl(final ReportRepositoryWrapper reportRepositoryWrapper,
@@ -94,7 +124,9 @@ public class ReportMailingJobWritePlatformServiceImpl implements ReportMailingJo
             final ReportMailingJobRepository reportMailingJobRepository, final PlatformSecurityContext platformSecurityContext,
             final ReportMailingJobEmailService reportMailingJobEmailService, final ReadReportingService readReportingService,
             final ReportMailingJobRunHistoryRepository reportMailingJobRunHistoryRepository,
-            final ReportingProcessServiceProvider reportingProcessServiceProvider) {
+            final ReportingProcessServiceProvider reportingProcessServiceProvider, final MeterRegistry meterRegistry,
+            @Value("${fineract.report-mailing-job.threads:4}") final int threads,
+            @Value("${fineract.report-mailing-job.compress-attachments:false}") final boolean compressAttachments) {
         this.reportRepositoryWrapper = reportRepositoryWrapper;
         this.reportMailingJobValidator = reportMailingJobValidator;
         this.reportMailingJobRepositoryWrapper = reportMailingJobRepositoryWrapper;
@@ -104,6 +136,9 @@ public class ReportMailingJobWritePlatformServiceImpl implements ReportMailingJo
         this.readReportingService = readReportingService;
         this.reportMailingJobRunHistoryRepository = reportMailingJobRunHistoryRepository;
         this.reportingProcessServiceProvider = reportingProcessServiceProvider;
+        this.meterRegistry = meterRegistry;
+        this.threads = Math.max(1, threads);
+        this.compressAttachments = compressAttachments;
     }
 
     @Override
@@ -249,6 +284,7 @@ public class ReportMailingJobWritePlatformServiceImpl implements ReportMailingJo
     public void executeReportMailingJobs() throws JobExecutionException {
         final Collection<ReportMailingJob> reportMailingJobCollection = this.reportMailingJobRepository
                 .findByIsActiveTrueAndIsDeletedFalse();
+        final List<ReportMailingJobRun> reportMailingJobRuns = new ArrayList<>();
 
         for (ReportMailingJob reportMailingJob : reportMailingJobCollection) {
             // get the tenant's date as a ZonedDateTime object
@@ -263,7 +299,6 @@ public class ReportMailingJobWritePlatformServiceImpl implements ReportMailingJo
                 if (emailAttachmentFileFormat != null && emailAttachmentFileFormat.isValid()) {
                     final Report stretchyReport = reportMailingJob.getStretchyReport();
                     final String reportName = (stretchyReport != null) ? stretchyReport.getReportName() : null;
-                    final StringBuilder errorLog = new StringBuilder();
                     final Map<String, String> validateStretchyReportParamMap = this.reportMailingJobValidator
                             .validateStretchyReportParamMap(reportMailingJob.getStretchyReportParamMap());
                     MultivaluedMap<String, String> reportParams = new MultivaluedStringMap();
@@ -290,15 +325,117 @@ public class ReportMailingJobWritePlatformServiceImpl implements ReportMailingJo
                         }
                     }
 
-                    // generate the report output stream, method in turn call
-                    // another that sends the file to the email recipients
-                    this.generateReportOutputStream(reportMailingJob, emailAttachmentFileFormat, reportParams, reportName, errorLog);
+                    // table reports are rendered through the streaming CSV output, other report types ignore the flag
+                    if (ReportMailingJobEmailAttachmentFileFormat.CSV.equals(emailAttachmentFileFormat)
+                            && !reportParams.containsKey(EXPORT_CSV_PARAM_NAME)) {
+                        reportParams.add(EXPORT_CSV_PARAM_NAME, "true");
+                    }
+
+                    reportMailingJobRuns.add(new ReportMailingJobRun(reportMailingJob, emailAttachmentFileFormat, reportParams, reportName,
+                            this.reportMailingJobValidator.validateEmailRecipients(reportMailingJob.getEmailRecipients())));
+                }
+            }
+        }
+
+        if (reportMailingJobRuns.isEmpty()) {
+            return;
+        }
+
+        // generate the report files and send them to the email recipients in parallel, reports with the same name,
+        // parameters and file format are generated once for all jobs of this run
+        final Map<String, CompletableFuture<File>> reportFiles = new ConcurrentHashMap<>();
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final SecurityContext securityContext = SecurityContextHolder.getContext();
+        final List<Callable<Void>> executions = new ArrayList<>();
+        for (final ReportMailingJobRun reportMailingJobRun : reportMailingJobRuns) {
+            executions.add(() -> {
+                if (tenant != null) {
+                    ThreadLocalContextUtil.setTenant(tenant);
+                }
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    this.executeReportMailingJobRun(reportMailingJobRun, reportFiles);
+                    return null;
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    ThreadLocalContextUtil.clearTenant();
+                }
+            });
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, executions.size()));
+        try {
+            for (final Future<Void> execution : executor.invokeAll(executions)) {
+                execution.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            for (final CompletableFuture<File> reportFile : reportFiles.values()) {
+                final File file = reportFile.getNow(null);
+                if (file != null) {
+                    FileUtils.deleteQuietly(file.getParentFile());
+                }
+            }
+        }
+
+        for (final ReportMailingJobRun reportMailingJobRun : reportMailingJobRuns) {
+            // update the previous run time, next run time, status,
+            // error log properties
+            this.updateReportMailingJobAfterJobExecution(reportMailingJobRun.reportMailingJob, reportMailingJobRun.errorLog,
+                    reportMailingJobRun.startDateTime);
+        }
+    }
 
-                    // update the previous run time, next run time, status,
-                    // error log properties
-                    this.updateReportMailingJobAfterJobExecution(reportMailingJob, errorLog, localDateTimeOftenant);
+    /**
+     * generate the report file of a due report mailing job and send it to the email recipients, recording the duration in
+     * the {@code fineract.report.mailing.job.duration} timer
+     *
+     * @param reportMailingJobRun
+     * @param reportFiles
+     *            -- the report files generated so far in this run, by report name, parameters and file format
+     */
+    private void executeReportMailingJobRun(final ReportMailingJobRun reportMailingJobRun,
+            final Map<String, CompletableFuture<File>> reportFiles) {
+        reportMailingJobRun.startDateTime = DateUtils.getLocalDateTimeOfTenant().atZone(DateUtils.getDateTimeZoneOfTenant());
+        final Timer.Sample sample = Timer.start(this.meterRegistry);
+        final StringBuilder errorLog = reportMailingJobRun.errorLog;
+
+        try {
+            final String reportKey = reportMailingJobRun.reportName + "|" + new TreeMap<>(reportMailingJobRun.reportParams) + "|"
+                    + reportMailingJobRun.emailAttachmentFileFormat.getValue();
+            final CompletableFuture<File> reportFile = new CompletableFuture<>();
+            final CompletableFuture<File> existingReportFile = reportFiles.putIfAbsent(reportKey, reportFile);
+
+            if (existingReportFile == null) {
+                try {
+                    reportFile.complete(this.generateReportFile(reportMailingJobRun));
+                } catch (Exception e) {
+                    reportFile.completeExceptionally(e);
                 }
             }
+
+            this.sendReportFileToEmailRecipients(reportMailingJobRun, (existingReportFile != null ? existingReportFile : reportFile).join(),
+                    errorLog);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ReportFileGenerationException) {
+                errorLog.append(e.getCause().getMessage());
+            } else {
+                errorLog.append("The ReportMailingJobWritePlatformServiceImpl.generateReportFile method threw an Exception: " + e.getCause()
+                        + " ---------- ");
+            }
+        } catch (RuntimeException e) {
+            errorLog.append("The ReportMailingJobWritePlatformServiceImpl.executeReportMailingJobRun method threw an Exception: " + e
+                    + " ---------- ");
+        } finally {
+            final String status = errorLog.length() == 0 ? ReportMailingJobPreviousRunStatus.SUCCESS.getValue()
+                    : ReportMailingJobPreviousRunStatus.ERROR.getValue();
+            sample.stop(this.meterRegistry.timer("fineract.report.mailing.job.duration", "job", reportMailingJobRun.reportMailingJobName,
+                    "status", status));
         }
     }
 
@@ -426,90 +563,145 @@ public class ReportMailingJobWritePlatformServiceImpl implements ReportMailingJo
     }
 
     /**
-     * generate the report output stream
+     * generate the report file, the report output is streamed into a temporary file (compressed into a zip archive if
+     * {@code fineract.report-mailing-job.compress-attachments} is set) rather than held in memory
      *
-     * @param reportMailingJob
-     * @param emailAttachmentFileFormat
-     * @param reportParams
-     * @param reportName
-     * @param errorLog
-     * @return the error log StringBuilder object
+     * @param reportMailingJobRun
+     * @return the report file
+     * @throws IOException
      */
-    private StringBuilder generateReportOutputStream(final ReportMailingJob reportMailingJob,
-            final ReportMailingJobEmailAttachmentFileFormat emailAttachmentFileFormat, final MultivaluedMap<String, String> reportParams,
-            final String reportName, final StringBuilder errorLog) {
+    private File generateReportFile(final ReportMailingJobRun reportMailingJobRun) throws IOException {
+        final boolean isSelfServiceUserReport = false;
+        final String reportName = reportMailingJobRun.reportName;
+        final String reportType = this.readReportingService.getReportType(reportName, isSelfServiceUserReport, false);
+        final ReportingProcessService reportingProcessService = this.reportingProcessServiceProvider
+                .findReportingProcessService(reportType);
+
+        if (reportingProcessService == null) {
+            throw new ReportFileGenerationException(ReportingProcessServiceProvider.SERVICE_MISSING + reportType);
+        }
 
-        try {
-            final boolean isSelfServiceUserReport = false;
-            final String reportType = this.readReportingService.getReportType(reportName, isSelfServiceUserReport, false);
-            final ReportingProcessService reportingProcessService = this.reportingProcessServiceProvider
-                    .findReportingProcessService(reportType);
-
-            if (reportingProcessService != null) {
-                final Response processReport = reportingProcessService.processRequest(reportName, reportParams);
-                final Object reponseObject = (processReport != null) ? processReport.getEntity() : null;
-
-                if (reponseObject != null && reponseObject.getClass().equals(ByteArrayOutputStream.class)) {
-                    final ByteArrayOutputStream byteArrayOutputStream = ByteArrayOutputStream.class.cast(reponseObject);
-                    final String fileLocation = FileSystemContentRepository.FINERACT_BASE_DIR + File.separator + "";
-                    final String fileNameWithoutExtension = fileLocation + File.separator + reportName;
-
-                    // check if file directory exists, if not create directory
-                    if (!new File(fileLocation).isDirectory()) {
-                        new File(fileLocation).mkdirs();
-                    }
+        final Response processReport = reportingProcessService.processRequest(reportName, reportMailingJobRun.reportParams);
+        final Object reponseObject = (processReport != null) ? processReport.getEntity() : null;
 
-                    if ((byteArrayOutputStream == null) || byteArrayOutputStream.size() == 0) {
-                        errorLog.append("Report processing failed, empty output stream created");
-                    } else if ((errorLog != null && errorLog.length() == 0) && (byteArrayOutputStream.size() > 0)) {
-                        final String fileName = fileNameWithoutExtension + "." + emailAttachmentFileFormat.getValue();
+        // each report gets its own directory, the file name is used as the name of the email attachment
+        final File fileLocation = new File(FileSystemContentRepository.FINERACT_BASE_DIR);
 
-                        // send the file to email recipients
-                        this.sendReportFileToEmailRecipients(reportMailingJob, fileName, byteArrayOutputStream, errorLog);
-                    }
-                } else {
-                    errorLog.append("Response object entity is not equal to ByteArrayOutputStream ---------- ");
-                }
+        // check if file directory exists, if not create directory
+        if (!fileLocation.isDirectory()) {
+            fileLocation.mkdirs();
+        }
+
+        final File directory = Files.createTempDirectory(fileLocation.toPath(), "report-mailing-job").toFile();
+        final String fileName = reportName + "." + reportMailingJobRun.emailAttachmentFileFormat.getValue();
+        final File file = new File(directory, this.compressAttachments ? fileName + ".zip" : fileName);
+        final long reportSize;
+
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            if (this.compressAttachments) {
+                final ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream);
+                zipOutputStream.putNextEntry(new ZipEntry(fileName));
+                reportSize = this.writeReportOutput(reponseObject, zipOutputStream);
+                zipOutputStream.closeEntry();
+                zipOutputStream.finish();
             } else {
-                errorLog.append(ReportingProcessServiceProvider.SERVICE_MISSING + reportType);
+                reportSize = this.writeReportOutput(reponseObject, outputStream);
             }
-        } catch (Exception e) {
-            errorLog.append("The ReportMailingJobWritePlatformServiceImpl.generateReportOutputStream method threw an Exception: " + e
-                    + " ---------- ");
+        } catch (IOException | RuntimeException e) {
+            FileUtils.deleteQuietly(directory);
+            throw e;
+        }
+
+        if (reportSize == 0) {
+            FileUtils.deleteQuietly(directory);
+            throw new ReportFileGenerationException("Report processing failed, empty output stream created");
+        }
+
+        return file;
+    }
+
+    /**
+     * write the report output to the output stream
+     *
+     * @param reponseObject
+     *            -- the entity of the reporting process service response
+     * @param outputStream
+     * @return the number of bytes written
+     * @throws IOException
+     */
+    private long writeReportOutput(final Object reponseObject, final OutputStream outputStream) throws IOException {
+        final CountingOutputStream countingOutputStream = new CountingOutputStream(outputStream);
+
+        if (reponseObject instanceof ByteArrayOutputStream) {
+            ((ByteArrayOutputStream) reponseObject).writeTo(countingOutputStream);
+        } else if (reponseObject instanceof StreamingOutput) {
+            ((StreamingOutput) reponseObject).write(countingOutputStream);
+        } else if (reponseObject instanceof File) {
+            Files.copy(((File) reponseObject).toPath(), countingOutputStream);
+        } else {
+            throw new ReportFileGenerationException(
+                    "Response object entity is not a ByteArrayOutputStream, StreamingOutput or File ---------- ");
         }
+        countingOutputStream.flush();
 
-        return errorLog;
+        return countingOutputStream.getByteCount();
     }
 
     /**
      * send report file to email recipients
      *
-     * @param reportMailingJob
-     * @param fileName
-     * @param byteArrayOutputStream
+     * @param reportMailingJobRun
+     * @param file
      * @param errorLog
      */
-    private void sendReportFileToEmailRecipients(final ReportMailingJob reportMailingJob, final String fileName,
-            final ByteArrayOutputStream byteArrayOutputStream, final StringBuilder errorLog) {
-        final Set<String> emailRecipients = this.reportMailingJobValidator.validateEmailRecipients(reportMailingJob.getEmailRecipients());
+    private void sendReportFileToEmailRecipients(final ReportMailingJobRun reportMailingJobRun, final File file,
+            final StringBuilder errorLog) {
+        for (String emailRecipient : reportMailingJobRun.emailRecipients) {
+            final ReportMailingJobEmailData reportMailingJobEmailData = new ReportMailingJobEmailData(emailRecipient,
+                    reportMailingJobRun.emailMessage, reportMailingJobRun.emailSubject, file);
 
-        try {
-            final File file = new File(fileName);
-            final FileOutputStream outputStream = new FileOutputStream(file);
-            byteArrayOutputStream.writeTo(outputStream);
-
-            for (String emailRecipient : emailRecipients) {
-                final ReportMailingJobEmailData reportMailingJobEmailData = new ReportMailingJobEmailData(emailRecipient,
-                        reportMailingJob.getEmailMessage(), reportMailingJob.getEmailSubject(), file);
+            this.reportMailingJobEmailService.sendEmailWithAttachment(reportMailingJobEmailData);
+        }
+    }
 
-                this.reportMailingJobEmailService.sendEmailWithAttachment(reportMailingJobEmailData);
-            }
+    /**
+     * a due report mailing job, holding everything its execution needs so that the entity is only touched by the job
+     * thread
+     **/
+    private static final class ReportMailingJobRun {
+
+        private final ReportMailingJob reportMailingJob;
+        private final String reportMailingJobName;
+        private final ReportMailingJobEmailAttachmentFileFormat emailAttachmentFileFormat;
+        private final MultivaluedMap<String, String> reportParams;
+        private final String reportName;
+        private final Set<String> emailRecipients;
+        private final String emailSubject;
+        private final String emailMessage;
+        private final StringBuilder errorLog = new StringBuilder();
+        private ZonedDateTime startDateTime;
+
+        ReportMailingJobRun(final ReportMailingJob reportMailingJob,
+                final ReportMailingJobEmailAttachmentFileFormat emailAttachmentFileFormat,
+                final MultivaluedMap<String, String> reportParams, final String reportName, final Set<String> emailRecipients) {
+            this.reportMailingJob = reportMailingJob;
+            this.reportMailingJobName = reportMailingJob.getName();
+            this.emailAttachmentFileFormat = emailAttachmentFileFormat;
+            this.reportParams = reportParams;
+            this.reportName = reportName;
+            this.emailRecipients = emailRecipients;
+            this.emailSubject = reportMailingJob.getEmailSubject();
+            this.emailMessage = reportMailingJob.getEmailMessage();
+        }
+    }
 
-            outputStream.close();
+    /**
+     * the report file could not be generated, the message goes to the error log of the job
+     **/
+    private static final class ReportFileGenerationException extends RuntimeException {
 
-        } catch (IOException e) {
-            errorLog.append("The ReportMailingJobWritePlatformServiceImpl.sendReportFileToEmailRecipients method threw an IOException "
-                    + "exception: " + e + " ---------- ");
+        ReportFileGenerationException(final String message) {
+            super(message);
         }
     }
 }
@@ -59,7 +59,12 @@ public class BasicAuthTenantDetailsServiceJdbc implements BasicAuthTenantDetails
                 .append(" ts.pool_suspect_timeout as poolSuspectTimeout, ts.pool_time_between_eviction_runs_millis as poolTimeBetweenEvictionRunsMillis,")//
                 .append(" ts.pool_min_evictable_idle_time_millis as poolMinEvictableIdleTimeMillis,")//
                 .append(" ts.deadlock_max_retries as maxRetriesOnDeadlock,")//
-                .append(" ts.deadlock_max_retry_interval as maxIntervalBetweenRetries ")//
+                .append(" ts.deadlock_max_retry_interval as maxIntervalBetweenRetries,")//
+                .append(" ts.readonly_schema_server as readOnlySchemaServer, ts.readonly_schema_server_port as readOnlySchemaServerPort,")//
+                .append(" ts.readonly_schema_name as readOnlySchemaName, ts.readonly_schema_username as readOnlySchemaUsername,")//
+                .append(" ts.readonly_schema_password as readOnlySchemaPassword,")//
+                .append(" ts.readonly_schema_connection_parameters as readOnlySchemaConnectionParameters,")//
+                .append(" ts.readonly_max_replication_lag as readOnlyMaxReplicationLag ")//
                 .append(" from tenants t left join tenant_server_connections ts ");
 
         TenantMapper(boolean isReport) {
@@ -115,11 +120,20 @@ public class BasicAuthTenantDetailsServiceJdbc implements BasicAuthTenantDetails
             maxRetriesOnDeadlock = bindValueInMinMaxRange(maxRetriesOnDeadlock, 0, 15);
             maxIntervalBetweenRetries = bindValueInMinMaxRange(maxIntervalBetweenRetries, 1, 15);
 
+            final String readOnlySchemaServer = rs.getString("readOnlySchemaServer");
+            final String readOnlySchemaServerPort = rs.getString("readOnlySchemaServerPort");
+            final String readOnlySchemaName = rs.getString("readOnlySchemaName");
+            final String readOnlySchemaUsername = rs.getString("readOnlySchemaUsername");
+            final String readOnlySchemaPassword = rs.getString("readOnlySchemaPassword");
+            final String readOnlySchemaConnectionParameters = rs.getString("readOnlySchemaConnectionParameters");
+            final int readOnlyMaxReplicationLag = rs.getInt("readOnlyMaxReplicationLag");
+
             return new FineractPlatformTenantConnection(connectionId, schemaName, schemaServer, schemaServerPort,
                     schemaConnectionParameters, schemaUsername, schemaPassword, autoUpdateEnabled, initialSize, validationInterval,
                     removeAbandoned, removeAbandonedTimeout, logAbandoned, abandonWhenPercentageFull, maxActive, minIdle, maxIdle,
                     suspectTimeout, timeBetweenEvictionRunsMillis, minEvictableIdleTimeMillis, maxRetriesOnDeadlock,
-                    maxIntervalBetweenRetries, testOnBorrow);
+                    maxIntervalBetweenRetries, testOnBorrow, readOnlySchemaServer, readOnlySchemaServerPort, readOnlySchemaName,
+                    readOnlySchemaUsername, readOnlySchemaPassword, readOnlySchemaConnectionParameters, readOnlyMaxReplicationLag);
         }
 
         private int bindValueInMinMaxRange(final int value, int min, int max) {
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.security.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * {@link DaoAuthenticationProvider} that remembers successful password verifications for a short time, so stateless
+ * basic auth clients do not pay for a bcrypt verification on every request.
+ *
+ * Entries are keyed by tenant and username and hold an HMAC of the presented password and the stored password hash,
+ * computed with a key that only lives in this process; the plain password is never kept. A different password, a
+ * changed password hash or an expired entry all fall back to the regular verification. User details are still loaded
+ * and checked (enabled, locked, expired) on every request. The cache is evicted whenever users are updated or deleted,
+ * and like the other platform caches it does nothing while caching is switched off.
+ */
+public class CredentialCachingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    public static final String CACHE_NAME = "basicAuthCredentials";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final CacheManager cacheManager;
+    private final SecretKeySpec credentialKey;
+
+    public CredentialCachingAuthenticationProvider(final CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+        final byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.credentialKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(final UserDetails userDetails, final UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        if (authentication.getCredentials() == null || userDetails.getPassword() == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+
+        final Cache verifiedCredentials = this.cacheManager.getCache(CACHE_NAME);
+        if (verifiedCredentials == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+
+        final String cacheKey = cacheKey(userDetails);
+        final byte[] credentialHash = credentialHash(authentication.getCredentials().toString(), userDetails.getPassword());
+        final byte[] verifiedHash = verifiedCredentials.get(cacheKey, byte[].class);
+        if (verifiedHash != null && MessageDigest.isEqual(verifiedHash, credentialHash)) {
+            return;
+        }
+
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verifiedCredentials.put(cacheKey, credentialHash);
+    }
+
+    private static String cacheKey(final UserDetails userDetails) {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final String tenantIdentifier = tenant == null ? "" : tenant.getTenantIdentifier();
+        return tenantIdentifier + ":" + userDetails.getUsername();
+    }
+
+    private byte[] credentialHash(final String presentedPassword, final String encodedPassword) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(this.credentialKey);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(presentedPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Unable to hash the presented credentials", e);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.sms.scheduler;
+
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.apache.fineract.infrastructure.campaigns.helper.SmsConfigUtils;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.sms.data.SmsMessageApiQueueResourceData;
+import org.apache.fineract.infrastructure.sms.data.SmsMessageDeliveryReportData;
+import org.apache.fineract.infrastructure.sms.domain.SmsMessageStatusType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Posts SMS messages to the message gateway (or intermediate gateway).
+ *
+ * Messages are grouped per provider and posted in bulk requests of at most {@code fineract.sms.dispatcher.bulk-size}
+ * messages, use a bulk size of 1 for gateways that only accept single messages. At most
+ * {@code fineract.sms.dispatcher.max-in-flight} requests are sent at a time over pooled connections, and every provider of a
+ * tenant is throttled by its own token bucket of {@code fineract.sms.dispatcher.rate-limit} messages per second, overridden per
+ * provider id by {@code fineract.sms.dispatcher.provider-rate-limits} (e.g. {@code 1=50,3=10}). A rate of 0 means unlimited.
+ * A request of a provider over its rate does not wait on a sending thread, it is put back and retried once the bucket could
+ * have refilled, so a slow provider never holds up the others.
+ *
+ * Messages of requests the gateway did not accept are marked as failed in one batch update. Request latency is recorded in the
+ * {@code fineract.sms.gateway.requests} timer and throughput in the {@code fineract.sms.gateway.messages} counter, both tagged
+ * by provider and outcome.
+ **/
+@Component
+public class SmsGatewayDispatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmsGatewayDispatcher.class);
+
+    private static final String UPDATE_STATUS_SQL = "update sms_messages_outbound set status_enum = ? where id = ?";
+
+    private final SmsConfigUtils smsConfigUtils;
+    private final RoutingDataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final int bulkSize;
+    private final double rateLimit;
+    private final Map<Long, Double> providerRateLimits = new HashMap<>();
+    private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService retryExecutorService;
+    private final RestTemplate restTemplate;
+
+    @Autowired
+    public SmsGatewayDispatcher(final SmsConfigUtils smsConfigUtils, final RoutingDataSource dataSource, final MeterRegistry meterRegistry,
+            @Value("${fineract.sms.dispatcher.max-in-flight:4}") final int maxInFlight,
+            @Value("${fineract.sms.dispatcher.bulk-size:200}") final int bulkSize,
+            @Value("${fineract.sms.dispatcher.rate-limit:0}") final double rateLimit,
+            @Value("${fineract.sms.dispatcher.provider-rate-limits:}") final String providerRateLimits) {
+        this.smsConfigUtils = smsConfigUtils;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.bulkSize = Math.max(1, bulkSize);
+        this.rateLimit = rateLimit;
+        Splitter.on(',').omitEmptyStrings().trimResults().withKeyValueSeparator('=').split(providerRateLimits)
+                .forEach((providerId, limit) -> this.providerRateLimits.put(Long.valueOf(providerId), Double.valueOf(limit)));
+        this.executorService = Executors.newFixedThreadPool(Math.max(1, maxInFlight));
+        this.retryExecutorService = Executors.newSingleThreadScheduledExecutor();
+        final OkHttpClient httpClient = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(Math.max(1, maxInFlight), 5, TimeUnit.MINUTES)).build();
+        this.restTemplate = new RestTemplate(new OkHttp3ClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * Queues the messages for sending on behalf of the current tenant.
+     *
+     * @return completes with the number of messages marked as failed once every bulk request of the messages has been
+     *         answered, or exceptionally when their status could not be updated
+     **/
+    public CompletableFuture<Integer> dispatch(final Collection<SmsMessageApiQueueResourceData> messages) {
+        CompletableFuture<Integer> failedMessages = CompletableFuture.completedFuture(0);
+        if (messages.isEmpty()) {
+            return failedMessages;
+        }
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final Map<String, Object> hostConfig = this.smsConfigUtils.getMessageGateWayRequestURI("sms", null);
+        final URI uri = (URI) hostConfig.get("uri");
+        final HttpHeaders headers = ((HttpEntity<?>) hostConfig.get("entity")).getHeaders();
+
+        final Map<Long, List<SmsMessageApiQueueResourceData>> messagesByProvider = new LinkedHashMap<>();
+        for (final SmsMessageApiQueueResourceData message : messages) {
+            messagesByProvider.computeIfAbsent(message.getproviderId(), providerId -> new ArrayList<>()).add(message);
+        }
+
+        for (final Map.Entry<Long, List<SmsMessageApiQueueResourceData>> entry : messagesByProvider.entrySet()) {
+            final Long providerId = entry.getKey();
+            final RateLimiter rateLimiter = rateLimiter(tenant, providerId);
+            final List<SmsMessageApiQueueResourceData> providerMessages = entry.getValue();
+            for (int from = 0; from < providerMessages.size(); from += this.bulkSize) {
+                final List<SmsMessageApiQueueResourceData> bulk = providerMessages.subList(from,
+                        Math.min(from + this.bulkSize, providerMessages.size()));
+                final BulkRequest request = new BulkRequest(tenant, uri, headers, providerId, rateLimiter, bulk);
+                request.submit();
+                failedMessages = failedMessages.thenCombine(request.result, Integer::sum);
+            }
+        }
+        return failedMessages;
+    }
+
+    /**
+     * Fetches the delivery reports of the given messages over the pooled connections.
+     **/
+    public Collection<SmsMessageDeliveryReportData> retrieveDeliveryReports(final Collection<Long> messageIds) {
+        final Map<String, Object> hostConfig = this.smsConfigUtils.getMessageGateWayRequestURI("sms/report",
+                new Gson().toJson(messageIds));
+        final ResponseEntity<Collection<SmsMessageDeliveryReportData>> response = this.restTemplate.exchange((URI) hostConfig.get("uri"),
+                HttpMethod.POST, (HttpEntity<?>) hostConfig.get("entity"),
+                new ParameterizedTypeReference<Collection<SmsMessageDeliveryReportData>>() {});
+        return response.getBody() == null ? Collections.emptyList() : response.getBody();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.retryExecutorService.shutdown();
+        this.executorService.shutdown();
+        LOG.info("Shutting down the SMS gateway dispatcher");
+    }
+
+    private RateLimiter rateLimiter(final FineractPlatformTenant tenant, final Long providerId) {
+        final double permitsPerSecond = this.providerRateLimits.getOrDefault(providerId, this.rateLimit);
+        if (permitsPerSecond <= 0) {
+            return null;
+        }
+        final String tenantIdentifier = tenant == null ? null : tenant.getTenantIdentifier();
+        return this.rateLimiters.computeIfAbsent(tenantIdentifier + ":" + providerId, key -> RateLimiter.create(permitsPerSecond));
+    }
+
+    /**
+     * @return the number of messages marked as failed
+     **/
+    private int send(final FineractPlatformTenant tenant, final URI uri, final HttpHeaders headers, final Long providerId,
+            final List<SmsMessageApiQueueResourceData> bulk) {
+        if (tenant != null) {
+            ThreadLocalContextUtil.setTenant(tenant);
+        }
+        try {
+            final Timer.Sample sample = Timer.start(this.meterRegistry);
+            boolean accepted = false;
+            try {
+                final ResponseEntity<String> response = this.restTemplate.exchange(uri, HttpMethod.POST,
+                        new HttpEntity<>(SmsMessageApiQueueResourceData.toJsonString(bulk), headers), String.class);
+                accepted = HttpStatus.ACCEPTED.equals(response.getStatusCode());
+                if (!accepted) {
+                    LOG.warn("SMS gateway answered {} to {} message(s) of provider {}", response.getStatusCode(), bulk.size(), providerId);
+                }
+            } catch (final RestClientException e) {
+                LOG.error("Sending {} message(s) of provider {} to the SMS gateway failed", bulk.size(), providerId, e);
+            }
+            final String provider = String.valueOf(providerId);
+            final String outcome = accepted ? "accepted" : "failed";
+            sample.stop(this.meterRegistry.timer("fineract.sms.gateway.requests", "provider", provider, "outcome", outcome));
+            this.meterRegistry.counter("fineract.sms.gateway.messages", "provider", provider, "outcome", outcome).increment(bulk.size());
+            if (accepted) {
+                return 0;
+            }
+            markFailed(bulk);
+            return bulk.size();
+        } finally {
+            ThreadLocalContextUtil.clearTenant();
+        }
+    }
+
+    private void markFailed(final List<SmsMessageApiQueueResourceData> bulk) {
+        final List<Object[]> batchArgs = new ArrayList<>(bulk.size());
+        for (final SmsMessageApiQueueResourceData message : bulk) {
+            batchArgs.add(new Object[] { SmsMessageStatusType.FAILED.getValue(), message.getInternalId() });
+        }
+        new JdbcTemplate(this.dataSource).batchUpdate(UPDATE_STATUS_SQL, batchArgs);
+    }
+
+    private final class BulkRequest implements Runnable {
+
+        private final FineractPlatformTenant tenant;
+        private final URI uri;
+        private final HttpHeaders headers;
+        private final Long providerId;
+        private final RateLimiter rateLimiter;
+        private final List<SmsMessageApiQueueResourceData> bulk;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+
+        BulkRequest(final FineractPlatformTenant tenant, final URI uri, final HttpHeaders headers, final Long providerId,
+                final RateLimiter rateLimiter, final List<SmsMessageApiQueueResourceData> bulk) {
+            this.tenant = tenant;
+            this.uri = uri;
+            this.headers = headers;
+            this.providerId = providerId;
+            this.rateLimiter = rateLimiter;
+            this.bulk = bulk;
+        }
+
+        void submit() {
+            try {
+                SmsGatewayDispatcher.this.executorService.execute(this);
+            } catch (final RejectedExecutionException e) {
+                this.result.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (this.rateLimiter != null && !this.rateLimiter.tryAcquire(this.bulk.size())) {
+                    final long retryDelayMillis = (long) Math.ceil(1000 * this.bulk.size() / this.rateLimiter.getRate());
+                    SmsGatewayDispatcher.this.retryExecutorService.schedule(this::submit, retryDelayMillis, TimeUnit.MILLISECONDS);
+                    return;
+                }
+                this.result.complete(send(this.tenant, this.uri, this.headers, this.providerId, this.bulk));
+            } catch (final RuntimeException e) {
+                this.result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -18,22 +18,16 @@
  */
 package org.apache.fineract.infrastructure.sms.scheduler;
 
-import com.google.gson.Gson;
-import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import javax.annotation.PostConstruct;
-import org.apache.fineract.infrastructure.campaigns.helper.SmsConfigUtils;
 import org.apache.fineract.infrastructure.campaigns.sms.constants.SmsCampaignConstants;
 import org.apache.fineract.infrastructure.campaigns.sms.domain.SmsCampaign;
 import org.apache.fineract.infrastructure.campaigns.sms.exception.ConnectionFailureException;
-import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.service.Page;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
 import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.gcm.service.NotificationSenderService;
 import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
@@ -47,17 +41,10 @@ import org.apache.fineract.infrastructure.sms.service.SmsReadPlatformService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationListener;
-import org.springframework.context.event.ContextClosedEvent;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 /**
  * Scheduled job services that send SMS messages and get delivery reports for the sent SMS messages
@@ -68,28 +55,24 @@ public class SmsMessageScheduledJobServiceImpl implements SmsMessageScheduledJob
     private final SmsMessageRepository smsMessageRepository;
     private final SmsReadPlatformService smsReadPlatformService;
     private static final Logger LOG = LoggerFactory.getLogger(SmsMessageScheduledJobServiceImpl.class);
-    private final RestTemplate restTemplate = new RestTemplate();
-    private ExecutorService genericExecutorService;
-    private ExecutorService triggeredExecutorService;
-    private final SmsConfigUtils smsConfigUtils;
+    private static final String UPDATE_DELIVERY_REPORT_SQL = "update sms_messages_outbound set status_enum = coalesce(?, status_enum), "
+            + "external_id = ? where id = ?";
     private final NotificationSenderService notificationSenderService;
+    private final SmsGatewayDispatcher smsGatewayDispatcher;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * SmsMessageScheduledJobServiceImpl constructor
      **/
     @Autowired
     public SmsMessageScheduledJobServiceImpl(SmsMessageRepository smsMessageRepository, SmsReadPlatformService smsReadPlatformService,
-            final SmsConfigUtils smsConfigUtils, final NotificationSenderService notificationSenderService) {
+            final NotificationSenderService notificationSenderService, final SmsGatewayDispatcher smsGatewayDispatcher,
+            final RoutingDataSource dataSource) {
         this.smsMessageRepository = smsMessageRepository;
         this.smsReadPlatformService = smsReadPlatformService;
-        this.smsConfigUtils = smsConfigUtils;
         this.notificationSenderService = notificationSenderService;
-    }
-
-    @PostConstruct
-    public void initializeExecutorService() {
-        genericExecutorService = Executors.newSingleThreadExecutor();
-        triggeredExecutorService = Executors.newSingleThreadExecutor();
+        this.smsGatewayDispatcher = smsGatewayDispatcher;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
     /**
@@ -131,7 +114,7 @@ public class SmsMessageScheduledJobServiceImpl implements SmsMessageScheduledJob
                     if (toSaveMessages.size() > 0) {
                         this.smsMessageRepository.saveAll(toSaveMessages);
                         this.smsMessageRepository.flush();
-                        this.genericExecutorService.execute(new SmsTask(ThreadLocalContextUtil.getTenant(), apiQueueResourceDatas));
+                        dispatch(apiQueueResourceDatas);
                     }
                     if (!toSendNotificationMessages.isEmpty()) {
                         this.notificationSenderService.sendNotification(toSendNotificationMessages);
@@ -147,45 +130,6 @@ public class SmsMessageScheduledJobServiceImpl implements SmsMessageScheduledJob
         } while (page < totalRecords);
     }
 
-    class SmsTask implements Runnable, ApplicationListener<ContextClosedEvent> {
-
-        private final FineractPlatformTenant tenant;
-        private final Collection<SmsMessageApiQueueResourceData> apiQueueResourceDatas;
-
-        SmsTask(final FineractPlatformTenant tenant, final Collection<SmsMessageApiQueueResourceData> apiQueueResourceDatas) {
-            this.tenant = tenant;
-            this.apiQueueResourceDatas = apiQueueResourceDatas;
-        }
-
-        @Override
-        public void run() {
-            ThreadLocalContextUtil.setTenant(tenant);
-            connectAndSendToIntermediateServer(apiQueueResourceDatas);
-        }
-
-        @Override
-        public void onApplicationEvent(ContextClosedEvent event) {
-            genericExecutorService.shutdown();
-            LOG.info("Shutting down the ExecutorService");
-        }
-    }
-
-    private void connectAndSendToIntermediateServer(Collection<SmsMessageApiQueueResourceData> apiQueueResourceDatas) {
-        Map<String, Object> hostConfig = this.smsConfigUtils.getMessageGateWayRequestURI("sms",
-                SmsMessageApiQueueResourceData.toJsonString(apiQueueResourceDatas));
-        URI uri = (URI) hostConfig.get("uri");
-        HttpEntity<?> entity = (HttpEntity<?>) hostConfig.get("entity");
-        ResponseEntity<String> responseOne = restTemplate.exchange(uri, HttpMethod.POST, entity,
-                new ParameterizedTypeReference<String>() {});
-        if (responseOne != null) {
-            // String smsResponse = responseOne.getBody();
-            if (!responseOne.getStatusCode().equals(HttpStatus.ACCEPTED)) {
-                LOG.debug("{}", responseOne.getStatusCode().name());
-                throw new ConnectionFailureException(SmsCampaignConstants.SMS);
-            }
-        }
-    }
-
     @Override
     public void sendTriggeredMessages(Map<SmsCampaign, Collection<SmsMessage>> smsDataMap) {
         try {
@@ -213,7 +157,7 @@ public class SmsMessageScheduledJobServiceImpl implements SmsMessageScheduledJob
                     if (toSaveMessages.size() > 0) {
                         this.smsMessageRepository.saveAll(toSaveMessages);
                         this.smsMessageRepository.flush();
-                        this.triggeredExecutorService.execute(new SmsTask(ThreadLocalContextUtil.getTenant(), apiQueueResourceDatas));
+                        dispatch(apiQueueResourceDatas);
                     }
                     if (!toSendNotificationMessages.isEmpty()) {
                         this.notificationSenderService.sendNotification(toSendNotificationMessages);
@@ -240,12 +184,25 @@ public class SmsMessageScheduledJobServiceImpl implements SmsMessageScheduledJob
             this.smsMessageRepository.saveAll(smsMessages);
             request.append(SmsMessageApiQueueResourceData.toJsonString(apiQueueResourceDatas));
             LOG.info("Sending triggered SMS to specific provider with request - {}", request);
-            this.triggeredExecutorService.execute(new SmsTask(ThreadLocalContextUtil.getTenant(), apiQueueResourceDatas));
+            dispatch(apiQueueResourceDatas);
         } catch (Exception e) {
             LOG.error("Error occured.", e);
         }
     }
 
+    private void dispatch(final Collection<SmsMessageApiQueueResourceData> apiQueueResourceDatas) {
+        final int messageCount = apiQueueResourceDatas.size();
+        this.smsGatewayDispatcher.dispatch(apiQueueResourceDatas).whenComplete((failedCount, e) -> {
+            if (e != null) {
+                LOG.error("Dispatching {} SMS message(s) failed, their status may not reflect the gateway answer", messageCount, e);
+            } else if (failedCount > 0) {
+                LOG.warn("{} of {} SMS message(s) were not accepted by the gateway and are marked as failed", failedCount, messageCount);
+            } else {
+                LOG.debug("{} SMS message(s) accepted by the gateway, waiting for delivery report", messageCount);
+            }
+        });
+    }
+
     /**
      * get SMS message delivery reports from the SMS gateway (or intermediate gateway)
      **/
@@ -262,23 +219,15 @@ public class SmsMessageScheduledJobServiceImpl implements SmsMessageScheduledJob
             try {
 
                 if (smsMessageInternalIds.getPageItems().size() > 0) {
-                    // make request
-                    Map<String, Object> hostConfig = this.smsConfigUtils.getMessageGateWayRequestURI("sms/report",
-                            new Gson().toJson(smsMessageInternalIds.getPageItems()));
-                    URI uri = (URI) hostConfig.get("uri");
-                    HttpEntity<?> entity = (HttpEntity<?>) hostConfig.get("entity");
-                    ResponseEntity<Collection<SmsMessageDeliveryReportData>> responseOne = restTemplate.exchange(uri, HttpMethod.POST,
-                            entity, new ParameterizedTypeReference<Collection<SmsMessageDeliveryReportData>>() {});
-
-                    Collection<SmsMessageDeliveryReportData> smsMessageDeliveryReportDatas = responseOne.getBody();
-                    Iterator<SmsMessageDeliveryReportData> responseReportIterator = smsMessageDeliveryReportDatas.iterator();
-                    while (responseReportIterator.hasNext()) {
-                        SmsMessageDeliveryReportData smsMessageDeliveryReportData = responseReportIterator.next();
+                    Collection<SmsMessageDeliveryReportData> smsMessageDeliveryReportDatas = this.smsGatewayDispatcher
+                            .retrieveDeliveryReports(smsMessageInternalIds.getPageItems());
+                    List<Object[]> statusUpdates = new ArrayList<>();
+                    for (SmsMessageDeliveryReportData smsMessageDeliveryReportData : smsMessageDeliveryReportDatas) {
                         Integer deliveryStatus = smsMessageDeliveryReportData.getDeliveryStatus();
 
                         if (!smsMessageDeliveryReportData.getHasError() && deliveryStatus != 100) {
-                            SmsMessage smsMessage = this.smsMessageRepository.findById(smsMessageDeliveryReportData.getId()).orElse(null);
-                            Integer statusType = smsMessage.getStatusType();
+                            // a null status type keeps the current status of the message
+                            Integer statusType = null;
 
                             switch (deliveryStatus) {
                                 case 0:
@@ -299,27 +248,19 @@ public class SmsMessageScheduledJobServiceImpl implements SmsMessageScheduledJob
                                 break;
 
                                 default:
-                                    statusType = smsMessage.getStatusType();
                                 break;
                             }
 
-                            boolean statusChanged = !statusType.equals(smsMessage.getStatusType());
-
-                            // update the status Type enum
-                            smsMessage.setStatusType(statusType);
-
-                            // update the externalId
-                            smsMessage.setExternalId(smsMessageDeliveryReportData.getExternalId());
-
-                            // save the SmsMessage entity
-                            this.smsMessageRepository.save(smsMessage);
-
-                            if (statusChanged) {
-                                LOG.info("Status of SMS message id: {} successfully changed to {}", smsMessage.getId(), statusType);
-                            }
+                            statusUpdates.add(new Object[] { statusType, smsMessageDeliveryReportData.getExternalId(),
+                                    smsMessageDeliveryReportData.getId() });
                         }
                     }
 
+                    // update the status type enum and the externalId of all reported messages in one batch
+                    if (!statusUpdates.isEmpty()) {
+                        this.jdbcTemplate.batchUpdate(UPDATE_DELIVERY_REPORT_SQL, statusUpdates);
+                    }
+
                     if (smsMessageDeliveryReportDatas.size() > 0) {
                         LOG.info("{} delivery report(s) successfully received from the intermediate gateway - sms",
                                 smsMessageDeliveryReportDatas.size());
@@ -21,6 +21,8 @@ package org.apache.fineract.interoperation.api;
 import static org.apache.fineract.interoperation.util.InteropUtil.ENTITY_NAME_QUOTE;
 import static org.apache.fineract.interoperation.util.InteropUtil.ENTITY_NAME_REQUEST;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -33,6 +35,8 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
@@ -88,15 +92,18 @@ public class InteropApiResource {
     private InteropService interopService;
     private PortfolioCommandSourceWritePlatformService commandsSourceService;
 
+    private MeterRegistry meterRegistry;
+
     @Autowired
     public InteropApiResource(PlatformSecurityContext context, ApiRequestParameterHelper apiRequestParameterHelper,
             DefaultToApiJsonSerializer<CommandProcessingResult> defaultToApiJsonSerializer, InteropService interopService,
-            PortfolioCommandSourceWritePlatformService portfolioCommandSourceWritePlatformService) {
+            PortfolioCommandSourceWritePlatformService portfolioCommandSourceWritePlatformService, MeterRegistry meterRegistry) {
         this.context = context;
         this.apiRequestParameterHelper = apiRequestParameterHelper;
         this.jsonSerializer = defaultToApiJsonSerializer;
         this.interopService = interopService;
         this.commandsSourceService = portfolioCommandSourceWritePlatformService;
+        this.meterRegistry = meterRegistry;
     }
 
     @GET
@@ -172,7 +179,7 @@ public class InteropApiResource {
             @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(implementation = InteropIdentifierAccountResponseData.class))) })
     public String getAccountByIdentifier(@PathParam("idType") @Parameter(description = "idType") InteropIdentifierType idType,
             @PathParam("idValue") @Parameter(description = "idValue") String idValue, @Context UriInfo uriInfo) {
-        InteropIdentifierAccountResponseData result = interopService.getAccountByIdentifier(idType, idValue, null);
+        InteropIdentifierAccountResponseData result = timed("party", () -> interopService.getAccountByIdentifier(idType, idValue, null));
         ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper.process(uriInfo.getQueryParameters());
 
         return jsonSerializer.serialize(settings, result);
@@ -188,7 +195,8 @@ public class InteropApiResource {
     public String getAccountByIdentifier(@PathParam("idType") @Parameter(description = "idType") InteropIdentifierType idType,
             @PathParam("idValue") @Parameter(description = "idValue") String idValue,
             @PathParam("subIdOrType") @Parameter(description = "subIdOrType") String subIdOrType, @Context UriInfo uriInfo) {
-        InteropIdentifierAccountResponseData result = interopService.getAccountByIdentifier(idType, idValue, subIdOrType);
+        InteropIdentifierAccountResponseData result = timed("party",
+                () -> interopService.getAccountByIdentifier(idType, idValue, subIdOrType));
         ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper.process(uriInfo.getQueryParameters());
 
         return jsonSerializer.serialize(settings, result);
@@ -304,8 +312,8 @@ public class InteropApiResource {
     public String createTransactionRequest(@Parameter(hidden = true) String quotesJson, @Context UriInfo uriInfo) {
         CommandWrapper commandRequest = new InteropWrapperBuilder().createTransactionRequest().withJson(quotesJson).build();
 
-        InteropTransactionRequestResponseData result = (InteropTransactionRequestResponseData) commandsSourceService
-                .logCommandSource(commandRequest);
+        InteropTransactionRequestResponseData result = timed("request",
+                () -> (InteropTransactionRequestResponseData) commandsSourceService.logCommandSource(commandRequest));
         ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper.process(uriInfo.getQueryParameters());
 
         return jsonSerializer.serialize(settings, result);
@@ -339,7 +347,8 @@ public class InteropApiResource {
     public String createQuote(@Parameter(hidden = true) String quotesJson, @Context UriInfo uriInfo) {
         CommandWrapper commandRequest = new InteropWrapperBuilder().createQuotes().withJson(quotesJson).build();
 
-        InteropQuoteResponseData result = (InteropQuoteResponseData) commandsSourceService.logCommandSource(commandRequest);
+        InteropQuoteResponseData result = timed("quote",
+                () -> (InteropQuoteResponseData) commandsSourceService.logCommandSource(commandRequest));
         ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper.process(uriInfo.getQueryParameters());
 
         return jsonSerializer.serialize(settings, result);
@@ -386,7 +395,8 @@ public class InteropApiResource {
         CommandWrapper commandRequest = new InteropWrapperBuilder().performTransfer(InteropTransferActionType.valueOf(action))
                 .withJson(quotesJson).build();
 
-        InteropTransferResponseData result = (InteropTransferResponseData) commandsSourceService.logCommandSource(commandRequest);
+        InteropTransferResponseData result = timed("transfer." + action.toLowerCase(Locale.ROOT),
+                () -> (InteropTransferResponseData) commandsSourceService.logCommandSource(commandRequest));
         ApiRequestJsonSerializationSettings settings = this.apiRequestParameterHelper.process(uriInfo.getQueryParameters());
 
         return jsonSerializer.serialize(settings, result);
@@ -413,7 +423,24 @@ public class InteropApiResource {
     @Operation(summary = "Disburse Loan by Account Id", description = "")
     public String disburseLoan(@PathParam("accountId") @Parameter(description = "accountId") String accountId,
             @Parameter(hidden = true) final String apiRequestBodyAsJson, @Context UriInfo uriInfo) {
-        return interopService.disburseLoan(accountId, apiRequestBodyAsJson);
+        return timed("disburse", () -> interopService.disburseLoan(accountId, apiRequestBodyAsJson));
+    }
+
+    /**
+     * Records the latency of an interoperation call as a histogram, so that the percentiles of each operation can be
+     * followed separately.
+     */
+    private <T> T timed(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("fineract.interop.requests").tag("operation", operation).tag("outcome", outcome)
+                    .publishPercentileHistogram().register(meterRegistry));
+        }
     }
 
 }
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.interoperation.service;
+
+import javax.validation.constraints.NotNull;
+import org.apache.fineract.interoperation.data.InteropIdentifierAccountResponseData;
+import org.apache.fineract.interoperation.domain.InteropIdentifier;
+import org.apache.fineract.interoperation.domain.InteropIdentifierRepository;
+import org.apache.fineract.interoperation.domain.InteropIdentifierType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per tenant cache of the account registered for an interoperation identifier, so that party lookups of the payment
+ * switch do not load the identifier and its savings account aggregate each time. Unknown identifiers are not cached.
+ * Deletes only evict the entry on the node that runs them, so entries expire five minutes after they were cached.
+ */
+@Component
+public class InteropIdentifierCache {
+
+    private static final String KEY = "T(java.util.Arrays).asList(T(org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil)"
+            + ".getTenant().getTenantIdentifier(), #idType, #idValue, #subIdOrType)";
+
+    private final InteropIdentifierRepository identifierRepository;
+
+    @Autowired
+    public InteropIdentifierCache(InteropIdentifierRepository identifierRepository) {
+        this.identifierRepository = identifierRepository;
+    }
+
+    /**
+     * Identifier id and external id of the account registered for the identifier, or null when there is none.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "interopIdentifiers", key = KEY, unless = "#result == null")
+    public InteropIdentifierAccountResponseData findAccount(@NotNull InteropIdentifierType idType, @NotNull String idValue,
+            String subIdOrType) {
+        InteropIdentifier identifier = identifierRepository.findOneByTypeAndValueAndSubType(idType, idValue, subIdOrType);
+        if (identifier == null) {
+            return null;
+        }
+        return InteropIdentifierAccountResponseData.build(identifier.getId(), identifier.getAccount().getExternalId());
+    }
+
+    @CacheEvict(value = "interopIdentifiers", key = KEY)
+    public void evict(@NotNull InteropIdentifierType idType, @NotNull String idValue, String subIdOrType) {
+        // evicted by the annotation
+    }
+}
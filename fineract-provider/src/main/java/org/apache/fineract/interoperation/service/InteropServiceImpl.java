@@ -29,6 +29,7 @@ import static org.apache.fineract.portfolio.savings.domain.SavingsAccountTransac
 import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -36,6 +37,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Predicate;
 import javax.persistence.PersistenceException;
 import javax.validation.constraints.NotNull;
@@ -46,10 +49,13 @@ import org.apache.fineract.commands.service.CommandWrapperBuilder;
 import org.apache.fineract.commands.service.PortfolioCommandSourceWritePlatformService;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.domain.JdbcSupport;
 import org.apache.fineract.infrastructure.core.exception.PlatformDataIntegrityException;
 import org.apache.fineract.infrastructure.core.serialization.DefaultToApiJsonSerializer;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.apache.fineract.interoperation.data.InteropAccountData;
@@ -71,11 +77,13 @@ import org.apache.fineract.interoperation.domain.InteropActionState;
 import org.apache.fineract.interoperation.domain.InteropIdentifier;
 import org.apache.fineract.interoperation.domain.InteropIdentifierRepository;
 import org.apache.fineract.interoperation.domain.InteropIdentifierType;
+import org.apache.fineract.interoperation.domain.InteropTransferActionType;
 import org.apache.fineract.interoperation.exception.InteropAccountNotFoundException;
 import org.apache.fineract.interoperation.exception.InteropAccountTransactionNotAllowedException;
 import org.apache.fineract.interoperation.exception.InteropKycDataNotFoundException;
 import org.apache.fineract.interoperation.exception.InteropTransferAlreadyCommittedException;
 import org.apache.fineract.interoperation.exception.InteropTransferAlreadyOnHoldException;
+import org.apache.fineract.interoperation.exception.InteropTransferConflictException;
 import org.apache.fineract.interoperation.exception.InteropTransferMissingException;
 import org.apache.fineract.interoperation.serialization.InteropDataValidator;
 import org.apache.fineract.interoperation.util.MathUtil;
@@ -96,6 +104,7 @@ import org.apache.fineract.portfolio.paymenttype.domain.PaymentTypeRepository;
 import org.apache.fineract.portfolio.savings.SavingsAccountTransactionType;
 import org.apache.fineract.portfolio.savings.SavingsTransactionBooleanValues;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccount;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountAssembler;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccountDomainService;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccountRepository;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccountTransaction;
@@ -115,6 +124,8 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.orm.jpa.JpaSystemException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class InteropServiceImpl implements InteropService {
@@ -144,6 +155,10 @@ public class InteropServiceImpl implements InteropService {
     private final DefaultToApiJsonSerializer<LoanAccountData> toApiJsonSerializer;
     private final DatabaseSpecificSQLGenerator sqlGenerator;
 
+    private final SavingsAccountAssembler savingsAccountAssembler;
+    private final InteropIdentifierCache identifierCache;
+    private final ConcurrentMap<String, Long> nonCashPaymentTypeIds = new ConcurrentHashMap<>();
+
     @Autowired
     public InteropServiceImpl(PlatformSecurityContext securityContext, InteropDataValidator interopDataValidator,
             SavingsAccountRepository savingsAccountRepository, SavingsAccountTransactionRepository savingsAccountTransactionRepository,
@@ -152,7 +167,8 @@ public class InteropServiceImpl implements InteropService {
             SavingsHelper savingsHelper, SavingsAccountTransactionSummaryWrapper savingsAccountTransactionSummaryWrapper,
             SavingsAccountDomainService savingsAccountService, final RoutingDataSource dataSource,
             final PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService,
-            final DefaultToApiJsonSerializer<LoanAccountData> toApiJsonSerializer, DatabaseSpecificSQLGenerator sqlGenerator) {
+            final DefaultToApiJsonSerializer<LoanAccountData> toApiJsonSerializer, DatabaseSpecificSQLGenerator sqlGenerator,
+            SavingsAccountAssembler savingsAccountAssembler, InteropIdentifierCache identifierCache) {
         this.securityContext = securityContext;
         this.dataValidator = interopDataValidator;
         this.savingsAccountRepository = savingsAccountRepository;
@@ -169,6 +185,8 @@ public class InteropServiceImpl implements InteropService {
         this.commandsSourceWritePlatformService = commandsSourceWritePlatformService;
         this.toApiJsonSerializer = toApiJsonSerializer;
         this.sqlGenerator = sqlGenerator;
+        this.savingsAccountAssembler = savingsAccountAssembler;
+        this.identifierCache = identifierCache;
     }
 
     private static final class KycMapper implements RowMapper<InteropKycData> {
@@ -264,12 +282,12 @@ public class InteropServiceImpl implements InteropService {
     @Override
     public InteropIdentifierAccountResponseData getAccountByIdentifier(@NotNull InteropIdentifierType idType, @NotNull String idValue,
             String subIdOrType) {
-        InteropIdentifier identifier = findIdentifier(idType, idValue, subIdOrType);
-        if (identifier == null) {
+        InteropIdentifierAccountResponseData account = identifierCache.findAccount(idType, idValue, subIdOrType);
+        if (account == null) {
             throw new InteropAccountNotFoundException(idType, idValue, subIdOrType);
         }
 
-        return InteropIdentifierAccountResponseData.build(identifier.getId(), identifier.getAccount().getExternalId());
+        return account;
     }
 
     @NotNull
@@ -315,6 +333,18 @@ public class InteropServiceImpl implements InteropService {
         Long id = identifier.getId();
 
         identifierRepository.delete(identifier);
+        // a lookup between the eviction and the commit would put the deleted identifier back into the cache
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    identifierCache.evict(idType, idValue, subIdOrType);
+                }
+            });
+        } else {
+            identifierCache.evict(idType, idValue, subIdOrType);
+        }
 
         return InteropIdentifierAccountResponseData.build(id, accountId);
     }
@@ -380,6 +410,10 @@ public class InteropServiceImpl implements InteropService {
     @Transactional
     public InteropTransferResponseData prepareTransfer(@NotNull JsonCommand command) {
         InteropTransferRequestData request = dataValidator.validateAndParseTransferRequest(command);
+        InteropTransferResponseData completedTransfer = findCompletedTransfer(InteropTransferActionType.PREPARE, request);
+        if (completedTransfer != null) {
+            return completedTransfer;
+        }
         String transferCode = request.getTransferCode();
         LocalDateTime transactionDate = DateUtils.getLocalDateTimeOfTenant();
 
@@ -388,7 +422,8 @@ public class InteropServiceImpl implements InteropService {
 
         SavingsAccountTransactionType transactionType = request.getTransactionRole().getTransactionType();
         if (transactionType.isDebit()) {
-            SavingsAccount savingsAccount = validateAndGetSavingAccount(request);
+            boolean backdatedTxnsAllowedTill = savingsAccountAssembler.getPivotConfigStatus();
+            SavingsAccount savingsAccount = validateAndGetSavingAccount(request, backdatedTxnsAllowedTill);
             BigDecimal total = calculateTotalTransferAmount(request, savingsAccount);
 
             if (MathUtil.isLessThan(savingsAccount.getWithdrawableBalance(), total)) {
@@ -410,9 +445,10 @@ public class InteropServiceImpl implements InteropService {
             holdTransaction.updateCumulativeBalanceAndDates(accountCurrency, transactionDate.toLocalDate());
 
             savingsAccount.holdAmount(total);
-            savingsAccount.addTransaction(holdTransaction);
+            addTransaction(savingsAccount, holdTransaction, backdatedTxnsAllowedTill);
 
             savingsAccountRepository.save(savingsAccount);
+            recordCompletedTransfer(InteropTransferActionType.PREPARE, request, command.commandId(), transactionDate);
         }
 
         return InteropTransferResponseData.build(command.commandId(), request.getTransactionCode(), InteropActionState.ACCEPTED,
@@ -424,8 +460,13 @@ public class InteropServiceImpl implements InteropService {
     @Transactional
     public InteropTransferResponseData commitTransfer(@NotNull JsonCommand command) {
         InteropTransferRequestData request = dataValidator.validateAndParseTransferRequest(command);
+        InteropTransferResponseData completedTransfer = findCompletedTransfer(InteropTransferActionType.CREATE, request);
+        if (completedTransfer != null) {
+            return completedTransfer;
+        }
         boolean isDebit = request.getTransactionRole().getTransactionType().isDebit();
-        SavingsAccount savingsAccount = validateAndGetSavingAccount(request);
+        boolean backdatedTxnsAllowedTill = savingsAccountAssembler.getPivotConfigStatus();
+        SavingsAccount savingsAccount = validateAndGetSavingAccount(request, backdatedTxnsAllowedTill);
         String transferCode = request.getTransferCode();
 
         if (findTransaction(savingsAccount, transferCode, (isDebit ? WITHDRAWAL : DEPOSIT).getValue()) != null) {
@@ -436,7 +477,6 @@ public class InteropServiceImpl implements InteropService {
         LocalDate transactionDate = transactionDateTime.toLocalDate();
         DateTimeFormatter fmt = getDateTimeFormatter(command);
         SavingsAccountTransaction transaction;
-        final boolean backdatedTxnsAllowedTill = false;
 
         if (isDebit) {
             SavingsAccountTransaction holdTransaction = findTransaction(savingsAccount, transferCode, AMOUNT_HOLD.getValue());
@@ -459,7 +499,7 @@ public class InteropServiceImpl implements InteropService {
                         .saveAndFlush(releaseAmount(holdTransaction, transactionDate, new Date(), getLoginUser()));
                 holdTransaction.updateReleaseId(releaseTransaction.getId());
                 savingsAccount.releaseOnHoldAmount(holdTransaction.getAmount());
-                savingsAccount.addTransaction(releaseTransaction);
+                addTransaction(savingsAccount, releaseTransaction, backdatedTxnsAllowedTill);
 
                 savingsAccountRepository.save(savingsAccount);
             }
@@ -478,6 +518,7 @@ public class InteropServiceImpl implements InteropService {
         if (!StringUtils.isBlank(note)) {
             noteRepository.save(Note.savingsTransactionNote(savingsAccount, transaction, note));
         }
+        recordCompletedTransfer(InteropTransferActionType.CREATE, request, command.commandId(), transactionDateTime);
 
         return InteropTransferResponseData.build(command.commandId(), request.getTransactionCode(), InteropActionState.ACCEPTED,
                 request.getExpiration(), request.getExtensionList(), request.getTransferCode(), transactionDateTime);
@@ -487,7 +528,12 @@ public class InteropServiceImpl implements InteropService {
     @Transactional
     public @NotNull InteropTransferResponseData releaseTransfer(@NotNull JsonCommand command) {
         InteropTransferRequestData request = dataValidator.validateAndParseTransferRequest(command);
-        SavingsAccount savingsAccount = validateAndGetSavingAccount(request);
+        InteropTransferResponseData completedTransfer = findCompletedTransfer(InteropTransferActionType.RELEASE, request);
+        if (completedTransfer != null) {
+            return completedTransfer;
+        }
+        boolean backdatedTxnsAllowedTill = savingsAccountAssembler.getPivotConfigStatus();
+        SavingsAccount savingsAccount = validateAndGetSavingAccount(request, backdatedTxnsAllowedTill);
 
         LocalDateTime transactionDateTime = DateUtils.getLocalDateTimeOfTenant();
         SavingsAccountTransaction holdTransaction = findTransaction(savingsAccount, request.getTransferCode(), AMOUNT_HOLD.getValue());
@@ -503,9 +549,10 @@ public class InteropServiceImpl implements InteropService {
             holdTransaction.updateReleaseId(releaseTransaction.getId());
 
             savingsAccount.releaseOnHoldAmount(holdTransaction.getAmount());
-            savingsAccount.addTransaction(releaseTransaction);
+            addTransaction(savingsAccount, releaseTransaction, backdatedTxnsAllowedTill);
 
             savingsAccountRepository.save(savingsAccount);
+            recordCompletedTransfer(InteropTransferActionType.RELEASE, request, command.commandId(), transactionDateTime);
         } else {
             throw new InteropTransferMissingException(savingsAccount.getExternalId(), request.getTransferCode());
         }
@@ -564,8 +611,17 @@ public class InteropServiceImpl implements InteropService {
     }
 
     private SavingsAccount validateAndGetSavingAccount(@NotNull InteropRequestData request) {
+        return validateAndGetSavingAccount(request, false);
+    }
+
+    /**
+     * With the pivot date configuration enabled, transfers load only the transactions after the last interest posting
+     * or balance checkpoint of the account instead of its whole history.
+     */
+    private SavingsAccount validateAndGetSavingAccount(@NotNull InteropRequestData request, boolean backdatedTxnsAllowedTill) {
         // TODO: error handling
         SavingsAccount savingsAccount = validateAndGetSavingAccount(request.getAccountId());
+        savingsAccountAssembler.loadTransactionsToSavingsAccount(savingsAccount, backdatedTxnsAllowedTill);
         savingsAccount.setHelpers(savingsAccountTransactionSummaryWrapper, savingsHelper);
 
         ApplicationCurrency requestCurrency = currencyRepository.findOneByCode(request.getAmount().getCurrency());
@@ -618,23 +674,80 @@ public class InteropServiceImpl implements InteropService {
     }
 
     PaymentType findPaymentType() {
-        List<PaymentType> paymentTypes = paymentTypeRepository.findAll();
-        for (PaymentType paymentType : paymentTypes) {
-            if (!paymentType.isCashPayment()) {
+        // the id is remembered per tenant, the payment type itself comes from the entity cache
+        String tenantKey = tenantKey();
+        Long paymentTypeId = nonCashPaymentTypeIds.get(tenantKey);
+        if (paymentTypeId != null) {
+            PaymentType paymentType = paymentTypeRepository.findById(paymentTypeId).orElse(null);
+            if (paymentType != null && Boolean.FALSE.equals(paymentType.isCashPayment())) {
                 return paymentType;
             }
-            // TODO: for now first not cash is retured:
-            // 1. must be added as initial setup,
-            // 2. if more than one non-cashe type added then update this code
         }
-        return null;
+        // TODO: for now first not cash is retured:
+        // 1. must be added as initial setup,
+        // 2. if more than one non-cashe type added then update this code
+        List<PaymentType> paymentTypes = paymentTypeRepository.findNonCashPaymentTypes();
+        if (paymentTypes.isEmpty()) {
+            nonCashPaymentTypeIds.remove(tenantKey);
+            return null;
+        }
+        PaymentType paymentType = paymentTypes.get(0);
+        nonCashPaymentTypeIds.put(tenantKey, paymentType.getId());
+        return paymentType;
     }
 
     private SavingsAccountTransaction findTransaction(SavingsAccount savingsAccount, String transactionCode, Integer transactionTypeValue) {
-        return savingsAccount.getTransactions().stream().filter(t -> transactionTypeValue.equals(t.getTypeOf())).filter(t -> {
-            PaymentDetail detail = t.getPaymentDetail();
-            return detail != null && getRoutingCode().equals(detail.getRoutingCode()) && transactionCode.equals(detail.getReceiptNumber());
-        }).findFirst().orElse(null);
+        List<SavingsAccountTransaction> transactions = savingsAccountTransactionRepository
+                .findByPaymentDetailReceipt(savingsAccount.getId(), transactionTypeValue, getRoutingCode(), transactionCode);
+        return transactions.isEmpty() ? null : transactions.get(0);
+    }
+
+    private void addTransaction(SavingsAccount savingsAccount, SavingsAccountTransaction transaction, boolean backdatedTxnsAllowedTill) {
+        if (backdatedTxnsAllowedTill) {
+            // only the transactions after the pivot date are loaded, the new one is saved on its own
+            savingsAccountTransactionRepository.save(transaction);
+            savingsAccount.addTransactionToExisting(transaction);
+        } else {
+            savingsAccount.addTransaction(transaction);
+        }
+    }
+
+    /**
+     * Response of an earlier completion of the transfer action, so that a retry of the payment switch gets the same
+     * answer instead of being processed again; null when the action was not completed yet.
+     *
+     * @throws InteropTransferConflictException
+     *             when the action was completed for the transfer code with a different account or amount
+     */
+    private InteropTransferResponseData findCompletedTransfer(InteropTransferActionType action, InteropTransferRequestData request) {
+        List<InteropTransferResponseData> completedTransfers = this.jdbcTemplate.query(
+                "select account_id, amount, command_id, completed_on from m_interop_transfer_idempotency"
+                        + " where transfer_code = ? and action = ? and transaction_role = ?",
+                (rs, rowNum) -> {
+                    String accountId = rs.getString("account_id");
+                    BigDecimal amount = rs.getBigDecimal("amount");
+                    if (!request.getAccountId().equals(accountId) || request.getAmount().getAmount().compareTo(amount) != 0) {
+                        throw new InteropTransferConflictException(request.getTransferCode(), action.name(), accountId, amount);
+                    }
+                    return InteropTransferResponseData.build(JdbcSupport.getLong(rs, "command_id"), request.getTransactionCode(),
+                            InteropActionState.ACCEPTED, request.getExpiration(), request.getExtensionList(), request.getTransferCode(),
+                            rs.getTimestamp("completed_on").toLocalDateTime());
+                }, request.getTransferCode(), action.name(), request.getTransactionRole().name());
+        return completedTransfers.isEmpty() ? null : completedTransfers.get(0);
+    }
+
+    private void recordCompletedTransfer(InteropTransferActionType action, InteropTransferRequestData request, Long commandId,
+            LocalDateTime completedOn) {
+        this.jdbcTemplate.update(
+                "insert into m_interop_transfer_idempotency (transfer_code, action, transaction_role, account_id, amount, command_id,"
+                        + " completed_on) values (?, ?, ?, ?, ?, ?, ?)",
+                request.getTransferCode(), action.name(), request.getTransactionRole().name(), request.getAccountId(),
+                request.getAmount().getAmount(), commandId, Timestamp.valueOf(completedOn));
+    }
+
+    private static String tenantKey() {
+        FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        return tenant == null ? "" : tenant.getTenantIdentifier();
     }
 
     public InteropIdentifier findIdentifier(@NotNull InteropIdentifierType idType, @NotNull String idValue, String subIdOrType) {
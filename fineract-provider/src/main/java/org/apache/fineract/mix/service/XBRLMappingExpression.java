@@ -0,0 +1,182 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.mix.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.fineract.mix.exception.XBRLMappingInvalidException;
+
+/**
+ * A taxonomy mapping expression such as <code>{12000}+{11000}-0.5*({13000}/2)</code>: GL account references in braces,
+ * decimal numbers, the operators + - * / and parentheses. It is parsed once into a tree and evaluated with
+ * {@link BigDecimal} against the GL account balances, a GL account without balance counting as zero.
+ */
+final class XBRLMappingExpression {
+
+    private final Node root;
+    private final Set<String> glCodes;
+
+    private XBRLMappingExpression(final Node root, final Set<String> glCodes) {
+        this.root = root;
+        this.glCodes = Collections.unmodifiableSet(glCodes);
+    }
+
+    static XBRLMappingExpression parse(final String expression) {
+        final Parser parser = new Parser(expression);
+        final Node root = parser.parseExpression();
+        parser.skipWhitespace();
+        if (parser.position < expression.length()) {
+            throw parser.invalid("unexpected '" + expression.charAt(parser.position) + "'");
+        }
+        return new XBRLMappingExpression(root, parser.glCodes);
+    }
+
+    /**
+     * @return the GL codes referenced by the expression
+     */
+    Set<String> getGLCodes() {
+        return this.glCodes;
+    }
+
+    BigDecimal evaluate(final Map<String, BigDecimal> accountBalances) {
+        return this.root.evaluate(accountBalances);
+    }
+
+    @FunctionalInterface
+    private interface Node {
+
+        BigDecimal evaluate(Map<String, BigDecimal> accountBalances);
+    }
+
+    /**
+     * Recursive descent parser of <code>expression := term (('+' | '-') term)*</code>,
+     * <code>term := factor (('*' | '/') factor)*</code> and
+     * <code>factor := ('+' | '-') factor | number | '{' glCode '}' | '(' expression ')'</code>.
+     */
+    private static final class Parser {
+
+        private final String expression;
+        private final Set<String> glCodes = new LinkedHashSet<>();
+        private int position;
+
+        Parser(final String expression) {
+            this.expression = expression;
+        }
+
+        Node parseExpression() {
+            Node node = parseTerm();
+            for (char operator = peek(); operator == '+' || operator == '-'; operator = peek()) {
+                this.position++;
+                final Node left = node;
+                final Node right = parseTerm();
+                node = operator == '+' ? balances -> left.evaluate(balances).add(right.evaluate(balances))
+                        : balances -> left.evaluate(balances).subtract(right.evaluate(balances));
+            }
+            return node;
+        }
+
+        private Node parseTerm() {
+            Node node = parseFactor();
+            for (char operator = peek(); operator == '*' || operator == '/'; operator = peek()) {
+                this.position++;
+                final Node left = node;
+                final Node right = parseFactor();
+                node = operator == '*' ? balances -> left.evaluate(balances).multiply(right.evaluate(balances))
+                        : balances -> divide(left.evaluate(balances), right.evaluate(balances));
+            }
+            return node;
+        }
+
+        private Node parseFactor() {
+            final char next = peek();
+            if (next == '+' || next == '-') {
+                this.position++;
+                final Node operand = parseFactor();
+                return next == '+' ? operand : balances -> operand.evaluate(balances).negate();
+            }
+            if (next == '(') {
+                this.position++;
+                final Node node = parseExpression();
+                expect(')');
+                return node;
+            }
+            if (next == '{') {
+                final int end = this.expression.indexOf('}', this.position);
+                if (end < 0) {
+                    throw invalid("unclosed '{'");
+                }
+                final String glCode = this.expression.substring(this.position + 1, end).trim();
+                this.position = end + 1;
+                this.glCodes.add(glCode);
+                return balances -> balances.getOrDefault(glCode, BigDecimal.ZERO);
+            }
+            if (Character.isDigit(next) || next == '.') {
+                final int start = this.position;
+                while (this.position < this.expression.length()
+                        && (Character.isDigit(this.expression.charAt(this.position)) || this.expression.charAt(this.position) == '.')) {
+                    this.position++;
+                }
+                try {
+                    final BigDecimal number = new BigDecimal(this.expression.substring(start, this.position));
+                    return balances -> number;
+                } catch (final NumberFormatException e) {
+                    throw invalid("invalid number '" + this.expression.substring(start, this.position) + "'");
+                }
+            }
+            throw invalid(next == 0 ? "unexpected end" : "unexpected '" + next + "'");
+        }
+
+        private void expect(final char expected) {
+            if (peek() != expected) {
+                throw invalid("expected '" + expected + "'");
+            }
+            this.position++;
+        }
+
+        /**
+         * @return the next non whitespace character, or 0 at the end of the expression
+         */
+        private char peek() {
+            skipWhitespace();
+            return this.position < this.expression.length() ? this.expression.charAt(this.position) : 0;
+        }
+
+        void skipWhitespace() {
+            while (this.position < this.expression.length() && Character.isWhitespace(this.expression.charAt(this.position))) {
+                this.position++;
+            }
+        }
+
+        XBRLMappingInvalidException invalid(final String reason) {
+            return new XBRLMappingInvalidException(
+                    "Mapping '" + this.expression + "' is invalid at position " + this.position + ": " + reason);
+        }
+
+        private BigDecimal divide(final BigDecimal dividend, final BigDecimal divisor) {
+            if (divisor.signum() == 0) {
+                throw new XBRLMappingInvalidException("Mapping '" + this.expression + "' divides by zero");
+            }
+            return dividend.divide(divisor, MathContext.DECIMAL128);
+        }
+    }
+}
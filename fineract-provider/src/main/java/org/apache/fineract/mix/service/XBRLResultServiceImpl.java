@@ -19,45 +19,50 @@
 package org.apache.fineract.mix.service;
 
 import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
 import java.math.BigDecimal;
 import java.sql.Date;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
-import javax.script.ScriptException;
 import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
 import org.apache.fineract.mix.data.MixTaxonomyData;
 import org.apache.fineract.mix.data.MixTaxonomyMappingData;
 import org.apache.fineract.mix.data.XBRLData;
 import org.apache.fineract.mix.exception.XBRLMappingInvalidException;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
 @Component
 public class XBRLResultServiceImpl implements XBRLResultService {
 
-    private static final Logger LOG = LoggerFactory.getLogger(XBRLResultServiceImpl.class);
-    private static final ScriptEngine SCRIPT_ENGINE = new ScriptEngineManager().getEngineByName("JavaScript");
+    // debits minus credits of the GL accounts of the mapping within the period, in one grouped query
+    private static final String ACCOUNT_BALANCE_SQL = "select acc_gl_account.gl_code as glcode, "
+            + "sum(case when acc_gl_journal_entry.type_enum = 2 then acc_gl_journal_entry.amount else 0 end) "
+            + "- sum(case when acc_gl_journal_entry.type_enum = 1 then acc_gl_journal_entry.amount else 0 end) as balance "
+            + "from acc_gl_journal_entry join acc_gl_account on acc_gl_account.id = acc_gl_journal_entry.account_id "
+            + "where acc_gl_journal_entry.entry_date > :startDate and acc_gl_journal_entry.entry_date <= :endDate "
+            + "and acc_gl_account.gl_code in (:glCodes) group by acc_gl_account.gl_code";
 
     private final MixTaxonomyMappingReadPlatformService readTaxonomyMappingService;
     private final MixTaxonomyReadPlatformService readTaxonomyService;
-    private final JdbcTemplate jdbcTemplate;
-    private HashMap<String, BigDecimal> accountBalanceMap;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final AtomicReference<CompiledTaxonomyMapping> compiledTaxonomyMapping = new AtomicReference<>();
 
     @Autowired
     public XBRLResultServiceImpl(final RoutingDataSource dataSource, final MixTaxonomyMappingReadPlatformService readTaxonomyMappingService,
             final MixTaxonomyReadPlatformService readTaxonomyService) {
         this.readTaxonomyMappingService = readTaxonomyMappingService;
         this.readTaxonomyService = readTaxonomyService;
-        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
     }
 
     @Override
@@ -70,7 +75,6 @@ public class XBRLResultServiceImpl implements XBRLResultService {
         return new XBRLData(config, startDate, endDate, currency);
     }
 
-    @SuppressWarnings("unchecked")
     private HashMap<MixTaxonomyData, BigDecimal> retrieveTaxonomyConfig(final Date startDate, final Date endDate) {
         final MixTaxonomyMappingData taxonomyMapping = this.readTaxonomyMappingService.retrieveTaxonomyMapping();
         if (taxonomyMapping == null) {
@@ -78,98 +82,65 @@ public class XBRLResultServiceImpl implements XBRLResultService {
         }
         final String config = taxonomyMapping.getConfig();
         if (config != null) {
-            // <taxonomyId, mapping>
-            HashMap<String, String> configMap = new HashMap<>();
-            configMap = new Gson().fromJson(config, configMap.getClass());
-            if (configMap == null) {
+            final CompiledTaxonomyMapping mapping = compileTaxonomyMapping(config);
+            if (mapping.expressions.isEmpty()) {
                 return null;
             }
+            final Map<String, BigDecimal> accountBalances = retrieveAccountBalances(startDate, endDate, mapping.glCodes);
+            final Map<Long, MixTaxonomyData> taxonomies = new HashMap<>();
+            for (final MixTaxonomyData taxonomy : this.readTaxonomyService.retrieveAll()) {
+                taxonomies.put(taxonomy.getId(), taxonomy);
+            }
+
             // <taxonomyId, value>
             final HashMap<MixTaxonomyData, BigDecimal> resultMap = new HashMap<>();
-            setupBalanceMap(getAccountSql(startDate, endDate));
-            for (final Map.Entry<String, String> entry : configMap.entrySet()) {
-                final BigDecimal value = processMappingString(entry.getValue());
-                if (value != null) {
-                    final MixTaxonomyData taxonomy = this.readTaxonomyService.retrieveOne(Long.parseLong(entry.getKey()));
-                    resultMap.put(taxonomy, value);
+            for (final Map.Entry<Long, XBRLMappingExpression> entry : mapping.expressions.entrySet()) {
+                MixTaxonomyData taxonomy = taxonomies.get(entry.getKey());
+                if (taxonomy == null) {
+                    taxonomy = this.readTaxonomyService.retrieveOne(entry.getKey());
                 }
-
+                resultMap.put(taxonomy, entry.getValue().evaluate(accountBalances));
             }
             return resultMap;
         }
         return null;
     }
 
-    private String getAccountSql(final Date startDate, final Date endDate) {
-        final String sql = "select debits.glcode as 'glcode', debits.name as 'name', coalesce(debits.debitamount,0)-coalesce(credits.creditamount,0)) as 'balance' "
-                + "from (select acc_gl_account.gl_code as 'glcode',name,sum(amount) as 'debitamount' "
-                + "from acc_gl_journal_entry,acc_gl_account " + "where acc_gl_account.id = acc_gl_journal_entry.account_id "
-                + "and acc_gl_journal_entry.type_enum=2 " + "and acc_gl_journal_entry.entry_date <= " + endDate
-                + " and acc_gl_journal_entry.entry_date > " + startDate
-                // "and (acc_gl_journal_entry.office_id=${branch} or
-                // ${branch}=1) "
-                // +
-                + " group by glcode " + "order by glcode) debits " + "LEFT OUTER JOIN "
-                + "(select acc_gl_account.gl_code as 'glcode',name,sum(amount) as 'creditamount' "
-                + "from acc_gl_journal_entry,acc_gl_account " + "where acc_gl_account.id = acc_gl_journal_entry.account_id "
-                + "and acc_gl_journal_entry.type_enum=1 " + "and acc_gl_journal_entry.entry_date <= " + endDate
-                + " and acc_gl_journal_entry.entry_date > " + startDate
-                // "and (acc_gl_journal_entry.office_id=${branch} or
-                // ${branch}=1) "
-                // +
-                + " group by glcode " + "order by glcode) credits " + "on debits.glcode=credits.glcode " + "union "
-                + "select credits.glcode as 'glcode', credits.name as 'name', coalesce(debits.debitamount,0)-coalesce(credits.creditamount,0)) as 'balance' "
-                + "from (select acc_gl_account.gl_code as 'glcode',name,sum(amount) as 'debitamount' "
-                + "from acc_gl_journal_entry,acc_gl_account " + "where acc_gl_account.id = acc_gl_journal_entry.account_id "
-                + "and acc_gl_journal_entry.type_enum=2 " + "and acc_gl_journal_entry.entry_date <= " + endDate
-                + " and acc_gl_journal_entry.entry_date > " + startDate
-                // "and (acc_gl_journal_entry.office_id=${branch} or
-                // ${branch}=1) "
-                // +
-                + " group by glcode " + "order by glcode) debits " + "RIGHT OUTER JOIN "
-                + "(select acc_gl_account.gl_code as 'glcode',name,sum(amount) as 'creditamount' "
-                + "from acc_gl_journal_entry,acc_gl_account " + "where acc_gl_account.id = acc_gl_journal_entry.account_id "
-                + "and acc_gl_journal_entry.type_enum=1 " + "and acc_gl_journal_entry.entry_date <= " + endDate
-                + " and acc_gl_journal_entry.entry_date > " + startDate
-                // "and (acc_gl_journal_entry.office_id=${branch} or
-                // ${branch}=1) "
-                // +
-                + " group by name, glcode " + "order by glcode) credits " + "on debits.glcode=credits.glcode;";
-        return sql;
-    }
-
-    private void setupBalanceMap(final String sql) {
-        if (this.accountBalanceMap == null) {
-            this.accountBalanceMap = new HashMap<>();
-            final SqlRowSet rs = this.jdbcTemplate.queryForRowSet(sql);
-            while (rs.next()) {
-                this.accountBalanceMap.put(rs.getString("glcode"), rs.getBigDecimal("balance"));
+    /**
+     * The parsed expressions of the taxonomy mapping, reused as long as the mapping config is unchanged.
+     */
+    private CompiledTaxonomyMapping compileTaxonomyMapping(final String config) {
+        final CompiledTaxonomyMapping compiled = this.compiledTaxonomyMapping.get();
+        if (compiled != null && compiled.config.equals(config)) {
+            return compiled;
+        }
+        // <taxonomyId, mapping>
+        final Map<String, String> configMap = new Gson().fromJson(config, new TypeToken<Map<String, String>>() {}.getType());
+        final Map<Long, XBRLMappingExpression> expressions = new LinkedHashMap<>();
+        final Set<String> glCodes = new LinkedHashSet<>();
+        if (configMap != null) {
+            for (final Map.Entry<String, String> entry : configMap.entrySet()) {
+                final XBRLMappingExpression expression = XBRLMappingExpression.parse(entry.getValue());
+                expressions.put(Long.parseLong(entry.getKey()), expression);
+                glCodes.addAll(expression.getGLCodes());
             }
         }
+        final CompiledTaxonomyMapping compiledMapping = new CompiledTaxonomyMapping(config, expressions, glCodes);
+        this.compiledTaxonomyMapping.set(compiledMapping);
+        return compiledMapping;
     }
 
-    // Calculate Taxonomy value from expression
-    private BigDecimal processMappingString(String mappingString) {
-        final ArrayList<String> glCodes = getGLCodes(mappingString);
-        for (final String glcode : glCodes) {
-
-            final BigDecimal balance = this.accountBalanceMap.get(glcode);
-            mappingString = mappingString.replaceAll("\\{" + glcode + "\\}", balance != null ? balance.toString() : "0");
+    private Map<String, BigDecimal> retrieveAccountBalances(final Date startDate, final Date endDate, final Set<String> glCodes) {
+        final Map<String, BigDecimal> accountBalances = new HashMap<>();
+        if (glCodes.isEmpty()) {
+            return accountBalances;
         }
-
-        // evaluate the expression
-        Float eval = 0f;
-        try {
-            final Number value = (Number) SCRIPT_ENGINE.eval(mappingString);
-            if (value != null) {
-                eval = value.floatValue();
-            }
-        } catch (final ScriptException e) {
-            LOG.error("Problem occurred in processMappingString function", e);
-            throw new IllegalArgumentException(e.getMessage(), e);
-        }
-
-        return new BigDecimal(eval);
+        final MapSqlParameterSource parameters = new MapSqlParameterSource().addValue("startDate", startDate)
+                .addValue("endDate", endDate).addValue("glCodes", glCodes);
+        this.namedParameterJdbcTemplate.query(ACCOUNT_BALANCE_SQL, parameters, rs -> {
+            accountBalances.put(rs.getString("glcode"), rs.getBigDecimal("balance"));
+        });
+        return accountBalances;
     }
 
     public ArrayList<String> getGLCodes(final String template) {
@@ -190,4 +161,17 @@ public class XBRLResultServiceImpl implements XBRLResultService {
         }
         return placeholders;
     }
+
+    private static final class CompiledTaxonomyMapping {
+
+        private final String config;
+        private final Map<Long, XBRLMappingExpression> expressions;
+        private final Set<String> glCodes;
+
+        CompiledTaxonomyMapping(final String config, final Map<Long, XBRLMappingExpression> expressions, final Set<String> glCodes) {
+            this.config = config;
+            this.expressions = expressions;
+            this.glCodes = glCodes;
+        }
+    }
 }
@@ -25,6 +25,7 @@ import javax.sql.DataSource;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.fineract.accounting.glaccount.domain.GLAccount;
 import org.apache.fineract.accounting.glaccount.domain.GLAccountRepositoryWrapper;
+import org.apache.fineract.infrastructure.cache.service.TenantCacheEvictor;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
@@ -71,13 +72,15 @@ public class ChargeWritePlatformServiceJpaRepositoryImpl implements ChargeWriteP
     private final GLAccountRepositoryWrapper glAccountRepository;
     private final TaxGroupRepositoryWrapper taxGroupRepository;
     private final PaymentTypeRepositoryWrapper paymentTyperepositoryWrapper;
+    private final TenantCacheEvictor tenantCacheEvictor;
 
     @Autowired
     public ChargeWritePlatformServiceJpaRepositoryImpl(final PlatformSecurityContext context,
             final ChargeDefinitionCommandFromApiJsonDeserializer fromApiJsonDeserializer, final ChargeRepository chargeRepository,
             final LoanProductRepository loanProductRepository, final RoutingDataSource dataSource,
             final FineractEntityAccessUtil fineractEntityAccessUtil, final GLAccountRepositoryWrapper glAccountRepository,
-            final TaxGroupRepositoryWrapper taxGroupRepository, final PaymentTypeRepositoryWrapper paymentTyperepositoryWrapper) {
+            final TaxGroupRepositoryWrapper taxGroupRepository, final PaymentTypeRepositoryWrapper paymentTyperepositoryWrapper,
+            final TenantCacheEvictor tenantCacheEvictor) {
         this.context = context;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
         this.dataSource = dataSource;
@@ -88,6 +91,7 @@ public class ChargeWritePlatformServiceJpaRepositoryImpl implements ChargeWriteP
         this.glAccountRepository = glAccountRepository;
         this.taxGroupRepository = taxGroupRepository;
         this.paymentTyperepositoryWrapper = paymentTyperepositoryWrapper;
+        this.tenantCacheEvictor = tenantCacheEvictor;
     }
 
     @Transactional
@@ -145,6 +149,7 @@ public class ChargeWritePlatformServiceJpaRepositoryImpl implements ChargeWriteP
     @Override
     @CacheEvict(value = "charges", key = "T(org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('ch')")
     public CommandProcessingResult updateCharge(final Long chargeId, final JsonCommand command) {
+        this.tenantCacheEvictor.evictTenant("loanProducts", "savingsProducts", "shareProducts");
 
         try {
             this.fromApiJsonDeserializer.validateForUpdate(command.json());
@@ -233,6 +238,7 @@ public class ChargeWritePlatformServiceJpaRepositoryImpl implements ChargeWriteP
     @Override
     @CacheEvict(value = "charges", key = "T(org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat('ch')")
     public CommandProcessingResult deleteCharge(final Long chargeId) {
+        this.tenantCacheEvictor.evictTenant("loanProducts", "savingsProducts", "shareProducts");
 
         final Charge chargeForDelete = this.chargeRepository.findById(chargeId).orElseThrow(() -> new ChargeNotFoundException(chargeId));
         if (chargeForDelete.isDeleted()) {
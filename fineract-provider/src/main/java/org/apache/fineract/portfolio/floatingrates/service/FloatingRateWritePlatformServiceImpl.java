@@ -21,6 +21,7 @@ package org.apache.fineract.portfolio.floatingrates.service;
 import java.util.Map;
 import javax.persistence.PersistenceException;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.fineract.infrastructure.cache.service.TenantCacheEvictor;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
@@ -45,18 +46,22 @@ public class FloatingRateWritePlatformServiceImpl implements FloatingRateWritePl
     private final PlatformSecurityContext context;
     private final FloatingRateDataValidator fromApiJsonDeserializer;
     private final FloatingRateRepositoryWrapper floatingRateRepository;
+    private final TenantCacheEvictor tenantCacheEvictor;
 
     @Autowired
     public FloatingRateWritePlatformServiceImpl(final PlatformSecurityContext context,
-            final FloatingRateDataValidator fromApiJsonDeserializer, final FloatingRateRepositoryWrapper floatingRateRepository) {
+            final FloatingRateDataValidator fromApiJsonDeserializer, final FloatingRateRepositoryWrapper floatingRateRepository,
+            final TenantCacheEvictor tenantCacheEvictor) {
         this.context = context;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
         this.floatingRateRepository = floatingRateRepository;
+        this.tenantCacheEvictor = tenantCacheEvictor;
     }
 
     @Transactional
     @Override
     public CommandProcessingResult createFloatingRate(final JsonCommand command) {
+        this.tenantCacheEvictor.evictTenant("loanProducts", "floatingRates");
         try {
             this.fromApiJsonDeserializer.validateForCreate(command.json());
             final AppUser currentUser = this.context.authenticatedUser();
@@ -79,6 +84,7 @@ public class FloatingRateWritePlatformServiceImpl implements FloatingRateWritePl
     @Transactional
     @Override
     public CommandProcessingResult updateFloatingRate(final JsonCommand command) {
+        this.tenantCacheEvictor.evictTenant("loanProducts", "floatingRates");
         try {
             final FloatingRate floatingRateForUpdate = this.floatingRateRepository.findOneWithNotFoundDetection(command.entityId());
             this.fromApiJsonDeserializer.validateForUpdate(command.json(), floatingRateForUpdate);
@@ -31,6 +31,7 @@ import org.apache.fineract.portfolio.floatingrates.data.FloatingRatePeriodData;
 import org.apache.fineract.portfolio.floatingrates.data.InterestRatePeriodData;
 import org.apache.fineract.portfolio.floatingrates.exception.FloatingRateNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -89,6 +90,7 @@ public class FloatingRatesReadPlatformServiceImpl implements FloatingRatesReadPl
     }
 
     @Override
+    @Cacheable(value = "floatingRates", key = "@tenantCacheEvictor.keyPrefix('floatingRates').concat('blr')")
     public FloatingRateData retrieveBaseLendingRate() {
         try {
             FloatingRateRowMapper rateMapper = new FloatingRateRowMapper(true);
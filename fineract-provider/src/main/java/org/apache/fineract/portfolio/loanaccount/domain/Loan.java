@@ -6758,15 +6758,38 @@ public class Loan extends AbstractPersistableCustom {
     }
 
     public void initializeLazyCollections() {
-        checkAndFetchLazyCollection(this.charges);
-        checkAndFetchLazyCollection(this.trancheCharges);
-        checkAndFetchLazyCollection(this.repaymentScheduleInstallments);
-        checkAndFetchLazyCollection(this.loanTransactions);
-        checkAndFetchLazyCollection(this.disbursementDetails);
-        checkAndFetchLazyCollection(this.loanTermVariations);
-        checkAndFetchLazyCollection(this.collateral);
-        checkAndFetchLazyCollection(this.loanOfficerHistory);
-        checkAndFetchLazyCollection(this.loanCollateralManagements);
+        initializeLazyCollections(LoanFetchPlan.ALL);
+    }
+
+    public void initializeLazyCollections(final LoanFetchPlan fetchPlan) {
+        for (final String field : fetchPlan.getFields()) {
+            checkAndFetchLazyCollection(lazyCollection(field));
+        }
+    }
+
+    private Collection<?> lazyCollection(final String field) {
+        switch (field) {
+            case "charges":
+                return this.charges;
+            case "trancheCharges":
+                return this.trancheCharges;
+            case "repaymentScheduleInstallments":
+                return this.repaymentScheduleInstallments;
+            case "loanTransactions":
+                return this.loanTransactions;
+            case "disbursementDetails":
+                return this.disbursementDetails;
+            case "loanTermVariations":
+                return this.loanTermVariations;
+            case "collateral":
+                return this.collateral;
+            case "loanOfficerHistory":
+                return this.loanOfficerHistory;
+            case "loanCollateralManagements":
+                return this.loanCollateralManagements;
+            default:
+                throw new IllegalArgumentException("Unknown lazy collection on Loan: " + field);
+        }
     }
 
     private void checkAndFetchLazyCollection(Collection lazyCollection) {
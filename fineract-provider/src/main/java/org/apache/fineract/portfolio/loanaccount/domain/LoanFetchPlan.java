@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.domain;
+
+/**
+ * Named OpenJPA fetch plans for the lazy collections of {@link Loan}, selected per command by
+ * {@link org.apache.fineract.portfolio.loanaccount.service.LoanAssembler#assembleFrom(Long, LoanFetchPlan)}. The listed
+ * collections are loaded together with the loan (elements of one collection in a single select); anything else a
+ * command touches is still loaded lazily within its transaction.
+ */
+public enum LoanFetchPlan {
+
+    /**
+     * Every lazy collection; the default for commands without a narrower plan.
+     */
+    ALL("charges", "trancheCharges", "repaymentScheduleInstallments", "loanTransactions", "disbursementDetails", "loanTermVariations",
+            "collateral", "loanOfficerHistory", "loanCollateralManagements"), //
+
+    /**
+     * Repayments, adjustments, waivers, charges, write-offs, closures and foreclosures: everything the repayment schedule
+     * transaction processor replays, without collateral and officer history.
+     */
+    TRANSACTIONS("charges", "trancheCharges", "repaymentScheduleInstallments", "loanTransactions", "disbursementDetails",
+            "loanTermVariations"), //
+
+    /**
+     * Rescheduling: the installments and term variations the new schedule is derived from.
+     */
+    RESCHEDULE("charges", "repaymentScheduleInstallments", "loanTransactions", "disbursementDetails", "loanTermVariations"), //
+
+    /**
+     * Loan officer assignment and removal.
+     */
+    LOAN_OFFICER_ASSIGNMENT("loanOfficerHistory");
+
+    private final String[] fields;
+
+    LoanFetchPlan(final String... fields) {
+        this.fields = fields;
+    }
+
+    public String[] getFields() {
+        return this.fields.clone();
+    }
+}
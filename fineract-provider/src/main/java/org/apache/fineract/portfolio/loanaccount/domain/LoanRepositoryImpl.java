@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.domain;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class LoanRepositoryImpl implements LoanRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Loan> findByIdWithFetchPlan(final Long id, final LoanFetchPlan fetchPlan) {
+        final OpenJPAEntityManager openJpaEntityManager = this.entityManager.unwrap(OpenJPAEntityManager.class);
+        // scoped to this lookup so that later queries in the transaction keep the default plan
+        openJpaEntityManager.pushFetchPlan().addFields(Loan.class, fetchPlan.getFields());
+        try {
+            return Optional.ofNullable(openJpaEntityManager.find(Loan.class, id));
+        } finally {
+            openJpaEntityManager.popFetchPlan();
+        }
+    }
+
+    @Override
+    public List<Loan> findAllByIdWithFetchPlan(final Collection<Long> ids, final LoanFetchPlan fetchPlan) {
+        final OpenJPAEntityManager openJpaEntityManager = this.entityManager.unwrap(OpenJPAEntityManager.class);
+        // the plan's collections are loaded for the whole result with one select per collection, not one per loan
+        openJpaEntityManager.pushFetchPlan().addFields(Loan.class, fetchPlan.getFields());
+        try {
+            return openJpaEntityManager.createQuery("select loan from Loan loan where loan.id in :ids", Loan.class)
+                    .setParameter("ids", ids).getResultList();
+        } finally {
+            openJpaEntityManager.popFetchPlan();
+        }
+    }
+}
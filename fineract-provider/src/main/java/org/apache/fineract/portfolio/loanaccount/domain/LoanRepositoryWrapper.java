@@ -22,7 +22,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.fineract.portfolio.loanaccount.exception.LoanNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.repository.query.Param;
@@ -57,6 +59,42 @@ public class LoanRepositoryWrapper {
         return loan;
     }
 
+    /**
+     * Loads the loan together with the lazy collections of the given fetch plan.
+     */
+    @Transactional(readOnly = true)
+    public Loan findOneWithNotFoundDetection(final Long id, final LoanFetchPlan fetchPlan) {
+        final Loan loan = this.repository.findByIdWithFetchPlan(id, fetchPlan).orElseThrow(() -> new LoanNotFoundException(id));
+        // no-op once the plan loaded them, but a loan already managed by this transaction is returned as it is
+        loan.initializeLazyCollections(fetchPlan);
+        return loan;
+    }
+
+    /**
+     * Loads all given loans together with the collections of the fetch plan using set queries, failing with
+     * {@link LoanNotFoundException} for the first id that does not exist.
+     */
+    @Transactional(readOnly = true)
+    public List<Loan> findAllWithNotFoundDetection(final Collection<Long> ids, final LoanFetchPlan fetchPlan) {
+        final List<Loan> loans = this.repository.findAllByIdWithFetchPlan(ids, fetchPlan);
+        if (loans.size() < ids.size()) {
+            final Set<Long> foundIds = new HashSet<>();
+            for (final Loan loan : loans) {
+                foundIds.add(loan.getId());
+            }
+            for (final Long id : ids) {
+                if (!foundIds.contains(id)) {
+                    throw new LoanNotFoundException(id);
+                }
+            }
+        }
+        for (final Loan loan : loans) {
+            // no-op once the plan loaded them, but a loan already managed by this transaction is returned as it is
+            loan.initializeLazyCollections(fetchPlan);
+        }
+        return loans;
+    }
+
     // Root Entities are enough
     public Collection<Loan> findActiveLoansByLoanIdAndGroupId(Long clientId, Long groupId) {
         final Collection<Integer> loanStatuses = new ArrayList<>(Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
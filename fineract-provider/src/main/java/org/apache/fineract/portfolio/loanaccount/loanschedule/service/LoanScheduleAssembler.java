@@ -180,6 +180,10 @@ public class LoanScheduleAssembler {
         return assembleLoanApplicationTermsFrom(element, loanProduct);
     }
 
+    public LoanApplicationTerms assembleLoanTerms(final JsonElement element, final LoanProduct loanProduct) {
+        return assembleLoanApplicationTermsFrom(element, loanProduct);
+    }
+
     private LoanApplicationTerms assembleLoanApplicationTermsFrom(final JsonElement element, final LoanProduct loanProduct) {
 
         final MonetaryCurrency currency = loanProduct.getCurrency();
@@ -603,8 +607,15 @@ public class LoanScheduleAssembler {
     }
 
     public LoanScheduleModel assembleLoanScheduleFrom(final JsonElement element) {
+        return assembleLoanScheduleFrom(element, assembleLoanTerms(element));
+    }
+
+    public LoanScheduleModel assembleLoanScheduleFrom(final JsonElement element, final LoanProduct loanProduct) {
+        return assembleLoanScheduleFrom(element, assembleLoanTerms(element, loanProduct));
+    }
+
+    private LoanScheduleModel assembleLoanScheduleFrom(final JsonElement element, final LoanApplicationTerms loanApplicationTerms) {
         // This method is getting called from calculate loan schedule.
-        final LoanApplicationTerms loanApplicationTerms = assembleLoanTerms(element);
         // Get holiday details
         final boolean isHolidayEnabled = this.configurationDomainService.isRescheduleRepaymentsOnHolidaysEnabled();
 
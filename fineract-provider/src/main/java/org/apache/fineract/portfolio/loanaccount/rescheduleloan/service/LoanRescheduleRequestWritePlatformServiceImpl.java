@@ -54,6 +54,7 @@ import org.apache.fineract.portfolio.loanaccount.data.ScheduleGeneratorDTO;
 import org.apache.fineract.portfolio.loanaccount.domain.ChangedTransactionDetail;
 import org.apache.fineract.portfolio.loanaccount.domain.Loan;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanAccountDomainService;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanFetchPlan;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanLifecycleStateMachine;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallmentRepository;
@@ -172,7 +173,7 @@ public class LoanRescheduleRequestWritePlatformServiceImpl implements LoanResche
             final Long loanId = jsonCommand.longValueOfParameterNamed(RescheduleLoansApiConstants.loanIdParamName);
 
             // use the loan id to get a Loan entity object
-            final Loan loan = this.loanAssembler.assembleFrom(loanId);
+            final Loan loan = this.loanAssembler.assembleFrom(loanId, LoanFetchPlan.RESCHEDULE);
 
             // validate the request in the JsonCommand object passed as
             // parameter
@@ -20,6 +20,7 @@ package org.apache.fineract.portfolio.loanproduct.domain;
 
 import java.math.BigDecimal;
 import java.util.Map;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
@@ -36,6 +37,7 @@ import org.apache.fineract.portfolio.loanproduct.LoanProductConstants;
  */
 
 @Entity
+@Cacheable
 @Table(name = "m_product_loan_guarantee_details")
 public class LoanProductGuaranteeDetails extends AbstractPersistableCustom {
 
@@ -20,6 +20,7 @@ package org.apache.fineract.portfolio.loanproduct.domain;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
@@ -30,6 +31,7 @@ import org.apache.fineract.infrastructure.core.domain.AbstractPersistableCustom;
 import org.apache.fineract.portfolio.loanproduct.LoanProductConstants;
 
 @Entity
+@Cacheable
 @Table(name = "m_product_loan_variable_installment_config")
 public class LoanProductVariableInstallmentConfig extends AbstractPersistableCustom {
 
@@ -18,6 +18,7 @@
  */
 package org.apache.fineract.portfolio.loanproduct.domain;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
@@ -25,6 +26,7 @@ import org.apache.fineract.infrastructure.core.domain.AbstractPersistableCustom;
 import org.apache.fineract.portfolio.loanproduct.data.TransactionProcessingStrategyData;
 
 @Entity
+@Cacheable
 @Table(name = "ref_loan_transaction_processing_strategy")
 public class LoanTransactionProcessingStrategy extends AbstractPersistableCustom {
 
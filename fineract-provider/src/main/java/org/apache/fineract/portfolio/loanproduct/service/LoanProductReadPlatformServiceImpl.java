@@ -47,6 +47,7 @@ import org.apache.fineract.portfolio.loanproduct.exception.LoanProductNotFoundEx
 import org.apache.fineract.portfolio.rate.data.RateData;
 import org.apache.fineract.portfolio.rate.service.RateReadService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -76,6 +77,7 @@ public class LoanProductReadPlatformServiceImpl implements LoanProductReadPlatfo
     }
 
     @Override
+    @Cacheable(value = "loanProducts", key = "@tenantCacheEvictor.keyPrefix('loanProducts').concat(#loanProductId+'lp'+T(org.apache.fineract.infrastructure.core.service.DateUtils).getLocalDateOfTenant().toString())")
     public LoanProductData retrieveLoanProduct(final Long loanProductId) {
 
         try {
@@ -18,9 +18,13 @@
  */
 package org.apache.fineract.portfolio.paymenttype.domain;
 
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 public interface PaymentTypeRepository extends JpaRepository<PaymentType, Long>, JpaSpecificationExecutor<PaymentType> {
 
+    @Query("select pt from PaymentType pt where pt.isCashPayment = false order by pt.id")
+    List<PaymentType> findNonCashPaymentTypes();
 }
@@ -22,6 +22,7 @@ package org.apache.fineract.portfolio.rate.domain;
 import java.math.BigDecimal;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
@@ -39,6 +40,7 @@ import org.apache.fineract.useradministration.domain.AppUser;
  */
 
 @Entity
+@Cacheable
 @Table(name = "m_rate", uniqueConstraints = { @UniqueConstraint(columnNames = { "name" }, name = "name") })
 public class Rate extends AbstractAuditableCustom {
 
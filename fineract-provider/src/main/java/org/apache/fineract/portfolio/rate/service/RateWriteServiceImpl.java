@@ -23,6 +23,7 @@ import static org.apache.fineract.portfolio.rate.api.RateApiConstants.approveUse
 import java.util.Map;
 import javax.persistence.PersistenceException;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.fineract.infrastructure.cache.service.TenantCacheEvictor;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
@@ -55,14 +56,17 @@ public class RateWriteServiceImpl implements RateWriteService {
     private final AppUserRepository appUserRepository;
     private final PlatformSecurityContext context;
     private final RateDefinitionCommandFromApiJsonDeserializer fromApiJsonDeserializer;
+    private final TenantCacheEvictor tenantCacheEvictor;
 
     @Autowired
     public RateWriteServiceImpl(RateRepository rateRepository, AppUserRepository appUserRepository,
-            final RateDefinitionCommandFromApiJsonDeserializer fromApiJsonDeserializer, PlatformSecurityContext context) {
+            final RateDefinitionCommandFromApiJsonDeserializer fromApiJsonDeserializer, PlatformSecurityContext context,
+            final TenantCacheEvictor tenantCacheEvictor) {
         this.rateRepository = rateRepository;
         this.appUserRepository = appUserRepository;
         this.context = context;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
+        this.tenantCacheEvictor = tenantCacheEvictor;
     }
 
     @Override
@@ -95,6 +99,7 @@ public class RateWriteServiceImpl implements RateWriteService {
     @Transactional
     @Override
     public CommandProcessingResult updateRate(final Long rateId, final JsonCommand command) {
+        this.tenantCacheEvictor.evictTenant("loanProducts");
         try {
             this.context.authenticatedUser();
 
@@ -57,6 +57,7 @@ import org.apache.fineract.organisation.monetary.domain.Money;
 import org.apache.fineract.portfolio.paymentdetail.domain.PaymentDetail;
 import org.apache.fineract.portfolio.savings.SavingsApiConstants;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccount;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountBalanceCheckpointService;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccountTransaction;
 import org.apache.fineract.portfolio.savings.exception.TransactionBeforePivotDateNotAllowed;
 import org.apache.fineract.useradministration.domain.AppUser;
@@ -71,12 +72,15 @@ public class SavingsAccountTransactionDataValidator {
             Arrays.asList(transactionDateParamName, SavingsApiConstants.dateFormatParamName, SavingsApiConstants.localeParamName,
                     transactionAmountParamName, lienParamName));
     private final ConfigurationDomainService configurationDomainService;
+    private final SavingsAccountBalanceCheckpointService balanceCheckpointService;
 
     @Autowired
     public SavingsAccountTransactionDataValidator(final FromJsonHelper fromApiJsonHelper,
-            final ConfigurationDomainService configurationDomainService) {
+            final ConfigurationDomainService configurationDomainService,
+            final SavingsAccountBalanceCheckpointService balanceCheckpointService) {
         this.fromApiJsonHelper = fromApiJsonHelper;
         this.configurationDomainService = configurationDomainService;
+        this.balanceCheckpointService = balanceCheckpointService;
     }
 
     public void validateTransactionWithPivotDate(final LocalDate transactionDate, final SavingsAccount savingsAccount) {
@@ -94,6 +98,9 @@ public class SavingsAccountTransactionDataValidator {
             if (pivotDate.isAfter(transactionDate)) {
                 throw new TransactionBeforePivotDateNotAllowed(transactionDate, pivotDate);
             }
+        } else if (backdatedTxnsAllowedTill) {
+            // without interest postings nothing is frozen, a transaction before the balance checkpoint needs the full history
+            this.balanceCheckpointService.loadHistoryBeforeCheckpoint(savingsAccount, transactionDate);
         }
     }
 
@@ -318,6 +318,8 @@ public class SavingsAccount extends AbstractPersistableCustom {
     protected SavingsHelper savingsHelper;
     @Transient
     protected List<SavingsAccountTransaction> savingsAccountTransactions = new ArrayList<>();
+    @Transient
+    protected LocalDate balanceCheckpointDate;
 
     @Column(name = "deposit_type_enum", insertable = false, updatable = false)
     private Integer depositType;
@@ -451,6 +453,33 @@ public class SavingsAccount extends AbstractPersistableCustom {
         this.savingsAccountTransactions.addAll(savingsAccountTransactions);
     }
 
+    /**
+     * Pivot date loading for accounts without interest postings: only the transactions after the balance checkpoint are
+     * loaded, the checkpoint balance being their opening balance.
+     */
+    public void setSavingsAccountTransactions(final List<SavingsAccountTransaction> savingsAccountTransactions,
+            final SavingsAccountBalanceCheckpoint balanceCheckpoint) {
+        setSavingsAccountTransactions(savingsAccountTransactions);
+        this.summary.setRunningBalanceOnPivotDate(balanceCheckpoint.getRunningBalance());
+        this.balanceCheckpointDate = balanceCheckpoint.getCheckpointDate();
+    }
+
+    /**
+     * Date of the balance checkpoint the transactions were loaded after, or null when they were loaded otherwise.
+     */
+    public LocalDate getBalanceCheckpointDate() {
+        return this.balanceCheckpointDate;
+    }
+
+    /**
+     * Replaces the transactions loaded after the balance checkpoint with the complete history.
+     */
+    public void setAllSavingsAccountTransactions(final List<SavingsAccountTransaction> savingsAccountTransactions) {
+        this.savingsAccountTransactions.clear();
+        this.savingsAccountTransactions.addAll(savingsAccountTransactions);
+        this.balanceCheckpointDate = null;
+    }
+
     public List<SavingsAccountTransaction> getSavingsAccountTransactionsWithPivotConfig() {
         return this.savingsAccountTransactions;
     }
@@ -594,7 +623,7 @@ public class SavingsAccount extends AbstractPersistableCustom {
             Money openingAccountBalance = Money.zero(this.currency);
 
             if (backdatedTxnsAllowedTill) {
-                if (this.summary.getLastInterestCalculationDate() == null) {
+                if (this.summary.getLastInterestCalculationDate() == null && this.balanceCheckpointDate == null) {
                     openingAccountBalance = Money.zero(this.currency);
                 } else {
                     openingAccountBalance = Money.of(this.currency, this.summary.getRunningBalanceOnPivotDate());
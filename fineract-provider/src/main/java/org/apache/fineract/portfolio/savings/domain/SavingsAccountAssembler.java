@@ -97,6 +97,7 @@ public class SavingsAccountAssembler {
     private final FromJsonHelper fromApiJsonHelper;
     private final JdbcTemplate jdbcTemplate;
     private final ConfigurationDomainService configurationDomainService;
+    private final SavingsAccountBalanceCheckpointService balanceCheckpointService;
 
     @Autowired
     public SavingsAccountAssembler(final SavingsAccountTransactionSummaryWrapper savingsAccountTransactionSummaryWrapper,
@@ -105,7 +106,8 @@ public class SavingsAccountAssembler {
             final SavingsAccountRepositoryWrapper savingsAccountRepository,
             final SavingsAccountChargeAssembler savingsAccountChargeAssembler, final FromJsonHelper fromApiJsonHelper,
             final AccountTransfersReadPlatformService accountTransfersReadPlatformService, final RoutingDataSource dataSource,
-            final ConfigurationDomainService configurationDomainService) {
+            final ConfigurationDomainService configurationDomainService,
+            final SavingsAccountBalanceCheckpointService balanceCheckpointService) {
         this.savingsAccountTransactionSummaryWrapper = savingsAccountTransactionSummaryWrapper;
         this.clientRepository = clientRepository;
         this.groupRepository = groupRepository;
@@ -117,6 +119,7 @@ public class SavingsAccountAssembler {
         savingsHelper = new SavingsHelper(accountTransfersReadPlatformService);
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.configurationDomainService = configurationDomainService;
+        this.balanceCheckpointService = balanceCheckpointService;
     }
 
     /**
@@ -347,8 +350,18 @@ public class SavingsAccountAssembler {
                     account.setSavingsAccountTransactions(savingsAccountTransactions);
                 }
             } else {
-                savingsAccountTransactions = this.savingsAccountRepository.findAllTransactions(account);
-                account.setSavingsAccountTransactions(savingsAccountTransactions);
+                final SavingsAccountBalanceCheckpoint balanceCheckpoint = this.balanceCheckpointService.findValidCheckpoint(account);
+                if (balanceCheckpoint != null) {
+                    final List<SavingsAccountTransaction> transactionsAfterCheckpoint = this.savingsAccountRepository
+                            .findTransactionsAfterPivotDate(account, Date.from(balanceCheckpoint.getCheckpointDate().plusDays(1)
+                                    .atStartOfDay(DateUtils.getDateTimeZoneOfTenant()).toInstant()));
+                    account.setSavingsAccountTransactions(transactionsAfterCheckpoint, balanceCheckpoint);
+                    this.balanceCheckpointService.advanceCheckpoint(account, balanceCheckpoint, transactionsAfterCheckpoint);
+                } else {
+                    savingsAccountTransactions = this.savingsAccountRepository.findAllTransactions(account);
+                    account.setSavingsAccountTransactions(savingsAccountTransactions);
+                    this.balanceCheckpointService.rebuildCheckpoint(account, savingsAccountTransactions);
+                }
             }
         }
 
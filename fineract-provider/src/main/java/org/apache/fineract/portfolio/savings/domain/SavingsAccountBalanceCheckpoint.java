@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.savings.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Persisted end-of-day balance of a savings account at the close of a posting period: the running balance after every
+ * transaction dated on or before {@link #getCheckpointDate()}, and how many such transactions there were.
+ */
+public final class SavingsAccountBalanceCheckpoint {
+
+    private final LocalDate checkpointDate;
+    private final BigDecimal runningBalance;
+    private final long transactionCount;
+
+    public SavingsAccountBalanceCheckpoint(final LocalDate checkpointDate, final BigDecimal runningBalance, final long transactionCount) {
+        this.checkpointDate = checkpointDate;
+        this.runningBalance = runningBalance;
+        this.transactionCount = transactionCount;
+    }
+
+    public LocalDate getCheckpointDate() {
+        return this.checkpointDate;
+    }
+
+    public BigDecimal getRunningBalance() {
+        return this.runningBalance;
+    }
+
+    public long getTransactionCount() {
+        return this.transactionCount;
+    }
+}
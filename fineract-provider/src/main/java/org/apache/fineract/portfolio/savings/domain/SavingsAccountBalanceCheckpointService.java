@@ -0,0 +1,249 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.savings.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.apache.fineract.infrastructure.core.domain.JdbcSupport;
+import org.apache.fineract.infrastructure.core.domain.LocalDateInterval;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.portfolio.account.service.AccountTransfersReadPlatformService;
+import org.apache.fineract.portfolio.savings.SavingsPostingInterestPeriodType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Maintains the {@link SavingsAccountBalanceCheckpoint} of savings accounts so that, with backdated transactions
+ * restricted to after interest posting (the "pivot date" configuration), accounts that never post interest do not have
+ * to load their whole transaction history for every deposit or withdrawal.
+ *
+ * <p>
+ * Only accounts without interest, i.e. with a zero nominal rate (and zero overdraft rate), get a checkpoint. It is
+ * placed at the end of the last posting period closed before the relaxing days window and only later transactions are
+ * loaded on top of its balance. Unlike an interest posting it does not freeze anything: a transaction dated on or before
+ * it makes {@link #loadHistoryBeforeCheckpoint} load the complete history again, so these accounts keep accepting
+ * backdated transactions as they did while they were always loaded in full. Accounts earning interest are out of scope
+ * and keep using their interest posting date as pivot, as interest calculation needs the daily balances of the open
+ * posting period.
+ *
+ * <p>
+ * Checkpoints are only written by transactions that write anyway: the first full load builds one, and every load from a
+ * checkpoint moves it forward once a later posting period has closed. A checkpoint is dropped when a transaction on or
+ * before it is added or reversed, and ignored on load whenever the number of transactions on or before its date changed
+ * (e.g. a charge applied by a job for a past due date); the next full load then replaces it.
+ */
+@Service
+public class SavingsAccountBalanceCheckpointService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfigurationDomainService configurationDomainService;
+    private final SavingsHelper savingsHelper;
+    private final SavingsAccountRepositoryWrapper savingsAccountRepository;
+
+    @Autowired
+    public SavingsAccountBalanceCheckpointService(final RoutingDataSource dataSource,
+            final ConfigurationDomainService configurationDomainService,
+            final AccountTransfersReadPlatformService accountTransfersReadPlatformService,
+            final SavingsAccountRepositoryWrapper savingsAccountRepository) {
+        this(new JdbcTemplate(dataSource), configurationDomainService, new SavingsHelper(accountTransfersReadPlatformService),
+                savingsAccountRepository);
+    }
+
+    SavingsAccountBalanceCheckpointService(final JdbcTemplate jdbcTemplate, final ConfigurationDomainService configurationDomainService,
+            final SavingsHelper savingsHelper, final SavingsAccountRepositoryWrapper savingsAccountRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.configurationDomainService = configurationDomainService;
+        this.savingsHelper = savingsHelper;
+        this.savingsAccountRepository = savingsAccountRepository;
+    }
+
+    /**
+     * The checkpoint the account can be loaded from, or null when it has none, is not eligible or the checkpoint went
+     * stale.
+     */
+    public SavingsAccountBalanceCheckpoint findValidCheckpoint(final SavingsAccount account) {
+        if (!isEligible(account)) {
+            return null;
+        }
+        final SavingsAccountBalanceCheckpoint checkpoint = findCheckpoint(account.getId());
+        if (checkpoint == null) {
+            return null;
+        }
+        final Long transactionCount = this.jdbcTemplate.queryForObject(
+                "select count(*) from m_savings_account_transaction where savings_account_id = ? and transaction_date <= ?", Long.class,
+                account.getId(), java.sql.Date.valueOf(checkpoint.getCheckpointDate()));
+        if (transactionCount == null || transactionCount != checkpoint.getTransactionCount()) {
+            return null;
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Gives an account loaded from its checkpoint its complete transaction history back when the transaction about to be
+     * applied is dated on or before the checkpoint, and drops the checkpoint; the next full load places a new one.
+     */
+    public void loadHistoryBeforeCheckpoint(final SavingsAccount account, final LocalDate transactionDate) {
+        final LocalDate checkpointDate = account.getBalanceCheckpointDate();
+        if (checkpointDate == null || transactionDate.isAfter(checkpointDate)) {
+            return;
+        }
+        final List<SavingsAccountTransaction> allTransactions = this.savingsAccountRepository.findAllTransactions(account);
+        account.setAllSavingsAccountTransactions(allTransactions);
+        if (!allTransactions.isEmpty()) {
+            account.getSummary().setRunningBalanceOnPivotDate(
+                    allTransactions.get(allTransactions.size() - 1).getRunningBalance(account.getCurrency()).getAmount());
+        }
+        invalidateCheckpoint(account.getId(), transactionDate);
+    }
+
+    /**
+     * Moves the checkpoint of the account to the end of the last closed posting period, computing its balance from the
+     * complete, just loaded, transaction history.
+     */
+    public void rebuildCheckpoint(final SavingsAccount account, final List<SavingsAccountTransaction> allTransactions) {
+        if (!isWriteTransaction() || !isEligible(account)) {
+            return;
+        }
+        final LocalDate checkpointDate = determineCheckpointDate(account);
+        if (checkpointDate == null) {
+            return;
+        }
+        final Tally tally = new Tally(Money.zero(account.getCurrency()), 0);
+        tally.add(allTransactions, checkpointDate, account.getCurrency());
+        saveCheckpoint(account.getId(), checkpointDate, tally);
+    }
+
+    /**
+     * Moves the checkpoint the account was just loaded from forward when a later posting period has closed since, adding
+     * the loaded transactions up to the new date to its balance.
+     */
+    public void advanceCheckpoint(final SavingsAccount account, final SavingsAccountBalanceCheckpoint checkpoint,
+            final List<SavingsAccountTransaction> transactionsAfterCheckpoint) {
+        if (!isWriteTransaction()) {
+            return;
+        }
+        final LocalDate checkpointDate = determineCheckpointDate(account);
+        if (checkpointDate == null || !checkpointDate.isAfter(checkpoint.getCheckpointDate())) {
+            return;
+        }
+        final Tally tally = new Tally(Money.of(account.getCurrency(), checkpoint.getRunningBalance()), checkpoint.getTransactionCount());
+        tally.add(transactionsAfterCheckpoint, checkpointDate, account.getCurrency());
+        saveCheckpoint(account.getId(), checkpointDate, tally);
+    }
+
+    /**
+     * Drops the checkpoint of the account when a transaction on or before it is added or reversed.
+     */
+    public void invalidateCheckpoint(final Long savingsId, final LocalDate transactionDate) {
+        this.jdbcTemplate.update("delete from m_savings_account_balance_checkpoint where savings_account_id = ? and checkpoint_date >= ?",
+                savingsId, java.sql.Date.valueOf(transactionDate));
+    }
+
+    // replaces the checkpoint under the account row lock, so concurrent writers of the account cannot both insert one
+    private void saveCheckpoint(final Long savingsId, final LocalDate checkpointDate, final Tally tally) {
+        this.jdbcTemplate.queryForList("select id from m_savings_account where id = ? for update", Long.class, savingsId);
+        this.jdbcTemplate.update("delete from m_savings_account_balance_checkpoint where savings_account_id = ?", savingsId);
+        this.jdbcTemplate.update("insert into m_savings_account_balance_checkpoint "
+                + "(savings_account_id, checkpoint_date, running_balance, transaction_count) values (?, ?, ?, ?)", savingsId,
+                java.sql.Date.valueOf(checkpointDate), tally.runningBalance.getAmount(), tally.transactionCount);
+    }
+
+    // reads (and read-only transactions) never write checkpoints
+    private static boolean isWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private boolean isEligible(final SavingsAccount account) {
+        return this.configurationDomainService.retrievePivotDateConfig() && account.depositAccountType().isSavingsDeposit()
+                && account.getActivationLocalDate() != null && account.getSummary().getInterestPostedTillDate() == null
+                && isZero(account.getNominalAnnualInterestRate())
+                && (!account.allowOverdraft() || isZero(account.getNominalAnnualInterestRateOverdraft()));
+    }
+
+    private LocalDate determineCheckpointDate(final SavingsAccount account) {
+        LocalDate openFrom = DateUtils.getLocalDateOfTenant();
+        if (this.configurationDomainService.isRelaxingDaysConfigForPivotDateEnabled()) {
+            openFrom = openFrom.minusDays(this.configurationDomainService.retrieveRelaxingDaysConfigForPivotDate());
+        }
+        if (!openFrom.isAfter(account.getActivationLocalDate())) {
+            return null;
+        }
+        final List<LocalDateInterval> postingPeriods = this.savingsHelper.determineInterestPostingPeriods(account.getActivationLocalDate(),
+                openFrom.minusDays(1), SavingsPostingInterestPeriodType.fromInt(account.getInterestPostingPeriodType()),
+                this.configurationDomainService.retrieveFinancialYearBeginningMonth(), Collections.emptyList());
+        if (postingPeriods.isEmpty()) {
+            return null;
+        }
+        // the last period may be cut short at the window, the day before it starts closes a complete one
+        final LocalDate checkpointDate = postingPeriods.get(postingPeriods.size() - 1).startDate().minusDays(1);
+        return checkpointDate.isBefore(account.getActivationLocalDate()) ? null : checkpointDate;
+    }
+
+    private SavingsAccountBalanceCheckpoint findCheckpoint(final Long savingsId) {
+        final List<SavingsAccountBalanceCheckpoint> checkpoints = this.jdbcTemplate.query(
+                "select checkpoint_date, running_balance, transaction_count from m_savings_account_balance_checkpoint "
+                        + "where savings_account_id = ?",
+                (rs, rowNum) -> new SavingsAccountBalanceCheckpoint(JdbcSupport.getLocalDate(rs, "checkpoint_date"),
+                        rs.getBigDecimal("running_balance"), rs.getLong("transaction_count")),
+                savingsId);
+        return checkpoints.isEmpty() ? null : checkpoints.get(0);
+    }
+
+    private static boolean isZero(final BigDecimal value) {
+        return value == null || value.signum() == 0;
+    }
+
+    private static final class Tally {
+
+        private Money runningBalance;
+        private long transactionCount;
+
+        Tally(final Money runningBalance, final long transactionCount) {
+            this.runningBalance = runningBalance;
+            this.transactionCount = transactionCount;
+        }
+
+        void add(final List<SavingsAccountTransaction> transactions, final LocalDate upTo, final MonetaryCurrency currency) {
+            for (final SavingsAccountTransaction transaction : transactions) {
+                if (transaction.getTransactionLocalDate().isAfter(upTo)) {
+                    continue;
+                }
+                this.transactionCount++;
+                if (transaction.isReversed()) {
+                    continue;
+                }
+                // same movements as SavingsAccount#recalculateDailyBalances
+                if (transaction.isCredit() || transaction.isAmountRelease()) {
+                    this.runningBalance = this.runningBalance.plus(transaction.getAmount(currency));
+                } else if (transaction.isDebit() || transaction.isAmountOnHold()) {
+                    this.runningBalance = this.runningBalance.minus(transaction.getAmount(currency));
+                }
+            }
+        }
+    }
+}
@@ -42,4 +42,9 @@ public interface SavingsAccountTransactionRepository
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<SavingsAccountTransaction> findBySavingsAccount(@Param("savingsAccount") SavingsAccount savingsAccount);
 
+    @Query("select sat from SavingsAccountTransaction sat join sat.paymentDetail pd where sat.savingsAccount.id = :savingsId"
+            + " and sat.typeOf = :typeOf and pd.routingCode = :routingCode and pd.receiptNumber = :receiptNumber order by sat.id")
+    List<SavingsAccountTransaction> findByPaymentDetailReceipt(@Param("savingsId") Long savingsId, @Param("typeOf") Integer typeOf,
+            @Param("routingCode") String routingCode, @Param("receiptNumber") String receiptNumber);
+
 }
@@ -52,5 +52,9 @@ public interface DepositAccountReadPlatformService {
 
     Collection<AccountTransferDTO> retrieveDataForInterestTransfer();
 
-    Collection<Map<String, Object>> retriveDataForRDScheduleCreation();
+    /**
+     * Returns, in savings account id order, up to {@code pageSize} active recurring deposit accounts above
+     * {@code maxSavingsId} that have fewer future installments than the job keeps generated.
+     */
+    Collection<Map<String, Object>> retriveDataForRDScheduleCreation(Long maxSavingsId, int pageSize);
 }
@@ -35,6 +35,7 @@ import org.apache.fineract.batch.service.ResolutionHelper;
 import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
 import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.PooledIdAllocator;
 import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
 import org.apache.fineract.portfolio.savings.data.SavingsAccountData;
@@ -79,6 +80,7 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
     private CommandStrategyProvider strategyProvider;
     private ResolutionHelper resolutionHelper;
     private SavingsAccountReadPlatformService savingsAccountReadPlatformService;
+    private PooledIdAllocator pooledIdAllocator;
 
     public void setSavings(Collection<SavingsAccountData> savingAccounts) {
         this.savingAccounts = savingAccounts;
@@ -128,6 +130,10 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
         this.strategyProvider = commandStrategyProvider;
     }
 
+    public void setPooledIdAllocator(PooledIdAllocator pooledIdAllocator) {
+        this.pooledIdAllocator = pooledIdAllocator;
+    }
+
     @Override
     @SuppressFBWarnings(value = {
             "DMI_RANDOM_USED_ONLY_ONCE" }, justification = "False positive for random object created and used only once")
@@ -231,8 +237,8 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
                         final SavingsAccountTransactionData dataFromFetch = savingsAccountTransactionDataHashMap.get(key);
                         savingsAccountTransactionData.setId(dataFromFetch.getId());
 
-                        paramsForGLInsertion.add(
-                                new Object[] { savingsAccountData.getGlAccountIdForSavingsControl(), savingsAccountData.getOfficeId(), null,
+                        paramsForGLInsertion.add(withPooledId("acc_gl_journal_entry", new Object[] {
+                                savingsAccountData.getGlAccountIdForSavingsControl(), savingsAccountData.getOfficeId(), null,
                                         currencyCode, SAVINGS_TRANSACTION_IDENTIFIER + savingsAccountTransactionData.getId().toString(),
                                         savingsAccountTransactionData.getId(), null, false, null, false,
                                         Date.from(savingsAccountTransactionData.getTransactionDate()
@@ -244,9 +250,10 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
                                         BigDecimal.ZERO, BigDecimal.ZERO, null,
                                         Date.from(savingsAccountTransactionData.getTransactionDate()
                                                 .atStartOfDay(DateUtils.getDateTimeZoneOfTenant()).toInstant()),
-                                        null, Integer.valueOf(1), Integer.valueOf(1) });
+                                        null, Integer.valueOf(1), Integer.valueOf(1) }));
 
-                        paramsForGLInsertion.add(new Object[] { savingsAccountData.getGlAccountIdForInterestOnSavings(),
+                        paramsForGLInsertion.add(withPooledId("acc_gl_journal_entry", new Object[] {
+                                savingsAccountData.getGlAccountIdForInterestOnSavings(),
                                 savingsAccountData.getOfficeId(), null, currencyCode,
                                 SAVINGS_TRANSACTION_IDENTIFIER + savingsAccountTransactionData.getId().toString(),
                                 savingsAccountTransactionData.getId(), null, false, null, false,
@@ -259,7 +266,7 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
                                 BigDecimal.ZERO, BigDecimal.ZERO, null,
                                 Date.from(savingsAccountTransactionData.getTransactionDate()
                                         .atStartOfDay(DateUtils.getDateTimeZoneOfTenant()).toInstant()),
-                                null, Integer.valueOf(1), Integer.valueOf(1) });
+                                null, Integer.valueOf(1), Integer.valueOf(1) }));
 
                     }
                 }
@@ -274,16 +281,37 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
     private String batchQueryForJournalEntries() {
         StringBuilder query = new StringBuilder(100);
 
-        query.append("INSERT INTO acc_gl_journal_entry(account_id,office_id,reversal_id,currency_code,transaction_id,");
+        query.append("INSERT INTO acc_gl_journal_entry(").append(pooledIdColumn());
+        query.append("account_id,office_id,reversal_id,currency_code,transaction_id,");
         query.append("savings_transaction_id,client_transaction_id,reversed,ref_num,manual_entry,entry_date,type_enum,");
         query.append("amount,description,entity_type_enum,entity_id,created_date,");
         query.append("lastmodified_date,is_running_balance_calculated,office_running_balance,organization_running_balance,");
         query.append("payment_details_id,transaction_date,share_transaction_id, createdby_id, lastmodifiedby_id) ");
-        query.append("VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        query.append("VALUES (").append(pooledIdParameter());
+        query.append("?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
 
         return query.toString();
     }
 
+    // with pooled ids enabled the inserts carry their id; otherwise the tables keep their auto-increment keys
+    private Object[] withPooledId(final String tableName, final Object[] params) {
+        if (!this.pooledIdAllocator.isEnabled()) {
+            return params;
+        }
+        final Object[] paramsWithId = new Object[params.length + 1];
+        paramsWithId[0] = this.pooledIdAllocator.nextId(tableName);
+        System.arraycopy(params, 0, paramsWithId, 1, params.length);
+        return paramsWithId;
+    }
+
+    private String pooledIdColumn() {
+        return this.pooledIdAllocator.isEnabled() ? "id, " : "";
+    }
+
+    private String pooledIdParameter() {
+        return this.pooledIdAllocator.isEnabled() ? "?, " : "";
+    }
+
     private List<SavingsAccountTransactionData> fetchTransactionsFromIds(final List<String> refNo) throws DataAccessException {
         return this.savingsAccountReadPlatformService.retrieveAllTransactionData(refNo);
     }
@@ -320,7 +348,8 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
                         balanceEndDate = Date.from(savingsAccountTransactionData.getBalanceEndDate()
                                 .atStartOfDay(DateUtils.getDateTimeZoneOfTenant()).toInstant());
                     }
-                    paramsForTransactionInsertion.add(new Object[] { savingsAccountData.getId(), savingsAccountData.getOfficeId(),
+                    paramsForTransactionInsertion.add(withPooledId("m_savings_account_transaction", new Object[] {
+                            savingsAccountData.getId(), savingsAccountData.getOfficeId(),
                             savingsAccountTransactionData.getTransactionType().getId(),
                             Date.from(savingsAccountTransactionData.getTransactionDate().atStartOfDay(DateUtils.getDateTimeZoneOfTenant())
                                     .toInstant()),
@@ -328,7 +357,7 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
                             savingsAccountTransactionData.getBalanceNumberOfDays(), savingsAccountTransactionData.getRunningBalance(),
                             savingsAccountTransactionData.getCumulativeBalance(), savingsAccountTransactionData.getSubmittedOnDate(),
                             Integer.valueOf(1), savingsAccountTransactionData.isManualTransaction(),
-                            savingsAccountTransactionData.getRefNo() });
+                            savingsAccountTransactionData.getRefNo() }));
                 }
             }
             savingsAccountData.setUpdatedTransactions(savingsAccountTransactionDataList);
@@ -355,11 +384,12 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
 
     private String batchQueryForTransactionInsertion() {
         StringBuilder query = new StringBuilder(100);
-        query.append("INSERT INTO m_savings_account_transaction (savings_account_id, office_id, is_reversed,");
+        query.append("INSERT INTO m_savings_account_transaction (").append(pooledIdColumn());
+        query.append("savings_account_id, office_id, is_reversed,");
         query.append("transaction_type_enum, transaction_date, amount, balance_end_date_derived,");
         query.append("balance_number_of_days_derived, running_balance_derived, cumulative_balance_derived,");
         query.append("created_date, appuser_id, is_manual, is_loan_disbursement, ref_no) VALUES ");
-        query.append("(?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)");
+        query.append("(").append(pooledIdParameter()).append("?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?)");
         return query.toString();
 
     }
@@ -36,6 +36,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
 import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.PooledIdAllocator;
 import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
 import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
@@ -65,6 +66,7 @@ public class SavingsSchedularServiceImpl implements SavingsSchedularService {
     private final ConfigurationDomainService configurationDomainService;
     private final JdbcTemplate jdbcTemplate;
     private final TransactionTemplate transactionTemplate;
+    private final PooledIdAllocator pooledIdAllocator;
     private Queue<List<SavingsAccountData>> queue = new ArrayDeque<>();
     private int queueSize = 1;
 
@@ -74,7 +76,7 @@ public class SavingsSchedularServiceImpl implements SavingsSchedularService {
             final SavingsAccountReadPlatformService savingAccountReadPlatformService,
             final SavingsAccountRepositoryWrapper savingsAccountRepository, final ApplicationContext applicationContext,
             final ConfigurationDomainService configurationDomainService, final RoutingDataSource dataSource,
-            final TransactionTemplate transactionTemplate) {
+            final TransactionTemplate transactionTemplate, final PooledIdAllocator pooledIdAllocator) {
         this.savingAccountAssembler = savingAccountAssembler;
         this.savingsAccountWritePlatformService = savingsAccountWritePlatformService;
         this.savingAccountReadPlatformService = savingAccountReadPlatformService;
@@ -83,6 +85,7 @@ public class SavingsSchedularServiceImpl implements SavingsSchedularService {
         this.configurationDomainService = configurationDomainService;
         this.jdbcTemplate = new JdbcTemplate(dataSource);
         this.transactionTemplate = transactionTemplate;
+        this.pooledIdAllocator = pooledIdAllocator;
     }
 
     @Override
@@ -184,6 +187,7 @@ public class SavingsSchedularServiceImpl implements SavingsSchedularService {
             poster.setBackdatedTxnsAllowedTill(backdatedTxnsAllowedTill);
             poster.setTransactionTemplate(transactionTemplate);
             poster.setConfigurationDomainService(configurationDomainService);
+            poster.setPooledIdAllocator(pooledIdAllocator);
 
             posters.add(poster);
 
@@ -50,8 +50,10 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Transactional(readOnly = true)
 public class SearchReadPlatformServiceImpl implements SearchReadPlatformService {
 
     private final NamedParameterJdbcTemplate namedParameterjdbcTemplate;
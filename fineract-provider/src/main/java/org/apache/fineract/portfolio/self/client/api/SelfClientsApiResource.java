@@ -37,6 +37,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
@@ -159,11 +160,12 @@ public class SelfClientsApiResource {
     public Response retrieveImage(@PathParam("clientId") @Parameter(description = "clientId") final Long clientId,
             @QueryParam("maxWidth") @Parameter(example = "maxWidth") final Integer maxWidth,
             @QueryParam("maxHeight") @Parameter(example = "maxHeight") final Integer maxHeight,
-            @QueryParam("output") @Parameter(example = "output") final String output) {
+            @QueryParam("output") @Parameter(example = "output") final String output, @Context final HttpHeaders requestHeaders) {
 
         validateAppuserClientsMapping(clientId);
 
-        return this.imagesApiResource.retrieveImage("clients", clientId, maxWidth, maxHeight, output, MediaType.TEXT_PLAIN);
+        return this.imagesApiResource.retrieveImage("clients", clientId, maxWidth, maxHeight, output, MediaType.TEXT_PLAIN,
+                requestHeaders);
     }
 
     @GET
@@ -59,4 +59,8 @@ public class ShareAccountDividendDetails extends AbstractPersistableCustom {
         return this.amount;
     }
 
+    public boolean isInitiated() {
+        return ShareAccountDividendStatusType.INITIATED.getValue().equals(this.status);
+    }
+
 }
@@ -63,11 +63,14 @@ public class ShareAccountDividendReadPlatformServiceImpl implements ShareAccount
         StringBuilder sb = new StringBuilder();
         sb.append("select ");
         sb.append(" sadd.id as id, ");
-        sb.append(" sa.savings_account_id as savingsAccountId ");
+        sb.append(" sa.savings_account_id as savingsAccountId, ");
+        sb.append(" sadd.amount as amount, ");
+        sb.append(" sadd.dividend_pay_out_id as dividendPayOutId ");
         sb.append(" from m_share_account_dividend_details sadd");
         sb.append(" inner join m_share_product_dividend_pay_out spdpo on spdpo.id = sadd.dividend_pay_out_id ");
         sb.append(" inner join m_share_account sa on sa.id = sadd.account_id ");
         sb.append(" where spdpo.status = ? and sadd.status = ?");
+        sb.append(" order by sa.savings_account_id, sadd.id");
         return this.jdbcTemplate.queryForList(sb.toString(), ShareProductDividendStatusType.APPROVED.getValue(),
                 ShareAccountDividendStatusType.INITIATED.getValue());
     }
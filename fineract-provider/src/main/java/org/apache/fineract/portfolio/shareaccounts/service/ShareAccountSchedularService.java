@@ -18,8 +18,28 @@
  */
 package org.apache.fineract.portfolio.shareaccounts.service;
 
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.portfolio.shareaccounts.exceptions.ShareAccountDividendAlreadyPostedException;
+
 public interface ShareAccountSchedularService {
 
-    void postDividend(Long dividendDetailId, Long savingsId);
+    /**
+     * Posts a single dividend detail in a transaction of its own.
+     *
+     * @return false, without paying anything out, when the dividend detail is no longer initiated
+     * @throws ShareAccountDividendAlreadyPostedException
+     *             when the dividend detail is posted concurrently, before anything is paid out
+     */
+    boolean postDividend(Long dividendDetailId, Long savingsId);
+
+    /**
+     * Posts a batch of dividend details, as returned by
+     * {@link ShareAccountDividendReadPlatformService#retriveDividendDetailsForPostDividents()}, in a single transaction.
+     *
+     * @throws ShareAccountDividendAlreadyPostedException
+     *             when one of them is no longer initiated, nothing of the batch is paid out then
+     */
+    void postDividends(List<Map<String, Object>> dividendDetails);
 
 }
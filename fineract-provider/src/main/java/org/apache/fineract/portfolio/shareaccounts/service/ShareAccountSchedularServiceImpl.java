@@ -18,7 +18,16 @@
  */
 package org.apache.fineract.portfolio.shareaccounts.service;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccount;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccountAssembler;
 import org.apache.fineract.portfolio.savings.domain.SavingsAccountDomainService;
@@ -26,7 +35,9 @@ import org.apache.fineract.portfolio.savings.domain.SavingsAccountTransaction;
 import org.apache.fineract.portfolio.shareaccounts.domain.ShareAccountDividendDetails;
 import org.apache.fineract.portfolio.shareaccounts.domain.ShareAccountDividendRepository;
 import org.apache.fineract.portfolio.shareaccounts.domain.ShareAccountDividendStatusType;
+import org.apache.fineract.portfolio.shareaccounts.exceptions.ShareAccountDividendAlreadyPostedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,25 +47,85 @@ public class ShareAccountSchedularServiceImpl implements ShareAccountSchedularSe
     private final ShareAccountDividendRepository shareAccountDividendRepository;
     private final SavingsAccountDomainService savingsAccountDomainService;
     private final SavingsAccountAssembler savingsAccountAssembler;
+    private final JdbcTemplate jdbcTemplate;
 
     @Autowired
     public ShareAccountSchedularServiceImpl(final ShareAccountDividendRepository shareAccountDividendRepository,
-            final SavingsAccountDomainService savingsAccountDomainService, final SavingsAccountAssembler savingsAccountAssembler) {
+            final SavingsAccountDomainService savingsAccountDomainService, final SavingsAccountAssembler savingsAccountAssembler,
+            final RoutingDataSource dataSource) {
         this.shareAccountDividendRepository = shareAccountDividendRepository;
         this.savingsAccountDomainService = savingsAccountDomainService;
         this.savingsAccountAssembler = savingsAccountAssembler;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
     }
 
     @Override
     @Transactional
-    public void postDividend(final Long dividendDetailId, final Long savingsId) {
+    public boolean postDividend(final Long dividendDetailId, final Long savingsId) {
 
         ShareAccountDividendDetails shareAccountDividendDetails = this.shareAccountDividendRepository.findById(dividendDetailId).get();
+        if (!shareAccountDividendDetails.isInitiated()) {
+            return false;
+        }
+        lockInitiated(Collections.singletonList(dividendDetailId));
         final SavingsAccount savingsAccount = this.savingsAccountAssembler.assembleFrom(savingsId, false);
         SavingsAccountTransaction savingsAccountTransaction = this.savingsAccountDomainService.handleDividendPayout(savingsAccount,
                 DateUtils.getLocalDateOfTenant(), shareAccountDividendDetails.getAmount(), false);
-        shareAccountDividendDetails.update(ShareAccountDividendStatusType.POSTED.getValue(), savingsAccountTransaction.getId());
-        this.shareAccountDividendRepository.save(shareAccountDividendDetails);
+        markPosted(Collections.singletonList(new Object[] { ShareAccountDividendStatusType.POSTED.getValue(),
+                savingsAccountTransaction.getId(), dividendDetailId, ShareAccountDividendStatusType.INITIATED.getValue() }));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void postDividends(final List<Map<String, Object>> dividendDetails) {
+        final List<Long> dividendDetailIds = new ArrayList<>(dividendDetails.size());
+        for (final Map<String, Object> dividendDetail : dividendDetails) {
+            dividendDetailIds.add(((Number) dividendDetail.get("id")).longValue());
+        }
+        lockInitiated(dividendDetailIds);
+
+        final LocalDate transactionDate = DateUtils.getLocalDateOfTenant();
+        final List<Object[]> statusUpdates = new ArrayList<>(dividendDetails.size());
+        for (final Map<String, Object> dividendDetail : dividendDetails) {
+            final Long dividendDetailId = ((Number) dividendDetail.get("id")).longValue();
+            final Long savingsId = ((Number) dividendDetail.get("savingsAccountId")).longValue();
+            final SavingsAccount savingsAccount = this.savingsAccountAssembler.assembleFrom(savingsId, false);
+            final SavingsAccountTransaction savingsAccountTransaction = this.savingsAccountDomainService
+                    .handleDividendPayout(savingsAccount, transactionDate, (BigDecimal) dividendDetail.get("amount"), false);
+            statusUpdates.add(new Object[] { ShareAccountDividendStatusType.POSTED.getValue(), savingsAccountTransaction.getId(),
+                    dividendDetailId, ShareAccountDividendStatusType.INITIATED.getValue() });
+        }
+
+        markPosted(statusUpdates);
+    }
+
+    /**
+     * Locks the given dividend details for the rest of the transaction, in id order, and fails before anything is paid
+     * out when one of them is no longer initiated, e.g. because another run posted it in the meantime. The status
+     * updates of the locked details can then not miss a concurrent post, whatever update counts the driver reports for
+     * a batch.
+     */
+    private void lockInitiated(final List<Long> dividendDetailIds) {
+        if (dividendDetailIds.isEmpty()) {
+            return;
+        }
+        final List<Object> params = new ArrayList<>(dividendDetailIds);
+        params.add(ShareAccountDividendStatusType.INITIATED.getValue());
+        final String sql = "SELECT id FROM m_share_account_dividend_details WHERE id IN ("
+                + String.join(",", Collections.nCopies(dividendDetailIds.size(), "?")) + ") AND status = ? ORDER BY id FOR UPDATE";
+        final Set<Long> locked = new HashSet<>(this.jdbcTemplate.queryForList(sql, Long.class, params.toArray()));
+        for (final Long dividendDetailId : dividendDetailIds) {
+            if (!locked.contains(dividendDetailId)) {
+                throw new ShareAccountDividendAlreadyPostedException(dividendDetailId);
+            }
+        }
+    }
+
+    private void markPosted(final List<Object[]> statusUpdates) {
+        this.jdbcTemplate.batchUpdate(
+                "UPDATE m_share_account_dividend_details SET status = ?, savings_transaction_id = ? WHERE id = ? AND status = ?",
+                statusUpdates);
     }
 
 }
@@ -49,6 +49,7 @@ import org.apache.fineract.portfolio.shareaccounts.service.SharesEnumerations;
 import org.apache.fineract.portfolio.shareproducts.data.ShareProductData;
 import org.apache.fineract.portfolio.shareproducts.data.ShareProductMarketPriceData;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -103,6 +104,7 @@ public class ShareProductReadPlatformServiceImpl implements ProductReadPlatformS
     }
 
     @Override
+    @Cacheable(value = "shareProducts", key = "@tenantCacheEvictor.keyPrefix('shareProducts').concat(#productId+'shp')", condition = "!#includeTemplate")
     public ProductData retrieveOne(Long productId, boolean includeTemplate) {
         MarketPriceRowMapper marketRowMapper = new MarketPriceRowMapper();
 
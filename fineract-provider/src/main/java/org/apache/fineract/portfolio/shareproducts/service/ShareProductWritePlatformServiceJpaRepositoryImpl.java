@@ -26,6 +26,7 @@ import java.util.Map;
 import javax.persistence.PersistenceException;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.fineract.accounting.producttoaccountmapping.service.ProductToGLAccountMappingWritePlatformService;
+import org.apache.fineract.infrastructure.cache.service.TenantCacheEvictor;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
@@ -57,6 +58,7 @@ public class ShareProductWritePlatformServiceJpaRepositoryImpl implements ShareP
     private final ShareProductDividendAssembler shareProductDividendAssembler;
     private final ProductToGLAccountMappingWritePlatformService accountMappingWritePlatformService;
     private final BusinessEventNotifierService businessEventNotifierService;
+    private final TenantCacheEvictor tenantCacheEvictor;
 
     @Autowired
     public ShareProductWritePlatformServiceJpaRepositoryImpl(final ShareProductRepositoryWrapper repository,
@@ -64,7 +66,7 @@ public class ShareProductWritePlatformServiceJpaRepositoryImpl implements ShareP
             final ShareProductDividentPayOutDetailsRepositoryWrapper shareProductDividentPayOutDetailsRepositor,
             final ShareProductDividendAssembler shareProductDividendAssembler,
             final ProductToGLAccountMappingWritePlatformService accountMappingWritePlatformService,
-            final BusinessEventNotifierService businessEventNotifierService) {
+            final BusinessEventNotifierService businessEventNotifierService, final TenantCacheEvictor tenantCacheEvictor) {
         this.repository = repository;
         this.serializer = serializer;
         this.fromApiJsonHelper = fromApiJsonHelper;
@@ -72,6 +74,7 @@ public class ShareProductWritePlatformServiceJpaRepositoryImpl implements ShareP
         this.shareProductDividendAssembler = shareProductDividendAssembler;
         this.accountMappingWritePlatformService = accountMappingWritePlatformService;
         this.businessEventNotifierService = businessEventNotifierService;
+        this.tenantCacheEvictor = tenantCacheEvictor;
     }
 
     @Override
@@ -100,6 +103,7 @@ public class ShareProductWritePlatformServiceJpaRepositoryImpl implements ShareP
 
     @Override
     public CommandProcessingResult updateProduct(Long productId, JsonCommand jsonCommand) {
+        this.tenantCacheEvictor.evictTenant("shareProducts");
         try {
             ShareProduct product = this.repository.findOneWithNotFoundDetection(productId);
             final Map<String, Object> changes = this.serializer.validateAndUpdate(jsonCommand, product);
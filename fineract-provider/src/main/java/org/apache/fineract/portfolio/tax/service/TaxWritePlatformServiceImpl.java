@@ -20,6 +20,7 @@ package org.apache.fineract.portfolio.tax.service;
 
 import java.util.Map;
 import java.util.Set;
+import org.apache.fineract.infrastructure.cache.service.TenantCacheEvictor;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
@@ -43,17 +44,20 @@ public class TaxWritePlatformServiceImpl implements TaxWritePlatformService {
     private final TaxComponentRepositoryWrapper taxComponentRepositoryWrapper;
     private final TaxGroupRepository taxGroupRepository;
     private final TaxGroupRepositoryWrapper taxGroupRepositoryWrapper;
+    private final TenantCacheEvictor tenantCacheEvictor;
 
     @Autowired
     public TaxWritePlatformServiceImpl(final TaxValidator validator, final TaxAssembler taxAssembler,
             final TaxComponentRepository taxComponentRepository, final TaxGroupRepository taxGroupRepository,
-            final TaxComponentRepositoryWrapper taxComponentRepositoryWrapper, final TaxGroupRepositoryWrapper taxGroupRepositoryWrapper) {
+            final TaxComponentRepositoryWrapper taxComponentRepositoryWrapper, final TaxGroupRepositoryWrapper taxGroupRepositoryWrapper,
+            final TenantCacheEvictor tenantCacheEvictor) {
         this.validator = validator;
         this.taxAssembler = taxAssembler;
         this.taxComponentRepository = taxComponentRepository;
         this.taxGroupRepository = taxGroupRepository;
         this.taxComponentRepositoryWrapper = taxComponentRepositoryWrapper;
         this.taxGroupRepositoryWrapper = taxGroupRepositoryWrapper;
+        this.tenantCacheEvictor = tenantCacheEvictor;
     }
 
     @Override
@@ -69,6 +73,7 @@ public class TaxWritePlatformServiceImpl implements TaxWritePlatformService {
 
     @Override
     public CommandProcessingResult updateTaxComponent(final Long id, final JsonCommand command) {
+        this.tenantCacheEvictor.evictTenant("savingsProducts");
         this.validator.validateForTaxComponentUpdate(command.json());
         final TaxComponent taxComponent = this.taxComponentRepositoryWrapper.findOneWithNotFoundDetection(id);
         this.validator.validateStartDate(taxComponent.startDate(), command);
@@ -94,6 +99,7 @@ public class TaxWritePlatformServiceImpl implements TaxWritePlatformService {
 
     @Override
     public CommandProcessingResult updateTaxGroup(final Long id, final JsonCommand command) {
+        this.tenantCacheEvictor.evictTenant("savingsProducts");
         this.validator.validateForTaxGroupUpdate(command.json());
         final TaxGroup taxGroup = this.taxGroupRepositoryWrapper.findOneWithNotFoundDetection(id);
         final boolean isUpdate = true;
@@ -19,21 +19,29 @@
 package org.apache.fineract.scheduledjobs.service;
 
 import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.fineract.accounting.glaccount.domain.TrialBalance;
 import org.apache.fineract.accounting.glaccount.domain.TrialBalanceRepositoryWrapper;
 import org.apache.fineract.infrastructure.core.config.FineractProperties;
 import org.apache.fineract.infrastructure.core.data.ApiParameterError;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidationException;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.RoutingDataSourceServiceFactory;
@@ -44,6 +52,7 @@ import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
 import org.apache.fineract.infrastructure.jobs.domain.ScheduledJobDetail;
 import org.apache.fineract.infrastructure.jobs.domain.ScheduledJobDetailRepository;
 import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JdbcBulkWriter;
 import org.apache.fineract.infrastructure.jobs.service.JobName;
 import org.apache.fineract.infrastructure.jobs.service.JobRegisterService;
 import org.apache.fineract.portfolio.savings.DepositAccountType;
@@ -54,13 +63,17 @@ import org.apache.fineract.portfolio.savings.service.DepositAccountReadPlatformS
 import org.apache.fineract.portfolio.savings.service.DepositAccountWritePlatformService;
 import org.apache.fineract.portfolio.savings.service.SavingsAccountChargeReadPlatformService;
 import org.apache.fineract.portfolio.savings.service.SavingsAccountWritePlatformService;
+import org.apache.fineract.portfolio.shareaccounts.exceptions.ShareAccountDividendAlreadyPostedException;
 import org.apache.fineract.portfolio.shareaccounts.service.ShareAccountDividendReadPlatformService;
 import org.apache.fineract.portfolio.shareaccounts.service.ShareAccountSchedularService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -70,9 +83,6 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
 
     private static final Logger LOG = LoggerFactory.getLogger(ScheduledJobRunnerServiceImpl.class);
 
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private final DateTimeFormatter formatterWithTime = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
     private final RoutingDataSourceServiceFactory dataSourceServiceFactory;
     private final SavingsAccountWritePlatformService savingsAccountWritePlatformService;
     private final SavingsAccountChargeReadPlatformService savingsAccountChargeReadPlatformService;
@@ -86,6 +96,9 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
     private final FineractProperties fineractProperties;
     private final DatabaseSpecificSQLGenerator sqlGenerator;
     private final DatabaseTypeResolver databaseTypeResolver;
+    private final JdbcBulkWriter jdbcBulkWriter;
+    private final int postDividendsThreads;
+    private final int postDividendsBatchSize;
 
     @Autowired
     public ScheduledJobRunnerServiceImpl(final RoutingDataSourceServiceFactory dataSourceServiceFactory,
@@ -97,7 +110,9 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
             final ShareAccountSchedularService shareAccountSchedularService,
             final TrialBalanceRepositoryWrapper trialBalanceRepositoryWrapper, @Lazy final JobRegisterService jobRegisterService,
             final ScheduledJobDetailRepository scheduledJobDetailsRepository, final FineractProperties fineractProperties,
-            DatabaseSpecificSQLGenerator sqlGenerator, DatabaseTypeResolver databaseTypeResolver) {
+            DatabaseSpecificSQLGenerator sqlGenerator, DatabaseTypeResolver databaseTypeResolver, final JdbcBulkWriter jdbcBulkWriter,
+            @Value("${fineract.jobs.post-dividends.threads:4}") final int postDividendsThreads,
+            @Value("${fineract.jobs.post-dividends.batch-size:100}") final int postDividendsBatchSize) {
         this.dataSourceServiceFactory = dataSourceServiceFactory;
         this.savingsAccountWritePlatformService = savingsAccountWritePlatformService;
         this.savingsAccountChargeReadPlatformService = savingsAccountChargeReadPlatformService;
@@ -111,6 +126,9 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
         this.fineractProperties = fineractProperties;
         this.sqlGenerator = sqlGenerator;
         this.databaseTypeResolver = databaseTypeResolver;
+        this.jdbcBulkWriter = jdbcBulkWriter;
+        this.postDividendsThreads = Math.max(1, postDividendsThreads);
+        this.postDividendsBatchSize = Math.max(1, postDividendsBatchSize);
     }
 
     @Transactional
@@ -359,89 +377,132 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
     @Override
     @CronTarget(jobName = JobName.GENERATE_RD_SCEHDULE)
     public void generateRDSchedule() {
-        final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSourceServiceFactory.determineDataSourceService().retrieveDataSource());
-        final Collection<Map<String, Object>> scheduleDetails = this.depositAccountReadPlatformService.retriveDataForRDScheduleCreation();
-        String insertSql = "INSERT INTO m_mandatory_savings_schedule (savings_account_id, duedate, installment, deposit_amount, completed_derived, created_date, lastmodified_date) VALUES ";
-        StringBuilder sb = new StringBuilder();
-        String currentDate = formatterWithTime.format(DateUtils.getLocalDateTimeOfTenant());
-        int iterations = 0;
-        for (Map<String, Object> details : scheduleDetails) {
-            Long count = (Long) details.get("futureInstallemts");
-            if (count == null) {
-                count = 0L;
+        final String insertSql = "INSERT INTO m_mandatory_savings_schedule (savings_account_id, duedate, installment, deposit_amount, "
+                + "completed_derived, created_date, lastmodified_date) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        final Timestamp currentDate = Timestamp.valueOf(DateUtils.getLocalDateTimeOfTenant());
+        final int partitionSize = this.jdbcBulkWriter.getPartitionSize();
+        Long maxSavingsId = 0L;
+        int accounts = 0;
+        int installments = 0;
+        Collection<Map<String, Object>> scheduleDetails;
+        do {
+            scheduleDetails = this.depositAccountReadPlatformService.retriveDataForRDScheduleCreation(maxSavingsId, partitionSize);
+            final List<List<MandatorySavingsInstallment>> accountInstallments = new ArrayList<>(scheduleDetails.size());
+            for (Map<String, Object> details : scheduleDetails) {
+                final Long savingsId = ((Number) details.get("savingsId")).longValue();
+                accountInstallments.add(generateFutureInstallments(savingsId, details));
+                maxSavingsId = savingsId;
             }
-            final Long savingsId = (Long) details.get("savingsId");
-            final BigDecimal amount = (BigDecimal) details.get("amount");
-            final String recurrence = (String) details.get("recurrence");
-            Date date = (Date) details.get("dueDate");
-            LocalDate lastDepositDate = LocalDate.ofInstant(date.toInstant(), DateUtils.getDateTimeZoneOfTenant());
-            Integer installmentNumber = (Integer) details.get("installment");
-            while (count < DepositAccountUtils.GENERATE_MINIMUM_NUMBER_OF_FUTURE_INSTALMENTS) {
-                count++;
-                installmentNumber++;
-                lastDepositDate = DepositAccountUtils.calculateNextDepositDate(lastDepositDate, recurrence);
-
-                if (sb.length() > 0) {
-                    sb.append(", ");
-                }
-                sb.append("(");
-                sb.append(savingsId);
-                sb.append(",'");
-                sb.append(formatter.format(lastDepositDate));
-                sb.append("',");
-                sb.append(installmentNumber);
-                sb.append(",");
-                sb.append(amount);
-                sb.append(", b'0','");
-                sb.append(currentDate);
-                sb.append("','");
-                sb.append(currentDate);
-                sb.append("')");
-                iterations++;
-                if (iterations > 200) {
-                    jdbcTemplate.update(insertSql + sb.toString());
-                    sb = new StringBuilder();
-                }
+            // installments of one account are written in the same chunk, so a rerun after a failed chunk starts from what
+            // was committed and never duplicates them
+            installments += this.jdbcBulkWriter.write(insertSql, accountInstallments, (ps, installment) -> {
+                ps.setLong(1, installment.savingsId);
+                ps.setDate(2, java.sql.Date.valueOf(installment.dueDate));
+                ps.setInt(3, installment.installmentNumber);
+                ps.setBigDecimal(4, installment.amount);
+                ps.setBoolean(5, false);
+                ps.setTimestamp(6, currentDate);
+                ps.setTimestamp(7, currentDate);
+            });
+            accounts += scheduleDetails.size();
+        } while (scheduleDetails.size() == partitionSize);
+
+        LOG.info("{}: Records affected by generateRDSchedule: {} installments for {} accounts",
+                ThreadLocalContextUtil.getTenant().getName(), installments, accounts);
+    }
 
-            }
+    private static List<MandatorySavingsInstallment> generateFutureInstallments(final Long savingsId, final Map<String, Object> details) {
+        final Number futureInstallments = (Number) details.get("futureInstallemts");
+        long count = futureInstallments == null ? 0L : futureInstallments.longValue();
+        final BigDecimal amount = (BigDecimal) details.get("amount");
+        final String recurrence = (String) details.get("recurrence");
+        final Date date = (Date) details.get("dueDate");
+        LocalDate lastDepositDate = LocalDate.ofInstant(date.toInstant(), DateUtils.getDateTimeZoneOfTenant());
+        int installmentNumber = ((Number) details.get("installment")).intValue();
+        final List<MandatorySavingsInstallment> installments = new ArrayList<>();
+        while (count < DepositAccountUtils.GENERATE_MINIMUM_NUMBER_OF_FUTURE_INSTALMENTS) {
+            count++;
+            installmentNumber++;
+            lastDepositDate = DepositAccountUtils.calculateNextDepositDate(lastDepositDate, recurrence);
+            installments.add(new MandatorySavingsInstallment(savingsId, lastDepositDate, installmentNumber, amount));
         }
+        return installments;
+    }
 
-        if (sb.length() > 0) {
-            jdbcTemplate.update(insertSql + sb.toString());
-        }
+    private static final class MandatorySavingsInstallment {
+
+        private final Long savingsId;
+        private final LocalDate dueDate;
+        private final int installmentNumber;
+        private final BigDecimal amount;
 
+        MandatorySavingsInstallment(final Long savingsId, final LocalDate dueDate, final int installmentNumber, final BigDecimal amount) {
+            this.savingsId = savingsId;
+            this.dueDate = dueDate;
+            this.installmentNumber = installmentNumber;
+            this.amount = amount;
+        }
     }
 
     @Override
     @CronTarget(jobName = JobName.POST_DIVIDENTS_FOR_SHARES)
     public void postDividends() throws JobExecutionException {
-        List<Throwable> exceptions = new ArrayList<>();
-        List<Map<String, Object>> dividendDetails = this.shareAccountDividendReadPlatformService.retriveDividendDetailsForPostDividents();
-        for (Map<String, Object> dividendMap : dividendDetails) {
-            Long id = null;
-            Long savingsId = null;
-            if (dividendMap.get("id") instanceof BigInteger) {
-                // Drizzle is returningBigInteger
-                id = ((BigInteger) dividendMap.get("id")).longValue();
-                savingsId = ((BigInteger) dividendMap.get("savingsAccountId")).longValue();
-            } else { // MySQL connector is returning Long
-                id = (Long) dividendMap.get("id");
-                savingsId = (Long) dividendMap.get("savingsAccountId");
-            }
-            try {
-                this.shareAccountSchedularService.postDividend(id, savingsId);
-            } catch (final PlatformApiDataValidationException e) {
-                exceptions.add(e);
-                final List<ApiParameterError> errors = e.getErrors();
-                for (final ApiParameterError error : errors) {
-                    LOG.error(
-                            "Post Dividends to savings failed due to ApiParameterError for Divident detail Id: {} and savings Id: {} with message: {}",
-                            id, savingsId, error.getDeveloperMessage(), e);
+        final List<Map<String, Object>> dividendDetails = this.shareAccountDividendReadPlatformService
+                .retriveDividendDetailsForPostDividents();
+        if (dividendDetails.isEmpty()) {
+            return;
+        }
+
+        // details of one savings account always go to the same partition, so no two workers post to the same account
+        final int partitionCount = Math.min(this.postDividendsThreads, dividendDetails.size());
+        final List<List<Map<String, Object>>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        final Map<Long, DividendPayOutProgress> progressByPayOut = new HashMap<>();
+        for (final Map<String, Object> dividendDetail : dividendDetails) {
+            final long savingsId = ((Number) dividendDetail.get("savingsAccountId")).longValue();
+            partitions.get(Math.floorMod(savingsId, partitionCount)).add(dividendDetail);
+            progressByPayOut.computeIfAbsent(((Number) dividendDetail.get("dividendPayOutId")).longValue(), DividendPayOutProgress::new)
+                    .total++;
+        }
+
+        final List<Throwable> exceptions = Collections.synchronizedList(new ArrayList<>());
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final SecurityContext securityContext = SecurityContextHolder.getContext();
+        final List<Callable<Void>> workers = new ArrayList<>(partitionCount);
+        for (final List<Map<String, Object>> partition : partitions) {
+            workers.add(() -> {
+                if (tenant != null) {
+                    ThreadLocalContextUtil.setTenant(tenant);
                 }
-            } catch (final Exception e) {
-                LOG.error("Post Dividends to savings failed for Divident detail Id: {} and savings Id: {}", id, savingsId, e);
-                exceptions.add(e);
+                SecurityContextHolder.setContext(securityContext);
+                try {
+                    for (int from = 0; from < partition.size(); from += this.postDividendsBatchSize) {
+                        final List<Map<String, Object>> batch = partition.subList(from,
+                                Math.min(from + this.postDividendsBatchSize, partition.size()));
+                        postDividendBatch(batch, progressByPayOut, exceptions);
+                    }
+                    return null;
+                } finally {
+                    SecurityContextHolder.clearContext();
+                    ThreadLocalContextUtil.clearTenant();
+                }
+            });
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(partitionCount);
+        try {
+            for (final Future<Void> worker : executor.invokeAll(workers)) {
+                worker.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
 
         if (!exceptions.isEmpty()) {
@@ -449,6 +510,81 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
         }
     }
 
+    void postDividendBatch(final List<Map<String, Object>> batch, final Map<Long, DividendPayOutProgress> progressByPayOut,
+            final List<Throwable> exceptions) {
+        try {
+            this.shareAccountSchedularService.postDividends(batch);
+            for (final Map<String, Object> dividendDetail : batch) {
+                progressByPayOut.get(((Number) dividendDetail.get("dividendPayOutId")).longValue()).posted.incrementAndGet();
+            }
+        } catch (final Exception batchException) {
+            // retry one by one so that a single failing account does not hold back the rest of the batch; details that are
+            // no longer initiated, e.g. the one that tripped the status guard, are skipped instead of being paid out again
+            LOG.warn("Post Dividends batch of {} failed, posting its dividend details one by one", batch.size(), batchException);
+            for (final Map<String, Object> dividendDetail : batch) {
+                final Long id = ((Number) dividendDetail.get("id")).longValue();
+                final Long savingsId = ((Number) dividendDetail.get("savingsAccountId")).longValue();
+                final DividendPayOutProgress progress = progressByPayOut
+                        .get(((Number) dividendDetail.get("dividendPayOutId")).longValue());
+                try {
+                    if (this.shareAccountSchedularService.postDividend(id, savingsId)) {
+                        progress.posted.incrementAndGet();
+                    } else {
+                        LOG.info("Dividend detail Id: {} is already posted, skipped", id);
+                        progress.skipped.incrementAndGet();
+                    }
+                } catch (final ShareAccountDividendAlreadyPostedException e) {
+                    LOG.info("Dividend detail Id: {} was posted concurrently, skipped", id);
+                    progress.skipped.incrementAndGet();
+                } catch (final PlatformApiDataValidationException e) {
+                    exceptions.add(e);
+                    progress.failed.incrementAndGet();
+                    final List<ApiParameterError> errors = e.getErrors();
+                    for (final ApiParameterError error : errors) {
+                        LOG.error(
+                                "Post Dividends to savings failed due to ApiParameterError for Divident detail Id: {} and savings Id: {} with message: {}",
+                                id, savingsId, error.getDeveloperMessage(), e);
+                    }
+                } catch (final Exception e) {
+                    LOG.error("Post Dividends to savings failed for Divident detail Id: {} and savings Id: {}", id, savingsId, e);
+                    exceptions.add(e);
+                    progress.failed.incrementAndGet();
+                }
+            }
+        }
+        batch.stream().map(dividendDetail -> progressByPayOut.get(((Number) dividendDetail.get("dividendPayOutId")).longValue()))
+                .distinct().forEach(DividendPayOutProgress::report);
+    }
+
+    /**
+     * Posting progress of the dividend details of one share product dividend pay out, logged every tenth of the way.
+     */
+    static final class DividendPayOutProgress {
+
+        private final Long dividendPayOutId;
+        int total;
+        final AtomicInteger posted = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger reportedTenths = new AtomicInteger();
+
+        DividendPayOutProgress(final Long dividendPayOutId) {
+            this.dividendPayOutId = dividendPayOutId;
+        }
+
+        void report() {
+            final int postedCount = this.posted.get();
+            final int failedCount = this.failed.get();
+            final int skippedCount = this.skipped.get();
+            final int tenths = (postedCount + failedCount + skippedCount) * 10 / this.total;
+            if (this.reportedTenths.getAndAccumulate(tenths, Math::max) < tenths) {
+                LOG.info("{}: Dividend pay out {}: posted {} of {} dividend details, {} failed, {} already posted",
+                        ThreadLocalContextUtil.getTenant().getName(), this.dividendPayOutId, postedCount, this.total, failedCount,
+                        skippedCount);
+            }
+        }
+    }
+
     @Override
     @CronTarget(jobName = JobName.UPDATE_TRAIL_BALANCE_DETAILS)
     public void updateTrialBalanceDetails() throws JobExecutionException {
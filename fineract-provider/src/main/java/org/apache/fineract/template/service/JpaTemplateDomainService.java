@@ -47,6 +47,9 @@ public class JpaTemplateDomainService implements TemplateDomainService {
     @Autowired
     private TemplateRepository templateRepository;
 
+    @Autowired
+    private TemplateMergeService templateMergeService;
+
     @Override
     public List<Template> getAll() {
         return this.templateRepository.findAll();
@@ -104,6 +107,7 @@ public class JpaTemplateDomainService implements TemplateDomainService {
         template.setMappers(mappersList);
 
         this.templateRepository.saveAndFlush(template);
+        this.templateMergeService.evict(templateId);
 
         return new CommandProcessingResultBuilder().withCommandId(command.commandId()).withEntityId(template.getId()).build();
     }
@@ -114,6 +118,7 @@ public class JpaTemplateDomainService implements TemplateDomainService {
         final Template template = findOneById(templateId);
 
         this.templateRepository.delete(template);
+        this.templateMergeService.evict(templateId);
 
         return new CommandProcessingResultBuilder().withEntityId(templateId).build();
     }
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.template.service;
+
+import java.util.function.Function;
+
+/**
+ * Serves a template mapper url of the form {@code <resource>/<id>} in-process, from the read platform service behind the
+ * corresponding API resource, instead of calling back into the API over HTTP.
+ *
+ * Only resources whose plain GET returns exactly what the read service returns are registered, so that templates see
+ * the same data either way.
+ */
+public final class TemplateDataMapper {
+
+    private final String resource;
+    private final String permission;
+    private final Function<Long, Object> retrieveOne;
+
+    public TemplateDataMapper(final String resource, final String permission, final Function<Long, Object> retrieveOne) {
+        this.resource = resource;
+        this.permission = permission;
+        this.retrieveOne = retrieveOne;
+    }
+
+    public String getResource() {
+        return this.resource;
+    }
+
+    public String getPermission() {
+        return this.permission;
+    }
+
+    public Object retrieveOne(final Long id) {
+        return this.retrieveOne.apply(id);
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.template.service;
+
+import org.apache.fineract.organisation.office.service.OfficeReadPlatformService;
+import org.apache.fineract.organisation.staff.service.StaffReadPlatformService;
+import org.apache.fineract.portfolio.client.api.ClientApiConstants;
+import org.apache.fineract.portfolio.client.service.ClientReadPlatformService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Resources that template mappers may resolve in-process. Loans and savings accounts are not among them: their GET
+ * assembles calendars, charges and associations on top of the read service, so those mappers still go over HTTP.
+ */
+@Configuration
+public class TemplateDataMapperConfiguration {
+
+    @Bean
+    public TemplateDataMapper clientTemplateDataMapper(final ClientReadPlatformService clientReadPlatformService) {
+        return new TemplateDataMapper("clients", ClientApiConstants.CLIENT_RESOURCE_NAME, clientReadPlatformService::retrieveOne);
+    }
+
+    @Bean
+    public TemplateDataMapper officeTemplateDataMapper(final OfficeReadPlatformService officeReadPlatformService) {
+        return new TemplateDataMapper("offices", "OFFICE", officeReadPlatformService::retrieveOffice);
+    }
+
+    @Bean
+    public TemplateDataMapper staffTemplateDataMapper(final StaffReadPlatformService staffReadPlatformService) {
+        return new TemplateDataMapper("staff", "STAFF", staffReadPlatformService::retrieveStaff);
+    }
+}
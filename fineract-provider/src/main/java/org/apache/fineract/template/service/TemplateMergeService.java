@@ -28,20 +28,32 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
 import java.io.StringWriter;
-import java.net.Authenticator;
 import java.net.HttpURLConnection;
-import java.net.PasswordAuthentication;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.serialization.DefaultToApiJsonSerializer;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.apache.fineract.template.domain.Template;
 import org.apache.fineract.template.domain.TemplateFunctions;
+import org.apache.fineract.useradministration.domain.AppUser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -50,58 +62,130 @@ public class TemplateMergeService {
 
     private static final Logger LOG = LoggerFactory.getLogger(TemplateMergeService.class);
 
-    // private final FromJsonHelper fromApiJsonHelper;
-    private Map<String, Object> scopes;
-    private String authToken;
-
-    public void setAuthToken(final String authToken) {
-        this.authToken = authToken;
+    private final PlatformSecurityContext context;
+    private final DefaultToApiJsonSerializer<Object> toApiJsonSerializer;
+    private final Map<String, TemplateDataMapper> dataMappers = new HashMap<>();
+
+    private final MustacheFactory mustacheFactory = new DefaultMustacheFactory();
+    // compiled templates by tenant and template id, recompiled when the text or mappers change
+    private final ConcurrentMap<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TemplateMergeService(final PlatformSecurityContext context, final DefaultToApiJsonSerializer<Object> toApiJsonSerializer,
+            final List<TemplateDataMapper> dataMappers) {
+        this.context = context;
+        this.toApiJsonSerializer = toApiJsonSerializer;
+        for (final TemplateDataMapper dataMapper : dataMappers) {
+            this.dataMappers.put(dataMapper.getResource(), dataMapper);
+        }
     }
 
     public String compile(final Template template, final Map<String, Object> scopes) throws IOException {
-        this.scopes = scopes;
-        this.scopes.put("static", new TemplateFunctions());
+        return compile(template, scopes, null);
+    }
 
-        final MustacheFactory mf = new DefaultMustacheFactory();
-        final Mustache mustache = mf.compile(new StringReader(template.getText()), template.getName());
+    public String compile(final Template template, final Map<String, Object> scopes, final String authToken) throws IOException {
+        return merge(compiledTemplate(template), scopes, authToken);
+    }
 
-        final Map<String, Object> mappers = getCompiledMapFromMappers(template.getMappersAsMap());
-        this.scopes.putAll(mappers);
+    public void evict(final Long templateId) {
+        this.compiledTemplates.remove(cacheKey(templateId));
+    }
 
-        expandMapArrays(scopes);
+    private String merge(final CompiledTemplate compiledTemplate, final Map<String, Object> scopes, final String authToken) {
+        // expanded into a copy, the scopes and the fetched mapper data are never modified
+        final Map<String, Object> mergeScopes = expandMapArrays(scopes);
+        // mappers resolving to the same url are fetched once
+        final Map<String, Map<String, Object>> mapperData = new HashMap<>();
+        mergeScopes.put("static", new TemplateFunctions());
+
+        for (final Map.Entry<String, Mustache> entry : compiledTemplate.mappers.entrySet()) {
+            final StringWriter stringWriter = new StringWriter();
+            entry.getValue().execute(stringWriter, mergeScopes);
+            final Map<String, Object> data = mapperData.computeIfAbsent(resolveUrl(stringWriter.toString(), mergeScopes),
+                    url -> getMapperData(url, mergeScopes, authToken));
+            if (data != null) {
+                mergeScopes.put(entry.getKey(), data);
+            }
+        }
 
         final StringWriter stringWriter = new StringWriter();
-        mustache.execute(stringWriter, this.scopes);
+        compiledTemplate.mustache.execute(stringWriter, mergeScopes);
 
         return stringWriter.toString();
     }
 
-    private Map<String, Object> getCompiledMapFromMappers(final Map<String, String> data) {
-        final MustacheFactory mf = new DefaultMustacheFactory();
+    private CompiledTemplate compiledTemplate(final Template template) {
+        if (template.getId() == null) {
+            return new CompiledTemplate(template, this.mustacheFactory);
+        }
+        return this.compiledTemplates.compute(cacheKey(template.getId()),
+                (key, cached) -> cached != null && cached.isCompiledFrom(template) ? cached
+                        : new CompiledTemplate(template, this.mustacheFactory));
+    }
 
-        if (data != null) {
-            for (final Map.Entry<String, String> entry : data.entrySet()) {
-                final Mustache mappersMustache = mf.compile(new StringReader(entry.getValue()), "");
-                final StringWriter stringWriter = new StringWriter();
+    private static String cacheKey(final Long templateId) {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        return (tenant == null ? "" : tenant.getTenantIdentifier()) + ":" + templateId;
+    }
 
-                mappersMustache.execute(stringWriter, this.scopes);
-                String url = stringWriter.toString();
-                if (!url.startsWith("http")) {
-                    url = this.scopes.get("BASE_URI") + url;
-                }
-                try {
-                    this.scopes.put(entry.getKey(), getMapFromUrl(url));
-                } catch (final IOException e) {
-                    LOG.error("getCompiledMapFromMappers() failed", e);
-                }
+    private static String resolveUrl(final String url, final Map<String, Object> scopes) {
+        if (!url.startsWith("http")) {
+            return scopes.get("BASE_URI") + url;
+        }
+        return url;
+    }
+
+    private Map<String, Object> getMapperData(final String url, final Map<String, Object> scopes, final String authToken) {
+        try {
+            final Map<String, Object> data = getMapFromPlatform(url, scopes);
+            return expandMapArrays(data != null ? data : getMapFromUrl(url, authToken));
+        } catch (final IOException | RuntimeException e) {
+            LOG.error("getCompiledMapFromMappers() failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves urls of the form {@code BASE_URI<resource>/<id>} against the registered {@link TemplateDataMapper}s, for the
+     * authenticated user and with the same read permission check as the API. Returns null for anything else, which is
+     * then fetched over HTTP.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getMapFromPlatform(final String url, final Map<String, Object> scopes) throws IOException {
+        final Object baseUri = scopes.get("BASE_URI");
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (baseUri == null || !url.startsWith(baseUri.toString()) || authentication == null
+                || !(authentication.getPrincipal() instanceof AppUser)) {
+            return null;
+        }
+
+        String path = url.substring(baseUri.toString().length());
+        final int queryStart = path.indexOf('?');
+        if (queryStart >= 0) {
+            final String query = path.substring(queryStart + 1);
+            if (!query.isEmpty() && !query.matches("tenantIdentifier=[^&]*")) {
+                return null;
             }
+            path = path.substring(0, queryStart);
+        }
+        final String[] segments = path.split("/");
+        if (segments.length != 2 || !segments[1].matches("\\d+")) {
+            return null;
         }
-        return this.scopes;
+        final TemplateDataMapper dataMapper = this.dataMappers.get(segments[0]);
+        if (dataMapper == null) {
+            return null;
+        }
+
+        this.context.authenticatedUser().validateHasReadPermission(dataMapper.getPermission());
+        final Object data = dataMapper.retrieveOne(Long.valueOf(segments[1]));
+        return new ObjectMapper().readValue(this.toApiJsonSerializer.serialize(data), HashMap.class);
     }
 
     @SuppressWarnings("unchecked")
-    private Map<String, Object> getMapFromUrl(final String url) throws IOException {
-        final HttpURLConnection connection = getConnection(url);
+    private Map<String, Object> getMapFromUrl(final String url, final String authToken) throws IOException {
+        final HttpURLConnection connection = getConnection(url, authToken);
 
         final String response = getStringFromInputStream(connection.getInputStream());
         HashMap<String, Object> result = new HashMap<>();
@@ -113,26 +197,19 @@ public class TemplateMergeService {
         return result;
     }
 
-    private HttpURLConnection getConnection(final String url) {
-        if (this.authToken == null) {
-            final String name = SecurityContextHolder.getContext().getAuthentication().getName();
-            final String password = SecurityContextHolder.getContext().getAuthentication().getCredentials().toString();
-
-            Authenticator.setDefault(new Authenticator() {
-
-                @Override
-                protected PasswordAuthentication getPasswordAuthentication() {
-                    return new PasswordAuthentication(name, password.toCharArray());
-                }
-            });
+    private HttpURLConnection getConnection(final String url, final String authToken) {
+        String basicAuthToken = authToken;
+        if (basicAuthToken == null) {
+            // per connection rather than a default Authenticator, which is global to the JVM
+            final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            final String credentials = authentication.getName() + ":" + authentication.getCredentials();
+            basicAuthToken = Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
         }
 
         HttpURLConnection connection = null;
         try {
             connection = (HttpURLConnection) new URL(url).openConnection();
-            if (this.authToken != null) {
-                connection.setRequestProperty("Authorization", "Basic " + this.authToken);
-            }
+            connection.setRequestProperty("Authorization", "Basic " + basicAuthToken);
             TrustModifier.relaxHostChecking(connection);
 
             connection.setDoInput(true);
@@ -172,33 +249,67 @@ public class TemplateMergeService {
         return sb.toString();
     }
 
+    /**
+     * Returns a copy of the value in which every JSON array {@code key} of a map is also available as {@code key#0},
+     * {@code key#1}, ... for index access from templates.
+     */
     @SuppressWarnings("unchecked")
-    private void expandMapArrays(Object value) {
+    private static Map<String, Object> expandMapArrays(final Map<String, Object> value) {
+        return (Map<String, Object>) expandMapArrays((Object) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object expandMapArrays(final Object value) {
         if (value instanceof Map) {
-            Map<String, Object> valueAsMap = (Map<String, Object>) value;
-            // Map<String, Object> newValue = null;
-            Map<String, Object> valueAsMap_second = new HashMap<>();
+            final Map<String, Object> valueAsMap = (Map<String, Object>) value;
+            final Map<String, Object> expanded = new HashMap<>();
+            final Map<String, Object> valueAsMap_second = new HashMap<>();
             for (Map.Entry<String, Object> valueAsMapEntry : valueAsMap.entrySet()) {
                 Object valueAsMapEntryValue = valueAsMapEntry.getValue();
                 if (valueAsMapEntryValue instanceof Map) { // JSON Object
-                    expandMapArrays(valueAsMapEntryValue);
+                    valueAsMapEntryValue = expandMapArrays(valueAsMapEntryValue);
                 } else if (valueAsMapEntryValue instanceof Iterable) { // JSON
                                                                        // Array
                     Iterable<Object> valueAsMapEntryValueIterable = (Iterable<Object>) valueAsMapEntryValue;
                     String valueAsMapEntryKey = valueAsMapEntry.getKey();
+                    final List<Object> expandedItems = new ArrayList<>();
                     int i = 0;
                     for (Object object : valueAsMapEntryValueIterable) {
-                        valueAsMap_second.put(valueAsMapEntryKey + "#" + i, object);
+                        final Object expandedItem = expandMapArrays(object);
+                        valueAsMap_second.put(valueAsMapEntryKey + "#" + i, expandedItem);
+                        expandedItems.add(expandedItem);
                         ++i;
-                        expandMapArrays(object);
-
                     }
+                    valueAsMapEntryValue = expandedItems;
                 }
+                expanded.put(valueAsMapEntry.getKey(), valueAsMapEntryValue);
+            }
+            expanded.putAll(valueAsMap_second);
+            return expanded;
+        }
+        return value;
+    }
 
+    private static final class CompiledTemplate {
+
+        private final String text;
+        private final Map<String, String> mapperTexts;
+        private final Mustache mustache;
+        private final Map<String, Mustache> mappers = new LinkedHashMap<>();
+
+        CompiledTemplate(final Template template, final MustacheFactory mustacheFactory) {
+            this.text = template.getText();
+            this.mapperTexts = template.getMappersAsMap();
+            this.mustache = mustacheFactory.compile(new StringReader(this.text), template.getName());
+            if (this.mapperTexts != null) {
+                for (final Map.Entry<String, String> entry : this.mapperTexts.entrySet()) {
+                    this.mappers.put(entry.getKey(), mustacheFactory.compile(new StringReader(entry.getValue()), ""));
+                }
             }
-            valueAsMap.putAll(valueAsMap_second);
+        }
 
+        boolean isCompiledFrom(final Template template) {
+            return this.text.equals(template.getText()) && Objects.equals(this.mapperTexts, template.getMappersAsMap());
         }
     }
-
 }
@@ -38,6 +38,7 @@ import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Transient;
 import javax.persistence.UniqueConstraint;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
@@ -109,6 +110,9 @@ public class AppUser extends AbstractPersistableCustom implements PlatformUser {
     @JoinTable(name = "m_appuser_role", joinColumns = @JoinColumn(name = "appuser_id"), inverseJoinColumns = @JoinColumn(name = "role_id"))
     private Set<Role> roles;
 
+    @Transient
+    private transient volatile PermissionSet permissionSet;
+
     @Column(name = "last_time_password_updated")
     @Temporal(TemporalType.DATE)
     private Date lastTimePasswordUpdated;
@@ -225,6 +229,7 @@ public class AppUser extends AbstractPersistableCustom implements PlatformUser {
         if (!allRoles.isEmpty()) {
             this.roles.clear();
             this.roles = allRoles;
+            this.permissionSet = null;
         }
     }
 
@@ -369,6 +374,7 @@ public class AppUser extends AbstractPersistableCustom implements PlatformUser {
         this.firstTimeLoginRemaining = true;
         this.username = getId() + "_DELETED_" + this.username;
         this.roles.clear();
+        this.permissionSet = null;
     }
 
     public boolean isDeleted() {
@@ -542,14 +548,20 @@ public class AppUser extends AbstractPersistableCustom implements PlatformUser {
      * @return whether the user has the specified permission
      */
     public boolean hasSpecificPermissionTo(final String permissionCode) {
-        boolean hasPermission = false;
-        for (final Role role : this.roles) {
-            if (role.hasPermissionTo(permissionCode)) {
-                hasPermission = true;
-                break;
-            }
+        return getPermissionSet().contains(permissionCode);
+    }
+
+    /**
+     * Effective permissions of this user, compiled from its roles on first use and again after roles or permissions
+     * changed.
+     */
+    public PermissionSet getPermissionSet() {
+        PermissionSet compiled = this.permissionSet;
+        if (compiled == null || compiled.isStale()) {
+            compiled = PermissionSet.compile(this.roles);
+            this.permissionSet = compiled;
         }
-        return hasPermission;
+        return compiled;
     }
 
     public void validateHasReadPermission(final String resourceType) {
@@ -569,27 +581,7 @@ public class AppUser extends AbstractPersistableCustom implements PlatformUser {
     }
 
     private boolean hasPermissionTo(final String permissionCode) {
-        boolean hasPermission = hasAllFunctionsPermission();
-        if (!hasPermission) {
-            for (final Role role : this.roles) {
-                if (role.hasPermissionTo(permissionCode)) {
-                    hasPermission = true;
-                    break;
-                }
-            }
-        }
-        return hasPermission;
-    }
-
-    private boolean hasAllFunctionsPermission() {
-        boolean match = false;
-        for (final Role role : this.roles) {
-            if (role.hasPermissionTo("ALL_FUNCTIONS")) {
-                match = true;
-                break;
-            }
-        }
-        return match;
+        return getPermissionSet().allows(permissionCode);
     }
 
     public boolean hasIdOf(final Long userId) {
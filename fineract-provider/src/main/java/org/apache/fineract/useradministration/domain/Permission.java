@@ -19,12 +19,14 @@
 package org.apache.fineract.useradministration.domain;
 
 import java.io.Serializable;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
 import org.apache.fineract.infrastructure.core.domain.AbstractPersistableCustom;
 
 @Entity
+@Cacheable
 @Table(name = "m_permission")
 public class Permission extends AbstractPersistableCustom implements Serializable {
 
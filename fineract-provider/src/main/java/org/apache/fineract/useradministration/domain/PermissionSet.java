@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.useradministration.domain;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Effective permissions of a user compiled from all of its roles into a bitset over interned permission codes, so
+ * authorization checks are a single bit lookup instead of a scan over every role's permissions.
+ *
+ * Permission codes are matched case insensitively, like {@link Permission#hasCode(String)}. A compiled set remembers
+ * the permission version it was built for; {@link #invalidateCompiledPermissions()} makes all sets stale after roles
+ * or their permissions change.
+ */
+public final class PermissionSet {
+
+    private static final String ALL_FUNCTIONS = "ALL_FUNCTIONS";
+
+    private static final ConcurrentMap<String, Integer> CODE_INDEXES = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+    private static final AtomicLong VERSION = new AtomicLong();
+
+    private final BitSet permissions;
+    private final boolean allFunctions;
+    private final long version;
+
+    private PermissionSet(final BitSet permissions, final long version) {
+        this.permissions = permissions;
+        this.version = version;
+        this.allFunctions = contains(ALL_FUNCTIONS);
+    }
+
+    public static PermissionSet compile(final Collection<Role> roles) {
+        final long version = VERSION.get();
+        final BitSet permissions = new BitSet();
+        for (final Role role : roles) {
+            for (final Permission permission : role.getPermissions()) {
+                permissions.set(indexOf(permission.getCode()));
+            }
+        }
+        return new PermissionSet(permissions, version);
+    }
+
+    public static void invalidateCompiledPermissions() {
+        VERSION.incrementAndGet();
+    }
+
+    public boolean isStale() {
+        return this.version != VERSION.get();
+    }
+
+    /**
+     * Whether any role grants exactly this permission, not taking {@code ALL_FUNCTIONS} into account.
+     */
+    public boolean contains(final String permissionCode) {
+        // codes never granted to anybody have no index yet, and are not registered by a lookup
+        final Integer index = CODE_INDEXES.get(normalize(permissionCode));
+        return index != null && this.permissions.get(index);
+    }
+
+    /**
+     * Whether the permission is granted, either explicitly or through {@code ALL_FUNCTIONS}.
+     */
+    public boolean allows(final String permissionCode) {
+        return this.allFunctions || contains(permissionCode);
+    }
+
+    private static int indexOf(final String permissionCode) {
+        return CODE_INDEXES.computeIfAbsent(normalize(permissionCode), code -> NEXT_INDEX.getAndIncrement());
+    }
+
+    private static String normalize(final String permissionCode) {
+        return permissionCode.toUpperCase(Locale.ROOT);
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.fineract.notification.service.TopicDomainService;
 import org.apache.fineract.useradministration.command.PermissionsCommand;
 import org.apache.fineract.useradministration.domain.Permission;
 import org.apache.fineract.useradministration.domain.PermissionRepository;
+import org.apache.fineract.useradministration.domain.PermissionSet;
 import org.apache.fineract.useradministration.domain.Role;
 import org.apache.fineract.useradministration.domain.RoleRepository;
 import org.apache.fineract.useradministration.exception.PermissionNotFoundException;
@@ -47,6 +48,8 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.orm.jpa.JpaSystemException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class RoleWritePlatformServiceJpaRepositoryImpl implements RoleWritePlatformService {
@@ -188,6 +191,7 @@ public class RoleWritePlatformServiceJpaRepositoryImpl implements RoleWritePlatf
         if (!changedPermissions.isEmpty()) {
             changes.put("permissions", changedPermissions);
             this.roleRepository.save(role);
+            invalidateCompiledPermissions();
         }
 
         return new CommandProcessingResultBuilder() //
@@ -197,6 +201,23 @@ public class RoleWritePlatformServiceJpaRepositoryImpl implements RoleWritePlatf
                 .build();
     }
 
+    /**
+     * Makes compiled user permissions stale now and once more after the transaction completes, so a set compiled from
+     * the roles while this change was still uncommitted is not kept.
+     */
+    private void invalidateCompiledPermissions() {
+        PermissionSet.invalidateCompiledPermissions();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(final int status) {
+                    PermissionSet.invalidateCompiledPermissions();
+                }
+            });
+        }
+    }
+
     private Permission findPermissionByCode(final Collection<Permission> allPermissions, final String permissionCode) {
 
         if (allPermissions != null) {
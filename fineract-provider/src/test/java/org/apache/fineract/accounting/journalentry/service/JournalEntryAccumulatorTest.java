@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.journalentry.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntry;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntryRepository;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntryType;
+import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class JournalEntryAccumulatorTest {
+
+    private JournalEntryRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        this.repository = mock(JournalEntryRepository.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void savesLegsWithoutFlushingAndCommitsABalancedTransaction() {
+        final JournalEntryAccumulator accumulator = new JournalEntryAccumulator(this.repository, true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        accumulator.add(leg("L1", JournalEntryType.DEBIT, "10.00"));
+        accumulator.add(leg("L1", JournalEntryType.CREDIT, "7.50"));
+        accumulator.add(leg("L1", JournalEntryType.CREDIT, "2.50"));
+        beforeCommit();
+
+        verify(this.repository, times(3)).save(any(JournalEntry.class));
+        verify(this.repository, never()).saveAndFlush(any(JournalEntry.class));
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    @Test
+    public void rejectsAnUnbalancedTransactionBeforeCommit() {
+        final JournalEntryAccumulator accumulator = new JournalEntryAccumulator(this.repository, true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        accumulator.add(leg("L1", JournalEntryType.DEBIT, "10.00"));
+        accumulator.add(leg("L1", JournalEntryType.CREDIT, "10.00"));
+        accumulator.add(leg("L2", JournalEntryType.DEBIT, "5.00"));
+        accumulator.add(leg("L2", JournalEntryType.CREDIT, "4.99"));
+
+        assertThrows(JournalEntryInvalidException.class, this::beforeCommit);
+    }
+
+    @Test
+    public void balancesEachCurrencyOnItsOwn() {
+        final JournalEntryAccumulator accumulator = new JournalEntryAccumulator(this.repository, true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        accumulator.add(leg("L1", "USD", JournalEntryType.DEBIT, "10.00"));
+        accumulator.add(leg("L1", "EUR", JournalEntryType.CREDIT, "10.00"));
+
+        assertThrows(JournalEntryInvalidException.class, this::beforeCommit);
+    }
+
+    @Test
+    public void onlyLogsAnUnbalancedTransactionWhenNotEnforced() {
+        final JournalEntryAccumulator accumulator = new JournalEntryAccumulator(this.repository, false);
+        TransactionSynchronizationManager.initSynchronization();
+
+        accumulator.add(leg("L1", JournalEntryType.DEBIT, "10.00"));
+        accumulator.add(leg("L1", JournalEntryType.CREDIT, "9.99"));
+
+        beforeCommit();
+    }
+
+    @Test
+    public void balancesANestedTransactionOnItsOwnCommit() {
+        final JournalEntryAccumulator accumulator = new JournalEntryAccumulator(this.repository, true);
+        TransactionSynchronizationManager.initSynchronization();
+        accumulator.add(leg("L1", JournalEntryType.DEBIT, "10.00"));
+
+        // REQUIRES_NEW suspends the outer synchronizations and starts with none
+        final List<TransactionSynchronization> outer = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        accumulator.add(leg("L2", JournalEntryType.DEBIT, "3.00"));
+        accumulator.add(leg("L2", JournalEntryType.CREDIT, "3.00"));
+        beforeCommit();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        outer.forEach(TransactionSynchronizationManager::registerSynchronization);
+        accumulator.add(leg("L1", JournalEntryType.CREDIT, "10.00"));
+        beforeCommit();
+    }
+
+    @Test
+    public void flushesEachLegOutsideOfATransaction() {
+        final JournalEntryAccumulator accumulator = new JournalEntryAccumulator(this.repository, true);
+
+        final JournalEntry leg = leg("L1", JournalEntryType.DEBIT, "10.00");
+        accumulator.add(leg);
+        accumulator.update(leg);
+
+        verify(this.repository, times(2)).saveAndFlush(leg);
+        verify(this.repository, never()).save(any(JournalEntry.class));
+    }
+
+    private void beforeCommit() {
+        for (final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+        }
+    }
+
+    private static JournalEntry leg(final String transactionId, final JournalEntryType type, final String amount) {
+        return leg(transactionId, "USD", type, amount);
+    }
+
+    private static JournalEntry leg(final String transactionId, final String currencyCode, final JournalEntryType type,
+            final String amount) {
+        return JournalEntry.createNew(null, null, null, currencyCode, transactionId, false, new Date(), type, new BigDecimal(amount),
+                null, null, null, null, null, null, null, null);
+    }
+}
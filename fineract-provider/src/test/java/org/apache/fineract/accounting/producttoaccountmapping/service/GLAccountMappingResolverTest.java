@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.producttoaccountmapping.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.accounting.financialactivityaccount.exception.FinancialActivityAccountNotFoundException;
+import org.apache.fineract.accounting.glaccount.domain.GLAccount;
+import org.apache.fineract.accounting.glaccount.domain.GLAccountRepository;
+import org.apache.fineract.accounting.producttoaccountmapping.domain.PortfolioProductType;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class GLAccountMappingResolverTest {
+
+    private static final String PRODUCT_MAPPINGS = "select product_type";
+    private static final String ACTIVITY_MAPPINGS = "select financial_activity_type";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final GLAccountRepository glAccountRepository = mock(GLAccountRepository.class);
+    private final List<Map<String, Object>> productMappings = new ArrayList<>();
+    private final List<Map<String, Object>> activityMappings = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        when(this.jdbcTemplate.queryForList(startsWith(PRODUCT_MAPPINGS))).thenAnswer(invocation -> new ArrayList<>(this.productMappings));
+        when(this.jdbcTemplate.queryForList(startsWith(ACTIVITY_MAPPINGS)))
+                .thenAnswer(invocation -> new ArrayList<>(this.activityMappings));
+        when(this.glAccountRepository.getById(anyLong())).thenAnswer(invocation -> account(invocation.getArgument(0)));
+
+        this.productMappings.add(productMapping(1, 5L, 2, null, null, 100L));
+        this.productMappings.add(productMapping(1, 5L, 2, 3L, null, 101L));
+        this.productMappings.add(productMapping(1, 5L, 7, null, 9L, 102L));
+        this.productMappings.add(productMapping(2, 5L, 2, null, null, 200L));
+        this.activityMappings.add(activityMapping(100, 300L));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void resolvesProductPaymentTypeChargeAndActivityAccounts() {
+        final GLAccountMappingResolver resolver = resolver(300);
+
+        assertEquals(100L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+        assertEquals(101L, resolver.findPaymentTypeAccount(PortfolioProductType.LOAN, 5L, 2, 3L).getId());
+        assertEquals(102L, resolver.findChargeAccount(PortfolioProductType.LOAN, 5L, 7, 9L).getId());
+        assertEquals(200L, resolver.findProductAccount(PortfolioProductType.SAVING, 5L, 2).getId());
+        assertEquals(300L, resolver.findFinancialActivityAccount(100).getId());
+
+        // unmapped combinations are not resolved to a neighbouring mapping
+        assertNull(resolver.findProductAccount(PortfolioProductType.LOAN, 6L, 2));
+        assertNull(resolver.findPaymentTypeAccount(PortfolioProductType.LOAN, 5L, 2, 4L));
+        assertNull(resolver.findChargeAccount(PortfolioProductType.LOAN, 5L, 2, 9L));
+        assertThrows(FinancialActivityAccountNotFoundException.class, () -> resolver.findFinancialActivityAccount(200));
+
+        // a single snapshot serves all lookups
+        verify(this.jdbcTemplate, times(1)).queryForList(startsWith(PRODUCT_MAPPINGS));
+        verify(this.jdbcTemplate, times(1)).queryForList(startsWith(ACTIVITY_MAPPINGS));
+    }
+
+    @Test
+    public void reloadsTheMappingsAfterAnInvalidation() {
+        final GLAccountMappingResolver resolver = resolver(300);
+        assertEquals(100L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+
+        this.productMappings.set(0, productMapping(1, 5L, 2, null, null, 110L));
+        assertEquals(100L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+        resolver.invalidate();
+
+        assertEquals(110L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+        verify(this.jdbcTemplate, times(2)).queryForList(startsWith(PRODUCT_MAPPINGS));
+    }
+
+    @Test
+    public void invalidatesAgainWhenTheChangingTransactionCompletes() {
+        final GLAccountMappingResolver resolver = resolver(300);
+        TransactionSynchronizationManager.initSynchronization();
+
+        resolver.invalidate();
+        // a lookup between the change and its commit still sees the old mapping
+        assertEquals(100L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+        this.productMappings.set(0, productMapping(1, 5L, 2, null, null, 110L));
+
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(110L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+    }
+
+    @Test
+    public void reloadsTheMappingsOnceTheyExpire() {
+        final GLAccountMappingResolver resolver = resolver(0);
+        assertEquals(100L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+
+        this.productMappings.set(0, productMapping(1, 5L, 2, null, null, 110L));
+
+        assertEquals(110L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+    }
+
+    @Test
+    public void keepsASnapshotPerTenant() {
+        final GLAccountMappingResolver resolver = resolver(300);
+        assertEquals(100L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+
+        this.productMappings.set(0, productMapping(1, 5L, 2, null, null, 110L));
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(2L, "other", "Other", "Asia/Kolkata", null));
+        assertEquals(110L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+        resolver.invalidate();
+
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        assertEquals(100L, resolver.findProductAccount(PortfolioProductType.LOAN, 5L, 2).getId());
+    }
+
+    @Test
+    public void handsOutReferencesOfTheRepository() {
+        final GLAccount account = mock(GLAccount.class);
+        doReturn(account).when(this.glAccountRepository).getById(100L);
+
+        assertSame(account, resolver(300).findProductAccount(PortfolioProductType.LOAN, 5L, 2));
+    }
+
+    private GLAccountMappingResolver resolver(long timeToLiveSeconds) {
+        final GLAccountMappingResolver resolver = new GLAccountMappingResolver(mock(RoutingDataSource.class), this.glAccountRepository,
+                timeToLiveSeconds);
+        ReflectionTestUtils.setField(resolver, "jdbcTemplate", this.jdbcTemplate);
+        return resolver;
+    }
+
+    private static GLAccount account(Long id) {
+        final GLAccount account = mock(GLAccount.class);
+        when(account.getId()).thenReturn(id);
+        return account;
+    }
+
+    private static Map<String, Object> productMapping(Integer productType, Long productId, Integer financialAccountType,
+            Long paymentTypeId, Long chargeId, Long glAccountId) {
+        final Map<String, Object> row = new HashMap<>();
+        row.put("product_type", productType);
+        row.put("product_id", productId);
+        row.put("financial_account_type", financialAccountType);
+        row.put("payment_type", paymentTypeId);
+        row.put("charge_id", chargeId);
+        row.put("gl_account_id", glAccountId);
+        return row;
+    }
+
+    private static Map<String, Object> activityMapping(Integer financialActivityType, Long glAccountId) {
+        final Map<String, Object> row = new HashMap<>();
+        row.put("financial_activity_type", financialActivityType);
+        row.put("gl_account_id", glAccountId);
+        return row;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.producttoaccountmapping.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.gson.JsonParser;
+import org.apache.fineract.accounting.common.AccountingRuleType;
+import org.apache.fineract.infrastructure.core.api.JsonCommand;
+import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
+import org.apache.fineract.portfolio.savings.DepositAccountType;
+import org.junit.jupiter.api.Test;
+
+public class ProductToGLAccountMappingWritePlatformServiceImplTest {
+
+    private final GLAccountMappingResolver glAccountMappingResolver = mock(GLAccountMappingResolver.class);
+    private final ProductToGLAccountMappingWritePlatformServiceImpl service = new ProductToGLAccountMappingWritePlatformServiceImpl(
+            new FromJsonHelper(), null, mock(LoanProductToGLAccountMappingHelper.class), mock(SavingsProductToGLAccountMappingHelper.class),
+            mock(ShareProductToGLAccountMappingHelper.class), this.glAccountMappingResolver);
+
+    @Test
+    public void invalidatesTheResolvedMappingsOnCreate() {
+        this.service.createLoanProductToGLAccountMapping(1L, command());
+        this.service.createSavingProductToGLAccountMapping(1L, command(), DepositAccountType.SAVINGS_DEPOSIT);
+
+        verify(this.glAccountMappingResolver, times(2)).invalidate();
+    }
+
+    @Test
+    public void invalidatesTheResolvedMappingsOnUpdate() {
+        final int none = AccountingRuleType.NONE.getValue();
+        this.service.updateLoanProductToGLAccountMapping(1L, command(), false, none);
+        this.service.updateSavingsProductToGLAccountMapping(1L, command(), false, none, DepositAccountType.SAVINGS_DEPOSIT);
+        this.service.updateShareProductToGLAccountMapping(1L, command(), false, none);
+
+        verify(this.glAccountMappingResolver, times(3)).invalidate();
+    }
+
+    private static JsonCommand command() {
+        final String json = "{\"accountingRule\": 1}";
+        return JsonCommand.from(json, JsonParser.parseString(json), new FromJsonHelper(), null, null, null, null, null, null, null, null,
+                null, null, null, null);
+    }
+}
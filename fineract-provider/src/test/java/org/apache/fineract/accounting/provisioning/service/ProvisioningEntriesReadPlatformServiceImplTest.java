@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.provisioning.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.accounting.provisioning.data.LoanProductProvisioningEntryData;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenantConnection;
+import org.apache.fineract.infrastructure.core.service.PaginationHelper;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ProvisioningEntriesReadPlatformServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        this.jdbcTemplate = mock(JdbcTemplate.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void splitsIdsIntoConsecutiveRanges() {
+        assertRanges(ProvisioningEntriesReadPlatformServiceImpl.splitIdRange(1, 10, 4), new long[] { 1, 3 }, new long[] { 4, 6 },
+                new long[] { 7, 9 }, new long[] { 10, 10 });
+        assertRanges(ProvisioningEntriesReadPlatformServiceImpl.splitIdRange(5, 6, 4), new long[] { 5, 5 }, new long[] { 6, 6 });
+        assertRanges(ProvisioningEntriesReadPlatformServiceImpl.splitIdRange(7, 7, 4), new long[] { 7, 7 });
+
+        for (long maxId = 100; maxId < 140; maxId++) {
+            for (int count = 1; count <= 8; count++) {
+                final List<long[]> ranges = ProvisioningEntriesReadPlatformServiceImpl.splitIdRange(100, maxId, count);
+                assertTrue(ranges.size() <= count);
+                long next = 100;
+                for (final long[] range : ranges) {
+                    assertEquals(next, range[0]);
+                    assertTrue(range[0] <= range[1]);
+                    next = range[1] + 1;
+                }
+                assertEquals(maxId + 1, next);
+            }
+        }
+    }
+
+    @Test
+    public void boundsTheWorkersByTheTenantPool() {
+        assertEquals(4, ProvisioningEntriesReadPlatformServiceImpl.workerCount(4, null));
+        assertEquals(4, ProvisioningEntriesReadPlatformServiceImpl.workerCount(4, tenant(40)));
+        // the caller holds one of the five connections, half of the rest is left to the other requests
+        assertEquals(2, ProvisioningEntriesReadPlatformServiceImpl.workerCount(4, tenant(5)));
+        assertEquals(1, ProvisioningEntriesReadPlatformServiceImpl.workerCount(4, tenant(2)));
+        assertEquals(1, ProvisioningEntriesReadPlatformServiceImpl.workerCount(4, tenant(1)));
+    }
+
+    @Test
+    public void mergesPartialSumsOfTheSameGroup() {
+        final Collection<LoanProductProvisioningEntryData> merged = ProvisioningEntriesReadPlatformServiceImpl
+                .merge(Arrays.asList(Arrays.asList(entry(1L, 30L, "100"), entry(2L, 30L, "50")),
+                        Arrays.asList(entry(1L, 30L, "25.5"), entry(1L, 60L, "10")), Collections.emptyList()));
+
+        assertEquals(3, merged.size());
+        final Map<List<Long>, BigDecimal> balances = new HashMap<>();
+        for (final LoanProductProvisioningEntryData data : merged) {
+            balances.put(Arrays.asList(data.getOfficeId(), data.getOverdueInDays()), data.getOutstandingBalance());
+        }
+        assertEquals(new BigDecimal("125.5"), balances.get(Arrays.asList(1L, 30L)));
+        assertEquals(new BigDecimal("50"), balances.get(Arrays.asList(2L, 30L)));
+        assertEquals(new BigDecimal("10"), balances.get(Arrays.asList(1L, 60L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void aggregatesOnTheCallersConnectionWhenThePoolIsSmall() {
+        ThreadLocalContextUtil.setTenant(tenant(3));
+        givenActiveLoans(1L, 100L);
+        final List<LoanProductProvisioningEntryData> aggregated = Collections.singletonList(entry(1L, 30L, "100"));
+        when(this.jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(aggregated);
+
+        final Collection<LoanProductProvisioningEntryData> result = service(4).retrieveLoanProductsProvisioningData(new Date());
+
+        assertEquals(aggregated, result);
+        verify(this.jdbcTemplate).query(anyString(), any(RowMapper.class), any(), eq(1L), eq(100L), any(), any(), eq(1L), eq(100L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void aggregatesIdRangesInParallelAndMergesThem() {
+        ThreadLocalContextUtil.setTenant(tenant(20));
+        givenActiveLoans(1L, 100L);
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        when(this.jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread());
+            // the tenant is passed on to the workers
+            assertEquals("default", ThreadLocalContextUtil.getTenant().getTenantIdentifier());
+            final long from = invocation.getArgument(3);
+            return Arrays.asList(entry(1L, 30L, "10"), entry(from, 30L, "1"));
+        });
+
+        final Collection<LoanProductProvisioningEntryData> result = service(2).retrieveLoanProductsProvisioningData(new Date());
+
+        verify(this.jdbcTemplate).query(anyString(), any(RowMapper.class), any(), eq(1L), eq(50L), any(), any(), eq(1L), eq(50L));
+        verify(this.jdbcTemplate).query(anyString(), any(RowMapper.class), any(), eq(51L), eq(100L), any(), any(), eq(51L), eq(100L));
+        verify(this.jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), any(Object[].class));
+        assertTrue(threads.stream().noneMatch(thread -> thread == Thread.currentThread()));
+        // office 1 is in both ranges, office 51 only in the second one
+        assertEquals(2, result.size());
+        final Map<Long, BigDecimal> balances = new HashMap<>();
+        result.forEach(data -> balances.put(data.getOfficeId(), data.getOutstandingBalance()));
+        assertEquals(new BigDecimal("21"), balances.get(1L));
+        assertEquals(new BigDecimal("1"), balances.get(51L));
+    }
+
+    private ProvisioningEntriesReadPlatformServiceImpl service(int threads) {
+        final ProvisioningEntriesReadPlatformServiceImpl service = new ProvisioningEntriesReadPlatformServiceImpl(
+                mock(RoutingDataSource.class), mock(DatabaseSpecificSQLGenerator.class), mock(PaginationHelper.class), threads);
+        ReflectionTestUtils.setField(service, "jdbcTemplate", this.jdbcTemplate);
+        return service;
+    }
+
+    private void givenActiveLoans(Long minId, Long maxId) {
+        final Map<String, Object> loanIds = new HashMap<>();
+        loanIds.put("minid", minId);
+        loanIds.put("maxid", maxId);
+        when(this.jdbcTemplate.queryForMap(anyString())).thenReturn(loanIds);
+    }
+
+    private static FineractPlatformTenant tenant(int maxActive) {
+        final FineractPlatformTenantConnection connection = mock(FineractPlatformTenantConnection.class);
+        when(connection.getMaxActive()).thenReturn(maxActive);
+        return new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", connection);
+    }
+
+    private static LoanProductProvisioningEntryData entry(Long officeId, Long overdueInDays, String balance) {
+        return new LoanProductProvisioningEntryData(null, officeId, "USD", 1L, 1L, overdueInDays, new BigDecimal("5"),
+                new BigDecimal(balance), 10L, 11L, 1L);
+    }
+
+    private static void assertRanges(List<long[]> ranges, long[]... expected) {
+        assertEquals(expected.length, ranges.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], ranges.get(i));
+        }
+    }
+}
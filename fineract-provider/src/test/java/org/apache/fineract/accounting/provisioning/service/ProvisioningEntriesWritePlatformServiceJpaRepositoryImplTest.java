@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.provisioning.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.fineract.accounting.glaccount.domain.GLAccount;
+import org.apache.fineract.accounting.glaccount.domain.GLAccountRepository;
+import org.apache.fineract.accounting.journalentry.service.JournalEntryWritePlatformService;
+import org.apache.fineract.accounting.provisioning.data.LoanProductProvisioningEntryData;
+import org.apache.fineract.accounting.provisioning.domain.ProvisioningEntryRepository;
+import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.apache.fineract.organisation.office.domain.Office;
+import org.apache.fineract.organisation.office.domain.OfficeRepositoryWrapper;
+import org.apache.fineract.organisation.provisioning.domain.ProvisioningCategory;
+import org.apache.fineract.organisation.provisioning.domain.ProvisioningCategoryRepository;
+import org.apache.fineract.organisation.provisioning.service.ProvisioningCriteriaReadPlatformService;
+import org.apache.fineract.portfolio.loanproduct.domain.LoanProduct;
+import org.apache.fineract.portfolio.loanproduct.domain.LoanProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ProvisioningEntriesWritePlatformServiceJpaRepositoryImplTest {
+
+    private final ProvisioningEntriesReadPlatformService readService = mock(ProvisioningEntriesReadPlatformService.class);
+    private final LoanProductRepository loanProductRepository = mock(LoanProductRepository.class);
+    private final GLAccountRepository glAccountRepository = mock(GLAccountRepository.class);
+    private final OfficeRepositoryWrapper officeRepositoryWrapper = mock(OfficeRepositoryWrapper.class);
+    private final ProvisioningCategoryRepository provisioningCategoryRepository = mock(ProvisioningCategoryRepository.class);
+    private final PlatformSecurityContext platformSecurityContext = mock(PlatformSecurityContext.class);
+    private final ProvisioningEntryRepository provisioningEntryRepository = mock(ProvisioningEntryRepository.class);
+    private final JournalEntryWritePlatformService journalEntryWritePlatformService = mock(JournalEntryWritePlatformService.class);
+    private ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(MoneyHelper.class, "roundingMode", RoundingMode.HALF_EVEN);
+        this.service = new ProvisioningEntriesWritePlatformServiceJpaRepositoryImpl(this.readService,
+                mock(ProvisioningCriteriaReadPlatformService.class), this.loanProductRepository, this.glAccountRepository,
+                this.officeRepositoryWrapper, this.provisioningCategoryRepository, this.platformSecurityContext,
+                this.provisioningEntryRepository, this.journalEntryWritePlatformService, null, null);
+
+        final LoanProduct loanProduct = mock(LoanProduct.class);
+        when(loanProduct.getId()).thenReturn(1L);
+        when(loanProduct.getPrincipalAmount()).thenReturn(Money.zero(new MonetaryCurrency("USD", 2, null)));
+        when(this.loanProductRepository.findById(1L)).thenReturn(Optional.of(loanProduct));
+        final ProvisioningCategory category = mock(ProvisioningCategory.class);
+        when(category.getId()).thenReturn(1L);
+        when(this.provisioningCategoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        for (long id = 1; id <= 2; id++) {
+            final Office office = mock(Office.class);
+            when(office.getId()).thenReturn(id);
+            when(this.officeRepositoryWrapper.findOneWithNotFoundDetection(id)).thenReturn(office);
+        }
+        for (long id = 10; id <= 11; id++) {
+            final GLAccount account = mock(GLAccount.class);
+            when(account.getId()).thenReturn(id);
+            when(this.glAccountRepository.findById(id)).thenReturn(Optional.of(account));
+        }
+    }
+
+    @Test
+    public void previewsTheEntriesWithoutPersistingThem() {
+        final Date date = new Date();
+        when(this.readService.retrieveLoanProductsProvisioningData(date)).thenReturn(Arrays.asList(entry(1L, "1000", "5"),
+                entry(1L, "200", "10"), entry(2L, "300", "5")));
+
+        final Collection<LoanProductProvisioningEntryData> preview = this.service.previewProvisioningEntries(date);
+
+        // the two entries of office 1 only differ in the percentage, so their reserved amounts add up
+        assertEquals(2, preview.size());
+        final Map<Long, BigDecimal> reserved = new HashMap<>();
+        for (final LoanProductProvisioningEntryData data : preview) {
+            assertNull(data.getHistoryId());
+            reserved.put(data.getOfficeId(), (BigDecimal) ReflectionTestUtils.getField(data, "amountreserved"));
+        }
+        assertEquals(0, new BigDecimal("70").compareTo(reserved.get(1L)));
+        assertEquals(0, new BigDecimal("15").compareTo(reserved.get(2L)));
+
+        // the referenced entities are looked up once each
+        verify(this.loanProductRepository, times(1)).findById(any());
+        verify(this.glAccountRepository, times(2)).findById(any());
+        verifyNoInteractions(this.provisioningEntryRepository, this.journalEntryWritePlatformService, this.platformSecurityContext);
+    }
+
+    private static LoanProductProvisioningEntryData entry(Long officeId, String balance, String percentage) {
+        return new LoanProductProvisioningEntryData(null, officeId, "USD", 1L, 1L, 30L, new BigDecimal(percentage),
+                new BigDecimal(balance), 10L, 11L, 1L);
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.cache.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TenantCacheEvictorTest {
+
+    private static final FineractPlatformTenant DEFAULT = new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null);
+    private static final FineractPlatformTenant OTHER = new FineractPlatformTenant(2L, "other", "Other", "Asia/Kolkata", null);
+
+    private final TenantCacheEvictor evictor = new TenantCacheEvictor();
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(DEFAULT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void movesTheKeysOfTheTenantOnEviction() {
+        final String before = this.evictor.keyPrefix("loanProducts");
+
+        this.evictor.evictTenant("loanProducts");
+
+        final String after = this.evictor.keyPrefix("loanProducts");
+        assertNotEquals(before, after);
+        assertEquals(after, this.evictor.keyPrefix("loanProducts"));
+    }
+
+    @Test
+    public void keepsTheKeysOfOtherTenantsAndCaches() {
+        final String savingsProducts = this.evictor.keyPrefix("savingsProducts");
+        ThreadLocalContextUtil.setTenant(OTHER);
+        final String otherLoanProducts = this.evictor.keyPrefix("loanProducts");
+        ThreadLocalContextUtil.setTenant(DEFAULT);
+
+        this.evictor.evictTenant("loanProducts");
+
+        assertEquals(savingsProducts, this.evictor.keyPrefix("savingsProducts"));
+        ThreadLocalContextUtil.setTenant(OTHER);
+        assertEquals(otherLoanProducts, this.evictor.keyPrefix("loanProducts"));
+    }
+
+    @Test
+    public void evictsAgainOnceTheTransactionCompleted() {
+        TransactionSynchronizationManager.initSynchronization();
+        this.evictor.evictTenant("shareProducts");
+        // cached by a concurrent request from the state before the commit
+        final String duringTransaction = this.evictor.keyPrefix("shareProducts");
+
+        for (final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        assertNotEquals(duringTransaction, this.evictor.keyPrefix("shareProducts"));
+    }
+
+    @Test
+    public void servesTheCachedProductUntilTheTenantIsEvicted() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(CachingConfig.class)) {
+            final ProductLookup lookup = context.getBean(ProductLookup.class);
+            final TenantCacheEvictor tenantCacheEvictor = context.getBean(TenantCacheEvictor.class);
+
+            lookup.retrieveOne(1L, false);
+            lookup.retrieveOne(1L, false);
+            assertEquals(1, lookup.reads());
+
+            // the template variant embeds options that change with other definitions, it is never cached
+            lookup.retrieveOne(1L, true);
+            lookup.retrieveOne(1L, true);
+            assertEquals(3, lookup.reads());
+
+            ThreadLocalContextUtil.setTenant(OTHER);
+            lookup.retrieveOne(1L, false);
+            assertEquals(4, lookup.reads());
+
+            ThreadLocalContextUtil.setTenant(DEFAULT);
+            tenantCacheEvictor.evictTenant("shareProducts");
+            lookup.retrieveOne(1L, false);
+            assertEquals(5, lookup.reads());
+            ThreadLocalContextUtil.setTenant(OTHER);
+            lookup.retrieveOne(1L, false);
+            assertEquals(5, lookup.reads());
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("shareProducts");
+        }
+
+        @Bean
+        public TenantCacheEvictor tenantCacheEvictor() {
+            return new TenantCacheEvictor();
+        }
+
+        @Bean
+        public ProductLookup productLookup() {
+            return new ProductLookup();
+        }
+    }
+
+    /**
+     * Cached like {@link org.apache.fineract.portfolio.shareproducts.service.ShareProductReadPlatformServiceImpl}.
+     */
+    static class ProductLookup {
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        @Cacheable(value = "shareProducts", key = "@tenantCacheEvictor.keyPrefix('shareProducts').concat(#productId+'shp')", condition = "!#includeTemplate")
+        public String retrieveOne(final Long productId, final boolean includeTemplate) {
+            this.reads.incrementAndGet();
+            return "product " + productId;
+        }
+
+        public int reads() {
+            return this.reads.get();
+        }
+    }
+}
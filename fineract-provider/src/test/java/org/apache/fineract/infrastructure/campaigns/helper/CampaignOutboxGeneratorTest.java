@@ -0,0 +1,321 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.campaigns.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.github.mustachejava.Mustache;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.dataqueries.data.GenericResultsetData;
+import org.apache.fineract.infrastructure.dataqueries.data.ResultsetRowData;
+import org.apache.fineract.infrastructure.dataqueries.service.GenericDataService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class CampaignOutboxGeneratorTest {
+
+    private static final Long CAMPAIGN_ID = 7L;
+    private static final String RUN_ID = "schedule-2022-03-01T10:00";
+    private static final String AUDIENCE_SQL = "select c.id, c.display_name as name from m_client c";
+    private static final String INSERT_SQL = "insert into outbox (client_id, message) values (?, ?)";
+
+    private final Mustache template = new DefaultMustacheFactory().compile(new StringReader("Hello {{name}}"), "test");
+
+    private RoutingDataSource dataSource;
+    private Connection connection;
+    private Connection readConnection;
+    private PreparedStatement findCheckpoint;
+    private PreparedStatement audienceQuery;
+    private PreparedStatement insert;
+    private PreparedStatement updateCheckpoint;
+    private PreparedStatement deleteCheckpoint;
+    private final List<String> audienceSqls = new ArrayList<>();
+    private final RecordingWriter writer = new RecordingWriter();
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        this.dataSource = mock(RoutingDataSource.class);
+        this.connection = mock(Connection.class);
+        this.readConnection = mock(Connection.class);
+        when(this.dataSource.getConnection()).thenReturn(this.connection, this.readConnection);
+
+        this.findCheckpoint = mock(PreparedStatement.class);
+        this.audienceQuery = mock(PreparedStatement.class);
+        this.insert = mock(PreparedStatement.class);
+        this.updateCheckpoint = mock(PreparedStatement.class);
+        this.deleteCheckpoint = mock(PreparedStatement.class);
+        when(this.updateCheckpoint.executeUpdate()).thenReturn(1);
+        noCheckpoint();
+        when(this.connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            final String sql = invocation.getArgument(0);
+            if (sql.startsWith("select run_id")) {
+                return this.findCheckpoint;
+            } else if (sql.equals(INSERT_SQL)) {
+                return this.insert;
+            } else if (sql.startsWith("update m_campaign_outbox_checkpoint")) {
+                return this.updateCheckpoint;
+            } else if (sql.startsWith("delete from m_campaign_outbox_checkpoint")) {
+                return this.deleteCheckpoint;
+            }
+            throw new IllegalArgumentException(sql);
+        });
+        when(this.readConnection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenAnswer(invocation -> {
+                    this.audienceSqls.add(invocation.getArgument(0));
+                    return this.audienceQuery;
+                });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void streamsTheAudienceInBatchesCommittedWithTheirCheckpoint() throws Exception {
+        this.writer.unreachable.add(2L);
+        audience(row(1, "Ann"), row(2, "Bob"), row(3, "Cid"));
+
+        final long messageCount = generator(2).generate(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer);
+
+        assertEquals(2, messageCount);
+        assertEquals(Arrays.asList(1L, 3L), this.writer.recipientIds);
+        assertEquals(Arrays.asList("Hello Ann", "Hello Cid"), this.writer.messages);
+        assertEquals(Arrays.asList("select y.* from (" + AUDIENCE_SQL + ") y order by y.id"), this.audienceSqls);
+        verify(this.audienceQuery).setFetchSize(2);
+        verify(this.audienceQuery, times(1)).executeQuery();
+        verify(this.insert, times(2)).executeBatch();
+        verify(this.updateCheckpoint).setLong(2, 2L);
+        verify(this.updateCheckpoint).setLong(2, 3L);
+        verify(this.updateCheckpoint, times(2)).setString(1, RUN_ID);
+        verify(this.deleteCheckpoint).executeUpdate();
+        verify(this.connection, times(3)).commit();
+        verify(this.readConnection).setAutoCommit(false);
+        verify(this.readConnection, never()).commit();
+        verify(this.readConnection).close();
+    }
+
+    @Test
+    public void keepsTheRowsOfOneRecipientInTheSameBatch() throws Exception {
+        audience(row(1, "Ann"), row(1, "Ann"), row(1, "Ann"), row(2, "Bob"));
+
+        final long messageCount = generator(2).generate(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer);
+
+        assertEquals(4, messageCount);
+        assertEquals(Arrays.asList(1L, 1L, 1L, 2L), this.writer.recipientIds);
+        verify(this.insert, times(2)).executeBatch();
+        verify(this.updateCheckpoint).setLong(2, 1L);
+        verify(this.updateCheckpoint).setLong(2, 2L);
+    }
+
+    @Test
+    public void resumesAfterTheCheckpointOfTheSameRun() throws Exception {
+        checkpoint(RUN_ID, 5L, 7L);
+        audience(row(6, "Dee"));
+
+        final long messageCount = generator(2).generate(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer);
+
+        assertEquals(8, messageCount);
+        assertEquals(Arrays.asList(6L), this.writer.recipientIds);
+        assertEquals(Arrays.asList("select y.* from (" + AUDIENCE_SQL + ") y where y.id > ? order by y.id"), this.audienceSqls);
+        verify(this.audienceQuery).setLong(1, 5L);
+        verify(this.updateCheckpoint).setLong(3, 8L);
+    }
+
+    @Test
+    public void discardsTheCheckpointOfAnotherRun() throws Exception {
+        checkpoint("schedule-2022-02-01T10:00", 5L, 7L);
+        audience(row(1, "Ann"));
+
+        final long messageCount = generator(2).generate(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer);
+
+        assertEquals(1, messageCount);
+        verify(this.audienceQuery, never()).setLong(anyInt(), anyLong());
+        verify(this.updateCheckpoint).setString(1, RUN_ID);
+    }
+
+    @Test
+    public void rollsBackTheBatchThatFailed() throws Exception {
+        audience(row(1, "Ann"));
+        when(this.insert.executeBatch()).thenThrow(new SQLException("deadlock"));
+
+        assertThrows(UncategorizedSQLException.class,
+                () -> generator(2).generate(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer));
+
+        verify(this.connection).rollback();
+        verify(this.connection, never()).commit();
+        verify(this.connection).close();
+        verify(this.readConnection).close();
+    }
+
+    @Test
+    public void generatesOnlyOnceTheTransactionCommitted() throws Exception {
+        audience(row(1, "Ann"));
+        TransactionSynchronizationManager.initSynchronization();
+
+        generator(2).generateAfterCommit(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer);
+
+        verify(this.dataSource, never()).getConnection();
+        final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).afterCommit();
+        assertEquals(Arrays.asList(1L), this.writer.recipientIds);
+    }
+
+    @Test
+    public void generatesNothingWhenTheTransactionRolledBack() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+
+        generator(2).generateAfterCommit(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer);
+        for (final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        verify(this.dataSource, never()).getConnection();
+        assertTrue(this.writer.recipientIds.isEmpty());
+    }
+
+    @Test
+    public void generatesStraightAwayWithoutATransaction() throws Exception {
+        audience(row(1, "Ann"));
+
+        generator(2).generateAfterCommit(CAMPAIGN_ID, RUN_ID, AUDIENCE_SQL, this.template, this.writer);
+
+        assertEquals(Arrays.asList(1L), this.writer.recipientIds);
+    }
+
+    private CampaignOutboxGenerator generator(final int batchSize) {
+        final GenericDataService genericDataService = mock(GenericDataService.class);
+        when(genericDataService.generateJsonFromGenericResultsetData(any(GenericResultsetData.class)))
+                .thenAnswer(invocation -> toJson(invocation.getArgument(0)));
+        return new CampaignOutboxGenerator(this.dataSource, genericDataService, batchSize);
+    }
+
+    private void noCheckpoint() throws SQLException {
+        final ResultSet resultSet = mock(ResultSet.class);
+        when(this.findCheckpoint.executeQuery()).thenReturn(resultSet);
+    }
+
+    private void checkpoint(final String runId, final long lastRecipientId, final long messageCount) throws SQLException {
+        final ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getString(1)).thenReturn(runId);
+        when(resultSet.getLong(2)).thenReturn(lastRecipientId);
+        when(resultSet.getLong(3)).thenReturn(messageCount);
+        when(this.findCheckpoint.executeQuery()).thenReturn(resultSet);
+    }
+
+    private void audience(final Object[]... rows) throws SQLException {
+        final ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnName(1)).thenReturn("id");
+        when(metaData.getColumnTypeName(1)).thenReturn("BIGINT");
+        when(metaData.getColumnName(2)).thenReturn("name");
+        when(metaData.getColumnTypeName(2)).thenReturn("VARCHAR");
+        final ResultSet resultSet = mock(ResultSet.class);
+        final AtomicInteger cursor = new AtomicInteger(-1);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(resultSet.findColumn("id")).thenReturn(1);
+        when(resultSet.next()).thenAnswer(invocation -> cursor.incrementAndGet() < rows.length);
+        when(resultSet.getLong(1)).thenAnswer(invocation -> rows[cursor.get()][0]);
+        when(resultSet.getString(anyInt()))
+                .thenAnswer(invocation -> String.valueOf(rows[cursor.get()][(Integer) invocation.getArgument(0) - 1]));
+        when(this.audienceQuery.executeQuery()).thenReturn(resultSet);
+    }
+
+    private static Object[] row(final long id, final String name) {
+        return new Object[] { id, name };
+    }
+
+    private static String toJson(final GenericResultsetData data) throws Exception {
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        for (final ResultsetRowData rowData : data.getData()) {
+            final Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < data.getColumnHeaders().size(); i++) {
+                final String column = data.getColumnHeaders().get(i).getColumnName();
+                final String value = rowData.getRow().get(i);
+                row.put(column, "id".equals(column) ? (Object) Long.valueOf(value) : value);
+            }
+            rows.add(row);
+        }
+        return new ObjectMapper().writeValueAsString(rows);
+    }
+
+    private static final class RecordingWriter implements CampaignOutboxWriter {
+
+        private final Set<Long> unreachable = new HashSet<>();
+        private final List<Long> recipientIds = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public String getOutboxTable() {
+            return "outbox";
+        }
+
+        @Override
+        public String getInsertSql() {
+            return INSERT_SQL;
+        }
+
+        @Override
+        public boolean bind(final PreparedStatement statement, final Long recipientId, final Map<String, Object> row, final String message)
+                throws SQLException {
+            if (this.unreachable.contains(recipientId)) {
+                return false;
+            }
+            this.recipientIds.add(recipientId);
+            this.messages.add(message);
+            return true;
+        }
+    }
+}
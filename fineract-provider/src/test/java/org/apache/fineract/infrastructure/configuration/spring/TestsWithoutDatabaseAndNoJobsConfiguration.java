@@ -68,7 +68,7 @@ public class TestsWithoutDatabaseAndNoJobsConfiguration extends AbstractApplicat
      */
     @Bean
     public TenantDatabaseUpgradeService tenantDatabaseUpgradeService() {
-        return new TenantDatabaseUpgradeService(null, null, null, null, null, null) {
+        return new TenantDatabaseUpgradeService(null, null, null, null, null, null, 1, false) {
 
             @Override
             public void afterPropertiesSet() {
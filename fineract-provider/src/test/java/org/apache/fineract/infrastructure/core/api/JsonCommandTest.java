@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidationException;
+import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
+import org.junit.jupiter.api.Test;
+
+class JsonCommandTest {
+
+    private final FromJsonHelper fromApiJsonHelper = new FromJsonHelper();
+
+    private JsonCommand command(final String json) {
+        return JsonCommand.fromJsonElement(1L, this.fromApiJsonHelper.parse(json), this.fromApiJsonHelper);
+    }
+
+    @Test
+    void numbersUseTheLocaleOfTheCommand() {
+        final JsonCommand command = command("{\"locale\": \"de\", \"principal\": \"1.234,5\", \"numberOfRepayments\": \"12\"}");
+
+        assertEquals(0, new BigDecimal("1234.5").compareTo(command.bigDecimalValueOfParameterNamed("principal")));
+        assertEquals(12, command.integerValueOfParameterNamed("numberOfRepayments"));
+        assertNull(command.bigDecimalValueOfParameterNamed("interestRatePerPeriod"));
+    }
+
+    @Test
+    void numbersWithoutLocaleAreRejected() {
+        final JsonCommand command = command("{\"principal\": \"1000\"}");
+
+        assertThrows(PlatformApiDataValidationException.class, () -> command.bigDecimalValueOfParameterNamed("principal"));
+        assertThrows(PlatformApiDataValidationException.class, () -> command.integerValueOfParameterNamed("principal"));
+    }
+
+    @Test
+    void nonObjectPayloadsHaveNoNamedValues() {
+        final JsonCommand command = command("[1, 2]");
+
+        assertNull(command.bigDecimalValueOfParameterNamed("principal"));
+        assertNull(command.localDateValueOfParameterNamed("submittedOnDate"));
+    }
+}
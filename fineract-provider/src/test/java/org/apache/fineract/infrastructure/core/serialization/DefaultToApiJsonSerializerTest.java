@@ -0,0 +1,152 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.fineract.infrastructure.core.service.Page;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DefaultToApiJsonSerializerTest {
+
+    private static final Set<String> SUPPORTED_PARAMETERS = new HashSet<>(Arrays.asList("id", "name", "amount"));
+
+    private DefaultToApiJsonSerializer<Row> serializer;
+
+    @BeforeEach
+    public void setUp() {
+        this.serializer = new DefaultToApiJsonSerializer<>(new ExcludeNothingWithPrettyPrintingOffJsonSerializerGoogleGson(),
+                new ExcludeNothingWithPrettyPrintingOnJsonSerializerGoogleGson(), new CommandProcessingResultJsonSerializer(),
+                new GoogleGsonSerializerHelper());
+    }
+
+    @Test
+    public void streamsTheSameJsonAsTheStringVariants() throws IOException {
+        final List<Row> rows = Arrays.asList(new Row(1L, "first", 1.5), null, new Row(3L, null, 0.0));
+        final Page<Row> page = new Page<>(rows, 42);
+        for (final ApiRequestJsonSerializationSettings settings : Arrays.asList(settings(false), settings(true), settings(false, "id"),
+                settings(true, "name", "amount"))) {
+            assertEquals(this.serializer.serialize(settings, rows, SUPPORTED_PARAMETERS),
+                    written(this.serializer.serializeStreaming(settings, rows, SUPPORTED_PARAMETERS)));
+            assertEquals(this.serializer.serialize(settings, page, SUPPORTED_PARAMETERS),
+                    written(this.serializer.serializeStreaming(settings, page, SUPPORTED_PARAMETERS)));
+            assertEquals(this.serializer.serialize(settings, rows.get(0), SUPPORTED_PARAMETERS),
+                    written(this.serializer.serializeStreaming(settings, rows.get(0), SUPPORTED_PARAMETERS)));
+        }
+        final List<Row> noRows = Collections.emptyList();
+        assertEquals(this.serializer.serialize(settings(false), noRows, SUPPORTED_PARAMETERS),
+                written(this.serializer.serializeStreaming(settings(false), noRows, SUPPORTED_PARAMETERS)));
+        assertEquals(this.serializer.serialize(settings(false), new Page<>(noRows, 0), SUPPORTED_PARAMETERS),
+                written(this.serializer.serializeStreaming(settings(false), new Page<>(noRows, 0), SUPPORTED_PARAMETERS)));
+    }
+
+    @Test
+    public void writesEachElementBeforeSerializingTheNext() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final List<Integer> writtenBeforeElement = new ArrayList<>();
+        final Collection<Row> rows = new AbstractCollection<>() {
+
+            @Override
+            public Iterator<Row> iterator() {
+                return new Iterator<>() {
+
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next < size();
+                    }
+
+                    @Override
+                    public Row next() {
+                        writtenBeforeElement.add(output.size());
+                        return new Row((long) this.next++, "x".repeat(20_000), 1.0);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return 4;
+            }
+        };
+
+        final StreamingOutput streamingOutput = this.serializer.serializeStreaming(settings(false), rows, SUPPORTED_PARAMETERS);
+        // only the first element is serialized up front
+        assertEquals(Collections.singletonList(0), writtenBeforeElement);
+        writtenBeforeElement.clear();
+
+        streamingOutput.write(output);
+
+        // the writers hold back less than one element, so every element but the first finds the previous ones written
+        assertEquals(4, writtenBeforeElement.size());
+        for (int i = 1; i < writtenBeforeElement.size(); i++) {
+            assertTrue(writtenBeforeElement.get(i) > (i - 1) * 20_000, "element " + i + " requested after " + writtenBeforeElement.get(i));
+        }
+        assertTrue(output.size() > 4 * 20_000);
+    }
+
+    @Test
+    public void failsBeforeTheResponseStartsWhenTheFirstElementCannotBeSerialized() {
+        final List<Row> rows = Arrays.asList(new Row(1L, "first", Double.NaN), new Row(2L, "second", 1.0));
+
+        assertThrows(IllegalArgumentException.class, () -> this.serializer.serializeStreaming(settings(false), rows, SUPPORTED_PARAMETERS));
+        assertThrows(IllegalArgumentException.class,
+                () -> this.serializer.serializeStreaming(settings(false), new Page<>(rows, 2), SUPPORTED_PARAMETERS));
+    }
+
+    private static ApiRequestJsonSerializationSettings settings(final boolean prettyPrint, final String... fields) {
+        return ApiRequestJsonSerializationSettings.from(prettyPrint, new HashSet<>(Arrays.asList(fields)), false, false, false);
+    }
+
+    private static String written(final StreamingOutput streamingOutput) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamingOutput.write(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private static final class Row {
+
+        private final Long id;
+        private final String name;
+        private final Double amount;
+
+        Row(final Long id, final String name, final Double amount) {
+            this.id = id;
+            this.name = name;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataRetrievalFailureException;
+
+public class PooledIdAllocatorTest {
+
+    private static final String TABLE = "m_loan_transaction";
+
+    private TomcatJdbcDataSourcePerTenantService dataSourceService;
+    private Map<String, IdPool> pools;
+
+    @BeforeEach
+    public void setUp() {
+        this.pools = new HashMap<>();
+        this.pools.put("default", new IdPool(0L));
+        this.dataSourceService = mock(TomcatJdbcDataSourcePerTenantService.class);
+        when(this.dataSourceService.retrieveIdAllocationDataSource())
+                .thenAnswer(invocation -> this.pools.get(ThreadLocalContextUtil.getTenant().getTenantIdentifier()).dataSource);
+        ThreadLocalContextUtil.setTenant(tenant("default"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void servesABlockFromMemoryBeforeReservingTheNext() {
+        final PooledIdAllocator allocator = new PooledIdAllocator(this.dataSourceService, true);
+
+        for (long expected = 1; expected <= PooledIdAllocator.ALLOCATION_SIZE; expected++) {
+            assertEquals(expected, allocator.nextId(TABLE));
+        }
+        assertEquals(1, this.pools.get("default").reservations.get());
+
+        assertEquals(PooledIdAllocator.ALLOCATION_SIZE + 1, allocator.nextId(TABLE));
+        assertEquals(2, this.pools.get("default").reservations.get());
+    }
+
+    @Test
+    public void startsPastTheRowsAlreadyInTheTable() {
+        this.pools.put("default", new IdPool(1000L));
+        final PooledIdAllocator allocator = new PooledIdAllocator(this.dataSourceService, true);
+
+        assertEquals(1001L, allocator.nextId(TABLE));
+    }
+
+    @Test
+    public void handsOutUniqueIdsToConcurrentCallers() throws Exception {
+        final PooledIdAllocator allocator = new PooledIdAllocator(this.dataSourceService, true);
+        final int threads = 8;
+        final int idsPerThread = 250;
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Callable<List<Long>>> callers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                callers.add(() -> {
+                    ThreadLocalContextUtil.setTenant(tenant);
+                    final List<Long> ids = new ArrayList<>(idsPerThread);
+                    for (int j = 0; j < idsPerThread; j++) {
+                        ids.add(allocator.nextId(TABLE));
+                    }
+                    return ids;
+                });
+            }
+            final Set<Long> ids = new HashSet<>();
+            for (final Future<List<Long>> future : executor.invokeAll(callers)) {
+                ids.addAll(future.get());
+            }
+
+            assertEquals(threads * idsPerThread, ids.size());
+            assertEquals(threads * idsPerThread / PooledIdAllocator.ALLOCATION_SIZE, this.pools.get("default").reservations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void leavesAGapAfterARestartButNeverReusesAnId() {
+        final PooledIdAllocator beforeRestart = new PooledIdAllocator(this.dataSourceService, true);
+        assertEquals(1L, beforeRestart.nextId(TABLE));
+        assertEquals(2L, beforeRestart.nextId(TABLE));
+
+        // the rest of the first block is lost with the node
+        final PooledIdAllocator afterRestart = new PooledIdAllocator(this.dataSourceService, true);
+        assertEquals(PooledIdAllocator.ALLOCATION_SIZE + 1, afterRestart.nextId(TABLE));
+    }
+
+    @Test
+    public void keepsSeparateBlocksPerTenantAndTable() {
+        this.pools.put("other", new IdPool(500L));
+        final PooledIdAllocator allocator = new PooledIdAllocator(this.dataSourceService, true);
+
+        assertEquals(1L, allocator.nextId(TABLE));
+        assertEquals(1L, allocator.nextId("acc_gl_journal_entry"));
+        ThreadLocalContextUtil.setTenant(tenant("other"));
+        assertEquals(501L, allocator.nextId(TABLE));
+        ThreadLocalContextUtil.setTenant(tenant("default"));
+        assertEquals(2L, allocator.nextId(TABLE));
+
+        assertEquals(2, this.pools.get("default").reservations.get());
+        assertEquals(1, this.pools.get("other").reservations.get());
+    }
+
+    @Test
+    public void rollsBackAndFailsForATableWithoutPool() throws SQLException {
+        final IdPool pool = new IdPool(0L);
+        pool.registered = false;
+        this.pools.put("default", pool);
+        final PooledIdAllocator allocator = new PooledIdAllocator(this.dataSourceService, true);
+
+        assertThrows(DataRetrievalFailureException.class, () -> allocator.nextId(TABLE));
+        verify(pool.lastConnection).rollback();
+    }
+
+    @Test
+    public void refusesToAllocateWhenDisabled() {
+        final PooledIdAllocator allocator = new PooledIdAllocator(this.dataSourceService, false);
+
+        assertThrows(IllegalStateException.class, () -> allocator.nextId(TABLE));
+        verifyNoInteractions(this.dataSourceService);
+    }
+
+    private static FineractPlatformTenant tenant(final String identifier) {
+        return new FineractPlatformTenant(1L, identifier, identifier, "Asia/Kolkata", null);
+    }
+
+    /**
+     * Stands in for the {@code m_id_pool} rows of one tenant database: the reservation update and the read of the
+     * reserved value run as one step, as the row lock taken by the update makes them in the database.
+     */
+    private static final class IdPool {
+
+        private final long maxId;
+        private final Map<String, Long> nextValues = new HashMap<>();
+        private final AtomicInteger reservations = new AtomicInteger();
+        private final DataSource dataSource = mock(DataSource.class);
+        private volatile boolean registered = true;
+        private volatile Connection lastConnection;
+
+        IdPool(final long maxId) {
+            this.maxId = maxId;
+            try {
+                when(this.dataSource.getConnection()).thenAnswer(invocation -> connection());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Connection connection() throws SQLException {
+            final Connection connection = mock(Connection.class);
+            final long[] reserved = new long[1];
+            final PreparedStatement reserve = mock(PreparedStatement.class);
+            final String[] table = new String[1];
+            doAnswer(invocation -> {
+                table[0] = invocation.getArgument(1);
+                return null;
+            }).when(reserve).setString(eq(2), anyString());
+            when(reserve.executeUpdate()).thenAnswer(invocation -> {
+                if (!this.registered) {
+                    return 0;
+                }
+                reserved[0] = reserve(table[0]);
+                return 1;
+            });
+            final ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getLong(1)).thenAnswer(invocation -> reserved[0]);
+            final PreparedStatement read = mock(PreparedStatement.class);
+            when(read.executeQuery()).thenReturn(resultSet);
+            when(connection.prepareStatement(startsWith("UPDATE m_id_pool"))).thenReturn(reserve);
+            when(connection.prepareStatement(startsWith("SELECT next_value"))).thenReturn(read);
+            this.lastConnection = connection;
+            return connection;
+        }
+
+        private synchronized long reserve(final String table) {
+            this.reservations.incrementAndGet();
+            final long next = Math.max(this.nextValues.getOrDefault(table, 1L), this.maxId + 1) + PooledIdAllocator.ALLOCATION_SIZE;
+            this.nextValues.put(table, next);
+            return next;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TomcatJdbcDataSourcePerTenantServiceTest {
+
+    private final Object readReplica = new Object();
+    private final AtomicBoolean replicaHealthy = new AtomicBoolean(true);
+    private MeterRegistry meterRegistry;
+    private TomcatJdbcDataSourcePerTenantService service;
+
+    @BeforeEach
+    public void setUp() {
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.service = new TomcatJdbcDataSourcePerTenantService(mock(DataSource.class), this.meterRegistry);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            completeTransaction();
+        }
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    public void keepsTheReplicaForTheRestOfTheTransactionWhenItTurnsUnhealthy() {
+        assertTrue(route());
+        this.replicaHealthy.set(false);
+
+        assertTrue(route());
+        assertEquals(1.0, routedTransactions("replica"));
+        assertEquals(0.0, routedTransactions("primary"));
+    }
+
+    @Test
+    public void keepsThePrimaryForTheRestOfTheTransactionWhenTheReplicaRecovers() {
+        this.replicaHealthy.set(false);
+        assertFalse(route());
+        this.replicaHealthy.set(true);
+
+        assertFalse(route());
+        assertEquals(0.0, routedTransactions("replica"));
+        assertEquals(1.0, routedTransactions("primary"));
+    }
+
+    @Test
+    public void decidesAgainForTheNextTransaction() {
+        assertTrue(route());
+        completeTransaction();
+        assertNull(TransactionSynchronizationManager.getResource(this.readReplica));
+
+        this.replicaHealthy.set(false);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertFalse(route());
+        assertEquals(1.0, routedTransactions("replica"));
+        assertEquals(1.0, routedTransactions("primary"));
+    }
+
+    @Test
+    public void followsTheHealthOnEveryConnectionOutsideTransactions() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertTrue(route());
+        this.replicaHealthy.set(false);
+
+        assertFalse(route());
+        assertNull(TransactionSynchronizationManager.getResource(this.readReplica));
+    }
+
+    private boolean route() {
+        return this.service.routeToReadReplica(this.readReplica, this.replicaHealthy::get);
+    }
+
+    private double routedTransactions(final String target) {
+        return this.meterRegistry.get("fineract.datasource.readonly.transactions").tag("target", target).counter().count();
+    }
+
+    private static void completeTransaction() {
+        for (final TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -24,6 +24,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -31,6 +32,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import com.zaxxer.hikari.HikariDataSource;
 import java.util.List;
+import java.util.Map;
 import javax.sql.DataSource;
 import org.apache.fineract.infrastructure.core.config.FineractProperties;
 import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
@@ -65,7 +67,7 @@ class TenantDatabaseUpgradeServiceTest {
     @BeforeEach
     public void setUp() {
         underTest = new TenantDatabaseUpgradeService(tenantDetailsService, tenantDataSource, fineractProperties, databaseStateVerifier,
-                liquibaseFactory, tenantDataSourceFactory);
+                liquibaseFactory, tenantDataSourceFactory, 4, false);
     }
 
     @Test
@@ -216,4 +218,66 @@ class TenantDatabaseUpgradeServiceTest {
         verify(tenantStoreLiquibase).afterPropertiesSet();
         verifyNoInteractions(initialTenantLiquibase, tenantLiquibase);
     }
+
+    @Test
+    public void testAfterPropertiesSetSkipsTenantsOnTheBundledChangeLog() throws Exception {
+        // given
+        ExtendedSpringLiquibase tenantStoreLiquibase = mock(ExtendedSpringLiquibase.class);
+        given(databaseStateVerifier.isLiquibaseDisabled()).willReturn(false);
+        given(databaseStateVerifier.isFirstLiquibaseMigration(tenantDataSource)).willReturn(false);
+        given(fineractProperties.getTenant()).willReturn(new FineractProperties.FineractTenantProperties());
+        given(liquibaseFactory.create(tenantDataSource, "tenant_store_db")).willReturn(tenantStoreLiquibase);
+        given(liquibaseFactory.changeLogChecksum("tenant_db")).willReturn("bundled");
+
+        FineractPlatformTenant upToDateTenant = mock(FineractPlatformTenant.class);
+        given(upToDateTenant.getTenantIdentifier()).willReturn("up-to-date");
+        FineractPlatformTenant outdatedTenant = mock(FineractPlatformTenant.class);
+        given(outdatedTenant.getTenantIdentifier()).willReturn("outdated");
+        given(tenantDetailsService.findAllTenants()).willReturn(List.of(upToDateTenant, outdatedTenant));
+        given(databaseStateVerifier.findTenantChangeLogChecksums(tenantDataSource))
+                .willReturn(Map.of("up-to-date", "bundled", "outdated", "previous"));
+
+        ExtendedSpringLiquibase tenantLiquibase = mock(ExtendedSpringLiquibase.class);
+        DataSource outdatedTenantDataSource = mock(DataSource.class);
+        given(databaseStateVerifier.isFirstLiquibaseMigration(outdatedTenantDataSource)).willReturn(false);
+        given(tenantDataSourceFactory.create(outdatedTenant)).willReturn(outdatedTenantDataSource);
+        given(liquibaseFactory.create(outdatedTenantDataSource, "tenant_db")).willReturn(tenantLiquibase);
+        // when
+        underTest.afterPropertiesSet();
+        // then
+        verify(tenantDataSourceFactory, never()).create(upToDateTenant);
+        verify(tenantLiquibase).afterPropertiesSet();
+        verify(databaseStateVerifier).recordTenantChangeLogChecksum(tenantDataSource, "outdated", "bundled");
+    }
+
+    @Test
+    public void testLazyActivationUpgradesTenantOnlyOnFirstUse() throws Exception {
+        // given
+        TenantDatabaseUpgradeService lazyUnderTest = new TenantDatabaseUpgradeService(tenantDetailsService, tenantDataSource,
+                fineractProperties, databaseStateVerifier, liquibaseFactory, tenantDataSourceFactory, 4, true);
+        ExtendedSpringLiquibase tenantStoreLiquibase = mock(ExtendedSpringLiquibase.class);
+        given(databaseStateVerifier.isLiquibaseDisabled()).willReturn(false);
+        given(databaseStateVerifier.isFirstLiquibaseMigration(tenantDataSource)).willReturn(false);
+        given(fineractProperties.getTenant()).willReturn(new FineractProperties.FineractTenantProperties());
+        given(liquibaseFactory.create(tenantDataSource, "tenant_store_db")).willReturn(tenantStoreLiquibase);
+        given(liquibaseFactory.changeLogChecksum("tenant_db")).willReturn("bundled");
+
+        FineractPlatformTenant tenant = mock(FineractPlatformTenant.class);
+        given(tenant.getTenantIdentifier()).willReturn("lazy");
+        given(databaseStateVerifier.findTenantChangeLogChecksums(tenantDataSource)).willReturn(Map.of());
+        ExtendedSpringLiquibase tenantLiquibase = mock(ExtendedSpringLiquibase.class);
+        DataSource tenantSchemaDataSource = mock(DataSource.class);
+        given(databaseStateVerifier.isFirstLiquibaseMigration(tenantSchemaDataSource)).willReturn(false);
+        given(tenantDataSourceFactory.create(tenant)).willReturn(tenantSchemaDataSource);
+        given(liquibaseFactory.create(tenantSchemaDataSource, "tenant_db")).willReturn(tenantLiquibase);
+        // when
+        lazyUnderTest.afterPropertiesSet();
+        lazyUnderTest.activateTenant(tenant);
+        lazyUnderTest.activateTenant(tenant);
+        // then
+        verify(tenantStoreLiquibase).afterPropertiesSet();
+        verifyNoInteractions(tenantDetailsService);
+        verify(tenantLiquibase, times(1)).afterPropertiesSet();
+        verify(databaseStateVerifier).recordTenantChangeLogChecksum(tenantDataSource, "lazy", "bundled");
+    }
 }
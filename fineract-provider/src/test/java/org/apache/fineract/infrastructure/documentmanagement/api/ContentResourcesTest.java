@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.documentmanagement.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.fineract.infrastructure.documentmanagement.api.ContentResources.ByteRange;
+import org.apache.fineract.infrastructure.documentmanagement.data.FileData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ContentResourcesTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void shouldParseSingleByteRanges() {
+        assertRange(0, 99, ByteRange.parse("bytes=0-99", 1000));
+        assertRange(900, 999, ByteRange.parse("bytes=900-", 1000));
+        assertRange(950, 999, ByteRange.parse("bytes=-50", 1000));
+        assertRange(0, 999, ByteRange.parse("bytes=-5000", 1000));
+        assertRange(500, 999, ByteRange.parse("bytes=500-5000", 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=1000-", 1000));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=-0", 1000));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 1000));
+        assertNull(ByteRange.parse("bytes=9-1", 1000));
+        assertNull(ByteRange.parse("items=0-1", 1000));
+        assertNull(ByteRange.parse(null, 1000));
+    }
+
+    @Test
+    public void shouldServeRangeAndValidateETag() throws IOException {
+        final File file = Files.writeString(this.tempDir.resolve("document.txt"), "0123456789").toFile();
+        final FileData fileData = new FileData(file, "document.txt", "text/plain");
+
+        final HttpHeaders rangeRequest = mock(HttpHeaders.class);
+        when(rangeRequest.getHeaderString("Range")).thenReturn("bytes=2-5");
+        final Response partial = ContentResources.fileDataToResponse(fileData, "attachment", rangeRequest);
+        assertEquals(206, partial.getStatus());
+        assertEquals("bytes 2-5/10", partial.getHeaderString("Content-Range"));
+        assertEquals("2345", write(partial));
+
+        final String eTag = partial.getHeaderString(HttpHeaders.ETAG);
+        final HttpHeaders conditionalRequest = mock(HttpHeaders.class);
+        when(conditionalRequest.getHeaderString(HttpHeaders.IF_NONE_MATCH)).thenReturn(eTag);
+        assertEquals(304, ContentResources.fileDataToResponse(fileData, "attachment", conditionalRequest).getStatus());
+
+        final HttpHeaders staleRangeRequest = mock(HttpHeaders.class);
+        when(staleRangeRequest.getHeaderString("Range")).thenReturn("bytes=2-5");
+        when(staleRangeRequest.getHeaderString("If-Range")).thenReturn("\"stale\"");
+        final Response full = ContentResources.fileDataToResponse(fileData, "attachment", staleRangeRequest);
+        assertEquals(200, full.getStatus());
+        assertEquals("0123456789", write(full));
+    }
+
+    private static void assertRange(long first, long last, ByteRange range) {
+        assertEquals(first, range.first);
+        assertEquals(last, range.last);
+    }
+
+    private static String write(Response response) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
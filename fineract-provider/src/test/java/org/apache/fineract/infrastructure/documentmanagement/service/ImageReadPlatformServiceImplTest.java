@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.documentmanagement.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.io.ByteSource;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.documentmanagement.contentrepository.ContentRepository;
+import org.apache.fineract.infrastructure.documentmanagement.contentrepository.ContentRepositoryFactory;
+import org.apache.fineract.infrastructure.documentmanagement.data.FileData;
+import org.apache.fineract.infrastructure.documentmanagement.data.ImageData;
+import org.apache.fineract.infrastructure.documentmanagement.data.ImageResizer;
+import org.apache.fineract.infrastructure.documentmanagement.domain.StorageType;
+import org.apache.fineract.organisation.staff.domain.StaffRepositoryWrapper;
+import org.apache.fineract.portfolio.client.domain.ClientRepositoryWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ImageReadPlatformServiceImplTest {
+
+    private final ImageData imageData = new ImageData(1L, "images/1.png", StorageType.FILE_SYSTEM, "Image owner");
+    private final FileData image = new FileData(ByteSource.wrap(new byte[] { 1 }), "1.png", "image/png");
+    private final FileData rendition = new FileData(ByteSource.wrap(new byte[] { 2 }), "1.png", "image/png");
+
+    private ContentRepository contentRepository;
+    private ImageResizer imageResizer;
+    private ImageReadPlatformServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        this.contentRepository = mock(ContentRepository.class);
+        when(this.contentRepository.fetchImage(this.imageData)).thenReturn(this.image);
+        final ContentRepositoryFactory contentRepositoryFactory = mock(ContentRepositoryFactory.class);
+        when(contentRepositoryFactory.getRepository(StorageType.FILE_SYSTEM)).thenReturn(this.contentRepository);
+        this.imageResizer = mock(ImageResizer.class);
+        when(this.imageResizer.resize(eq(this.image), any(), any())).thenReturn(this.rendition);
+
+        this.service = new ImageReadPlatformServiceImpl(mock(RoutingDataSource.class), contentRepositoryFactory,
+                mock(ClientRepositoryWrapper.class), mock(StaffRepositoryWrapper.class), this.imageResizer);
+        final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), eq(1L))).thenReturn(this.imageData);
+        ReflectionTestUtils.setField(this.service, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    public void roundsRequestedSizesDownToARenditionSize() {
+        assertEquals(16, ImageReadPlatformServiceImpl.renditionSize(1));
+        assertEquals(16, ImageReadPlatformServiceImpl.renditionSize(31));
+        assertEquals(32, ImageReadPlatformServiceImpl.renditionSize(32));
+        assertEquals(256, ImageReadPlatformServiceImpl.renditionSize(300));
+        assertEquals(2048, ImageReadPlatformServiceImpl.renditionSize(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void servesNearbySizesFromOneRendition() {
+        assertSame(this.rendition, this.service.retrieveImage("staff", 1L, 300, null));
+        when(this.contentRepository.fetchImageRendition(this.imageData, "256x")).thenReturn(this.rendition);
+        assertSame(this.rendition, this.service.retrieveImage("staff", 1L, 400, null));
+        assertSame(this.rendition, this.service.retrieveImage("staff", 1L, 511, null));
+
+        verify(this.imageResizer).resize(this.image, 256, null);
+        verify(this.contentRepository).saveImageRendition(eq(this.imageData), eq("256x"), any(ByteSource.class));
+        verify(this.contentRepository, times(4)).fetchImageRendition(this.imageData, "256x");
+        verify(this.contentRepository, never()).saveImageRendition(eq(this.imageData), eq("300x"), any(ByteSource.class));
+    }
+
+    @Test
+    public void boundsTheHeightOfARenditionToo() {
+        this.service.retrieveImage("staff", 1L, 5000, 100);
+
+        verify(this.imageResizer).resize(this.image, 2048, 64);
+        verify(this.contentRepository).saveImageRendition(eq(this.imageData), eq("2048x64"), any(ByteSource.class));
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.jobs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the writer against a table stand-in that only keeps the rows of committed chunks.
+ */
+public class JdbcBulkWriterTest {
+
+    private static final String INSERT_SQL = "insert into m_rows (account_id, installment) values (?, ?)";
+    private static final ParameterizedPreparedStatementSetter<String> SETTER = (ps, row) -> {};
+
+    private final List<List<String>> chunks = new ArrayList<>();
+    private final List<String> pending = new ArrayList<>();
+    private final List<String> stored = new ArrayList<>();
+    private PlatformTransactionManager transactionManager;
+    private JdbcTemplate jdbcTemplate;
+    private int failingChunk;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        this.failingChunk = -1;
+        this.transactionManager = mock(PlatformTransactionManager.class);
+        when(this.transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        doAnswer(invocation -> this.stored.addAll(this.pending)).when(this.transactionManager).commit(any());
+        doAnswer(invocation -> {
+            this.pending.clear();
+            return null;
+        }).when(this.transactionManager).rollback(any());
+
+        this.jdbcTemplate = mock(JdbcTemplate.class);
+        when(this.jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    // the writer reuses its chunk list, so the rows are copied
+                    final List<String> rows = new ArrayList<>(invocation.<Collection<String>>getArgument(1));
+                    this.chunks.add(rows);
+                    this.pending.clear();
+                    this.pending.addAll(rows);
+                    if (this.chunks.size() - 1 == this.failingChunk) {
+                        throw new DataIntegrityViolationException("chunk " + this.failingChunk);
+                    }
+                    return new int[0][];
+                });
+    }
+
+    @Test
+    public void writesWholeGroupsInChunksOfTheirOwn() {
+        final JdbcBulkWriter writer = writer(4);
+
+        final int written = writer.write(INSERT_SQL, Arrays.asList(rows(1, 2), rows(2, 2), rows(3, 1), rows(4, 3), rows(5, 1)), SETTER);
+
+        assertEquals(9, written);
+        // a chunk is written once it has reached the chunk size, the remaining rows go in a last one
+        assertEquals(Arrays.asList(4, 4, 1), this.chunks.stream().map(List::size).collect(Collectors.toList()));
+        assertEquals(Arrays.asList("1-1", "1-2", "2-1", "2-2"), this.chunks.get(0));
+        verify(this.transactionManager, times(3)).getTransaction(
+                argThat(definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(this.transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    public void neverSplitsAGroupLargerThanAChunk() {
+        final JdbcBulkWriter writer = writer(2);
+
+        writer.write(INSERT_SQL, Arrays.asList(rows(1, 5), rows(2, 1)), SETTER);
+
+        assertEquals(Arrays.asList(5, 1), this.chunks.stream().map(List::size).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void rollsBackOnlyTheFailingChunk() {
+        final JdbcBulkWriter writer = writer(4);
+        this.failingChunk = 1;
+
+        assertThrows(DataIntegrityViolationException.class, () -> writer.write(INSERT_SQL, accounts(1, 5), SETTER));
+
+        assertEquals(rows(1, 3).size() + rows(2, 3).size(), this.stored.size());
+        verify(this.transactionManager, times(1)).commit(any());
+        verify(this.transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    public void rerunAfterAFailedChunkWritesEveryRowOnce() {
+        final JdbcBulkWriter writer = writer(4);
+        this.failingChunk = 1;
+        assertThrows(DataIntegrityViolationException.class, () -> writer.write(INSERT_SQL, accounts(1, 5), SETTER));
+
+        // like the jobs using the writer, the rerun derives its groups from what is stored
+        this.failingChunk = -1;
+        final List<List<String>> missing = accounts(1, 5).stream().filter(group -> !this.stored.contains(group.get(0)))
+                .collect(Collectors.toList());
+        assertEquals(3, missing.size());
+        writer.write(INSERT_SQL, missing, SETTER);
+
+        assertEquals(15, this.stored.size());
+        assertEquals(15, new HashSet<>(this.stored).size());
+    }
+
+    private JdbcBulkWriter writer(int chunkSize) {
+        final JdbcBulkWriter writer = new JdbcBulkWriter(mock(RoutingDataSource.class), new TransactionTemplate(this.transactionManager),
+                chunkSize, 1000);
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", this.jdbcTemplate);
+        return writer;
+    }
+
+    private static List<List<String>> accounts(int first, int last) {
+        return IntStream.rangeClosed(first, last).mapToObj(accountId -> rows(accountId, 3)).collect(Collectors.toList());
+    }
+
+    private static List<String> rows(int accountId, int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(installment -> accountId + "-" + installment).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.openjpa;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.openjpa.lib.jdbc.JDBCEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SelectCountingJdbcListenerTest {
+
+    private final SelectCountingJdbcListener listener = new SelectCountingJdbcListener();
+
+    @AfterEach
+    public void tearDown() {
+        SelectCountingJdbcListener.stop();
+    }
+
+    @Test
+    public void countsTheSelectsOfTheThreadPerTable() {
+        SelectCountingJdbcListener.start();
+
+        execute("SELECT t0.id, t0.loan_status_id FROM m_loan t0 WHERE t0.id = ?");
+        execute("SELECT t0.id FROM m_loan_transaction t0 WHERE t0.loan_id = ? ORDER BY t0.id");
+        execute("select t0.id from `m_loan_transaction` t0 where t0.loan_id = ?");
+        execute("UPDATE m_loan SET version = ? WHERE id = ?");
+        execute("INSERT INTO m_loan_transaction (id) VALUES (?)");
+
+        final Map<String, Integer> expected = new TreeMap<>();
+        expected.put("m_loan", 1);
+        expected.put("m_loan_transaction", 2);
+        assertEquals(expected, SelectCountingJdbcListener.stop());
+    }
+
+    @Test
+    public void countsNothingUnlessStarted() {
+        execute("SELECT t0.id FROM m_loan t0");
+
+        assertTrue(SelectCountingJdbcListener.stop().isEmpty());
+    }
+
+    @Test
+    public void ignoresSelectsWithoutATable() {
+        assertNull(SelectCountingJdbcListener.selectedTable("SELECT 1"));
+        assertNull(SelectCountingJdbcListener.selectedTable(null));
+        assertEquals("m_code", SelectCountingJdbcListener.selectedTable("  SELECT t0.id FROM m_code"));
+    }
+
+    private void execute(final String sql) {
+        final JDBCEvent event = mock(JDBCEvent.class);
+        when(event.getSQL()).thenReturn(sql);
+        this.listener.beforeExecuteStatement(event);
+    }
+}
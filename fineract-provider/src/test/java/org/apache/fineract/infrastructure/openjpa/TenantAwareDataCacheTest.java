@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.openjpa;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.openjpa.datacache.DataCacheManager;
+import org.apache.openjpa.datacache.DataCachePCData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Entries of tenants sharing the same primary keys must never be served to each other.
+ */
+public class TenantAwareDataCacheTest {
+
+    private static final Long OID = 1L;
+
+    private TenantAwareDataCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        this.cache = new TenantAwareDataCache();
+        this.cache.initialize(mock(DataCacheManager.class, RETURNS_DEEP_STUBS));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void keepsTheEntriesOfEachTenantApart() {
+        final DataCachePCData first = data();
+        final DataCachePCData second = data();
+
+        useTenant("first");
+        this.cache.putInternal(OID, first);
+        useTenant("second");
+        assertNull(this.cache.getInternal(OID));
+        this.cache.putInternal(OID, second);
+
+        assertSame(second, this.cache.getInternal(OID));
+        useTenant("first");
+        assertSame(first, this.cache.getInternal(OID));
+    }
+
+    @Test
+    public void keepsCommittedEntriesWithTheirTenant() {
+        final DataCachePCData first = data();
+
+        useTenant("first");
+        this.cache.commit(List.of(first), Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+        assertSame(first, this.cache.getInternal(OID));
+        useTenant("second");
+        assertNull(this.cache.getInternal(OID));
+    }
+
+    @Test
+    public void removesOnlyTheCurrentTenantsEntry() {
+        final DataCachePCData first = data();
+        final DataCachePCData second = data();
+        useTenant("first");
+        this.cache.putInternal(OID, first);
+        useTenant("second");
+        this.cache.putInternal(OID, second);
+
+        this.cache.commit(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), List.of(OID));
+
+        assertNull(this.cache.getInternal(OID));
+        useTenant("first");
+        assertSame(first, this.cache.getInternal(OID));
+    }
+
+    @Test
+    public void remoteEvictionWithoutTenantRemovesEveryTenantsEntry() {
+        useTenant("first");
+        this.cache.putInternal(OID, data());
+        useTenant("second");
+        this.cache.putInternal(OID, data());
+
+        ThreadLocalContextUtil.clearTenant();
+        this.cache.removeInternal(OID);
+
+        useTenant("first");
+        assertNull(this.cache.getInternal(OID));
+        useTenant("second");
+        assertNull(this.cache.getInternal(OID));
+    }
+
+    @Test
+    public void bypassesTheCacheWithoutTenant() {
+        this.cache.putInternal(OID, data());
+
+        assertNull(this.cache.getInternal(OID));
+        useTenant("first");
+        assertNull(this.cache.getInternal(OID));
+    }
+
+    private static DataCachePCData data() {
+        final DataCachePCData data = mock(DataCachePCData.class);
+        when(data.getId()).thenReturn(OID);
+        return data;
+    }
+
+    private static void useTenant(final String identifier) {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, identifier, identifier, "Asia/Kolkata", null));
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.reportmailingjob.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.dataqueries.domain.Report;
+import org.apache.fineract.infrastructure.dataqueries.domain.ReportRepositoryWrapper;
+import org.apache.fineract.infrastructure.dataqueries.service.ReadReportingService;
+import org.apache.fineract.infrastructure.report.provider.ReportingProcessServiceProvider;
+import org.apache.fineract.infrastructure.report.service.ReportingProcessService;
+import org.apache.fineract.infrastructure.reportmailingjob.data.ReportMailingJobEmailData;
+import org.apache.fineract.infrastructure.reportmailingjob.data.ReportMailingJobPreviousRunStatus;
+import org.apache.fineract.infrastructure.reportmailingjob.domain.ReportMailingJob;
+import org.apache.fineract.infrastructure.reportmailingjob.domain.ReportMailingJobRepository;
+import org.apache.fineract.infrastructure.reportmailingjob.domain.ReportMailingJobRepositoryWrapper;
+import org.apache.fineract.infrastructure.reportmailingjob.domain.ReportMailingJobRunHistoryRepository;
+import org.apache.fineract.infrastructure.reportmailingjob.validation.ReportMailingJobValidator;
+import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Runs due report mailing jobs against a stub reporting service and records what the email service was asked to send.
+ */
+public class ReportMailingJobWritePlatformServiceImplTest {
+
+    private static final String REPORT_NAME = "Active Loans";
+    private static final String CSV_OUTPUT = "Loan Id,Client\n1,Ann\n2,Bob\n";
+
+    private final List<ReportMailingJob> dueJobs = new ArrayList<>();
+    private final List<Attachment> attachments = Collections.synchronizedList(new ArrayList<>());
+    private ReportMailingJobRepository reportMailingJobRepository;
+    private ReportMailingJobValidator reportMailingJobValidator;
+    private ReportMailingJobEmailService reportMailingJobEmailService;
+    private ReportingProcessService reportingProcessService;
+    private ReportingProcessServiceProvider reportingProcessServiceProvider;
+    private ReadReportingService readReportingService;
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+
+        this.reportMailingJobRepository = mock(ReportMailingJobRepository.class);
+        when(this.reportMailingJobRepository.findByIsActiveTrueAndIsDeletedFalse()).thenReturn(this.dueJobs);
+        this.reportMailingJobValidator = mock(ReportMailingJobValidator.class);
+        when(this.reportMailingJobValidator.validateEmailRecipients(anyString()))
+                .thenAnswer(invocation -> new LinkedHashSet<>(Arrays.asList(((String) invocation.getArgument(0)).split(","))));
+
+        this.readReportingService = mock(ReadReportingService.class);
+        when(this.readReportingService.getReportType(eq(REPORT_NAME), anyBoolean(), anyBoolean())).thenReturn("Table");
+        this.reportingProcessService = mock(ReportingProcessService.class);
+        final Response response = mock(Response.class);
+        final StreamingOutput csvOutput = output -> output.write(CSV_OUTPUT.getBytes(StandardCharsets.UTF_8));
+        when(response.getEntity()).thenReturn(csvOutput);
+        when(this.reportingProcessService.processRequest(eq(REPORT_NAME), any())).thenReturn(response);
+        this.reportingProcessServiceProvider = mock(ReportingProcessServiceProvider.class);
+        when(this.reportingProcessServiceProvider.findReportingProcessService("Table")).thenReturn(this.reportingProcessService);
+
+        this.reportMailingJobEmailService = mock(ReportMailingJobEmailService.class);
+        doAnswer(invocation -> {
+            // the attachment only lives for the run, read it while it is being sent
+            final ReportMailingJobEmailData email = invocation.getArgument(0);
+            this.attachments.add(new Attachment(email.getTo(), email.getAttachment(), Files.readAllBytes(email.getAttachment().toPath())));
+            return null;
+        }).when(this.reportMailingJobEmailService).sendEmailWithAttachment(any(ReportMailingJobEmailData.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void jobsOfTheSameReportShareOneFile() throws Exception {
+        dueJob("Daily loans", "CSV", "ann@example.org");
+        dueJob("Daily loans for audit", "CSV", "audit@example.org,bob@example.org");
+
+        service(false).executeReportMailingJobs();
+
+        verify(this.reportingProcessService, times(1)).processRequest(eq(REPORT_NAME), any());
+        assertEquals(3, this.attachments.size());
+        final File file = this.attachments.get(0).file;
+        for (final Attachment attachment : this.attachments) {
+            assertEquals(file, attachment.file);
+            assertEquals(CSV_OUTPUT, new String(attachment.content, StandardCharsets.UTF_8));
+        }
+        assertEquals(REPORT_NAME + ".CSV", file.getName());
+        assertEquals(new HashSet<>(Arrays.asList("ann@example.org", "audit@example.org", "bob@example.org")),
+                this.attachments.stream().map(attachment -> attachment.to).collect(Collectors.toSet()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void csvAttachmentsAreStreamedThroughTheCsvExport() throws Exception {
+        dueJob("Daily loans", "CSV", "ann@example.org");
+
+        service(false).executeReportMailingJobs();
+
+        final ArgumentCaptor<MultivaluedMap<String, String>> reportParams = ArgumentCaptor.forClass(MultivaluedMap.class);
+        verify(this.reportingProcessService).processRequest(eq(REPORT_NAME), reportParams.capture());
+        assertEquals("true", reportParams.getValue().getFirst("exportCSV"));
+        assertEquals(CSV_OUTPUT, new String(this.attachments.get(0).content, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void compressesAttachmentsWhenEnabled() throws Exception {
+        dueJob("Daily loans", "CSV", "ann@example.org");
+
+        service(true).executeReportMailingJobs();
+
+        final Attachment attachment = this.attachments.get(0);
+        assertEquals(REPORT_NAME + ".CSV.zip", attachment.file.getName());
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(attachment.content))) {
+            final ZipEntry entry = zip.getNextEntry();
+            assertNotNull(entry);
+            assertEquals(REPORT_NAME + ".CSV", entry.getName());
+            assertEquals(CSV_OUTPUT, new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void removesTheReportFilesOnceTheRunIsOver() throws Exception {
+        dueJob("Daily loans", "CSV", "ann@example.org");
+        dueJob("Monthly loans", "XLS", "bob@example.org");
+
+        service(false).executeReportMailingJobs();
+
+        assertEquals(2, this.attachments.size());
+        for (final Attachment attachment : this.attachments) {
+            assertFalse(attachment.file.exists());
+            assertFalse(attachment.file.getParentFile().exists());
+        }
+    }
+
+    @Test
+    public void recordsTheErrorOfAFailedJobAndStillRemovesItsFile() throws Exception {
+        final ReportMailingJob job = dueJob("Daily loans", "CSV", "ann@example.org");
+        final List<File> sentFiles = new ArrayList<>();
+        doAnswer(invocation -> {
+            sentFiles.add(((ReportMailingJobEmailData) invocation.getArgument(0)).getAttachment());
+            throw new IllegalStateException("SMTP server unavailable");
+        }).when(this.reportMailingJobEmailService).sendEmailWithAttachment(any(ReportMailingJobEmailData.class));
+
+        service(false).executeReportMailingJobs();
+
+        verify(job).updatePreviousRunStatus(ReportMailingJobPreviousRunStatus.ERROR.getValue());
+        final ArgumentCaptor<String> errorLog = ArgumentCaptor.forClass(String.class);
+        verify(job, times(2)).updatePreviousRunErrorLog(errorLog.capture());
+        assertTrue(errorLog.getValue().contains("SMTP server unavailable"));
+        assertEquals(1, sentFiles.size());
+        assertFalse(sentFiles.get(0).exists());
+    }
+
+    private ReportMailingJobWritePlatformServiceImpl service(final boolean compressAttachments) {
+        final ReportMailingJobRepositoryWrapper reportMailingJobRepositoryWrapper = mock(ReportMailingJobRepositoryWrapper.class);
+        when(reportMailingJobRepositoryWrapper.getReportMailingJobRepository()).thenReturn(this.reportMailingJobRepository);
+        return new ReportMailingJobWritePlatformServiceImpl(mock(ReportRepositoryWrapper.class), this.reportMailingJobValidator,
+                reportMailingJobRepositoryWrapper, this.reportMailingJobRepository, mock(PlatformSecurityContext.class),
+                this.reportMailingJobEmailService, this.readReportingService, mock(ReportMailingJobRunHistoryRepository.class),
+                this.reportingProcessServiceProvider, new SimpleMeterRegistry(), 2, compressAttachments);
+    }
+
+    private ReportMailingJob dueJob(final String name, final String fileFormat, final String emailRecipients) {
+        final Report report = new Report(REPORT_NAME, "Table", null, "Loan", null, true, "select 1",
+                Collections.singletonList("Table"));
+        final ReportMailingJob job = mock(ReportMailingJob.class);
+        when(job.getName()).thenReturn(name);
+        when(job.getStretchyReport()).thenReturn(report);
+        when(job.getStretchyReportParamMap()).thenReturn("{}");
+        when(job.getEmailAttachmentFileFormat()).thenReturn(fileFormat);
+        when(job.getEmailRecipients()).thenReturn(emailRecipients);
+        when(job.getNextRunDateTime())
+                .thenReturn(DateUtils.getLocalDateTimeOfTenant().minusHours(1).atZone(DateUtils.getDateTimeZoneOfTenant()));
+        this.dueJobs.add(job);
+        return job;
+    }
+
+    private static final class Attachment {
+
+        private final String to;
+        private final File file;
+        private final byte[] content;
+
+        Attachment(final String to, final File file, final byte[] content) {
+            this.to = to;
+            this.file = file;
+            this.content = content;
+        }
+    }
+}
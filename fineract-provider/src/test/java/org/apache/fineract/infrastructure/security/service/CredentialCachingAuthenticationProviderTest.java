@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.security.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class CredentialCachingAuthenticationProviderTest {
+
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private CredentialCachingAuthenticationProvider underTest;
+
+    @BeforeEach
+    public void setUp() {
+        underTest = new CredentialCachingAuthenticationProvider(
+                new ConcurrentMapCacheManager(CredentialCachingAuthenticationProvider.CACHE_NAME));
+        underTest.setUserDetailsService(userDetailsService);
+        underTest.setPasswordEncoder(passwordEncoder);
+        given(userDetailsService.loadUserByUsername("mifos"))
+                .willReturn(User.withUsername("mifos").password("{bcrypt}hash").authorities(List.of()).build());
+        given(passwordEncoder.matches("password", "{bcrypt}hash")).willReturn(true);
+    }
+
+    @Test
+    public void testRepeatedAuthenticationVerifiesPasswordOnce() {
+        underTest.authenticate(new UsernamePasswordAuthenticationToken("mifos", "password"));
+        underTest.authenticate(new UsernamePasswordAuthenticationToken("mifos", "password"));
+
+        verify(passwordEncoder, times(1)).matches("password", "{bcrypt}hash");
+    }
+
+    @Test
+    public void testDifferentPasswordIsVerifiedAgain() {
+        underTest.authenticate(new UsernamePasswordAuthenticationToken("mifos", "password"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> underTest.authenticate(new UsernamePasswordAuthenticationToken("mifos", "wrong")));
+        verify(passwordEncoder, times(2)).matches(anyString(), anyString());
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.sms.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.fineract.infrastructure.campaigns.helper.SmsConfigUtils;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.sms.data.SmsMessageApiQueueResourceData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Dispatches messages against a local stub of the intermediate message gateway.
+ */
+public class SmsGatewayDispatcherTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final List<Long> received = Collections.synchronizedList(new ArrayList<>());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer gateway;
+    private SmsConfigUtils smsConfigUtils;
+
+    @BeforeEach
+    public void startGateway() throws IOException {
+        this.gateway = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.gateway.createContext("/sms", exchange -> {
+            final List<SmsMessageApiQueueResourceData> messages = new Gson().fromJson(
+                    new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8),
+                    new TypeToken<List<SmsMessageApiQueueResourceData>>() {}.getType());
+            messages.forEach(message -> this.received.add(message.getInternalId()));
+            this.requests.incrementAndGet();
+            exchange.sendResponseHeaders(202, -1);
+            exchange.close();
+        });
+        this.gateway.start();
+
+        this.smsConfigUtils = mock(SmsConfigUtils.class);
+        when(this.smsConfigUtils.getMessageGateWayRequestURI(eq("sms"), any())).thenReturn(
+                Map.of("uri", URI.create("http://localhost:" + this.gateway.getAddress().getPort() + "/sms"), "entity",
+                        new HttpEntity<>(new HttpHeaders())));
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+    }
+
+    @AfterEach
+    public void stopGateway() {
+        ThreadLocalContextUtil.clearTenant();
+        this.gateway.stop(0);
+    }
+
+    @Test
+    public void sendsBulkRequestsPerProvider() throws Exception {
+        final SmsGatewayDispatcher dispatcher = new SmsGatewayDispatcher(this.smsConfigUtils, null, this.meterRegistry, 2, 4, 0, "");
+        final List<SmsMessageApiQueueResourceData> messages = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            messages.add(SmsMessageApiQueueResourceData.instance(id, "default", null, null, "+100" + id, "Hello", id % 2));
+        }
+
+        dispatcher.dispatch(messages).get(10, TimeUnit.SECONDS);
+        dispatcher.shutdown();
+
+        // 5 messages of each provider in bulks of at most 4
+        assertEquals(4, this.requests.get());
+        assertEquals(10, this.received.size());
+        assertEquals(10.0, this.meterRegistry.get("fineract.sms.gateway.messages").tag("outcome", "accepted").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+    }
+
+    @Test
+    public void throttlesEachProvider() throws Exception {
+        final SmsGatewayDispatcher dispatcher = new SmsGatewayDispatcher(this.smsConfigUtils, null, this.meterRegistry, 4, 1, 1000,
+                "7=10");
+        final List<SmsMessageApiQueueResourceData> messages = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            messages.add(SmsMessageApiQueueResourceData.instance(id, "default", null, null, "+100" + id, "Hello", 7L));
+        }
+
+        final long start = System.nanoTime();
+        dispatcher.dispatch(messages).get(10, TimeUnit.SECONDS);
+        dispatcher.shutdown();
+
+        // 6 single message requests at 10 messages per second take at least half a second
+        assertEquals(6, this.requests.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 450);
+    }
+
+    @Test
+    public void keepsSendingOtherProvidersWhileOneIsThrottled() throws Exception {
+        // a single sending thread, provider 7 at 2 messages per second, provider 8 unlimited
+        final SmsGatewayDispatcher dispatcher = new SmsGatewayDispatcher(this.smsConfigUtils, null, this.meterRegistry, 1, 1, 0, "7=2");
+        final List<SmsMessageApiQueueResourceData> messages = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            messages.add(SmsMessageApiQueueResourceData.instance(id, "default", null, null, "+100" + id, "Hello", 7L));
+        }
+        messages.add(SmsMessageApiQueueResourceData.instance(4L, "default", null, null, "+1004", "Hello", 8L));
+
+        assertEquals(0, dispatcher.dispatch(messages).get(10, TimeUnit.SECONDS));
+        dispatcher.shutdown();
+
+        // the throttled messages were put back instead of blocking the thread the message of provider 8 needed
+        assertEquals(4, this.received.size());
+        assertEquals(1L, this.received.get(0));
+        assertTrue(this.received.indexOf(4L) < this.received.indexOf(3L));
+    }
+}
@@ -0,0 +1,273 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.interoperation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.gson.JsonParser;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import org.apache.fineract.commands.service.PortfolioCommandSourceWritePlatformService;
+import org.apache.fineract.infrastructure.core.api.JsonCommand;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
+import org.apache.fineract.interoperation.data.InteropIdentifierAccountResponseData;
+import org.apache.fineract.interoperation.data.InteropTransferRequestData;
+import org.apache.fineract.interoperation.data.InteropTransferResponseData;
+import org.apache.fineract.interoperation.data.MoneyData;
+import org.apache.fineract.interoperation.domain.InteropIdentifier;
+import org.apache.fineract.interoperation.domain.InteropIdentifierRepository;
+import org.apache.fineract.interoperation.domain.InteropIdentifierType;
+import org.apache.fineract.interoperation.domain.InteropTransactionRole;
+import org.apache.fineract.interoperation.exception.InteropTransferConflictException;
+import org.apache.fineract.interoperation.serialization.InteropDataValidator;
+import org.apache.fineract.organisation.monetary.domain.ApplicationCurrency;
+import org.apache.fineract.organisation.monetary.domain.ApplicationCurrencyRepository;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanRepository;
+import org.apache.fineract.portfolio.note.domain.NoteRepository;
+import org.apache.fineract.portfolio.paymenttype.domain.PaymentTypeRepository;
+import org.apache.fineract.portfolio.savings.SavingsAccountTransactionType;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccount;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountAssembler;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountDomainService;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountRepository;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountTransaction;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountTransactionRepository;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountTransactionSummaryWrapper;
+import org.apache.fineract.portfolio.savings.domain.SavingsHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class InteropServiceImplTest {
+
+    private static final String ACCOUNT_ID = "acc-1";
+    private static final String TRANSFER_CODE = "transfer-1";
+
+    private final MonetaryCurrency usDollars = new MonetaryCurrency("USD", 2, null);
+
+    private InteropDataValidator dataValidator;
+    private SavingsAccountRepository savingsAccountRepository;
+    private SavingsAccountTransactionRepository transactionRepository;
+    private ApplicationCurrencyRepository currencyRepository;
+    private InteropIdentifierRepository identifierRepository;
+    private SavingsAccountDomainService savingsAccountService;
+    private SavingsAccountAssembler savingsAccountAssembler;
+    private InteropIdentifierCache identifierCache;
+    private JdbcTemplate jdbcTemplate;
+    private InteropServiceImpl service;
+    private JsonCommand command;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        final Field field = MoneyHelper.class.getDeclaredField("roundingMode");
+        field.setAccessible(true);
+        field.set(null, RoundingMode.HALF_EVEN);
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+
+        this.dataValidator = mock(InteropDataValidator.class);
+        this.savingsAccountRepository = mock(SavingsAccountRepository.class);
+        this.transactionRepository = mock(SavingsAccountTransactionRepository.class);
+        this.currencyRepository = mock(ApplicationCurrencyRepository.class);
+        this.identifierRepository = mock(InteropIdentifierRepository.class);
+        this.savingsAccountService = mock(SavingsAccountDomainService.class);
+        this.savingsAccountAssembler = mock(SavingsAccountAssembler.class);
+        this.identifierCache = mock(InteropIdentifierCache.class);
+        this.service = new InteropServiceImpl(mock(PlatformSecurityContext.class), this.dataValidator, this.savingsAccountRepository,
+                this.transactionRepository, this.currencyRepository, mock(NoteRepository.class), mock(PaymentTypeRepository.class),
+                this.identifierRepository, mock(LoanRepository.class), mock(SavingsHelper.class),
+                mock(SavingsAccountTransactionSummaryWrapper.class), this.savingsAccountService, mock(RoutingDataSource.class),
+                mock(PortfolioCommandSourceWritePlatformService.class), null,
+                mock(DatabaseSpecificSQLGenerator.class), this.savingsAccountAssembler, this.identifierCache);
+        this.jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(this.service, "jdbcTemplate", this.jdbcTemplate);
+
+        this.command = JsonCommand.fromExistingCommand(7L, "{}", JsonParser.parseString("{}"), new FromJsonHelper(), null, null, null,
+                null, null, null, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void replaysACompletedCommitWithoutTouchingTheAccount() throws Exception {
+        final InteropTransferRequestData request = transferRequest(InteropTransactionRole.PAYEE, BigDecimal.TEN);
+        final LocalDateTime completedOn = LocalDateTime.of(2022, 3, 1, 10, 15);
+        givenCompletedTransfer("CREATE", ACCOUNT_ID, new BigDecimal("10.00"), 5L, completedOn);
+
+        final InteropTransferResponseData response = this.service.commitTransfer(this.command);
+
+        assertEquals(5L, response.commandId());
+        assertEquals(TRANSFER_CODE, response.getTransferCode());
+        assertEquals(completedOn, response.getCompletedTimestampDate());
+        verifyNoInteractions(this.savingsAccountRepository, this.savingsAccountService, this.savingsAccountAssembler);
+        verify(this.jdbcTemplate).query(startsWith("select account_id, amount"), any(RowMapper.class), eq(TRANSFER_CODE), eq("CREATE"),
+                eq("PAYEE"));
+        verifyNoMoreInteractions(this.jdbcTemplate);
+        verify(request, never()).normalizeAmounts(any());
+    }
+
+    @Test
+    public void rejectsARetryWithADifferentAmount() throws Exception {
+        transferRequest(InteropTransactionRole.PAYEE, BigDecimal.TEN);
+        givenCompletedTransfer("CREATE", ACCOUNT_ID, new BigDecimal("12.00"), 5L, LocalDateTime.of(2022, 3, 1, 10, 15));
+
+        assertThrows(InteropTransferConflictException.class, () -> this.service.commitTransfer(this.command));
+        verifyNoInteractions(this.savingsAccountRepository, this.savingsAccountService);
+    }
+
+    @Test
+    public void rejectsARetryForADifferentAccount() throws Exception {
+        transferRequest(InteropTransactionRole.PAYER, BigDecimal.TEN);
+        givenCompletedTransfer("PREPARE", "acc-2", BigDecimal.TEN, 5L, LocalDateTime.of(2022, 3, 1, 10, 15));
+
+        assertThrows(InteropTransferConflictException.class, () -> this.service.prepareTransfer(this.command));
+        verifyNoInteractions(this.savingsAccountRepository, this.savingsAccountService);
+    }
+
+    @Test
+    public void commitsADepositOnAnAccountLoadedFromThePivotDate() {
+        final InteropTransferRequestData request = transferRequest(InteropTransactionRole.PAYEE, BigDecimal.TEN);
+        when(this.savingsAccountAssembler.getPivotConfigStatus()).thenReturn(true);
+        final SavingsAccount account = givenAccount(SavingsAccountTransactionType.DEPOSIT);
+
+        this.service.commitTransfer(this.command);
+
+        verify(this.savingsAccountAssembler).loadTransactionsToSavingsAccount(account, true);
+        verify(this.savingsAccountService).handleDeposit(eq(account), any(), any(), eq(BigDecimal.TEN), any(), eq(false), eq(true),
+                eq(true));
+        verify(this.jdbcTemplate).update(startsWith("insert into m_interop_transfer_idempotency"), eq(TRANSFER_CODE), eq("CREATE"),
+                eq("PAYEE"), eq(ACCOUNT_ID), eq(BigDecimal.TEN), eq(7L), any(Timestamp.class));
+        verify(request).normalizeAmounts(this.usDollars);
+    }
+
+    @Test
+    public void savesTheHoldOnItsOwnOnAnAccountLoadedFromThePivotDate() {
+        transferRequest(InteropTransactionRole.PAYER, BigDecimal.TEN);
+        when(this.savingsAccountAssembler.getPivotConfigStatus()).thenReturn(true);
+        final SavingsAccount account = givenAccount(SavingsAccountTransactionType.WITHDRAWAL);
+        when(account.getWithdrawableBalance()).thenReturn(new BigDecimal("100"));
+
+        this.service.prepareTransfer(this.command);
+
+        verify(this.savingsAccountAssembler).loadTransactionsToSavingsAccount(account, true);
+        verify(this.transactionRepository).save(any(SavingsAccountTransaction.class));
+        verify(account).addTransactionToExisting(any(SavingsAccountTransaction.class));
+        verify(account, never()).addTransaction(any(SavingsAccountTransaction.class));
+        verify(account).holdAmount(BigDecimal.TEN);
+        verify(this.jdbcTemplate).update(startsWith("insert into m_interop_transfer_idempotency"), eq(TRANSFER_CODE), eq("PREPARE"),
+                eq("PAYER"), eq(ACCOUNT_ID), eq(BigDecimal.TEN), eq(7L), any(Timestamp.class));
+    }
+
+    @Test
+    public void evictsTheDeletedIdentifierOnlyAfterCommit() {
+        final InteropIdentifier identifier = mock(InteropIdentifier.class);
+        final SavingsAccount account = mock(SavingsAccount.class);
+        when(account.getExternalId()).thenReturn(ACCOUNT_ID);
+        when(identifier.getAccount()).thenReturn(account);
+        when(identifier.getId()).thenReturn(3L);
+        when(this.identifierRepository.findOneByTypeAndValueAndSubType(InteropIdentifierType.MSISDN, "12345", null))
+                .thenReturn(identifier);
+        TransactionSynchronizationManager.initSynchronization();
+
+        final InteropIdentifierAccountResponseData response = this.service.deleteAccountIdentifier(InteropIdentifierType.MSISDN, "12345",
+                null);
+
+        assertEquals(ACCOUNT_ID, response.getAccountId());
+        verify(this.identifierRepository).delete(identifier);
+        verifyNoInteractions(this.identifierCache);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(this.identifierCache).evict(InteropIdentifierType.MSISDN, "12345", null);
+    }
+
+    private InteropTransferRequestData transferRequest(InteropTransactionRole role, BigDecimal amount) {
+        final InteropTransferRequestData request = mock(InteropTransferRequestData.class);
+        when(request.getTransactionCode()).thenReturn("transaction-1");
+        when(request.getTransferCode()).thenReturn(TRANSFER_CODE);
+        when(request.getAccountId()).thenReturn(ACCOUNT_ID);
+        when(request.getAmount()).thenReturn(MoneyData.build(amount, "USD"));
+        when(request.getTransactionRole()).thenReturn(role);
+        when(this.dataValidator.validateAndParseTransferRequest(this.command)).thenReturn(request);
+        return request;
+    }
+
+    private SavingsAccount givenAccount(SavingsAccountTransactionType transactionType) {
+        final SavingsAccount account = mock(SavingsAccount.class);
+        when(account.getExternalId()).thenReturn(ACCOUNT_ID);
+        when(account.getCurrency()).thenReturn(this.usDollars);
+        when(account.isTransactionAllowed(transactionType, null)).thenReturn(true);
+        when(this.savingsAccountRepository.findByExternalId(ACCOUNT_ID)).thenReturn(account);
+        final ApplicationCurrency currency = mock(ApplicationCurrency.class);
+        when(currency.getCode()).thenReturn("USD");
+        when(this.currencyRepository.findOneByCode("USD")).thenReturn(currency);
+        return account;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenCompletedTransfer(String action, String accountId, BigDecimal amount, Long commandId, LocalDateTime completedOn)
+            throws Exception {
+        final ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("account_id")).thenReturn(accountId);
+        when(rs.getBigDecimal("amount")).thenReturn(amount);
+        when(rs.findColumn("command_id")).thenReturn(3);
+        when(rs.getLong(3)).thenReturn(commandId);
+        when(rs.getTimestamp("completed_on")).thenReturn(Timestamp.valueOf(completedOn));
+        when(this.jdbcTemplate.query(startsWith("select account_id, amount"), any(RowMapper.class), eq(TRANSFER_CODE), eq(action),
+                anyString())).thenAnswer(invocation -> {
+                    final RowMapper<InteropTransferResponseData> mapper = invocation.getArgument(1);
+                    return Collections.singletonList(mapper.mapRow(rs, 0));
+                });
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.mix.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.mix.exception.XBRLMappingInvalidException;
+import org.junit.jupiter.api.Test;
+
+public class XBRLMappingExpressionTest {
+
+    private final Map<String, BigDecimal> balances = Map.of("12000", new BigDecimal("100.10"), "11000", new BigDecimal("50.05"));
+
+    @Test
+    public void shouldEvaluateWithOperatorPrecedence() {
+        final XBRLMappingExpression expression = XBRLMappingExpression.parse("{12000} + {11000} * 2 - ({13000} - 1) / 4");
+        assertEquals(List.of("12000", "11000", "13000"), List.copyOf(expression.getGLCodes()));
+        assertEquals(0, new BigDecimal("200.45").compareTo(expression.evaluate(this.balances)));
+    }
+
+    @Test
+    public void shouldEvaluateUnaryMinusExactly() {
+        assertEquals(0, new BigDecimal("-150.15").compareTo(XBRLMappingExpression.parse("-({12000}+{11000})").evaluate(this.balances)));
+    }
+
+    @Test
+    public void shouldRejectInvalidMappings() {
+        assertThrows(XBRLMappingInvalidException.class, () -> XBRLMappingExpression.parse("{12000} +"));
+        assertThrows(XBRLMappingInvalidException.class, () -> XBRLMappingExpression.parse("({12000}"));
+        assertThrows(XBRLMappingInvalidException.class, () -> XBRLMappingExpression.parse("{12000"));
+        assertThrows(XBRLMappingInvalidException.class, () -> XBRLMappingExpression.parse("{12000} / 0").evaluate(this.balances));
+    }
+}
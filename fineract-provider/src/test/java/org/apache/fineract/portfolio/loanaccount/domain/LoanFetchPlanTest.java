@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.domain;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import javax.persistence.FetchType;
+import javax.persistence.OneToMany;
+import org.junit.jupiter.api.Test;
+
+public class LoanFetchPlanTest {
+
+    @Test
+    public void testEveryPlanNamesLazyCollectionsOfLoan() throws NoSuchFieldException {
+        for (final LoanFetchPlan fetchPlan : LoanFetchPlan.values()) {
+            for (final String fieldName : fetchPlan.getFields()) {
+                final Field field = Loan.class.getDeclaredField(fieldName);
+                final OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+                assertTrue(Collection.class.isAssignableFrom(field.getType()), fetchPlan + "." + fieldName);
+                assertTrue(oneToMany != null && oneToMany.fetch() == FetchType.LAZY, fetchPlan + "." + fieldName);
+            }
+            assertDoesNotThrow(() -> new Loan().initializeLazyCollections(fetchPlan));
+        }
+    }
+
+    @Test
+    public void testAllCoversEveryOtherPlan() {
+        final List<String> all = Arrays.asList(LoanFetchPlan.ALL.getFields());
+        for (final LoanFetchPlan fetchPlan : LoanFetchPlan.values()) {
+            assertTrue(all.containsAll(Arrays.asList(fetchPlan.getFields())), fetchPlan.name());
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.savings.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.apache.fineract.portfolio.account.service.AccountTransfersReadPlatformService;
+import org.apache.fineract.portfolio.savings.DepositAccountType;
+import org.apache.fineract.portfolio.savings.SavingsPostingInterestPeriodType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class SavingsAccountBalanceCheckpointServiceTest {
+
+    private static final Long SAVINGS_ID = 1L;
+    private final MonetaryCurrency usDollars = new MonetaryCurrency("USD", 2, null);
+
+    private JdbcTemplate jdbcTemplate;
+    private SavingsAccountRepositoryWrapper savingsAccountRepository;
+    private SavingsAccount account;
+    private SavingsAccountBalanceCheckpointService service;
+    private LocalDate activationDate;
+    // monthly posting without relaxing days: the end of the month before the one yesterday falls in
+    private LocalDate expectedCheckpointDate;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        final Field field = MoneyHelper.class.getDeclaredField("roundingMode");
+        field.setAccessible(true);
+        field.set(null, RoundingMode.HALF_EVEN);
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        final LocalDate today = DateUtils.getLocalDateOfTenant();
+        this.activationDate = today.minusMonths(4).withDayOfMonth(1);
+        this.expectedCheckpointDate = today.minusDays(1).withDayOfMonth(1).minusDays(1);
+
+        final ConfigurationDomainService configurationDomainService = mock(ConfigurationDomainService.class);
+        when(configurationDomainService.retrievePivotDateConfig()).thenReturn(true);
+        when(configurationDomainService.isRelaxingDaysConfigForPivotDateEnabled()).thenReturn(false);
+        when(configurationDomainService.retrieveFinancialYearBeginningMonth()).thenReturn(1);
+
+        this.account = mock(SavingsAccount.class);
+        when(this.account.getId()).thenReturn(SAVINGS_ID);
+        when(this.account.depositAccountType()).thenReturn(DepositAccountType.SAVINGS_DEPOSIT);
+        when(this.account.getActivationLocalDate()).thenReturn(this.activationDate);
+        when(this.account.getSummary()).thenReturn(new SavingsAccountSummary());
+        when(this.account.getNominalAnnualInterestRate()).thenReturn(BigDecimal.ZERO);
+        when(this.account.getInterestPostingPeriodType()).thenReturn(SavingsPostingInterestPeriodType.MONTHLY.getValue());
+        when(this.account.getCurrency()).thenReturn(this.usDollars);
+
+        this.jdbcTemplate = mock(JdbcTemplate.class);
+        this.savingsAccountRepository = mock(SavingsAccountRepositoryWrapper.class);
+        this.service = new SavingsAccountBalanceCheckpointService(this.jdbcTemplate, configurationDomainService,
+                new SavingsHelper(mock(AccountTransfersReadPlatformService.class)), this.savingsAccountRepository);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clear();
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void rebuildStoresTheBalanceOfTheTransactionsUpToTheCheckpoint() {
+        final SavingsAccountTransaction reversed = deposit(this.activationDate.plusDays(3), "50");
+        reversed.reverse();
+        final List<SavingsAccountTransaction> transactions = Arrays.asList(deposit(this.activationDate.plusDays(1), "100"),
+                withdrawal(this.activationDate.plusDays(2), "30"), reversed, deposit(this.expectedCheckpointDate.plusDays(1), "20"));
+
+        this.service.rebuildCheckpoint(this.account, transactions);
+
+        verify(this.jdbcTemplate).queryForList(startsWith("select id from m_savings_account where id = ? for update"), eq(Long.class),
+                eq(SAVINGS_ID));
+        verify(this.jdbcTemplate).update(startsWith("insert into m_savings_account_balance_checkpoint"), eq(SAVINGS_ID),
+                eq(java.sql.Date.valueOf(this.expectedCheckpointDate)), amount("70"), eq(3L));
+    }
+
+    @Test
+    public void rebuildDoesNotWriteFromReadOnlyTransactions() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        this.service.rebuildCheckpoint(this.account, Collections.singletonList(deposit(this.activationDate.plusDays(1), "100")));
+
+        verifyNoInteractions(this.jdbcTemplate);
+    }
+
+    @Test
+    public void rebuildDoesNotWriteOutsideTransactions() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        this.service.rebuildCheckpoint(this.account, Collections.singletonList(deposit(this.activationDate.plusDays(1), "100")));
+
+        verifyNoInteractions(this.jdbcTemplate);
+    }
+
+    @Test
+    public void invalidateDropsCheckpointsFromTheTransactionDate() {
+        final LocalDate transactionDate = this.activationDate.plusDays(5);
+
+        this.service.invalidateCheckpoint(SAVINGS_ID, transactionDate);
+
+        verify(this.jdbcTemplate).update(startsWith("delete from m_savings_account_balance_checkpoint"), eq(SAVINGS_ID),
+                eq(java.sql.Date.valueOf(transactionDate)));
+    }
+
+    @Test
+    public void findReturnsTheCheckpointWhileItsTransactionCountMatches() {
+        final SavingsAccountBalanceCheckpoint checkpoint = storedCheckpoint(this.expectedCheckpointDate, "70", 3L);
+        when(this.jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(SAVINGS_ID), any(java.sql.Date.class))).thenReturn(3L);
+
+        assertSame(checkpoint, this.service.findValidCheckpoint(this.account));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void findIgnoresAStaleCheckpointWithoutDeletingIt() {
+        storedCheckpoint(this.expectedCheckpointDate, "70", 3L);
+        when(this.jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(SAVINGS_ID), any(java.sql.Date.class))).thenReturn(4L);
+
+        assertNull(this.service.findValidCheckpoint(this.account));
+        verify(this.jdbcTemplate).query(anyString(), any(RowMapper.class), eq(SAVINGS_ID));
+        verify(this.jdbcTemplate).queryForObject(anyString(), eq(Long.class), eq(SAVINGS_ID), any(java.sql.Date.class));
+        verifyNoMoreInteractions(this.jdbcTemplate);
+    }
+
+    @Test
+    public void loadingFromAnOlderCheckpointMovesItForward() {
+        final SavingsAccountBalanceCheckpoint checkpoint = new SavingsAccountBalanceCheckpoint(this.expectedCheckpointDate.minusMonths(1),
+                new BigDecimal("70"), 3L);
+        final List<SavingsAccountTransaction> transactionsAfterCheckpoint = Arrays.asList(
+                deposit(this.expectedCheckpointDate.minusDays(5), "10"), withdrawal(this.expectedCheckpointDate, "5"),
+                deposit(this.expectedCheckpointDate.plusDays(1), "20"));
+
+        this.service.advanceCheckpoint(this.account, checkpoint, transactionsAfterCheckpoint);
+
+        verify(this.jdbcTemplate).update(startsWith("insert into m_savings_account_balance_checkpoint"), eq(SAVINGS_ID),
+                eq(java.sql.Date.valueOf(this.expectedCheckpointDate)), amount("75"), eq(5L));
+    }
+
+    @Test
+    public void loadingFromACurrentCheckpointLeavesItInPlace() {
+        final SavingsAccountBalanceCheckpoint checkpoint = new SavingsAccountBalanceCheckpoint(this.expectedCheckpointDate,
+                new BigDecimal("70"), 3L);
+
+        this.service.advanceCheckpoint(this.account, checkpoint,
+                Collections.singletonList(deposit(this.expectedCheckpointDate.plusDays(1), "20")));
+
+        verifyNoInteractions(this.jdbcTemplate);
+    }
+
+    @Test
+    public void aTransactionOnTheCheckpointLoadsTheFullHistoryAndDropsTheCheckpoint() {
+        when(this.account.getBalanceCheckpointDate()).thenReturn(this.expectedCheckpointDate);
+        final SavingsAccountTransaction last = deposit(this.activationDate.plusDays(2), "30");
+        last.updateRunningBalance(Money.of(this.usDollars, new BigDecimal("130")));
+        final List<SavingsAccountTransaction> allTransactions = Arrays.asList(deposit(this.activationDate.plusDays(1), "100"), last);
+        when(this.savingsAccountRepository.findAllTransactions(this.account)).thenReturn(allTransactions);
+
+        this.service.loadHistoryBeforeCheckpoint(this.account, this.expectedCheckpointDate);
+
+        verify(this.account).setAllSavingsAccountTransactions(allTransactions);
+        assertEquals(0, new BigDecimal("130").compareTo(this.account.getSummary().getRunningBalanceOnPivotDate()));
+        verify(this.jdbcTemplate).update(startsWith("delete from m_savings_account_balance_checkpoint"), eq(SAVINGS_ID),
+                eq(java.sql.Date.valueOf(this.expectedCheckpointDate)));
+    }
+
+    @Test
+    public void aTransactionAfterTheCheckpointKeepsTheAccountLoadedFromIt() {
+        when(this.account.getBalanceCheckpointDate()).thenReturn(this.expectedCheckpointDate);
+
+        this.service.loadHistoryBeforeCheckpoint(this.account, this.expectedCheckpointDate.plusDays(1));
+
+        verifyNoInteractions(this.savingsAccountRepository, this.jdbcTemplate);
+        verify(this.account, never()).setAllSavingsAccountTransactions(any());
+    }
+
+    @Test
+    public void anAccountLoadedInFullIsLeftAsItIs() {
+        this.service.loadHistoryBeforeCheckpoint(this.account, this.activationDate);
+
+        verifyNoInteractions(this.savingsAccountRepository, this.jdbcTemplate);
+        verify(this.account, never()).setAllSavingsAccountTransactions(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private SavingsAccountBalanceCheckpoint storedCheckpoint(final LocalDate checkpointDate, final String runningBalance,
+            final long transactionCount) {
+        final SavingsAccountBalanceCheckpoint checkpoint = new SavingsAccountBalanceCheckpoint(checkpointDate,
+                new BigDecimal(runningBalance), transactionCount);
+        when(this.jdbcTemplate.query(anyString(), any(RowMapper.class), eq(SAVINGS_ID))).thenReturn(Collections.singletonList(checkpoint));
+        return checkpoint;
+    }
+
+    private SavingsAccountTransaction deposit(final LocalDate date, final String amount) {
+        return SavingsAccountTransaction.deposit(this.account, null, null, date, Money.of(this.usDollars, new BigDecimal(amount)),
+                new Date(), null);
+    }
+
+    private SavingsAccountTransaction withdrawal(final LocalDate date, final String amount) {
+        return SavingsAccountTransaction.withdrawal(this.account, null, null, date, Money.of(this.usDollars, new BigDecimal(amount)),
+                new Date(), null);
+    }
+
+    private static Object amount(final String value) {
+        return argThat(actual -> actual instanceof BigDecimal && new BigDecimal(value).compareTo((BigDecimal) actual) == 0);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.savings.service;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.infrastructure.core.data.PaginationParametersDataValidator;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.PaginationHelper;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
+import org.apache.fineract.organisation.staff.service.StaffReadPlatformService;
+import org.apache.fineract.portfolio.calendar.service.CalendarReadPlatformService;
+import org.apache.fineract.portfolio.charge.service.ChargeReadPlatformService;
+import org.apache.fineract.portfolio.client.service.ClientReadPlatformService;
+import org.apache.fineract.portfolio.common.service.DropdownReadPlatformService;
+import org.apache.fineract.portfolio.group.service.GroupReadPlatformService;
+import org.apache.fineract.portfolio.interestratechart.service.InterestRateChartReadPlatformService;
+import org.apache.fineract.portfolio.paymenttype.service.PaymentTypeReadPlatformService;
+import org.apache.fineract.portfolio.savings.DepositAccountUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class DepositAccountReadPlatformServiceImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DepositAccountReadPlatformServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        final DatabaseSpecificSQLGenerator sqlGenerator = mock(DatabaseSpecificSQLGenerator.class);
+        when(sqlGenerator.limit(500)).thenReturn("LIMIT 500");
+        this.service = new DepositAccountReadPlatformServiceImpl(mock(PlatformSecurityContext.class), mock(RoutingDataSource.class),
+                mock(DepositAccountInterestRateChartReadPlatformService.class), mock(PaginationParametersDataValidator.class),
+                mock(ClientReadPlatformService.class), mock(GroupReadPlatformService.class), mock(DepositProductReadPlatformService.class),
+                mock(SavingsDropdownReadPlatformService.class), mock(ChargeReadPlatformService.class), mock(StaffReadPlatformService.class),
+                mock(DepositsDropdownReadPlatformService.class), mock(InterestRateChartReadPlatformService.class),
+                mock(SavingsAccountReadPlatformService.class), mock(DropdownReadPlatformService.class),
+                mock(CalendarReadPlatformService.class), mock(PaymentTypeReadPlatformService.class), sqlGenerator,
+                mock(PaginationHelper.class));
+        this.jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(this.service, "jdbcTemplate", this.jdbcTemplate);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void readsRDScheduleDataAfterTheLastAccountOfThePreviousPage() {
+        final List<Map<String, Object>> page = Collections.singletonList(Collections.singletonMap("savingsId", 43L));
+        when(this.jdbcTemplate.queryForList(anyString(), any(Object[].class))).thenReturn(page);
+
+        final Collection<Map<String, Object>> result = this.service.retriveDataForRDScheduleCreation(42L, 500);
+
+        assertSame(page, result);
+        final ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(this.jdbcTemplate).queryForList(sql.capture(), any(), any(), any(), any(), eq(42L),
+                eq(DepositAccountUtils.GENERATE_MINIMUM_NUMBER_OF_FUTURE_INSTALMENTS));
+        assertTrue(sql.getValue().contains("dat.savings_account_id > ?"), sql.getValue());
+        assertTrue(sql.getValue().trim().endsWith("order by rd.savings_account_id LIMIT 500"), sql.getValue());
+    }
+}
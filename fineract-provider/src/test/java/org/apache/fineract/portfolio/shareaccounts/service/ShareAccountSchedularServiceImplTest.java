@@ -0,0 +1,179 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.shareaccounts.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSource;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountAssembler;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountDomainService;
+import org.apache.fineract.portfolio.savings.domain.SavingsAccountTransaction;
+import org.apache.fineract.portfolio.shareaccounts.domain.ShareAccountDividendDetails;
+import org.apache.fineract.portfolio.shareaccounts.domain.ShareAccountDividendRepository;
+import org.apache.fineract.portfolio.shareaccounts.domain.ShareAccountDividendStatusType;
+import org.apache.fineract.portfolio.shareaccounts.exceptions.ShareAccountDividendAlreadyPostedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ShareAccountSchedularServiceImplTest {
+
+    private ShareAccountDividendRepository dividendRepository;
+    private SavingsAccountAssembler savingsAccountAssembler;
+    private SavingsAccountDomainService savingsAccountDomainService;
+    private JdbcTemplate jdbcTemplate;
+    private ShareAccountSchedularServiceImpl service;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        final Field field = MoneyHelper.class.getDeclaredField("roundingMode");
+        field.setAccessible(true);
+        field.set(null, RoundingMode.HALF_EVEN);
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+
+        this.dividendRepository = mock(ShareAccountDividendRepository.class);
+        this.savingsAccountAssembler = mock(SavingsAccountAssembler.class);
+        this.savingsAccountDomainService = mock(SavingsAccountDomainService.class);
+        final SavingsAccountTransaction payout = SavingsAccountTransaction.deposit(null, null, null, LocalDate.now(),
+                Money.of(new MonetaryCurrency("USD", 2, null), BigDecimal.TEN), new Date(), null);
+        when(this.savingsAccountDomainService.handleDividendPayout(any(), any(), any(), eq(false))).thenReturn(payout);
+        this.service = new ShareAccountSchedularServiceImpl(this.dividendRepository, this.savingsAccountDomainService,
+                this.savingsAccountAssembler, mock(RoutingDataSource.class));
+        this.jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(this.service, "jdbcTemplate", this.jdbcTemplate);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    public void skipsADividendDetailThatIsAlreadyPosted() {
+        final ShareAccountDividendDetails details = new ShareAccountDividendDetails(1L, BigDecimal.TEN);
+        details.update(ShareAccountDividendStatusType.POSTED.getValue(), 5L);
+        when(this.dividendRepository.findById(7L)).thenReturn(Optional.of(details));
+
+        assertFalse(this.service.postDividend(7L, 3L));
+
+        verifyNoInteractions(this.savingsAccountAssembler, this.savingsAccountDomainService, this.jdbcTemplate);
+    }
+
+    @Test
+    public void postsAnInitiatedDividendDetailItLocked() {
+        when(this.dividendRepository.findById(7L)).thenReturn(Optional.of(new ShareAccountDividendDetails(1L, BigDecimal.TEN)));
+        givenInitiated(7L);
+
+        assertTrue(this.service.postDividend(7L, 3L));
+
+        final InOrder inOrder = inOrder(this.jdbcTemplate, this.savingsAccountDomainService);
+        inOrder.verify(this.jdbcTemplate).queryForList(endsWith("AND status = ? ORDER BY id FOR UPDATE"), eq(Long.class), eq(7L),
+                eq(ShareAccountDividendStatusType.INITIATED.getValue()));
+        inOrder.verify(this.savingsAccountDomainService).handleDividendPayout(any(), any(), eq(BigDecimal.TEN), eq(false));
+        inOrder.verify(this.jdbcTemplate).batchUpdate(startsWith("UPDATE m_share_account_dividend_details"),
+                argThat((List<Object[]> updates) -> updates.size() == 1 && updates.get(0)[2].equals(7L)));
+    }
+
+    @Test
+    public void rejectsADividendDetailPostedConcurrently() {
+        when(this.dividendRepository.findById(7L)).thenReturn(Optional.of(new ShareAccountDividendDetails(1L, BigDecimal.TEN)));
+        // read as initiated, but posted by another run before it could be locked
+        givenInitiated();
+
+        assertThrows(ShareAccountDividendAlreadyPostedException.class, () -> this.service.postDividend(7L, 3L));
+
+        verifyNoInteractions(this.savingsAccountAssembler, this.savingsAccountDomainService);
+        verify(this.jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    public void locksAndPostsABatch() {
+        givenInitiated(7L, 8L);
+
+        this.service.postDividends(Arrays.asList(dividendDetail(7L, 3L), dividendDetail(8L, 4L)));
+
+        verify(this.jdbcTemplate).queryForList(contains("WHERE id IN (?,?) AND status = ?"), eq(Long.class), eq(7L), eq(8L),
+                eq(ShareAccountDividendStatusType.INITIATED.getValue()));
+        verify(this.savingsAccountDomainService, times(2)).handleDividendPayout(any(), any(), eq(BigDecimal.TEN), eq(false));
+        verify(this.jdbcTemplate).batchUpdate(startsWith("UPDATE m_share_account_dividend_details"),
+                argThat((List<Object[]> updates) -> updates.size() == 2));
+    }
+
+    @Test
+    public void rejectsABatchWithADividendDetailPostedConcurrently() {
+        final List<Map<String, Object>> batch = Arrays.asList(dividendDetail(7L, 3L), dividendDetail(8L, 4L));
+        // the other run posted 8 only, the driver's batch update counts would not tell
+        givenInitiated(7L);
+
+        final ShareAccountDividendAlreadyPostedException exception = assertThrows(ShareAccountDividendAlreadyPostedException.class,
+                () -> this.service.postDividends(batch));
+
+        assertTrue(exception.getDefaultUserMessage().contains("8"));
+        verifyNoInteractions(this.savingsAccountAssembler, this.savingsAccountDomainService);
+        verify(this.jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private void givenInitiated(Long... dividendDetailIds) {
+        when(this.jdbcTemplate.queryForList(startsWith("SELECT id FROM m_share_account_dividend_details"), eq(Long.class),
+                any(Object[].class))).thenReturn(Arrays.asList(dividendDetailIds));
+    }
+
+    private static Map<String, Object> dividendDetail(Long id, Long savingsAccountId) {
+        final Map<String, Object> detail = new HashMap<>();
+        detail.put("id", id);
+        detail.put("savingsAccountId", savingsAccountId);
+        detail.put("amount", BigDecimal.TEN);
+        return detail;
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.scheduledjobs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.accounting.glaccount.domain.TrialBalanceRepositoryWrapper;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.RoutingDataSourceServiceFactory;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseTypeResolver;
+import org.apache.fineract.infrastructure.jobs.domain.ScheduledJobDetailRepository;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JdbcBulkWriter;
+import org.apache.fineract.infrastructure.jobs.service.JobRegisterService;
+import org.apache.fineract.portfolio.savings.service.DepositAccountReadPlatformService;
+import org.apache.fineract.portfolio.savings.service.DepositAccountWritePlatformService;
+import org.apache.fineract.portfolio.savings.service.SavingsAccountChargeReadPlatformService;
+import org.apache.fineract.portfolio.savings.service.SavingsAccountWritePlatformService;
+import org.apache.fineract.portfolio.shareaccounts.exceptions.ShareAccountDividendAlreadyPostedException;
+import org.apache.fineract.portfolio.shareaccounts.service.ShareAccountDividendReadPlatformService;
+import org.apache.fineract.portfolio.shareaccounts.service.ShareAccountSchedularService;
+import org.apache.fineract.scheduledjobs.service.ScheduledJobRunnerServiceImpl.DividendPayOutProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+public class ScheduledJobRunnerServiceImplTest {
+
+    private DepositAccountReadPlatformService depositAccountReadPlatformService;
+    private ShareAccountDividendReadPlatformService shareAccountDividendReadPlatformService;
+    private ShareAccountSchedularService shareAccountSchedularService;
+    private JdbcBulkWriter jdbcBulkWriter;
+    private ScheduledJobRunnerServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        this.depositAccountReadPlatformService = mock(DepositAccountReadPlatformService.class);
+        this.shareAccountDividendReadPlatformService = mock(ShareAccountDividendReadPlatformService.class);
+        this.shareAccountSchedularService = mock(ShareAccountSchedularService.class);
+        this.jdbcBulkWriter = mock(JdbcBulkWriter.class);
+        this.service = new ScheduledJobRunnerServiceImpl(mock(RoutingDataSourceServiceFactory.class),
+                mock(SavingsAccountWritePlatformService.class), mock(SavingsAccountChargeReadPlatformService.class),
+                this.depositAccountReadPlatformService, mock(DepositAccountWritePlatformService.class),
+                this.shareAccountDividendReadPlatformService, this.shareAccountSchedularService,
+                mock(TrialBalanceRepositoryWrapper.class), mock(JobRegisterService.class), mock(ScheduledJobDetailRepository.class),
+                mock(FineractProperties.class), mock(DatabaseSpecificSQLGenerator.class), mock(DatabaseTypeResolver.class),
+                this.jdbcBulkWriter, 2, 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.clearTenant();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void generatesRDSchedulesPageByPage() throws Exception {
+        when(this.jdbcBulkWriter.getPartitionSize()).thenReturn(2);
+        when(this.depositAccountReadPlatformService.retriveDataForRDScheduleCreation(0L, 2))
+                .thenReturn(Arrays.asList(scheduleDetails(3L, 3, 10), scheduleDetails(7L, 0, 1)));
+        when(this.depositAccountReadPlatformService.retriveDataForRDScheduleCreation(7L, 2))
+                .thenReturn(Collections.singletonList(scheduleDetails(9L, 4, 6)));
+        final List<Integer> groupSizes = new ArrayList<>();
+        final PreparedStatement ps = mock(PreparedStatement.class);
+        when(this.jdbcBulkWriter.write(startsWith("INSERT INTO m_mandatory_savings_schedule"), any(), any())).thenAnswer(invocation -> {
+            final ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(2);
+            int rows = 0;
+            for (final Collection<Object> group : invocation.<Iterable<Collection<Object>>>getArgument(1)) {
+                groupSizes.add(group.size());
+                for (final Object installment : group) {
+                    setter.setValues(ps, installment);
+                }
+                rows += group.size();
+            }
+            return rows;
+        });
+
+        this.service.generateRDSchedule();
+
+        // pages are read after the last account of the previous one, until a page is not full
+        verify(this.depositAccountReadPlatformService).retriveDataForRDScheduleCreation(0L, 2);
+        verify(this.depositAccountReadPlatformService).retriveDataForRDScheduleCreation(7L, 2);
+        verify(this.depositAccountReadPlatformService, times(2)).retriveDataForRDScheduleCreation(anyLong(), anyInt());
+        // the installments of each account are handed over as one group, up to five future installments
+        assertEquals(Arrays.asList(2, 5, 1), groupSizes);
+        verify(ps).setInt(3, 11);
+        verify(ps).setInt(3, 12);
+        verify(ps, times(2)).setLong(eq(1), eq(3L));
+        verify(ps, times(2)).setDate(eq(2), eq(java.sql.Date.valueOf(LocalDate.of(2022, 3, 15))));
+        verify(ps).setLong(eq(1), eq(9L));
+        verify(ps).setInt(3, 7);
+    }
+
+    @Test
+    public void postsTheDividendsOfOneSavingsAccountInOnePartition() throws Exception {
+        // two workers with batches of two
+        final List<Map<String, Object>> details = Arrays.asList(dividendDetail(1L, 1L), dividendDetail(2L, 2L), dividendDetail(3L, 3L),
+                dividendDetail(4L, 2L), dividendDetail(5L, 4L), dividendDetail(6L, 5L));
+        when(this.shareAccountDividendReadPlatformService.retriveDividendDetailsForPostDividents()).thenReturn(details);
+        final List<List<Map<String, Object>>> batches = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> batches.add(new ArrayList<>(invocation.<List<Map<String, Object>>>getArgument(0))))
+                .when(this.shareAccountSchedularService).postDividends(any());
+
+        this.service.postDividends();
+
+        assertEquals(details.size(), batches.stream().mapToInt(List::size).sum());
+        for (final List<Map<String, Object>> batch : batches) {
+            assertTrue(batch.size() <= 2);
+            assertEquals(1, batch.stream().map(detail -> (Long) detail.get("savingsAccountId") % 2).distinct().count(), batch.toString());
+        }
+        verify(this.shareAccountSchedularService, never()).postDividend(anyLong(), anyLong());
+    }
+
+    @Test
+    public void retriesAFailedBatchOneByOneSkippingPostedDetails() {
+        final List<Map<String, Object>> batch = Arrays.asList(dividendDetail(1L, 1L), dividendDetail(2L, 3L), dividendDetail(3L, 5L),
+                dividendDetail(4L, 7L));
+        doThrow(new ShareAccountDividendAlreadyPostedException(2L)).when(this.shareAccountSchedularService).postDividends(batch);
+        when(this.shareAccountSchedularService.postDividend(1L, 1L)).thenReturn(true);
+        when(this.shareAccountSchedularService.postDividend(2L, 3L)).thenReturn(false);
+        when(this.shareAccountSchedularService.postDividend(3L, 5L)).thenThrow(new ShareAccountDividendAlreadyPostedException(3L));
+        when(this.shareAccountSchedularService.postDividend(4L, 7L)).thenThrow(new IllegalStateException("savings account 7"));
+        final DividendPayOutProgress progress = new DividendPayOutProgress(10L);
+        progress.total = batch.size();
+        final List<Throwable> exceptions = new ArrayList<>();
+
+        this.service.postDividendBatch(batch, Collections.singletonMap(10L, progress), exceptions);
+
+        assertEquals(1, progress.posted.get());
+        assertEquals(2, progress.skipped.get());
+        assertEquals(1, progress.failed.get());
+        assertEquals(1, exceptions.size());
+        assertTrue(exceptions.get(0) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void countsAPostedBatchPerPayOut() {
+        final List<Map<String, Object>> batch = Arrays.asList(dividendDetail(1L, 1L), dividendDetail(2L, 3L));
+        batch.get(1).put("dividendPayOutId", 11L);
+        final DividendPayOutProgress firstPayOut = new DividendPayOutProgress(10L);
+        firstPayOut.total = 1;
+        final DividendPayOutProgress secondPayOut = new DividendPayOutProgress(11L);
+        secondPayOut.total = 3;
+        final Map<Long, DividendPayOutProgress> progressByPayOut = new HashMap<>();
+        progressByPayOut.put(10L, firstPayOut);
+        progressByPayOut.put(11L, secondPayOut);
+
+        this.service.postDividendBatch(batch, progressByPayOut, new ArrayList<>());
+
+        assertEquals(1, firstPayOut.posted.get());
+        assertEquals(1, secondPayOut.posted.get());
+        assertEquals(0, firstPayOut.failed.get() + firstPayOut.skipped.get() + secondPayOut.failed.get() + secondPayOut.skipped.get());
+        verify(this.shareAccountSchedularService, never()).postDividend(anyLong(), anyLong());
+    }
+
+    @Test
+    public void failsTheJobOnlyForDetailsThatCouldNotBePosted() throws Exception {
+        final List<Map<String, Object>> details = Arrays.asList(dividendDetail(1L, 1L), dividendDetail(2L, 3L));
+        when(this.shareAccountDividendReadPlatformService.retriveDividendDetailsForPostDividents()).thenReturn(details);
+        doThrow(new ShareAccountDividendAlreadyPostedException(2L)).when(this.shareAccountSchedularService).postDividends(any());
+        when(this.shareAccountSchedularService.postDividend(1L, 1L)).thenReturn(true);
+        when(this.shareAccountSchedularService.postDividend(2L, 3L)).thenReturn(false);
+
+        this.service.postDividends();
+
+        when(this.shareAccountSchedularService.postDividend(2L, 3L)).thenThrow(new IllegalStateException("savings account 3"));
+        assertThrows(JobExecutionException.class, () -> this.service.postDividends());
+    }
+
+    private static Map<String, Object> dividendDetail(Long id, Long savingsAccountId) {
+        final Map<String, Object> detail = new HashMap<>();
+        detail.put("id", id);
+        detail.put("savingsAccountId", savingsAccountId);
+        detail.put("dividendPayOutId", 10L);
+        detail.put("amount", BigDecimal.TEN);
+        return detail;
+    }
+
+    private static Map<String, Object> scheduleDetails(Long savingsId, int futureInstallments, int lastInstallment) {
+        final Map<String, Object> details = new HashMap<>();
+        details.put("savingsId", savingsId);
+        details.put("amount", BigDecimal.TEN);
+        details.put("recurrence", "FREQ=MONTHLY;INTERVAL=1");
+        details.put("dueDate", Date.from(LocalDate.of(2022, 1, 15).atStartOfDay(ZoneId.of("Asia/Kolkata")).toInstant()));
+        details.put("installment", lastInstallment);
+        details.put("futureInstallemts", futureInstallments);
+        return details;
+    }
+}
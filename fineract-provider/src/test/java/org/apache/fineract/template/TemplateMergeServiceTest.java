@@ -19,6 +19,7 @@
 package org.apache.fineract.template;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import com.google.common.io.Resources;
 import com.google.common.reflect.TypeToken;
@@ -50,7 +51,7 @@ import org.junit.jupiter.api.Test;
 
 public class TemplateMergeServiceTest {
 
-    private TemplateMergeService tms = new TemplateMergeService();
+    private TemplateMergeService tms = new TemplateMergeService(null, null, List.of());
 
     @BeforeEach
     public void setUpForEachTestCase() throws Exception {
@@ -114,6 +115,17 @@ public class TemplateMergeServiceTest {
         assertEquals(expectedOutput, output);
     }
 
+    @Test
+    public void compileExpandsArraysIntoACopyOfTheScopes() throws Exception {
+        String templateText = "Hello {{data.name#0}}{{#data.name}} {{.}}{{/data.name}}!";
+        Map<String, Object> scopes = new HashMap<>();
+        scopes.put("data", createMapFromJSON("{\"name\": [ \"Terence\", \"Hill\" ] }"));
+
+        String output = compileTemplateText(templateText, scopes);
+        assertEquals("Hello Terence Terence Hill!", output);
+        assertFalse(((Map<?, ?>) scopes.get("data")).containsKey("name#0"));
+    }
+
     protected String compileTemplateText(String templateText, Map<String, Object> scope) throws MalformedURLException, IOException {
         List<TemplateMapper> mappers = new ArrayList<>();
         Template template = new Template("TemplateName", templateText, null, null, mappers);
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.useradministration.domain;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PermissionSetTest {
+
+    @Test
+    public void testPermissionsAreCollectedFromAllRoles() {
+        Role teller = new Role("Teller", "");
+        teller.updatePermission(new Permission("portfolio", "LOAN", "READ"), true);
+        Role officer = new Role("Officer", "");
+        officer.updatePermission(new Permission("portfolio", "LOAN", "APPROVE"), true);
+
+        PermissionSet permissions = PermissionSet.compile(List.of(teller, officer));
+
+        assertTrue(permissions.allows("READ_LOAN"));
+        assertTrue(permissions.allows("approve_loan"));
+        assertFalse(permissions.allows("DISBURSE_LOAN"));
+        assertFalse(permissions.allows("READ_SOMETHING_NEVER_GRANTED"));
+    }
+
+    @Test
+    public void testAllFunctionsAllowsEverythingButIsNotASpecificPermission() {
+        Role superUser = new Role("Super user", "");
+        superUser.updatePermission(new Permission("special", "FUNCTIONS", "ALL"), true);
+
+        PermissionSet permissions = PermissionSet.compile(List.of(superUser));
+
+        assertTrue(permissions.allows("DISBURSE_LOAN"));
+        assertFalse(permissions.contains("DISBURSE_LOAN"));
+    }
+
+    @Test
+    public void testCompiledSetBecomesStaleWhenPermissionsChange() {
+        PermissionSet permissions = PermissionSet.compile(List.of());
+        assertFalse(permissions.isStale());
+
+        PermissionSet.invalidateCompiledPermissions();
+
+        assertTrue(permissions.isStale());
+    }
+}
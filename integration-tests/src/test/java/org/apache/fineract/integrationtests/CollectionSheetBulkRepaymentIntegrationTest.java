@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.integrationtests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.google.gson.Gson;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.integrationtests.common.ClientHelper;
+import org.apache.fineract.integrationtests.common.CollateralManagementHelper;
+import org.apache.fineract.integrationtests.common.Utils;
+import org.apache.fineract.integrationtests.common.loans.LoanApplicationTestBuilder;
+import org.apache.fineract.integrationtests.common.loans.LoanProductTestBuilder;
+import org.apache.fineract.integrationtests.common.loans.LoanTransactionHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Repays two identical loans, one through the loan's repayment command and one through an individual collection sheet,
+ * and expects both to end up with the same schedule and summary.
+ */
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class CollectionSheetBulkRepaymentIntegrationTest {
+
+    private static final String SAVE_COLLECTION_SHEET_URL = "/fineract-provider/api/v1/collectionsheet?command=saveCollectionSheet&"
+            + Utils.TENANT_IDENTIFIER;
+    private static final String[] SUMMARY_AMOUNTS = { "principalPaid", "principalOutstanding", "interestPaid", "interestOutstanding",
+            "totalRepayment", "totalOutstanding" };
+    private static final String[] PERIOD_AMOUNTS = { "principalPaid", "principalOutstanding", "interestPaid", "interestOutstanding",
+            "totalPaidForPeriod", "totalOutstandingForPeriod" };
+
+    private RequestSpecification requestSpec;
+    private ResponseSpecification responseSpec;
+    private LoanTransactionHelper loanTransactionHelper;
+
+    @BeforeEach
+    public void setup() {
+        Utils.initializeRESTAssured();
+        this.requestSpec = new RequestSpecBuilder().setContentType(ContentType.JSON).build();
+        this.requestSpec.header("Authorization", "Basic " + Utils.loginIntoServerAndGetBase64EncodedAuthenticationKey());
+        this.responseSpec = new ResponseSpecBuilder().expectStatusCode(200).build();
+        this.loanTransactionHelper = new LoanTransactionHelper(this.requestSpec, this.responseSpec);
+    }
+
+    @Test
+    public void bulkRepaymentMatchesTheSingleRepayment() {
+        final Integer clientId = ClientHelper.createClient(this.requestSpec, this.responseSpec, "01 January 2012");
+        final Integer loanProductId = this.loanTransactionHelper
+                .getLoanProductId(new LoanProductTestBuilder().withNumberOfRepayments("6").withRepaymentTypeAsMonth().build(null));
+        final Integer singleLoanId = disbursedLoan(clientId, loanProductId);
+        final Integer bulkLoanId = disbursedLoan(clientId, loanProductId);
+
+        for (final String transactionDate : new String[] { "04 May 2012", "20 June 2012" }) {
+            this.loanTransactionHelper.makeRepayment(transactionDate, 450.0f, singleLoanId);
+            saveCollectionSheet(transactionDate, bulkLoanId, "450");
+        }
+
+        final Map singleSummary = this.loanTransactionHelper.getLoanSummary(this.requestSpec, this.responseSpec, singleLoanId);
+        final Map bulkSummary = this.loanTransactionHelper.getLoanSummary(this.requestSpec, this.responseSpec, bulkLoanId);
+        for (final String amount : SUMMARY_AMOUNTS) {
+            assertEquals(singleSummary.get(amount), bulkSummary.get(amount), "summary " + amount);
+        }
+
+        final List<Map> singleSchedule = this.loanTransactionHelper.getLoanRepaymentSchedule(this.requestSpec, this.responseSpec,
+                singleLoanId);
+        final List<Map> bulkSchedule = this.loanTransactionHelper.getLoanRepaymentSchedule(this.requestSpec, this.responseSpec,
+                bulkLoanId);
+        assertEquals(singleSchedule.size(), bulkSchedule.size());
+        for (int i = 0; i < singleSchedule.size(); i++) {
+            assertEquals(singleSchedule.get(i).get("dueDate"), bulkSchedule.get(i).get("dueDate"), "period " + i + " dueDate");
+            for (final String amount : PERIOD_AMOUNTS) {
+                assertEquals(singleSchedule.get(i).get(amount), bulkSchedule.get(i).get(amount), "period " + i + " " + amount);
+            }
+        }
+    }
+
+    private void saveCollectionSheet(final String transactionDate, final Integer loanId, final String amount) {
+        final Map<String, Object> repayment = new HashMap<>();
+        repayment.put("loanId", loanId);
+        repayment.put("transactionAmount", amount);
+        final List<Map<String, Object>> repayments = new ArrayList<>();
+        repayments.add(repayment);
+
+        final Map<String, Object> collectionSheet = new HashMap<>();
+        collectionSheet.put("dateFormat", "dd MMMM yyyy");
+        collectionSheet.put("locale", "en");
+        collectionSheet.put("transactionDate", transactionDate);
+        collectionSheet.put("actualDisbursementDate", transactionDate);
+        collectionSheet.put("bulkRepaymentTransactions", repayments);
+        collectionSheet.put("bulkDisbursementTransactions", new ArrayList<>());
+        collectionSheet.put("bulkSavingsDueTransactions", new ArrayList<>());
+        Utils.performServerPost(this.requestSpec, this.responseSpec, SAVE_COLLECTION_SHEET_URL, new Gson().toJson(collectionSheet), null);
+    }
+
+    private Integer disbursedLoan(final Integer clientId, final Integer loanProductId) {
+        final List<HashMap> collaterals = new ArrayList<>();
+        final Integer collateralId = CollateralManagementHelper.createCollateralProduct(this.requestSpec, this.responseSpec);
+        final Integer clientCollateralId = CollateralManagementHelper.createClientCollateral(this.requestSpec, this.responseSpec,
+                clientId.toString(), collateralId);
+        final HashMap<String, String> collateral = new HashMap<>();
+        collateral.put("clientCollateralId", clientCollateralId.toString());
+        collateral.put("quantity", BigDecimal.ONE.toString());
+        collaterals.add(collateral);
+
+        final String loanApplication = new LoanApplicationTestBuilder().withPrincipal("2400").withLoanTermFrequency("6")
+                .withLoanTermFrequencyAsMonths().withNumberOfRepayments("6").withRepaymentEveryAfter("1")
+                .withRepaymentFrequencyTypeAsMonths().withInterestRatePerPeriod("2").withExpectedDisbursementDate("04 April 2012")
+                .withCollaterals(collaterals).withSubmittedOnDate("02 April 2012")
+                .build(clientId.toString(), loanProductId.toString(), null);
+        final Integer loanId = this.loanTransactionHelper.getLoanId(loanApplication);
+        assertNotNull(loanId);
+
+        this.loanTransactionHelper.approveLoan("02 April 2012", loanId);
+        final String loanDetails = this.loanTransactionHelper.getLoanDetails(this.requestSpec, this.responseSpec, loanId);
+        this.loanTransactionHelper.disburseLoan("04 April 2012", loanId, JsonPath.from(loanDetails).get("netDisbursalAmount").toString());
+        return loanId;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.integrationtests;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.fineract.infrastructure.core.filters.SelectCountResponseFilter;
+import org.apache.fineract.integrationtests.common.ClientHelper;
+import org.apache.fineract.integrationtests.common.CollateralManagementHelper;
+import org.apache.fineract.integrationtests.common.Utils;
+import org.apache.fineract.integrationtests.common.loans.LoanApplicationTestBuilder;
+import org.apache.fineract.integrationtests.common.loans.LoanProductTestBuilder;
+import org.apache.fineract.integrationtests.common.loans.LoanTransactionHelper;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Holds a repayment, which loads the loan through the {@code TRANSACTIONS} fetch plan, to the selects that plan allows.
+ *
+ * The selects are counted per table by the server for the repayment request alone and returned in the
+ * {@link SelectCountResponseFilter#HEADER} header, which the integration test server enables with
+ * {@code fineract.jpa.select-count-header.enabled}; the test is skipped against a server without it.
+ */
+@SuppressWarnings("rawtypes")
+public class LoanFetchPlanIntegrationTest {
+
+    // collections outside the TRANSACTIONS plan, which the ALL plan loads for every command
+    private static final String[] TABLES_OUTSIDE_PLAN = { "m_loan_officer_assignment_history", "m_loan_collateral" };
+
+    private RequestSpecification requestSpec;
+    private ResponseSpecification responseSpec;
+    private LoanTransactionHelper loanTransactionHelper;
+
+    @BeforeEach
+    public void setup() {
+        Utils.initializeRESTAssured();
+        this.requestSpec = new RequestSpecBuilder().setContentType(ContentType.JSON).build();
+        this.requestSpec.header("Authorization", "Basic " + Utils.loginIntoServerAndGetBase64EncodedAuthenticationKey());
+        this.responseSpec = new ResponseSpecBuilder().expectStatusCode(200).build();
+        this.loanTransactionHelper = new LoanTransactionHelper(this.requestSpec, this.responseSpec);
+    }
+
+    @Test
+    public void repaymentOnlySelectsWhatItsFetchPlanNeeds() {
+        final Integer clientId = ClientHelper.createClient(this.requestSpec, this.responseSpec, "01 January 2012");
+
+        final Map<String, Integer> fewInstallments = selectsForRepayment(clientId, 4);
+        final Map<String, Integer> manyInstallments = selectsForRepayment(clientId, 24);
+
+        for (final String table : TABLES_OUTSIDE_PLAN) {
+            assertFalse(manyInstallments.containsKey(table), "Repayment selected from " + table + ": " + manyInstallments);
+        }
+        // the installments come with the loan in one select, however many there are
+        assertTrue(manyInstallments.getOrDefault("m_loan_repayment_schedule", 0) <= 1,
+                "Repayment selected the installments more than once: " + manyInstallments);
+        assertEquals(fewInstallments, manyInstallments, "Repayment selects grew with the number of installments");
+    }
+
+    private Map<String, Integer> selectsForRepayment(final Integer clientId, final int installments) {
+        final Integer loanId = disbursedLoan(clientId, installments);
+        // the first repayment warms the product, configuration and mapping caches
+        this.loanTransactionHelper.makeRepayment("04 May 2012", 100.0f, loanId);
+
+        final String selects = given().spec(this.requestSpec).body(repayment("04 June 2012", 100.0f)).expect().spec(this.responseSpec)
+                .log().ifError().when()
+                .post("/fineract-provider/api/v1/loans/" + loanId + "/transactions?command=repayment&" + Utils.TENANT_IDENTIFIER)
+                .andReturn().getHeader(SelectCountResponseFilter.HEADER);
+        Assumptions.assumeTrue(selects != null, "The server does not report selects, fineract.jpa.select-count-header.enabled is off");
+        return parse(selects);
+    }
+
+    private static String repayment(final String transactionDate, final Float transactionAmount) {
+        final HashMap<String, String> map = new HashMap<>();
+        map.put("locale", "en");
+        map.put("dateFormat", "dd MMMM yyyy");
+        map.put("transactionDate", transactionDate);
+        map.put("transactionAmount", transactionAmount.toString());
+        return new Gson().toJson(map);
+    }
+
+    private static Map<String, Integer> parse(final String selects) {
+        final Map<String, Integer> selectsPerTable = new TreeMap<>();
+        for (final String entry : selects.split(",")) {
+            if (!entry.isEmpty()) {
+                final String[] tableAndCount = entry.split("=");
+                selectsPerTable.put(tableAndCount[0], Integer.valueOf(tableAndCount[1]));
+            }
+        }
+        return selectsPerTable;
+    }
+
+    private Integer disbursedLoan(final Integer clientId, final int installments) {
+        final String repayments = Integer.toString(installments);
+        final Integer loanProductId = this.loanTransactionHelper
+                .getLoanProductId(new LoanProductTestBuilder().withNumberOfRepayments(repayments).withRepaymentTypeAsMonth().build(null));
+
+        final List<HashMap> collaterals = new ArrayList<>();
+        final Integer collateralId = CollateralManagementHelper.createCollateralProduct(this.requestSpec, this.responseSpec);
+        final Integer clientCollateralId = CollateralManagementHelper.createClientCollateral(this.requestSpec, this.responseSpec,
+                clientId.toString(), collateralId);
+        final HashMap<String, String> collateral = new HashMap<>();
+        collateral.put("clientCollateralId", clientCollateralId.toString());
+        collateral.put("quantity", BigDecimal.ONE.toString());
+        collaterals.add(collateral);
+
+        final String loanApplication = new LoanApplicationTestBuilder().withPrincipal("5000").withLoanTermFrequency(repayments)
+                .withLoanTermFrequencyAsMonths().withNumberOfRepayments(repayments).withRepaymentEveryAfter("1")
+                .withRepaymentFrequencyTypeAsMonths().withInterestRatePerPeriod("2").withExpectedDisbursementDate("04 April 2012")
+                .withCollaterals(collaterals).withSubmittedOnDate("02 April 2012")
+                .build(clientId.toString(), loanProductId.toString(), null);
+        final Integer loanId = this.loanTransactionHelper.getLoanId(loanApplication);
+        assertNotNull(loanId);
+
+        this.loanTransactionHelper.approveLoan("02 April 2012", loanId);
+        final String loanDetails = this.loanTransactionHelper.getLoanDetails(this.requestSpec, this.responseSpec, loanId);
+        this.loanTransactionHelper.disburseLoan("04 April 2012", loanId, JsonPath.from(loanDetails).get("netDisbursalAmount").toString());
+        return loanId;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.integrationtests;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import java.util.List;
+import org.apache.fineract.integrationtests.common.ClientHelper;
+import org.apache.fineract.integrationtests.common.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Reads a large streamed response and expects it to be sent in chunks, i.e. without being buffered to compute its
+ * length, and gzip compressed when the client accepts it.
+ */
+public class StreamedResponseIntegrationTest {
+
+    private static final String AUDITS_URL = "/fineract-provider/api/v1/audits?includeJson=true&" + Utils.TENANT_IDENTIFIER;
+
+    private RequestSpecification requestSpec;
+    private ResponseSpecification responseSpec;
+
+    @BeforeEach
+    public void setup() {
+        Utils.initializeRESTAssured();
+        this.requestSpec = new RequestSpecBuilder().setContentType(ContentType.JSON).build();
+        this.requestSpec.header("Authorization", "Basic " + Utils.loginIntoServerAndGetBase64EncodedAuthenticationKey());
+        this.responseSpec = new ResponseSpecBuilder().expectStatusCode(200).build();
+    }
+
+    @Test
+    public void auditsAreStreamedInGzipChunks() {
+        // enough audit entries for the response to outgrow any buffer held back before the status is sent
+        for (int i = 0; i < 30; i++) {
+            ClientHelper.createClient(this.requestSpec, this.responseSpec);
+        }
+
+        final Response response = given().spec(this.requestSpec).header("Accept-Encoding", "gzip").expect().spec(this.responseSpec)
+                .when().get(AUDITS_URL).andReturn();
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("chunked", response.getHeader("Transfer-Encoding"));
+        assertNull(response.getHeader("Content-Length"));
+        final List<Object> audits = response.jsonPath().getList("$");
+        assertTrue(audits.size() >= 30, "only " + audits.size() + " audit entries");
+    }
+
+    @Test
+    public void auditsAreStreamedUncompressedWithoutGzip() {
+        ClientHelper.createClient(this.requestSpec, this.responseSpec);
+
+        final Response response = given().spec(this.requestSpec).header("Accept-Encoding", "identity").expect().spec(this.responseSpec)
+                .when().get(AUDITS_URL).andReturn();
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertTrue(response.jsonPath().getList("$").size() > 0);
+    }
+}